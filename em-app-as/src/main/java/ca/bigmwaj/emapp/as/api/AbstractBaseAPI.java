@@ -1,7 +1,15 @@
 package ca.bigmwaj.emapp.as.api;
 
+import ca.bigmwaj.emapp.as.api.shared.ExportFormat;
+import ca.bigmwaj.emapp.as.api.shared.ExportWriter;
 import ca.bigmwaj.emapp.as.api.shared.Message;
 import ca.bigmwaj.emapp.as.api.shared.MessageType;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Consumer;
 
 public abstract class AbstractBaseAPI {
 
@@ -17,6 +25,24 @@ public abstract class AbstractBaseAPI {
         return new Message(MessageType.ERROR, message);
     }
 
+    /**
+     * Streams an export to the response: {@code exporter} receives the row consumer and is
+     * run while the response is written, so rows are never buffered.
+     */
+    protected <D> ResponseEntity<StreamingResponseBody> _export(String fileName, ExportFormat format, Consumer<Consumer<D>> exporter) {
+        StreamingResponseBody body = out -> {
+            try (var writer = new ExportWriter(format, out)) {
+                exporter.accept(writer::write);
+            }
+        };
+
+        var contentDisposition = ContentDisposition.attachment()
+                .filename(fileName + "." + format.name())
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .contentType(format.getMediaType())
+                .body(body);
+    }
 }
-
-
@@ -1,5 +1,8 @@
 package ca.bigmwaj.emapp.as.api;
 
+import ca.bigmwaj.emapp.as.dao.shared.KeysetCursorException;
+import ca.bigmwaj.emapp.as.service.UnknownUserException;
+import ca.bigmwaj.emapp.as.shared.MessageConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -63,6 +66,22 @@ public class GlobalExceptionHandler {
                 .body("<b>Erreur de validation de votre requête:</b><ul>%s</ul>".formatted(msg));
     }
 
+    @ExceptionHandler(KeysetCursorException.class)
+    public ResponseEntity<String> handleKeysetCursorException(KeysetCursorException ex) {
+        logger.error("Curseur de pagination invalide", ex);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(MessageConstants.MSG0014);
+    }
+
+    @ExceptionHandler(UnknownUserException.class)
+    public ResponseEntity<String> handleUnknownUserException(UnknownUserException ex) {
+        logger.error("Utilisateurs inexistants {}", ex.getUserIds(), ex);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body("- Erreur de validation de votre requête:\n" + ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentConversionNotSupportedException.class)
     public ResponseEntity<String> handleValidationException(MethodArgumentConversionNotSupportedException ex) {
         logger.error("Erreur de conversion du champ {}. Message {}", ex.getName(), ex.getLocalizedMessage(), ex);
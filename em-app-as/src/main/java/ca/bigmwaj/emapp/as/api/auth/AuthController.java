@@ -4,11 +4,14 @@ import ca.bigmwaj.emapp.as.api.auth.security.JwtTokenProvider;
 import ca.bigmwaj.emapp.as.dto.auth.ErrorResponse;
 import ca.bigmwaj.emapp.as.dto.auth.LoginRequest;
 import ca.bigmwaj.emapp.as.dto.auth.LoginResponse;
+import ca.bigmwaj.emapp.as.service.LoginRejectedException;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +19,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -40,18 +44,22 @@ public class AuthController {
     /**
      * Authenticates user with username and password.
      * Returns JWT token on successful authentication.
+     * Returns 429 after too many failed attempts for the username or the client address,
+     * and 503 when the password checks are saturated, both with a {@code Retry-After} header.
      *
      * @param loginRequest the login credentials
+     * @param request      the HTTP request, whose client address is tracked
      * @return JWT token and user information or error response
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
             logger.info("Login attempt for username: {}", loginRequest.getUsername());
 
             // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                    UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.getUsername(), loginRequest.getPassword()));
+            var authRequest = UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.getUsername(), loginRequest.getPassword());
+            authRequest.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Authentication authentication = authenticationManager.authenticate(authRequest);
 
             // Set authentication in security context
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -69,6 +77,20 @@ public class AuthController {
                     "Invalid username or password"
             );
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        } catch (LoginRejectedException e) {
+            logger.warn("Login rejected for username: {} ({})", loginRequest.getUsername(), e.getReason());
+            var status = e.getReason() == LoginRejectedException.Reason.TOO_MANY_FAILURES
+                    ? HttpStatus.TOO_MANY_REQUESTS
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            ErrorResponse errorResponse = new ErrorResponse(
+                    status.value(),
+                    status == HttpStatus.TOO_MANY_REQUESTS
+                            ? "Too many failed login attempts. Please try again later."
+                            : "Authentication is temporarily unavailable. Please try again later."
+            );
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+                    .body(errorResponse);
         } catch (Exception e) {
             logger.error("Error during login for username: {}", loginRequest.getUsername(), e);
             ErrorResponse errorResponse = new ErrorResponse(
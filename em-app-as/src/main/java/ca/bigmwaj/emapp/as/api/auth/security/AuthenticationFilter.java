@@ -1,5 +1,6 @@
 package ca.bigmwaj.emapp.as.api.auth.security;
 
+import ca.bigmwaj.emapp.as.service.platform.PermissionService;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -27,6 +28,8 @@ public class AuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
     @Autowired
     private JwtTokenProvider tokenProvider;
+    @Autowired
+    private PermissionService permissionService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) {
@@ -61,11 +64,13 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         var authParam = request.getHeader("Authorization");
         var jwt = authParam.substring(BEARER_PREFIX.length());
 
-        if (tokenProvider.validateToken(jwt)) {
-            var username = tokenProvider.getUsernameFromJWT(jwt);
-            var authorizedClientRegistrationId = tokenProvider.getAuthorizedClientRegistrationIdFromJWT(jwt);
-            var oAuth2User = new DefaultOAuth2User(Collections.emptyList(), Map.of("username", username), "username");
-            var authentication = new OAuth2AuthenticationToken(oAuth2User, Collections.emptyList(), authorizedClientRegistrationId);
+        var claims = tokenProvider.getVerifiedClaims(jwt).orElse(null);
+        if (claims != null) {
+            var username = claims.getSubject();
+            var authorizedClientRegistrationId = tokenProvider.getAuthorizedClientRegistrationId(claims);
+            var authorities = permissionService.getAuthorities(username);
+            var oAuth2User = new DefaultOAuth2User(authorities, Map.of("username", username), "username");
+            var authentication = new OAuth2AuthenticationToken(oAuth2User, authorities, authorizedClientRegistrationId);
             authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
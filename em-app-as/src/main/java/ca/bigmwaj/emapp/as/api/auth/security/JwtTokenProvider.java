@@ -1,9 +1,13 @@
 package ca.bigmwaj.emapp.as.api.auth.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,22 +16,45 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
-
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * Generates and verifies the JWT tokens.
+ *
+ * <p>The signing key and the parser are built once. The claims of the verified tokens are kept
+ * in a bounded cache keyed by the SHA-256 digest of the token (the tokens themselves are not
+ * kept), until the token expires, so a client sending the same bearer token on every request
+ * has its signature verified once.
+ */
 @Component
 public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final long jwtExpirationMs;
+
+    private final SecretKey signingKey;
+
+    private final JwtParser parser;
+
+    private final int claimsCacheMaximumSize;
 
-    @Value("${app.jwt.expiration:86400000}") // 24 hours in milliseconds
-    private long jwtExpirationMs;
+    private final LinkedHashMap<ByteBuffer, VerifiedClaims> claimsCache = new LinkedHashMap<>(16, 0.75f, true);
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Autowired
+    public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
+                            @Value("${app.jwt.expiration:86400000}") long jwtExpirationMs, // 24 hours in milliseconds
+                            @Value("${app.jwt.claims-cache-maximum-size:10000}") int claimsCacheMaximumSize) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.claimsCacheMaximumSize = claimsCacheMaximumSize;
     }
 
     /**
@@ -83,7 +110,7 @@ public class JwtTokenProvider {
                 .claim("provider", provider)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -106,25 +133,69 @@ public class JwtTokenProvider {
                 .claim("provider", "local")
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies the token once, and returns its claims from the cache until it expires.
+     *
+     * @return the claims, or empty when the token is invalid or expired
+     */
+    public Optional<Claims> getVerifiedClaims(String token) {
+        var key = digest(token);
+        var now = System.currentTimeMillis();
+
+        synchronized (claimsCache) {
+            var cached = claimsCache.get(key);
+            if (cached != null) {
+                if (now < cached.expiresAt()) {
+                    return Optional.of(cached.claims());
+                }
+                claimsCache.remove(key);
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("Invalid JWT token", ex);
+            return Optional.empty();
+        }
+
+        // Tokens without expiration are verified on every request
+        if (claims.getExpiration() != null) {
+            synchronized (claimsCache) {
+                claimsCache.put(key, new VerifiedClaims(claims, claims.getExpiration().getTime()));
+                var iterator = claimsCache.entrySet().iterator();
+                while (claimsCache.size() > claimsCacheMaximumSize && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+        return Optional.of(claims);
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public String getUsernameFromJWT(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
+        return parser.parseSignedClaims(token)
                 .getPayload().getSubject();
     }
 
     public String getAuthorizedClientRegistrationIdFromJWT(String token) {
-        var claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getAuthorizedClientRegistrationId(parser.parseSignedClaims(token).getPayload());
+    }
 
+    public String getAuthorizedClientRegistrationId(Claims claims) {
         // Try to get provider claim (new format)
         Object provider = claims.get("provider");
         if (provider != null) {
@@ -142,10 +213,7 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            parser.parseSignedClaims(authToken);
             return true;
         } catch (Exception ex) {
             logger.debug("Invalid JWT token", ex);
@@ -153,6 +221,12 @@ public class JwtTokenProvider {
         return false;
     }
 
+    public int getClaimsCacheSize() {
+        synchronized (claimsCache) {
+            return claimsCache.size();
+        }
+    }
+
     /**
      * Gets the JWT expiration time in milliseconds.
      *
@@ -161,4 +235,7 @@ public class JwtTokenProvider {
     public long getExpirationMs() {
         return jwtExpirationMs;
     }
+
+    private record VerifiedClaims(Claims claims, long expiresAt) {
+    }
 }
@@ -2,6 +2,7 @@ package ca.bigmwaj.emapp.as.api.auth.security;
 
 import ca.bigmwaj.emapp.as.service.platform.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -133,13 +134,15 @@ public class SecurityConfig {
 
     /**
      * Password encoder bean for hashing and validating passwords.
-     * Uses BCrypt with default strength (10 rounds).
+     * Uses BCrypt with the strength {@code app.security.password.bcrypt-strength} (default 10 rounds).
+     * Static, so that the user service can depend on it while this configuration depends on the user service.
      *
+     * @param strength the log rounds of the new hashes
      * @return BCryptPasswordEncoder instance
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${app.security.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
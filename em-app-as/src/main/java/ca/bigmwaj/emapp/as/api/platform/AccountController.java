@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.api.platform;
 
 import ca.bigmwaj.emapp.as.api.AbstractBaseAPI;
+import ca.bigmwaj.emapp.as.api.shared.ExportFormat;
 import ca.bigmwaj.emapp.as.api.shared.Message;
 import ca.bigmwaj.emapp.as.api.shared.ResponseMessage;
 import ca.bigmwaj.emapp.as.dto.platform.AccountContactDto;
@@ -19,6 +20,7 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collections;
 
@@ -45,11 +47,19 @@ public class AccountController extends AbstractBaseAPI {
         return ResponseEntity.ok(service.search(sr));
     }
 
+    @Operation(description = "Export Accounts by criteria, as NDJSON or CSV, ignoring the pagination")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Valid @ParameterObject AccountSearchCriteria sr,
+            @RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return _export("accounts", format, consumer -> service.export(sr, consumer));
+    }
+
     @Operation(description = "Get account by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<AccountDto>> findById(
             @Parameter(description = "The account's ID", required = true)
-            @Positive @PathVariable Short id) {
+            @Positive @PathVariable Long id) {
         return ResponseEntity.ok(new ResponseMessage<>(service.findById(id)));
     }
 
@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.api.platform;
 
 import ca.bigmwaj.emapp.as.api.AbstractBaseAPI;
+import ca.bigmwaj.emapp.as.api.shared.ExportFormat;
 import ca.bigmwaj.emapp.as.api.shared.Message;
 import ca.bigmwaj.emapp.as.api.shared.ResponseMessage;
 import ca.bigmwaj.emapp.as.dto.platform.ContactDto;
@@ -17,6 +18,7 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.*;
 
@@ -41,6 +43,14 @@ public class ContactController extends AbstractBaseAPI {
         return ResponseEntity.ok(service.search(sr));
     }
 
+    @Operation(description = "Export Contacts by criteria, as NDJSON or CSV, ignoring the pagination")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Valid @ParameterObject ContactSearchCriteria sr,
+            @RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return _export("contacts", format, consumer -> service.export(sr, consumer));
+    }
+
     @Operation(description = "Get contact by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<ContactDto>> findById(
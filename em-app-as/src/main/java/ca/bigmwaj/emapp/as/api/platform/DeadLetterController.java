@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.api.platform;
 
 import ca.bigmwaj.emapp.as.api.AbstractBaseAPI;
+import ca.bigmwaj.emapp.as.api.shared.ExportFormat;
 import ca.bigmwaj.emapp.as.api.shared.Message;
 import ca.bigmwaj.emapp.as.api.shared.ResponseMessage;
 import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.*;
 
@@ -44,6 +46,14 @@ public class DeadLetterController extends AbstractBaseAPI {
         return ResponseEntity.ok(service.search(sr));
     }
 
+    @Operation(description = "Export Dead Letters by criteria, as NDJSON or CSV, ignoring the pagination")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Valid @ParameterObject DeadLetterSearchCriteria sr,
+            @RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return _export("dead-letters", format, consumer -> service.export(sr, consumer));
+    }
+
     @Operation(description = "Get dead letter by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<DeadLetterDto>> findById(
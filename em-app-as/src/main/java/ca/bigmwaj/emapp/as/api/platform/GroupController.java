@@ -9,6 +9,7 @@ import ca.bigmwaj.emapp.as.dto.platform.GroupRoleDto;
 import ca.bigmwaj.emapp.as.dto.platform.GroupSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.GroupUserDto;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import ca.bigmwaj.emapp.as.dto.shared.MembershipChangeDto;
 import ca.bigmwaj.emapp.as.service.platform.GroupService;
 import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -50,7 +51,7 @@ public class GroupController extends AbstractBaseAPI {
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<GroupDto>> findById(
             @Parameter(description = "The group's ID", required = true)
-            @Positive @PathVariable Short id) {
+            @Positive @PathVariable Long id) {
         return ResponseEntity.ok(new ResponseMessage<>(service.findById(id)));
     }
 
@@ -58,7 +59,7 @@ public class GroupController extends AbstractBaseAPI {
     @GetMapping("/{id}/group-roles")
     public ResponseEntity<DataListDto<GroupRoleDto>> getGroupRoles(
             @Parameter(description = "The group's ID", required = true)
-            @Positive @PathVariable Short id,
+            @Positive @PathVariable Long id,
             @Valid @ParameterObject DefaultSearchCriteria sc) {
         return ResponseEntity.ok(service.findGroupRoles(id, sc));
     }
@@ -67,11 +68,22 @@ public class GroupController extends AbstractBaseAPI {
     @GetMapping("/{id}/group-users")
     public ResponseEntity<DataListDto<GroupUserDto>> getGroupUsers(
             @Parameter(description = "The group's ID", required = true)
-            @Positive @PathVariable Short id,
+            @Positive @PathVariable Long id,
             @Valid @ParameterObject DefaultSearchCriteria sc) {
         return ResponseEntity.ok(service.findGroupUsers(id, sc));
     }
 
+    @Operation(description = "Add and remove group users by ID, without loading the other ones")
+    @PatchMapping("/{id}/group-users")
+    public ResponseEntity<Message> changeGroupUsers(
+            @Parameter(description = "The group's ID", required = true)
+            @Positive @PathVariable Long id,
+            @Parameter(description = "The user IDs to add and to remove", required = true)
+            @Valid @RequestBody MembershipChangeDto change) {
+        service.changeGroupUsers(id, change);
+        return ResponseEntity.ok(_success("Group users successfully changed."));
+    }
+
     @Operation(description = "Create a new group")
     @PostMapping
     public ResponseEntity<ResponseMessage<GroupDto>> create(
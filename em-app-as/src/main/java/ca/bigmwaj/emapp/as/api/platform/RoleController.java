@@ -9,6 +9,7 @@ import ca.bigmwaj.emapp.as.dto.platform.RolePrivilegeDto;
 import ca.bigmwaj.emapp.as.dto.platform.RoleSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.RoleUserDto;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import ca.bigmwaj.emapp.as.dto.shared.MembershipChangeDto;
 import ca.bigmwaj.emapp.as.service.platform.RoleService;
 import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -50,7 +51,7 @@ public class RoleController extends AbstractBaseAPI {
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<RoleDto>> findById(
             @Parameter(description = "The role's ID", required = true)
-            @Positive @PathVariable Short id) {
+            @Positive @PathVariable Long id) {
         return ResponseEntity.ok(new ResponseMessage<>(service.findById(id)));
     }
 
@@ -58,7 +59,7 @@ public class RoleController extends AbstractBaseAPI {
     @GetMapping("/{id}/role-privileges")
     public ResponseEntity<DataListDto<RolePrivilegeDto>> getRolePrivileges(
             @Parameter(description = "The role's ID", required = true)
-            @Positive @PathVariable Short id,
+            @Positive @PathVariable Long id,
             @Valid @ParameterObject DefaultSearchCriteria sc) {
         return ResponseEntity.ok(service.findRolePrivileges(id, sc));
     }
@@ -67,11 +68,22 @@ public class RoleController extends AbstractBaseAPI {
     @GetMapping("/{id}/role-users")
     public ResponseEntity<DataListDto<RoleUserDto>> getUserRoles(
             @Parameter(description = "The role's ID", required = true)
-            @Positive @PathVariable Short id,
+            @Positive @PathVariable Long id,
             @Valid @ParameterObject DefaultSearchCriteria sc) {
         return ResponseEntity.ok(service.findRoleUsers(id, sc));
     }
 
+    @Operation(description = "Add and remove role users by ID, without loading the other ones")
+    @PatchMapping("/{id}/role-users")
+    public ResponseEntity<Message> changeRoleUsers(
+            @Parameter(description = "The role's ID", required = true)
+            @Positive @PathVariable Long id,
+            @Parameter(description = "The user IDs to add and to remove", required = true)
+            @Valid @RequestBody MembershipChangeDto change) {
+        service.changeRoleUsers(id, change);
+        return ResponseEntity.ok(_success("Role users successfully changed."));
+    }
+
     @Operation(description = "Create a new role")
     @PostMapping
     public ResponseEntity<ResponseMessage<RoleDto>> create(
@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.api.platform;
 
 import ca.bigmwaj.emapp.as.api.AbstractBaseAPI;
+import ca.bigmwaj.emapp.as.api.shared.ExportFormat;
 import ca.bigmwaj.emapp.as.api.shared.Message;
 import ca.bigmwaj.emapp.as.api.shared.ResponseMessage;
 import ca.bigmwaj.emapp.as.dto.platform.UserDto;
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.*;
 
@@ -44,11 +46,19 @@ public class UserController extends AbstractBaseAPI {
         return ResponseEntity.ok(service.search(sr));
     }
 
+    @Operation(description = "Export Users by criteria, as NDJSON or CSV, ignoring the pagination")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Valid @ParameterObject UserSearchCriteria sr,
+            @RequestParam(defaultValue = "ndjson") ExportFormat format) {
+        return _export("users", format, consumer -> service.export(sr, consumer));
+    }
+
     @Operation(description = "Get user by ID")
     @GetMapping("/{id}")
     public ResponseEntity<ResponseMessage<UserDto>> findById(
             @Parameter(description = "The user's ID", required = true)
-            @Positive @PathVariable Short id) {
+            @Positive @PathVariable Long id) {
         return ResponseEntity.ok(new ResponseMessage<>(service.findById(id)));
     }
 
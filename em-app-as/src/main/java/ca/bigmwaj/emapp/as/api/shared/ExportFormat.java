@@ -0,0 +1,16 @@
+package ca.bigmwaj.emapp.as.api.shared;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+@Getter
+public enum ExportFormat {
+    ndjson(MediaType.parseMediaType("application/x-ndjson")),
+    csv(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+}
@@ -0,0 +1,116 @@
+package ca.bigmwaj.emapp.as.api.shared;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes exported DTOs one by one to a response stream, without buffering them.
+ *
+ * <p>NDJSON writes one JSON document per line. CSV writes one column per top level property;
+ * the header is taken from the first row, and nested objects or lists are written as JSON text.
+ * Text values that a spreadsheet would run as a formula are prefixed with a quote.
+ */
+public class ExportWriter implements AutoCloseable {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ExportFormat format;
+
+    private final Writer writer;
+
+    private List<String> header;
+
+    public ExportWriter(ExportFormat format, OutputStream out) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public void write(Object dto) {
+        try {
+            switch (format) {
+                case ndjson -> {
+                    writer.write(OBJECT_MAPPER.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+                case csv -> writeCsv(OBJECT_MAPPER.valueToTree(dto));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsv(JsonNode row) throws IOException {
+        if (header == null) {
+            header = new ArrayList<>();
+            row.fieldNames().forEachRemaining(header::add);
+            writeCsvLine(header);
+        }
+
+        var values = new ArrayList<String>(header.size());
+        for (var column : header) {
+            var value = row.get(column);
+            if (value == null || value.isNull()) {
+                values.add("");
+            } else if (value.isTextual()) {
+                values.add(escapeFormula(value.asText()));
+            } else if (value.isValueNode()) {
+                values.add(value.asText());
+            } else {
+                values.add(value.toString());
+            }
+        }
+        writeCsvLine(values);
+    }
+
+    private void writeCsvLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Prefixes with a quote a text starting with =, +, -, @, tab or carriage return, so that a
+     * spreadsheet opening the file shows it instead of running it as a formula (CSV injection).
+     * The cell is then always quoted.
+     */
+    static String escapeFormula(String value) {
+        if (value.isEmpty() || "=+-@\t\r".indexOf(value.charAt(0)) < 0) {
+            return value;
+        }
+        return "'" + value;
+    }
+
+    static String escapeCsv(String value) {
+        if (value.startsWith("'")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
@@ -1,83 +1,547 @@
 package ca.bigmwaj.emapp.as.dao;
 
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
+import ca.bigmwaj.emapp.as.dao.shared.KeysetCursor;
+import ca.bigmwaj.emapp.as.dao.shared.KeysetPage;
 import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dao.shared.QueryPlanCache;
+import ca.bigmwaj.emapp.as.dao.shared.QueryShape;
+import ca.bigmwaj.emapp.as.dao.shared.SearchIndex;
+import ca.bigmwaj.emapp.as.dao.shared.SearchJoin;
+import ca.bigmwaj.emapp.as.dao.shared.SearchMetrics;
+import ca.bigmwaj.emapp.as.dao.shared.SearchTotalCache;
 import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
-import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
 import ca.bigmwaj.emapp.as.entity.common.AbstractBaseEntity;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.query.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @NoRepositoryBean
 public interface AbstractDao<E extends AbstractBaseEntity, ID> extends JpaRepository<E, ID> {
 
+    String LOAD_GRAPH_HINT = "jakarta.persistence.loadgraph";
+
+    /**
+     * Maximum size of the "in" lists of the bulk statements, far below the 65,535 parameters
+     * MySQL accepts per prepared statement.
+     */
+    int IN_LIST_CHUNK_SIZE = 1_000;
+
     Class<E> getEntityClass();
 
     default QueryConfig prepareQueryConfig(QueryConfig.QueryConfigBuilder builder, AbstractSearchCriteria searchCriteria) {
+        return prepareQueryConfig(builder, searchCriteria, true);
+    }
+
+    /**
+     * @param sorted false for the queries that ignore the sort-by clauses (e.g., counts): they are
+     *               neither appended nor joined
+     */
+    default QueryConfig prepareQueryConfig(QueryConfig.QueryConfigBuilder builder, AbstractSearchCriteria searchCriteria, boolean sorted) {
         if (searchCriteria.getWhereClauses() != null && !searchCriteria.getWhereClauses().isEmpty()) {
-            searchCriteria.getWhereClauses().forEach(e -> QueryConfig.appendWhereClause(builder, e));
+            var existsSubqueries = getExistsSubqueries(searchCriteria, sorted);
+            var whereClauses = searchCriteria.getWhereClauses();
+            for (int i = 0; i < whereClauses.size(); i++) {
+                var existsSubquery = existsSubqueries.get(QueryConfig.resolveRootEntity(whereClauses.get(i)));
+                if (existsSubquery == null) {
+                    QueryConfig.appendWhereClause(builder, whereClauses.get(i), i);
+                } else {
+                    QueryConfig.appendWhereClause(builder, whereClauses.get(i), i, existsSubquery);
+                }
+            }
         }
 
-        if (searchCriteria.getSortByClauses() != null && !searchCriteria.getSortByClauses().isEmpty()) {
-            searchCriteria.getSortByClauses().forEach(e -> QueryConfig.appendSortByClause(builder, e));
+        var grouped = sorted && isGroupedByRoot(searchCriteria);
+        if (grouped) {
+            builder.withGroupByClause(QueryConfig.Q_ROOT + ".id");
+        }
+        if (sorted && searchCriteria.getSortByClauses() != null && !searchCriteria.getSortByClauses().isEmpty()) {
+            searchCriteria.getSortByClauses().forEach(e -> QueryConfig.appendSortByClause(builder, e, grouped));
         }
         return builder.build();
     }
 
+    /**
+     * DAO specific where clause. It must only reference named parameters, whose values are
+     * returned by {@link #getSpecialWhereClauseParams(AbstractSearchCriteria)}, so the JPQL text
+     * stays the same for every value.
+     */
     default String getSpecialWhereClause(AbstractSearchCriteria sc) {
         return null;
     }
 
-    default <T> TypedQuery<T> prepareQuery(EntityManager em, Class<T> klass, QueryConfig.QueryConfigBuilder builder, AbstractSearchCriteria sc) {
+    default Map<String, Object> getSpecialWhereClauseParams(AbstractSearchCriteria sc) {
+        return Map.of();
+    }
 
-        builder.withSpecialWhereClause(getSpecialWhereClause(sc));
+    default <T> TypedQuery<T> prepareQuery(EntityManager em, QueryPlanCache plans, Class<T> klass, String baseQuery, AbstractSearchCriteria sc) {
+        return prepareQuery(em, plans, klass, baseQuery, sc, null);
+    }
 
-        var queryConfig = prepareQueryConfig(builder, sc);
+    default <T> TypedQuery<T> prepareQuery(EntityManager em, QueryPlanCache plans, Class<T> klass, String baseQuery, AbstractSearchCriteria sc, KeysetCursor cursor) {
+        return prepareQuery(em, plans, klass, baseQuery, sc, cursor, true);
+    }
 
-        TypedQuery<T> query = em.createQuery(queryConfig.getQueryString(), klass);
+    default <T> TypedQuery<T> prepareQuery(EntityManager em, QueryPlanCache plans, Class<T> klass, String baseQuery, AbstractSearchCriteria sc, KeysetCursor cursor, boolean sorted) {
+        var specialWhereClause = getSpecialWhereClause(sc);
+        var shape = QueryShape.of(baseQuery, specialWhereClause, sc, cursor, sorted);
+
+        var queryConfig = plans.getOrCompile(shape, s -> {
+            var builder = QueryConfig.builder()
+                    .withBaseQuery(s.baseQuery())
+                    .withWhereClauseJoinOp(s.whereClauseJoinOp())
+                    .withSpecialWhereClause(s.specialWhereClause());
+            if (cursor != null) {
+                cursor.appendTo(builder, s.sortByClauses().size());
+            }
+            return prepareQueryConfig(builder, sc, sorted);
+        });
 
-        var params = queryConfig.getParams();
-        queryConfig.getParams().keySet().forEach(k -> query.setParameter(k, params.get(k)));
+        SearchMetrics.onQuery(queryConfig.getQueryString());
+        TypedQuery<T> query = em.createQuery(queryConfig.getQueryString(), klass);
+        queryConfig.bind(query, sc.getWhereClauses());
+        getSpecialWhereClauseParams(sc).forEach(query::setParameter);
+        if (cursor != null) {
+            cursor.bind(query);
+        }
 
         return query;
     }
 
+    /**
+     * Joins the where and sort-by clauses may refer to, parents before children. A DAO with
+     * search joins is searched in two phases: a page of root ids is selected with only the joins
+     * the criteria need, then the roots are loaded by id (see {@link #getHydrateQuery()}).
+     */
+    default List<SearchJoin> getSearchJoins() {
+        return List.of();
+    }
+
+    /**
+     * @return the entity class of each alias whose {@code like} clauses the {@link SearchIndex} may answer
+     */
+    default Map<String, Class<?>> getSearchAliases() {
+        return Map.of();
+    }
+
     default String getQuery(String queryPart) {
-        return String.format("select %s from %s %s", queryPart, getEntityClass().getSimpleName(), QueryConfig.Q_ROOT);
+        return getQuery(queryPart, getSearchJoins());
+    }
+
+    default String getQuery(String queryPart, List<SearchJoin> joins) {
+        var query = new ArrayList<String>();
+        query.add(String.format("select %s from %s %s", queryPart, getEntityClass().getSimpleName(), QueryConfig.Q_ROOT));
+        joins.forEach(e -> query.add(e.clause()));
+        return String.join(" ", query);
+    }
+
+    /**
+     * @return the search joins the base query needs, with their parents: the joins of the sort-by
+     * clauses, and those of the where clauses that cannot be compiled into an exists subquery
+     */
+    default List<SearchJoin> getRequiredSearchJoins(AbstractSearchCriteria sc) {
+        return getRequiredSearchJoins(sc, true);
+    }
+
+    default List<SearchJoin> getRequiredSearchJoins(AbstractSearchCriteria sc, boolean sorted) {
+        return getRequiredSearchJoins(sc, sorted, Set.of());
+    }
+
+    /**
+     * @param selectedAliases the aliases the select list refers to, besides the root
+     */
+    default List<SearchJoin> getRequiredSearchJoins(AbstractSearchCriteria sc, boolean sorted, Set<String> selectedAliases) {
+        var joins = getSearchJoins();
+        var joinsByAlias = joins.stream()
+                .collect(Collectors.toMap(SearchJoin::alias, Function.identity()));
+
+        var aliases = new HashSet<>(selectedAliases);
+        if (sc.getWhereClauses() != null) {
+            sc.getWhereClauses().stream()
+                    .map(QueryConfig::resolveRootEntity)
+                    .filter(e -> joinsByAlias.containsKey(e) && joinsByAlias.get(e).existsSubquery() == null)
+                    .forEach(aliases::add);
+        }
+        if (sorted && sc.getSortByClauses() != null) {
+            sc.getSortByClauses().forEach(e -> aliases.add(QueryConfig.resolveRootEntity(e)));
+        }
+
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            var join = joins.get(i);
+            if (aliases.contains(join.alias()) && join.parent() != null) {
+                aliases.add(join.parent());
+            }
+        }
+        return joins.stream()
+                .filter(e -> aliases.contains(e.alias()))
+                .toList();
+    }
+
+    /**
+     * @return the exists subqueries of the where clauses, by alias, for the aliases the base query does not join
+     */
+    default Map<String, String> getExistsSubqueries(AbstractSearchCriteria sc, boolean sorted) {
+        var joined = getRequiredSearchJoins(sc, sorted).stream()
+                .map(SearchJoin::alias)
+                .collect(Collectors.toSet());
+        return getSearchJoins().stream()
+                .filter(e -> e.existsSubquery() != null && !joined.contains(e.alias()))
+                .collect(Collectors.toMap(SearchJoin::alias, SearchJoin::existsSubquery));
+    }
+
+    /**
+     * A sorted search whose joins include a collection, which can repeat a root, is grouped by
+     * root id: each root is one row, so a page counts roots, and each sort key is aggregated per
+     * root (see {@link QueryConfig#aggregate}).
+     */
+    default boolean isGroupedByRoot(AbstractSearchCriteria sc) {
+        return getRequiredSearchJoins(sc).stream().anyMatch(SearchJoin::collection);
+    }
+
+    /**
+     * Query of the first search phase (see {@link #isGroupedByRoot(AbstractSearchCriteria)}).
+     */
+    default String getIdQuery(String selection, AbstractSearchCriteria sc) {
+        return getQuery(selection, getRequiredSearchJoins(sc));
+    }
+
+    /**
+     * @return the root id followed by the sort keys
+     */
+    default String getIdSelection(AbstractSearchCriteria sc) {
+        var selection = new LinkedHashSet<String>();
+        selection.add(QueryConfig.Q_ROOT + ".id");
+        selection.addAll(getSortKeys(sc));
+        return String.join(", ", selection);
+    }
+
+    /**
+     * @return the expressions the search orders by, aggregated when it is grouped by root
+     */
+    default List<String> getSortKeys(AbstractSearchCriteria sc) {
+        if (sc.getSortByClauses() == null) {
+            return List.of();
+        }
+        var grouped = isGroupedByRoot(sc);
+        return sc.getSortByClauses()
+                .stream()
+                .map(e -> {
+                    var path = QueryConfig.resolveRootEntity(e) + "." + QueryConfig.resolveFieldName(e);
+                    return grouped ? QueryConfig.aggregate(path, QueryConfig.resolveSortType(e)) : path;
+                })
+                .toList();
+    }
+
+    /**
+     * Query of the second search phase, loading the roots of a page. It must have an
+     * {@code :ids} parameter; collections are left to batch fetching.
+     */
+    default String getHydrateQuery() {
+        return getQuery(QueryConfig.Q_ROOT, List.of()) + " where qRoot.id in (:ids)";
+    }
+
+    /**
+     * Entity graph of the associations of the fetch plan that can be fetched with the roots, or
+     * {@code null}. Hibernate cannot join fetch more than one list, so the other included
+     * collections are left to batch fetching when the mapper reads them.
+     */
+    default EntityGraph<E> getFetchGraph(EntityManager em, FetchPlan plan) {
+        return null;
+    }
+
+    default <T> TypedQuery<T> applyFetchGraph(TypedQuery<T> query, EntityManager em, FetchPlan plan) {
+        var graph = getFetchGraph(em, plan);
+        if (graph != null) {
+            query.setHint(LOAD_GRAPH_HINT, graph);
+        }
+        return query;
+    }
+
+    default List<E> hydrateByIds(EntityManager em, List<?> ids) {
+        return hydrateByIds(em, ids, FetchPlan.NONE);
+    }
+
+    /**
+     * Loads the roots of the given ids, in the order of the ids.
+     */
+    default List<E> hydrateByIds(EntityManager em, List<?> ids, FetchPlan plan) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var query = em.createQuery(getHydrateQuery(), getEntityClass())
+                .setParameter("ids", ids);
+        var entities = applyFetchGraph(query, em, plan)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(AbstractBaseEntity::getDefaultKey, Function.identity()));
+
+        return ids.stream()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Object idOf(Object row) {
+        return row instanceof Object[] columns ? columns[0] : row;
     }
 
     default String getFindAllQuery() {
         return getQuery(QueryConfig.Q_ROOT);
     }
 
-    default List<E> findAllByCriteria(EntityManager em, AbstractSearchCriteria sc) {
-        var whereClauseJoinOp = WhereClauseJoinOp.AND;
-        if (sc.getWhereClauseJoinOp() != null) {
-            whereClauseJoinOp = sc.getWhereClauseJoinOp();
+    default List<E> findAllByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc) {
+        if (sc.isKeysetPagination()) {
+            return findKeysetPageByCriteria(em, plans, sc).data();
+        }
+        var plan = FetchPlan.of(sc);
+        if (getSearchJoins().isEmpty()) {
+            var query = prepareQuery(em, plans, getEntityClass(), getFindAllQuery(), sc);
+            return applyFetchGraph(query, em, plan)
+                    .setFirstResult(sc.getOffset())
+                    .setMaxResults(sc.getLimit())
+                    .getResultList();
         }
-        var builder = QueryConfig.builder().withBaseQuery(getFindAllQuery())
-                .withWhereClauseJoinOp(whereClauseJoinOp);
 
-        return prepareQuery(em, getEntityClass(), builder, sc)
+        var ids = prepareQuery(em, plans, Object.class, getIdQuery(getIdSelection(sc), sc), sc)
                 .setFirstResult(sc.getOffset())
                 .setMaxResults(sc.getLimit())
-                .getResultList();
+                .getResultStream()
+                .map(AbstractDao::idOf)
+                .toList();
+        return hydrateByIds(em, ids, plan);
     }
 
-    default String getCountAllQuery() {
-        return getQuery(String.format("count(%s)", QueryConfig.Q_ROOT));
+    /**
+     * DTO fields a search can select alone (see {@code AbstractSearchCriteria.fields}), by DTO
+     * property path, with their JPQL path (e.g., {@code contact.lastName -> c.lastName}). Only the
+     * fields of the root and of its to-one joins can be projected, so a projected row is one root.
+     */
+    default Map<String, String> getProjectableFields() {
+        return Map.of();
+    }
+
+    /**
+     * Adds fields of the same alias to a {@link #getProjectableFields()} map.
+     *
+     * @param dtoPrefix the DTO property path of the alias (e.g., {@code contact.}), empty for the root
+     */
+    static void addProjectableFields(Map<String, String> projectableFields, String dtoPrefix, String alias, String... fieldNames) {
+        for (var fieldName : fieldNames) {
+            projectableFields.put(dtoPrefix + fieldName, alias + "." + fieldName);
+        }
     }
 
-    default Long countAllByCriteria(EntityManager em, AbstractSearchCriteria sc) {
-        var whereClauseJoinOp = WhereClauseJoinOp.AND;
-        if (sc.getWhereClauseJoinOp() != null) {
-            whereClauseJoinOp = sc.getWhereClauseJoinOp();
+    /**
+     * Splits the values of a bulk statement "in" list into chunks of {@link #IN_LIST_CHUNK_SIZE}.
+     */
+    static <T> List<List<T>> inListChunks(Collection<T> values) {
+        var list = List.copyOf(values);
+        var chunks = new ArrayList<List<T>>((list.size() + IN_LIST_CHUNK_SIZE - 1) / IN_LIST_CHUNK_SIZE);
+        for (int i = 0; i < list.size(); i += IN_LIST_CHUNK_SIZE) {
+            chunks.add(list.subList(i, Math.min(list.size(), i + IN_LIST_CHUNK_SIZE)));
         }
-        var builder = QueryConfig.builder().withBaseQuery(getCountAllQuery())
-                .withWhereClauseJoinOp(whereClauseJoinOp);
-        return prepareQuery(em, Long.class, builder, sc).getSingleResult();
+        return chunks;
+    }
+
+    /**
+     * @return the given values of the property that an entity has, with one query per chunk of
+     * {@link #IN_LIST_CHUNK_SIZE} values
+     */
+    default <T> Set<T> findExistingValues(EntityManager em, String property, Class<T> type, Collection<T> values) {
+        var query = String.format("select distinct e.%s from %s e where e.%s in (:values)",
+                property, getEntityClass().getSimpleName(), property);
+        var existing = new HashSet<T>();
+        for (var chunk : inListChunks(values)) {
+            existing.addAll(em.createQuery(query, type)
+                    .setParameter("values", chunk)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * @param values the values, in lower case
+     * @return the given values that an entity has for the property, ignoring case; in lower case
+     */
+    default Set<String> findExistingValuesIgnoreCase(EntityManager em, String property, Collection<String> values) {
+        var query = String.format("select distinct lower(e.%s) from %s e where lower(e.%s) in (:values)",
+                property, getEntityClass().getSimpleName(), property);
+        var existing = new HashSet<String>();
+        for (var chunk : inListChunks(values)) {
+            existing.addAll(em.createQuery(query, String.class)
+                    .setParameter("values", chunk)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * @return the requested fields this DAO can project, in order; empty when whole entities must be read
+     */
+    default List<String> getProjectedFields(AbstractSearchCriteria sc) {
+        var projectableFields = getProjectableFields();
+        return sc.getFieldSet()
+                .stream()
+                .filter(projectableFields::containsKey)
+                .toList();
+    }
+
+    /**
+     * Reads a page of the criteria as tuples instead of entities: only the columns of the fields
+     * are selected, and nothing is hydrated.
+     *
+     * @param fields projectable fields (see {@link #getProjectedFields(AbstractSearchCriteria)})
+     * @return one row per root: the root id followed by the value of each field
+     */
+    default List<Object[]> findProjectionByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc, List<String> fields) {
+        var projectableFields = getProjectableFields();
+        var paths = fields.stream()
+                .map(projectableFields::get)
+                .toList();
+        var selectedAliases = paths.stream()
+                .map(e -> e.substring(0, e.indexOf('.')))
+                .collect(Collectors.toSet());
+
+        // The projected fields have one value per root, which min() keeps in a grouped query
+        var grouped = isGroupedByRoot(sc);
+        var selection = new ArrayList<String>();
+        selection.add(QueryConfig.Q_ROOT + ".id");
+        paths.forEach(e -> selection.add(grouped ? "min(" + e + ")" : e));
+
+        var query = getQuery(String.join(", ", selection), getRequiredSearchJoins(sc, true, selectedAliases));
+        return prepareQuery(em, plans, Object[].class, query, sc)
+                .setFirstResult(sc.getOffset())
+                .setMaxResults(sc.getLimit())
+                .getResultStream()
+                .toList();
+    }
+
+    /**
+     * Reads every match of the criteria, ignoring the pagination, for exports. The root ids are
+     * read with a forward-only scroll and loaded by chunks of {@code chunkSize}; the persistence
+     * context is cleared after each chunk, so the heap use does not grow with the number of rows.
+     *
+     * @param chunkConsumer receives the entities of each chunk, in order
+     */
+    default void scrollAllByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc, int chunkSize, Consumer<List<E>> chunkConsumer) {
+        Query<?> query = prepareQuery(em, plans, Object.class, getIdQuery(getIdSelection(sc), sc), sc)
+                .unwrap(Query.class)
+                .setFetchSize(chunkSize)
+                .setReadOnly(true);
+
+        var plan = FetchPlan.of(sc);
+        try (var rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            var ids = new ArrayList<>(chunkSize);
+            while (rows.next()) {
+                ids.add(idOf(rows.get()));
+                if (ids.size() == chunkSize) {
+                    chunkConsumer.accept(hydrateByIds(em, List.copyOf(ids), plan));
+                    em.clear();
+                    ids.clear();
+                }
+            }
+            if (!ids.isEmpty()) {
+                chunkConsumer.accept(hydrateByIds(em, List.copyOf(ids), plan));
+                em.clear();
+            }
+        }
+    }
+
+    /**
+     * Reads the page following {@code sc.getAfter()} with a seek predicate, without offset.
+     * One extra row is read to know whether a next page exists.
+     */
+    @SuppressWarnings("unchecked")
+    default KeysetPage<E> findKeysetPageByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc) {
+        var twoPhase = !getSearchJoins().isEmpty();
+        var cursor = KeysetCursor.of(sc, twoPhase && isGroupedByRoot(sc));
+        int limit = sc.getLimit();
+
+        var query = twoPhase
+                ? getIdQuery(cursor.getSelection(QueryConfig.Q_ROOT + ".id"), sc)
+                : getQuery(cursor.getSelection());
+        var rows = prepareQuery(em, plans, Object[].class, query, sc, cursor)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        String after = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            after = cursor.encode(rows.getLast());
+        }
+
+        if (twoPhase) {
+            var ids = rows.stream()
+                    .map(row -> row[0])
+                    .toList();
+            return new KeysetPage<>(hydrateByIds(em, ids, FetchPlan.of(sc)), after);
+        }
+        var data = rows.stream()
+                .map(row -> (E) row[0])
+                .toList();
+        return new KeysetPage<>(data, after);
+    }
+
+    /**
+     * Count query: distinct root ids, with only the joins the where clauses need and no sort.
+     */
+    default String getCountAllQuery(AbstractSearchCriteria sc) {
+        var joins = getRequiredSearchJoins(sc, false);
+        var distinct = joins.stream().anyMatch(SearchJoin::collection) ? "distinct " : "";
+        return getQuery(String.format("count(%s%s.id)", distinct, QueryConfig.Q_ROOT), joins);
+    }
+
+    default Long countAllByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc) {
+        return prepareQuery(em, plans, Long.class, getCountAllQuery(sc), sc, null, false).getSingleResult();
+    }
+
+    /**
+     * Bounded count: reads at most {@code bound + 1} root ids, so the cost does not grow with the
+     * number of matches.
+     *
+     * @return the number of matches, or {@code bound + 1} when there are more than {@code bound}
+     */
+    default long countAllByCriteria(EntityManager em, QueryPlanCache plans, AbstractSearchCriteria sc, int bound) {
+        var joins = getRequiredSearchJoins(sc, false);
+        var distinct = joins.stream().anyMatch(SearchJoin::collection) ? "distinct " : "";
+        return prepareQuery(em, plans, Object.class, getQuery(distinct + QueryConfig.Q_ROOT + ".id", joins), sc, null, false)
+                .setMaxResults(bound + 1)
+                .getResultList()
+                .size();
+    }
+
+    /**
+     * Key of the cached total of a search: the count query shape and the bound values.
+     */
+    default SearchTotalCache.Key getTotalKey(AbstractSearchCriteria sc) {
+        var shape = QueryShape.of(getCountAllQuery(sc), getSpecialWhereClause(sc), sc, null, false);
+        var values = sc.getWhereClauses() == null ? List.<List<?>>of() : sc.getWhereClauses().stream()
+                .<List<?>>map(WhereClause::getValues)
+                .toList();
+        return new SearchTotalCache.Key(shape, values, getSpecialWhereClauseParams(sc));
+    }
+
+    /**
+     * @return the entity classes a search reads; a write to any of them invalidates the cached totals
+     */
+    default Set<Class<?>> getSearchDependencies() {
+        return Set.of(getEntityClass());
     }
 }
\ No newline at end of file
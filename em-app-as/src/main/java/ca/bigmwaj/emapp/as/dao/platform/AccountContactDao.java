@@ -11,5 +11,5 @@ import java.util.Optional;
 @Repository
 public interface AccountContactDao extends JpaRepository<AccountContactEntity, AccountContactPK> {
 
-    Optional<AccountContactEntity> findByAccountIdAndRole(Short id, AccountContactRoleLvo accountContactRoleLvo);
+    Optional<AccountContactEntity> findByAccountIdAndRole(Long id, AccountContactRoleLvo accountContactRoleLvo);
 }
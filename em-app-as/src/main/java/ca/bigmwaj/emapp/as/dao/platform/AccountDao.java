@@ -1,36 +1,113 @@
 package ca.bigmwaj.emapp.as.dao.platform;
 
 import ca.bigmwaj.emapp.as.dao.AbstractDao;
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
 import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dao.shared.SearchJoin;
 import ca.bigmwaj.emapp.as.entity.platform.*;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
-public interface AccountDao extends AbstractDao<AccountEntity, Short> {
+public interface AccountDao extends AbstractDao<AccountEntity, Long> {
 
     default Class<AccountEntity> getEntityClass() {
         return AccountEntity.class;
     }
 
     @Override
-    default String getQuery(String queryPart) {
-        var root = AccountEntity.class.getSimpleName();
+    default List<SearchJoin> getSearchJoins() {
         var ac = AccountContactEntity.class.getSimpleName();
         var c = ContactEntity.class.getSimpleName();
         var cp = ContactPhoneEntity.class.getSimpleName();
         var ce = ContactEmailEntity.class.getSimpleName();
         var ca = ContactAddressEntity.class.getSimpleName();
-        var query = new ArrayList<String>();
 
-        query.add(String.format("select distinct %s from %s %s", queryPart, root, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s ac on ac.account = %s", ac, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s c on c = ac.contact", c));
-        query.add(String.format("left outer join %s cp on c = cp.contact", cp));
-        query.add(String.format("left outer join %s ce on c = ce.contact", ce));
-        query.add(String.format("left outer join %s ca on c = ca.contact", ca));
+        // The subqueries reach the contacts through "sac", so they never clash with a joined "ac"
+        var accountContacts = String.format("select 1 from %s sac", ac);
+        var correlation = String.format("where sac.account = %s", QueryConfig.Q_ROOT);
 
-        return String.join(" ", query);
+        return List.of(
+                new SearchJoin("ac", null, String.format("left outer join %s ac on ac.account = %s", ac, QueryConfig.Q_ROOT), true,
+                        String.format("select 1 from %s ac where ac.account = %s", ac, QueryConfig.Q_ROOT)),
+                new SearchJoin("c", "ac", String.format("left outer join %s c on c = ac.contact", c), false,
+                        String.format("%s join sac.contact c %s", accountContacts, correlation)),
+                new SearchJoin("cp", "c", String.format("left outer join %s cp on c = cp.contact", cp), true,
+                        String.format("%s join %s cp on cp.contact = sac.contact %s", accountContacts, cp, correlation)),
+                new SearchJoin("ce", "c", String.format("left outer join %s ce on c = ce.contact", ce), true,
+                        String.format("%s join %s ce on ce.contact = sac.contact %s", accountContacts, ce, correlation)),
+                new SearchJoin("ca", "c", String.format("left outer join %s ca on c = ca.contact", ca), true,
+                        String.format("%s join %s ca on ca.contact = sac.contact %s", accountContacts, ca, correlation)));
+    }
+
+    @Override
+    default Set<Class<?>> getSearchDependencies() {
+        return Set.of(AccountEntity.class, AccountContactEntity.class, ContactEntity.class,
+                ContactPhoneEntity.class, ContactEmailEntity.class, ContactAddressEntity.class);
+    }
+
+    @Override
+    default Map<String, String> getProjectableFields() {
+        var fields = new LinkedHashMap<String, String>();
+        AbstractDao.addProjectableFields(fields, "", QueryConfig.Q_ROOT, "id", "name", "description", "status",
+                "statusDate", "statusReason", "createdBy", "createdDate", "updatedBy", "updatedDate");
+        return fields;
+    }
+
+    /**
+     * Account contacts and their contact are fetched with the accounts when the main contact or
+     * the account contacts are included.
+     */
+    @Override
+    default EntityGraph<AccountEntity> getFetchGraph(EntityManager em, FetchPlan plan) {
+        if (!plan.includes("accountContacts") && !plan.includes("mainContact")) {
+            return null;
+        }
+        var graph = em.createEntityGraph(AccountEntity.class);
+        graph.addSubgraph("accountContacts").addAttributeNodes("contact");
+        return graph;
+    }
+
+    /**
+     * The entity classes {@link #retireById} writes.
+     */
+    default List<Class<?>> getRetireCascade() {
+        return List.of(AccountEntity.class, AccountContactEntity.class, ContactEntity.class, ContactEmailEntity.class,
+                ContactPhoneEntity.class, ContactAddressEntity.class, UserEntity.class);
+    }
+
+    /**
+     * Retires the account, its account contacts, their contacts with their emails, phones and
+     * addresses, and the users of those contacts, with one bulk update per entity class and
+     * without loading any of them.
+     *
+     * @return false when the account does not exist; nothing is updated then
+     */
+    default boolean retireById(EntityManager em, Long id) {
+        var retired = em.createQuery(String.format("update %s a set a.retired = true where a.id = :id",
+                        AccountEntity.class.getSimpleName()))
+                .setParameter("id", id)
+                .executeUpdate();
+        if (retired == 0) {
+            return false;
+        }
+
+        var contactIds = String.format("select ac.contact.id from %s ac where ac.account.id = :id",
+                AccountContactEntity.class.getSimpleName());
+        var statements = List.of(
+                String.format("update %s ac set ac.retired = true where ac.account.id = :id", AccountContactEntity.class.getSimpleName()),
+                String.format("update %s c set c.retired = true where c.id in (%s)", ContactEntity.class.getSimpleName(), contactIds),
+                String.format("update %s e set e.retired = true where e.contact.id in (%s)", ContactEmailEntity.class.getSimpleName(), contactIds),
+                String.format("update %s e set e.retired = true where e.contact.id in (%s)", ContactPhoneEntity.class.getSimpleName(), contactIds),
+                String.format("update %s e set e.retired = true where e.contact.id in (%s)", ContactAddressEntity.class.getSimpleName(), contactIds),
+                String.format("update %s u set u.retired = true where u.contact.id in (%s)", UserEntity.class.getSimpleName(), contactIds));
+        statements.forEach(e -> em.createQuery(e).setParameter("id", id).executeUpdate());
+        return true;
     }
 }
@@ -2,13 +2,17 @@ package ca.bigmwaj.emapp.as.dao.platform;
 
 import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dao.shared.SearchJoin;
 import ca.bigmwaj.emapp.as.entity.platform.ContactAddressEntity;
 import ca.bigmwaj.emapp.as.entity.platform.ContactEmailEntity;
 import ca.bigmwaj.emapp.as.entity.platform.ContactEntity;
 import ca.bigmwaj.emapp.as.entity.platform.ContactPhoneEntity;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public interface ContactDao extends AbstractDao<ContactEntity, Long> {
@@ -18,18 +22,35 @@ public interface ContactDao extends AbstractDao<ContactEntity, Long> {
     }
 
     @Override
-    default String getQuery(String queryPart) {
-        var root = ContactEntity.class.getSimpleName();
+    default List<SearchJoin> getSearchJoins() {
         var cp = ContactPhoneEntity.class.getSimpleName();
         var ce = ContactEmailEntity.class.getSimpleName();
         var ca = ContactAddressEntity.class.getSimpleName();
-        var query = new ArrayList<String>();
 
-        query.add(String.format("select %s from %s %s", queryPart, root, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s cp on %s = cp.contact", cp, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s ce on %s = ce.contact", ce, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s ca on %s = ca.contact", ca, QueryConfig.Q_ROOT));
+        return List.of(
+                new SearchJoin("cp", null, String.format("left outer join %s cp on %s = cp.contact", cp, QueryConfig.Q_ROOT), true,
+                        String.format("select 1 from %s cp where cp.contact = %s", cp, QueryConfig.Q_ROOT)),
+                new SearchJoin("ce", null, String.format("left outer join %s ce on %s = ce.contact", ce, QueryConfig.Q_ROOT), true,
+                        String.format("select 1 from %s ce where ce.contact = %s", ce, QueryConfig.Q_ROOT)),
+                new SearchJoin("ca", null, String.format("left outer join %s ca on %s = ca.contact", ca, QueryConfig.Q_ROOT), true,
+                        String.format("select 1 from %s ca where ca.contact = %s", ca, QueryConfig.Q_ROOT)));
+    }
+
+    @Override
+    default Map<String, Class<?>> getSearchAliases() {
+        return Map.of(QueryConfig.Q_ROOT, ContactEntity.class, "ce", ContactEmailEntity.class, "cp", ContactPhoneEntity.class);
+    }
 
-        return String.join(" ", query);
+    @Override
+    default Set<Class<?>> getSearchDependencies() {
+        return Set.of(ContactEntity.class, ContactPhoneEntity.class, ContactEmailEntity.class, ContactAddressEntity.class);
+    }
+
+    @Override
+    default Map<String, String> getProjectableFields() {
+        var fields = new LinkedHashMap<String, String>();
+        AbstractDao.addProjectableFields(fields, "", QueryConfig.Q_ROOT, "id", "firstName", "lastName", "birthDate", "ownerType",
+                "createdBy", "createdDate", "updatedBy", "updatedDate");
+        return fields;
     }
 }
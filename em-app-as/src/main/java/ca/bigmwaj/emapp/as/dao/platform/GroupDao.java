@@ -5,7 +5,7 @@ import ca.bigmwaj.emapp.as.entity.platform.GroupEntity;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface GroupDao extends AbstractDao<GroupEntity, Short> {
+public interface GroupDao extends AbstractDao<GroupEntity, Long> {
 
     default Class<GroupEntity> getEntityClass() {
         return GroupEntity.class;
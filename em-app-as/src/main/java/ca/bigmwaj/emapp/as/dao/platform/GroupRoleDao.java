@@ -10,5 +10,5 @@ import java.util.List;
 @Repository
 public interface GroupRoleDao extends JpaRepository<GroupRoleEntity, GroupRolePK> {
 
-    List<GroupRoleEntity> findByGroupId(Short groupId);
+    List<GroupRoleEntity> findByGroupId(Long groupId);
 }
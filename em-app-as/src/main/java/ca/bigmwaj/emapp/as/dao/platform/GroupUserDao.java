@@ -1,15 +1,53 @@
 package ca.bigmwaj.emapp.as.dao.platform;
 
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.entity.platform.GroupUserEntity;
 import ca.bigmwaj.emapp.as.entity.platform.GroupUserPK;
+import jakarta.persistence.EntityManager;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface GroupUserDao extends JpaRepository<GroupUserEntity, GroupUserPK> {
 
-    List<GroupUserEntity> findByGroupId(Short groupId);
+    List<GroupUserEntity> findByGroupId(Long groupId);
 
+    /**
+     * @return the given users that are members of the group
+     */
+    default Set<Long> findUserIds(EntityManager em, Long groupId, Collection<Long> userIds) {
+        var query = String.format("select gu.user.id from %s gu where gu.group.id = :groupId and gu.user.id in (:userIds)",
+                GroupUserEntity.class.getSimpleName());
+        var members = new HashSet<Long>();
+        for (var chunk : AbstractDao.inListChunks(userIds)) {
+            members.addAll(em.createQuery(query, Long.class)
+                    .setParameter("groupId", groupId)
+                    .setParameter("userIds", chunk)
+                    .getResultList());
+        }
+        return members;
+    }
+
+    /**
+     * Removes the users from the group with bulk deletes, without loading them.
+     *
+     * @return the number of removed members
+     */
+    default int deleteByGroupIdAndUserIds(EntityManager em, Long groupId, Collection<Long> userIds) {
+        var statement = String.format("delete from %s gu where gu.group.id = :groupId and gu.user.id in (:userIds)",
+                GroupUserEntity.class.getSimpleName());
+        var deleted = 0;
+        for (var chunk : AbstractDao.inListChunks(userIds)) {
+            deleted += em.createQuery(statement)
+                    .setParameter("groupId", groupId)
+                    .setParameter("userIds", chunk)
+                    .executeUpdate();
+        }
+        return deleted;
+    }
 }
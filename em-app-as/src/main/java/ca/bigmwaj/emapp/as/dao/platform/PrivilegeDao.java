@@ -4,10 +4,14 @@ import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.PrivilegeSearchCriteria;
 import ca.bigmwaj.emapp.as.entity.platform.PrivilegeEntity;
+import ca.bigmwaj.emapp.as.entity.platform.RolePrivilegeEntity;
 import org.springframework.stereotype.Repository;
 
+import java.util.Map;
+import java.util.Set;
+
 @Repository
-public interface PrivilegeDao extends AbstractDao<PrivilegeEntity, Short> {
+public interface PrivilegeDao extends AbstractDao<PrivilegeEntity, Long> {
 
     default Class<PrivilegeEntity> getEntityClass() {
         return PrivilegeEntity.class;
@@ -16,8 +20,21 @@ public interface PrivilegeDao extends AbstractDao<PrivilegeEntity, Short> {
     @Override
     default String getSpecialWhereClause(AbstractSearchCriteria sc) {
         if (sc instanceof PrivilegeSearchCriteria usc && null != usc.getAssignableToRoleId()) {
-            return "not exists (select 1 from RolePrivilegeEntity rp where rp.privilege = qRoot and rp.role.id = %d)".formatted(usc.getAssignableToRoleId());
+            return "not exists (select 1 from RolePrivilegeEntity rp where rp.privilege = qRoot and rp.role.id = :assignableToRoleId)";
         }
         return AbstractDao.super.getSpecialWhereClause(sc);
     }
+
+    @Override
+    default Map<String, Object> getSpecialWhereClauseParams(AbstractSearchCriteria sc) {
+        if (sc instanceof PrivilegeSearchCriteria usc && null != usc.getAssignableToRoleId()) {
+            return Map.of("assignableToRoleId", usc.getAssignableToRoleId());
+        }
+        return AbstractDao.super.getSpecialWhereClauseParams(sc);
+    }
+
+    @Override
+    default Set<Class<?>> getSearchDependencies() {
+        return Set.of(PrivilegeEntity.class, RolePrivilegeEntity.class);
+    }
 }
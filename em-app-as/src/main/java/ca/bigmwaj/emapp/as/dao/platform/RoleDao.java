@@ -5,7 +5,7 @@ import ca.bigmwaj.emapp.as.entity.platform.RoleEntity;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RoleDao extends AbstractDao<RoleEntity, Short> {
+public interface RoleDao extends AbstractDao<RoleEntity, Long> {
 
     default Class<RoleEntity> getEntityClass() {
         return RoleEntity.class;
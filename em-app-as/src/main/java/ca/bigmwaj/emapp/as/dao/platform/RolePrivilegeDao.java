@@ -10,6 +10,6 @@ import java.util.List;
 @Repository
 public interface RolePrivilegeDao extends JpaRepository<RolePrivilegeEntity, RolePrivilegePK> {
 
-    List<RolePrivilegeEntity> findByRoleId(Short roleId);
+    List<RolePrivilegeEntity> findByRoleId(Long roleId);
 
 }
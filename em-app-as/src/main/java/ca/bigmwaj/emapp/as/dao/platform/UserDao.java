@@ -2,38 +2,67 @@ package ca.bigmwaj.emapp.as.dao.platform;
 
 import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dao.shared.SearchJoin;
 import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.UserSearchCriteria;
 import ca.bigmwaj.emapp.as.entity.platform.*;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface UserDao extends AbstractDao<UserEntity, Short> {
+public interface UserDao extends AbstractDao<UserEntity, Long> {
 
     default Class<UserEntity> getEntityClass() {
         return UserEntity.class;
     }
 
     @Override
-    default String getQuery(String queryPart) {
-        var root = UserEntity.class.getSimpleName();
+    default List<SearchJoin> getSearchJoins() {
         var c = ContactEntity.class.getSimpleName();
         var cp = ContactPhoneEntity.class.getSimpleName();
         var ce = ContactEmailEntity.class.getSimpleName();
         var ca = ContactAddressEntity.class.getSimpleName();
-        var query = new ArrayList<String>();
 
-        query.add(String.format("select %s from %s %s", queryPart, root, QueryConfig.Q_ROOT));
-        query.add(String.format("left join %s c on %s.contact = c", c, QueryConfig.Q_ROOT));
-        query.add(String.format("left outer join %s cp on c = cp.contact", cp));
-        query.add(String.format("left outer join %s ce on c = ce.contact", ce));
-        query.add(String.format("left outer join %s ca on c = ca.contact", ca));
+        return List.of(
+                new SearchJoin("c", null, String.format("left join %s c on %s.contact = c", c, QueryConfig.Q_ROOT), false, null),
+                new SearchJoin("cp", "c", String.format("left outer join %s cp on c = cp.contact", cp), true,
+                        String.format("select 1 from %s cp where cp.contact = %s.contact", cp, QueryConfig.Q_ROOT)),
+                new SearchJoin("ce", "c", String.format("left outer join %s ce on c = ce.contact", ce), true,
+                        String.format("select 1 from %s ce where ce.contact = %s.contact", ce, QueryConfig.Q_ROOT)),
+                new SearchJoin("ca", "c", String.format("left outer join %s ca on c = ca.contact", ca), true,
+                        String.format("select 1 from %s ca where ca.contact = %s.contact", ca, QueryConfig.Q_ROOT)));
+    }
+
+    @Override
+    default Map<String, Class<?>> getSearchAliases() {
+        return Map.of(QueryConfig.Q_ROOT, UserEntity.class, "c", ContactEntity.class,
+                "ce", ContactEmailEntity.class, "cp", ContactPhoneEntity.class);
+    }
+
+    @Override
+    default String getHydrateQuery() {
+        return getQuery(QueryConfig.Q_ROOT, List.of()) + " join fetch qRoot.contact where qRoot.id in (:ids)";
+    }
+
+    @Override
+    default Set<Class<?>> getSearchDependencies() {
+        return Set.of(UserEntity.class, ContactEntity.class, ContactPhoneEntity.class,
+                ContactEmailEntity.class, ContactAddressEntity.class, UserRoleEntity.class);
+    }
 
-        return String.join(" ", query);
+    @Override
+    default Map<String, String> getProjectableFields() {
+        var fields = new LinkedHashMap<String, String>();
+        AbstractDao.addProjectableFields(fields, "", QueryConfig.Q_ROOT, "id", "username", "usernameType", "usernameVerified",
+                "provider", "status", "ownerType", "statusDate", "statusReason", "createdBy", "createdDate", "updatedBy", "updatedDate");
+        AbstractDao.addProjectableFields(fields, "contact.", "c", "id", "firstName", "lastName", "birthDate");
+        return fields;
     }
 
     Optional<UserEntity> findByUsernameIgnoreCase(String email);
@@ -43,10 +72,58 @@ public interface UserDao extends AbstractDao<UserEntity, Short> {
     @Override
     default String getSpecialWhereClause(AbstractSearchCriteria sc) {
         if (sc instanceof UserSearchCriteria usc && null != usc.getAssignableToRoleId()) {
-            return "not exists (select 1 from UserRoleEntity ur where ur.user = qRoot and ur.role.id = %d)".formatted(usc.getAssignableToRoleId());
+            return "not exists (select 1 from UserRoleEntity ur where ur.user = qRoot and ur.role.id = :assignableToRoleId)";
         }
         return AbstractDao.super.getSpecialWhereClause(sc);
     }
 
+    @Override
+    default Map<String, Object> getSpecialWhereClauseParams(AbstractSearchCriteria sc) {
+        if (sc instanceof UserSearchCriteria usc && null != usc.getAssignableToRoleId()) {
+            return Map.of("assignableToRoleId", usc.getAssignableToRoleId());
+        }
+        return AbstractDao.super.getSpecialWhereClauseParams(sc);
+    }
+
     List<UserEntity> findAllByContactIn(List<ContactEntity> contacts);
+
+    /**
+     * @param username the username, in lower case
+     * @return the names of the privileges of the roles of the user, assigned directly or through
+     * its groups, ignoring the retired roles, privileges and assignments
+     */
+    default List<String> findPrivilegeNames(EntityManager em, String username) {
+        // The rows written without the flag have it null
+        var query = String.format("select distinct p.name from %s rp join rp.privilege p "
+                        + "where coalesce(rp.retired, false) = false and coalesce(p.retired, false) = false "
+                        + "and coalesce(rp.role.retired, false) = false "
+                        + "and (exists (select 1 from %s ur where ur.role = rp.role and lower(ur.user.username) = :username "
+                        + "and coalesce(ur.retired, false) = false) "
+                        + "or exists (select 1 from %s gr join %s gu on gu.group = gr.group "
+                        + "where gr.role = rp.role and lower(gu.user.username) = :username "
+                        + "and coalesce(gr.retired, false) = false and coalesce(gu.retired, false) = false))",
+                RolePrivilegeEntity.class.getSimpleName(), UserRoleEntity.class.getSimpleName(),
+                GroupRoleEntity.class.getSimpleName(), GroupUserEntity.class.getSimpleName());
+        return em.createQuery(query, String.class)
+                .setParameter("username", username)
+                .getResultList();
+    }
+
+    /**
+     * @param username the username, in lower case
+     * @return the rows {user id, role id, group id, role id of the group} of the user, retired or not,
+     * with {@code null} for what the user does not have; empty for an unknown user
+     */
+    default List<Object[]> findPermissionScope(EntityManager em, String username) {
+        var query = String.format("select u.id, ur.role.id, gu.group.id, gr.role.id from %s u "
+                        + "left join %s ur on ur.user = u "
+                        + "left join %s gu on gu.user = u "
+                        + "left join %s gr on gr.group = gu.group "
+                        + "where lower(u.username) = :username",
+                UserEntity.class.getSimpleName(), UserRoleEntity.class.getSimpleName(),
+                GroupUserEntity.class.getSimpleName(), GroupRoleEntity.class.getSimpleName());
+        return em.createQuery(query, Object[].class)
+                .setParameter("username", username)
+                .getResultList();
+    }
 }
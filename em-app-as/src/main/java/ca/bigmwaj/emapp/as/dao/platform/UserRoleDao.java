@@ -1,15 +1,64 @@
 package ca.bigmwaj.emapp.as.dao.platform;
 
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.entity.platform.UserRoleEntity;
 import ca.bigmwaj.emapp.as.entity.platform.UserRolePK;
+import jakarta.persistence.EntityManager;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface UserRoleDao extends JpaRepository<UserRoleEntity, UserRolePK> {
 
-    List<UserRoleEntity> findByRoleId(Short roleId);
+    List<UserRoleEntity> findByRoleId(Long roleId);
 
+    /**
+     * @return the given users that have the role
+     */
+    default Set<Long> findUserIds(EntityManager em, Long roleId, Collection<Long> userIds) {
+        var query = String.format("select ur.user.id from %s ur where ur.role.id = :roleId and ur.user.id in (:userIds)",
+                UserRoleEntity.class.getSimpleName());
+        var members = new HashSet<Long>();
+        for (var chunk : AbstractDao.inListChunks(userIds)) {
+            members.addAll(em.createQuery(query, Long.class)
+                    .setParameter("roleId", roleId)
+                    .setParameter("userIds", chunk)
+                    .getResultList());
+        }
+        return members;
+    }
+
+    /**
+     * Removes the role from the users with bulk deletes, without loading them.
+     *
+     * @return the number of removed assignments
+     */
+    default int deleteByRoleIdAndUserIds(EntityManager em, Long roleId, Collection<Long> userIds) {
+        var statement = String.format("delete from %s ur where ur.role.id = :roleId and ur.user.id in (:userIds)",
+                UserRoleEntity.class.getSimpleName());
+        var deleted = 0;
+        for (var chunk : AbstractDao.inListChunks(userIds)) {
+            deleted += em.createQuery(statement)
+                    .setParameter("roleId", roleId)
+                    .setParameter("userIds", chunk)
+                    .executeUpdate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Removes the role from all its users with one bulk delete.
+     *
+     * @return the number of removed assignments
+     */
+    default int deleteByRoleId(EntityManager em, Long roleId) {
+        return em.createQuery(String.format("delete from %s ur where ur.role.id = :roleId", UserRoleEntity.class.getSimpleName()))
+                .setParameter("roleId", roleId)
+                .executeUpdate();
+    }
 }
@@ -0,0 +1,117 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version number per entity class, incremented after every committed insert, update
+ * or delete of that class. Search caches snapshot the versions of the entities a search reads
+ * before running it, and drop the cached value as soon as one of them has moved.
+ *
+ * <p>Bulk JPQL statements bypass the Hibernate events; their callers report them with
+ * {@link #onBulkWrite(Collection)}.
+ */
+@Component
+public class EntityWriteTracker implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EntityWriteTracker(EntityManagerFactory entityManagerFactory) {
+        var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * @return the sum of the versions of the given entity classes; it changes whenever one of them is written
+     */
+    public long getVersion(Collection<? extends Class<?>> entityClasses) {
+        long version = 0;
+        for (var entityClass : entityClasses) {
+            var v = versions.get(entityClass);
+            if (v != null) {
+                version += v.get();
+            }
+        }
+        return version;
+    }
+
+    public void onWrite(Class<?> entityClass) {
+        versions.computeIfAbsent(entityClass, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Reports the entity classes written by bulk statements, once the current transaction
+     * commits (at once without transaction), so a search running meanwhile cannot cache the
+     * rows as they were before the statements under the new versions.
+     */
+    public void onBulkWrite(Collection<? extends Class<?>> entityClasses) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entityClasses.forEach(this::onWrite);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityClasses.forEach(EntityWriteTracker.this::onWrite);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onWrite(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onWrite(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onWrite(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The associations a search must load and map, parsed from the {@code include} parameter
+ * (e.g., {@code include=contact.phones,contact.emails}).
+ *
+ * <p>Including a nested path includes its parents. The DAOs turn the plan into an entity graph
+ * or leave it to batch fetching, and the mapper skips every association that is not included.
+ * Unknown paths are ignored.
+ *
+ * @param paths the included association paths
+ */
+public record FetchPlan(Set<String> paths) {
+
+    public static final FetchPlan NONE = new FetchPlan(Set.of());
+
+    public static FetchPlan of(AbstractSearchCriteria sc) {
+        return of(sc.getIncludes());
+    }
+
+    public static FetchPlan of(Collection<String> includes) {
+        var paths = new HashSet<String>();
+        for (var include : includes) {
+            var path = include.trim();
+            while (!path.isEmpty()) {
+                paths.add(path);
+                var separator = path.lastIndexOf('.');
+                path = separator < 0 ? "" : path.substring(0, separator);
+            }
+        }
+        return paths.isEmpty() ? NONE : new FetchPlan(Set.copyOf(paths));
+    }
+
+    public boolean includes(String path) {
+        return paths.contains(path);
+    }
+
+    /**
+     * @return the plan of the association at the given path, relative to it
+     */
+    public FetchPlan subPlan(String path) {
+        var prefix = path + ".";
+        var subPaths = paths.stream()
+                .filter(e -> e.startsWith(prefix))
+                .map(e -> e.substring(prefix.length()))
+                .collect(Collectors.toUnmodifiableSet());
+        return subPaths.isEmpty() ? NONE : new FetchPlan(subPaths);
+    }
+}
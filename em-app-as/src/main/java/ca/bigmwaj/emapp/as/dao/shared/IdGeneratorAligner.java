@@ -0,0 +1,158 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the segments of {@link IdGenerators#TABLE} past the ids already used by their tables,
+ * before the application serves any request.
+ *
+ * <p>The rows created while the ids came from MySQL auto-increment columns are unknown to the
+ * table generators, which would hand out their ids again. For every segment, the stored value is
+ * raised to the greatest id of its tables plus the allocation size: the pooled optimizer hands
+ * out the block ending at the stored value, so the next id is the greatest one plus one. A
+ * segment already past its tables is left untouched, so the alignment is a no-op after the
+ * first startup.
+ */
+@Component
+public class IdGeneratorAligner implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGeneratorAligner.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public IdGeneratorAligner(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var segments = findSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+
+        var em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.unwrap(Session.class).doWork(connection -> align(connection, segments));
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * @return the tables of every segment, as {@code table.idColumn}, sharing a segment when they
+     * share a generator (e.g., the contact points)
+     */
+    private Map<Segment, List<String>> findSegments() {
+        var segments = new LinkedHashMap<Segment, List<String>>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .forEachEntityDescriptor(persister -> {
+                    if (persister.getGenerator() instanceof TableGenerator generator
+                            && persister instanceof AbstractEntityPersister entityPersister) {
+                        var segment = new Segment(generator.getSegmentValue(), generator.getIncrementSize());
+                        segments.computeIfAbsent(segment, k -> new ArrayList<>())
+                                .add(entityPersister.getTableName() + "." + entityPersister.getIdentifierColumnNames()[0]);
+                    }
+                });
+        return segments;
+    }
+
+    void align(Connection connection, Map<Segment, List<String>> segments) throws SQLException {
+        var table = findTable(connection, IdGenerators.TABLE);
+        for (var entry : segments.entrySet()) {
+            var segment = entry.getKey();
+            var maxId = 0L;
+            for (var column : entry.getValue()) {
+                var separator = column.lastIndexOf('.');
+                maxId = Math.max(maxId, maxId(connection, column.substring(0, separator), column.substring(separator + 1)));
+            }
+            if (maxId == 0) {
+                continue;
+            }
+
+            var nextValue = maxId + segment.incrementSize();
+            var update = String.format("update %s set %s = ? where %s = ? and %s < ?",
+                    table, IdGenerators.VALUE_COLUMN, IdGenerators.SEGMENT_COLUMN, IdGenerators.VALUE_COLUMN);
+            try (var statement = connection.prepareStatement(update)) {
+                statement.setLong(1, nextValue);
+                statement.setString(2, segment.value());
+                statement.setLong(3, nextValue);
+                if (statement.executeUpdate() > 0) {
+                    logger.info("Id generator segment {} moved to {}", segment.value(), nextValue);
+                    continue;
+                }
+            }
+
+            if (!exists(connection, table, segment.value())) {
+                var insert = String.format("insert into %s (%s, %s) values (?, ?)",
+                        table, IdGenerators.SEGMENT_COLUMN, IdGenerators.VALUE_COLUMN);
+                try (var statement = connection.prepareStatement(insert)) {
+                    statement.setString(1, segment.value());
+                    statement.setLong(2, nextValue);
+                    statement.executeUpdate();
+                }
+                logger.info("Id generator segment {} created at {}", segment.value(), nextValue);
+            }
+        }
+    }
+
+    /**
+     * @return the name of the table as created in the database; the naming strategy may have
+     * changed its case, which matters to MySQL on Linux
+     */
+    private static String findTable(Connection connection, String name) throws SQLException {
+        try (var tables = connection.getMetaData().getTables(connection.getCatalog(), null, "%", new String[]{"TABLE"})) {
+            while (tables.next()) {
+                var table = tables.getString("TABLE_NAME");
+                if (table.equalsIgnoreCase(name)) {
+                    return table;
+                }
+            }
+        }
+        throw new IllegalStateException("Id generator table not found: " + name);
+    }
+
+    private static long maxId(Connection connection, String table, String idColumn) throws SQLException {
+        try (var statement = connection.createStatement();
+             var result = statement.executeQuery(String.format("select max(%s) from %s", idColumn, table))) {
+            return result.next() ? result.getLong(1) : 0;
+        }
+    }
+
+    private static boolean exists(Connection connection, String table, String segment) throws SQLException {
+        var query = String.format("select 1 from %s where %s = ?", table, IdGenerators.SEGMENT_COLUMN);
+        try (var statement = connection.prepareStatement(query)) {
+            statement.setString(1, segment);
+            try (var result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    record Segment(String value, int incrementSize) {
+    }
+}
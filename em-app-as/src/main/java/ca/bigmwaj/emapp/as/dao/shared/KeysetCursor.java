@@ -0,0 +1,307 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import jakarta.persistence.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset (seek) pagination cursor.
+ *
+ * <p>The sort keys are the active sort-by clauses followed by the {@code qRoot.id} tie-breaker.
+ * The opaque "after" token carries the sort key values of the last row of a page; the next page
+ * is read with a seek predicate instead of an offset, so page N costs the same as page 1:
+ * <pre>
+ * (k0 &gt; :k0) or (k0 = :k0 and k1 &gt; :k1) or ...
+ * </pre>
+ *
+ * <p>Null sort values follow the MySQL ordering (nulls first in ascending order, last in
+ * descending order). The null pattern of the cursor changes the predicate text, so it is part
+ * of the {@link QueryShape} through {@link #getMask()}.
+ *
+ * <p>In a query grouped by root, each sort key is the aggregate of its path per root (see
+ * {@link QueryConfig#aggregate(String, SortByClause.sortType)}), and the seek predicate is a
+ * HAVING clause.
+ */
+public class KeysetCursor {
+
+    /**
+     * Prefix of the generated cursor parameter names (e.g., :k0, :k1).
+     */
+    public static final String PARAM_PREFIX = "k";
+
+    private static final String ID_FIELD = "id";
+
+    private static final String ENUM_PACKAGE = "ca.bigmwaj.emapp.";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final List<QueryShape.ClauseShape> sortKeys;
+
+    private final Object[] values;
+
+    private final boolean grouped;
+
+    private KeysetCursor(List<QueryShape.ClauseShape> sortKeys, Object[] values, boolean grouped) {
+        this.sortKeys = sortKeys;
+        this.values = values;
+        this.grouped = grouped;
+    }
+
+    /**
+     * Builds the cursor of a keyset search, from the optional "after" token of the criteria.
+     *
+     * @param sc the search criteria
+     * @return the cursor; it has no values when the first page is requested
+     * @throws KeysetCursorException if the token is malformed or was built for other sort keys
+     */
+    public static KeysetCursor of(AbstractSearchCriteria sc) {
+        return of(sc, false);
+    }
+
+    /**
+     * @param grouped true when the keyset query is grouped by root
+     */
+    public static KeysetCursor of(AbstractSearchCriteria sc, boolean grouped) {
+        var sortKeys = sortKeys(sc);
+        if (sc.getAfter() == null || sc.getAfter().isBlank()) {
+            return new KeysetCursor(sortKeys, null, grouped);
+        }
+        return new KeysetCursor(sortKeys, decode(sc.getAfter(), sortKeys), grouped);
+    }
+
+    private static List<QueryShape.ClauseShape> sortKeys(AbstractSearchCriteria sc) {
+        var keys = new ArrayList<QueryShape.ClauseShape>();
+        if (sc.getSortByClauses() != null) {
+            sc.getSortByClauses().stream()
+                    .map(QueryShape::toShape)
+                    .forEach(keys::add);
+        }
+
+        var hasTieBreaker = keys.stream()
+                .anyMatch(k -> QueryConfig.Q_ROOT.equals(k.rootEntity()) && ID_FIELD.equals(k.fieldName()));
+        if (!hasTieBreaker) {
+            keys.add(new QueryShape.ClauseShape(QueryConfig.Q_ROOT, ID_FIELD, SortByClause.sortType.asc.name()));
+        }
+        return List.copyOf(keys);
+    }
+
+    private static String path(QueryShape.ClauseShape key) {
+        return key.rootEntity() + "." + key.fieldName();
+    }
+
+    /**
+     * @return the expression the query selects, orders and seeks by for the key
+     */
+    private String sortKey(QueryShape.ClauseShape key) {
+        return grouped ? QueryConfig.aggregate(path(key), SortByClause.sortType.valueOf(key.operator())) : path(key);
+    }
+
+    private static boolean isDescending(QueryShape.ClauseShape key) {
+        return SortByClause.sortType.desc.name().equals(key.operator());
+    }
+
+    private static String fingerprint(List<QueryShape.ClauseShape> sortKeys) {
+        var keys = sortKeys.stream()
+                .map(k -> path(k) + " " + k.operator())
+                .collect(Collectors.joining(","));
+        return Integer.toHexString(keys.hashCode());
+    }
+
+    /**
+     * @return the select list of the keyset query: the root entity followed by every sort key
+     */
+    public String getSelection() {
+        return getSelection(QueryConfig.Q_ROOT);
+    }
+
+    /**
+     * @param head the first select item, e.g. the root entity or its id
+     * @return the select list of the keyset query: the head followed by every sort key
+     */
+    public String getSelection(String head) {
+        return head + ", " + sortKeys.stream()
+                .map(this::sortKey)
+                .collect(Collectors.joining(", "));
+    }
+
+    public boolean isFirstPage() {
+        return values == null;
+    }
+
+    /**
+     * @return one character per sort key, 'n' for a null value and 'v' otherwise; empty for the first page
+     */
+    public String getMask() {
+        if (values == null) {
+            return "";
+        }
+        var mask = new StringBuilder(values.length);
+        for (var value : values) {
+            mask.append(value == null ? 'n' : 'v');
+        }
+        return mask.toString();
+    }
+
+    /**
+     * Appends the seek predicate and the sort-by clauses of the sort keys that are not part of
+     * the search criteria (the id tie-breaker).
+     *
+     * @param qb          the query configuration builder
+     * @param sortByCount the number of sort-by clauses of the search criteria
+     */
+    public void appendTo(QueryConfig.QueryConfigBuilder qb, int sortByCount) {
+        for (int i = sortByCount; i < sortKeys.size(); i++) {
+            var key = sortKeys.get(i);
+            qb.withTieBreakerSortByClause(String.format("%s %s", sortKey(key), key.operator()));
+        }
+
+        if (values != null) {
+            qb.withSeekClause(buildSeekClause());
+        }
+    }
+
+    private String buildSeekClause() {
+        var disjuncts = new ArrayList<String>();
+        for (int i = 0; i < sortKeys.size(); i++) {
+            var after = after(i);
+            if (after == null) {
+                continue;
+            }
+            var conjuncts = new ArrayList<String>();
+            for (int j = 0; j < i; j++) {
+                conjuncts.add(equal(j));
+            }
+            conjuncts.add(after);
+            disjuncts.add(conjuncts.size() == 1 ? after : "(" + String.join(" and ", conjuncts) + ")");
+        }
+
+        if (disjuncts.isEmpty()) {
+            return "1 = 0";
+        }
+        return String.join(" or ", disjuncts);
+    }
+
+    private String equal(int i) {
+        var path = sortKey(sortKeys.get(i));
+        if (values[i] == null) {
+            return path + " is null";
+        }
+        return String.format("%s = :%s%d", path, PARAM_PREFIX, i);
+    }
+
+    private String after(int i) {
+        var key = sortKeys.get(i);
+        var path = sortKey(key);
+        if (isDescending(key)) {
+            return values[i] == null ? null : String.format("(%s < :%s%d or %s is null)", path, PARAM_PREFIX, i, path);
+        }
+        return values[i] == null ? path + " is not null" : String.format("%s > :%s%d", path, PARAM_PREFIX, i);
+    }
+
+    /**
+     * Binds the cursor values referenced by the seek predicate.
+     *
+     * @param query the query created from the plan compiled for this cursor
+     */
+    public void bind(Query query) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                query.setParameter(PARAM_PREFIX + i, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Encodes the "after" token of a keyset query row.
+     *
+     * @param row a row of the query built with {@link #getSelection(String)}: the head followed by the sort key values
+     * @return the opaque token
+     */
+    public String encode(Object[] row) {
+        var token = new StringBuilder(fingerprint(sortKeys));
+        for (int i = 1; i < row.length; i++) {
+            token.append('.').append(ENCODER.encodeToString(encodeValue(row[i]).getBytes(StandardCharsets.UTF_8)));
+        }
+        return token.toString();
+    }
+
+    private static String encodeValue(Object value) {
+        return switch (value) {
+            case null -> "N";
+            case String s -> "S" + s;
+            case Long l -> "L" + l;
+            case Integer i -> "I" + i;
+            case Short s -> "H" + s;
+            case Boolean b -> "B" + b;
+            case LocalDate d -> "D" + d;
+            case LocalDateTime t -> "T" + t;
+            case Enum<?> e -> "E" + e.getDeclaringClass().getName() + "#" + e.name();
+            default -> throw new KeysetCursorException("Unsupported sort key type: " + value.getClass().getName());
+        };
+    }
+
+    private static Object[] decode(String token, List<QueryShape.ClauseShape> sortKeys) {
+        var parts = token.split("\\.", -1);
+        if (parts.length != sortKeys.size() + 1 || !fingerprint(sortKeys).equals(parts[0])) {
+            throw new KeysetCursorException("The cursor does not match the sort-by clauses.");
+        }
+
+        var values = new Object[sortKeys.size()];
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = decodeValue(new String(DECODER.decode(parts[i + 1]), StandardCharsets.UTF_8));
+            }
+        } catch (RuntimeException e) {
+            throw new KeysetCursorException("The cursor is malformed.", e);
+        }
+        return values;
+    }
+
+    private static Object decodeValue(String encoded) {
+        var value = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 'N' -> null;
+            case 'S' -> value;
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            case 'H' -> Short.valueOf(value);
+            case 'B' -> Boolean.valueOf(value);
+            case 'D' -> LocalDate.parse(value);
+            case 'T' -> LocalDateTime.parse(value);
+            case 'E' -> toEnum(value);
+            default -> throw new KeysetCursorException("Unknown cursor value type.");
+        };
+    }
+
+    // Type safety: The cast is safe because we verify enumType.isEnum() before calling
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(String value) {
+        var separator = value.indexOf('#');
+        var className = value.substring(0, separator);
+        if (!className.startsWith(ENUM_PACKAGE)) {
+            throw new KeysetCursorException("Unsupported cursor enum type: " + className);
+        }
+        try {
+            var enumType = Class.forName(className, false, KeysetCursor.class.getClassLoader());
+            if (!enumType.isEnum()) {
+                throw new KeysetCursorException("Unsupported cursor enum type: " + className);
+            }
+            return Enum.valueOf((Class) enumType, value.substring(separator + 1));
+        } catch (ClassNotFoundException e) {
+            throw new KeysetCursorException("Unsupported cursor enum type: " + className, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+public class KeysetCursorException extends RuntimeException {
+
+    public KeysetCursorException(String message) {
+        super(message);
+    }
+
+    public KeysetCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import java.util.List;
+
+/**
+ * A page read in keyset mode.
+ *
+ * @param data  the entities of the page
+ * @param after the token of the next page, or {@code null} when this is the last page
+ */
+public record KeysetPage<E>(List<E> data, String after) {
+}
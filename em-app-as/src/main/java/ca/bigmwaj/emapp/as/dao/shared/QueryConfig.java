@@ -1,15 +1,18 @@
 package ca.bigmwaj.emapp.as.dao.shared;
 
+import ca.bigmwaj.emapp.as.dto.shared.search.AbstractClause;
 import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
 import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
 import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+import jakarta.persistence.Query;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Query configuration builder for constructing dynamic JPQL queries.
@@ -22,31 +25,31 @@ import java.util.Map;
  *   <li>Dynamic ORDER BY clauses</li>
  * </ul>
  *
+ * <p>A built configuration does not hold any filter value. It holds the JPQL string and a
+ * parameter binding plan, so one instance can be reused for every search having the same
+ * {@link QueryShape} (see {@link QueryPlanCache}).
+ *
  * <h2>Usage Example:</h2>
  * <pre>{@code
  * QueryConfig.QueryConfigBuilder qb = QueryConfig.builder()
  *     .withBaseQuery("SELECT qRoot FROM User qRoot");
  *
- * // Add filter: firstName like '%john%'
- * WhereClause filter = WhereClause.builder()
- *     .name("firstName")
- *     .oper(FilterOperator.like)
- *     .values(List.of("john"))
- *     .build();
- * QueryConfig.appendFilter(qb, filter);
+ * // Add filter: firstName like '%john%', bound to parameter :p0
+ * WhereClause filter = new WhereClause("firstName", WhereClause.oper.like, List.of("john"));
+ * QueryConfig.appendWhereClause(qb, filter, 0);
  *
  * // Add sorting: ORDER BY lastName ASC
- * SortByClause sort = SortByClause.builder()
- *     .name("lastName")
- *     .direction("asc")
- *     .build();
- * QueryConfig.appendSort(qb, sort);
+ * SortByClause sort = new SortByClause("lastName", SortByClause.sortType.asc);
+ * QueryConfig.appendSortByClause(qb, sort);
  *
  * QueryConfig config = qb.build();
+ * TypedQuery<User> query = em.createQuery(config.getQueryString(), User.class);
+ * config.bind(query, List.of(filter));
  * }</pre>
  *
  * @see WhereClause
  * @see SortByClause
+ * @see QueryShape
  */
 @Builder(setterPrefix = "with")
 public class QueryConfig {
@@ -55,6 +58,12 @@ public class QueryConfig {
      * Default root entity alias used in JPQL queries.
      */
     public final static String Q_ROOT = "qRoot";
+
+    /**
+     * Prefix of the generated parameter names. The where clause position is appended to it
+     * (e.g., :p0, :p1Min), so two filters on the same field never collide.
+     */
+    public final static String PARAM_PREFIX = "p";
     private static final Logger logger = org.slf4j.LoggerFactory.getLogger(QueryConfig.class);
     private WhereClauseJoinOp whereClauseJoinOp;
     private String specialWhereClause;
@@ -63,15 +72,15 @@ public class QueryConfig {
      */
     private String baseQuery;
     /**
-     * Map of named parameters and their values for the query.
-     * These parameters are referenced in the WHERE clause (e.g., :firstName).
+     * Binding plan of the named parameters referenced in the WHERE clause (e.g., :p0).
+     * Each binding knows which where clause supplies its value and how to extract it.
      */
     @Singular
     @Getter
-    private Map<String, Object> params;
+    private List<ParameterBinding> parameterBindings;
 
     /**
-     * List of WHERE clause fragments (e.g., "qRoot.firstName like :firstName").
+     * List of WHERE clause fragments (e.g., "qRoot.firstName like :p0").
      * These are combined with AND operators in the final query.
      */
     @Singular
@@ -84,6 +93,56 @@ public class QueryConfig {
     @Singular
     private List<String> sortByClauses;
 
+    /**
+     * Keyset pagination seek predicate (see {@link KeysetCursor}), combined with AND.
+     */
+    private String seekClause;
+
+    /**
+     * ORDER BY fragments appended after the sort-by clauses, to make the order total
+     * (e.g., "qRoot.id asc" in keyset mode).
+     */
+    @Singular
+    private List<String> tieBreakerSortByClauses;
+
+    /**
+     * GROUP BY clause of a query whose joins can repeat a root (e.g., "qRoot.id"). Its sort keys
+     * are then aggregated per root (see {@link #aggregate(String, SortByClause.sortType)}), and the
+     * seek predicate is a HAVING clause.
+     */
+    private String groupByClause;
+
+    /**
+     * The JPQL string, built once on first access and reused by every execution of this plan.
+     */
+    @Getter(lazy = true)
+    private final String queryString = buildQueryString();
+
+    public static String resolveRootEntity(AbstractClause clause) {
+        // Allow custom entity alias (e.g., "u" instead of "qRoot")
+        if (clause.getRootEntityName() != null && !clause.getRootEntityName().isEmpty()) {
+            return clause.getRootEntityName();
+        }
+        return Q_ROOT;
+    }
+
+    public static String resolveFieldName(AbstractClause clause) {
+        // Allow custom field mapping (e.g., "user.firstName" instead of "firstName")
+        if (clause.getEntityFieldName() != null && !clause.getEntityFieldName().isEmpty()) {
+            return clause.getEntityFieldName();
+        }
+        return clause.getName();
+    }
+
+    public static SortByClause.sortType resolveSortType(SortByClause sortBy) {
+        // Default to ascending if no sort type specified
+        return sortBy.getType() == null ? SortByClause.sortType.asc : sortBy.getType();
+    }
+
+    private static Object likeValue(List<?> values) {
+        return "%" + values.getFirst().toString().toLowerCase() + "%";
+    }
+
     /**
      * Appends a filter condition to the query configuration.
      *
@@ -99,61 +158,75 @@ public class QueryConfig {
      *   <li><b>btw</b>: Between (e.g., age between 18 and 65)</li>
      * </ul>
      *
+     * <p>The values are never written into the JPQL string: the clause references the
+     * parameter {@code :p<position>} and a {@link ParameterBinding} is registered to read
+     * the value from the where clause at the same position when the query is bound.
+     *
      * @param qb          the query configuration builder to append to
      * @param whereClause the filter criteria containing field name, operator, and values
+     * @param position    the position of the where clause in the search criteria
      */
-    public static void appendWhereClause(QueryConfig.QueryConfigBuilder qb, WhereClause whereClause) {
-        var dbFieldName = whereClause.getName();
-        var v = whereClause.getValues();
-        var rootEntity = Q_ROOT;
+    public static void appendWhereClause(QueryConfig.QueryConfigBuilder qb, WhereClause whereClause, int position) {
+        qb.withWhereClause(buildWhereClause(qb, whereClause, position));
+    }
 
-        // Allow custom field mapping (e.g., "user.firstName" instead of "firstName")
-        if (whereClause.getEntityFieldName() != null && !whereClause.getEntityFieldName().isEmpty()) {
-            dbFieldName = whereClause.getEntityFieldName();
-        }
+    /**
+     * Appends a where clause on a child entity as a correlated subquery, so the base query does
+     * not need to join the child table:
+     * <pre>
+     * exists (select 1 from ContactPhoneEntity cp where cp.contact = qRoot and lower(cp.phone) like :p0)
+     * </pre>
+     *
+     * @param qb             the query configuration builder to append to
+     * @param whereClause    the filter criteria on the child entity
+     * @param position       the position of the where clause in the search criteria
+     * @param existsSubquery the correlated subquery declaring the child alias; it must end with its where clause
+     */
+    public static void appendWhereClause(QueryConfig.QueryConfigBuilder qb, WhereClause whereClause, int position, String existsSubquery) {
+        qb.withWhereClause(String.format("exists (%s and %s)", existsSubquery, buildWhereClause(qb, whereClause, position)));
+    }
 
-        // Allow custom entity alias (e.g., "u" instead of "qRoot")
-        if (whereClause.getRootEntityName() != null && !whereClause.getRootEntityName().isEmpty()) {
-            rootEntity = whereClause.getRootEntityName();
-        }
+    private static String buildWhereClause(QueryConfig.QueryConfigBuilder qb, WhereClause whereClause, int position) {
+        var dbFieldName = resolveFieldName(whereClause);
+        var rootEntity = resolveRootEntity(whereClause);
+        var param = PARAM_PREFIX + position;
 
         var q = switch (whereClause.getOper()) {
             case like -> {
-                var param = v.getFirst().toString().toLowerCase();
-                qb.withParam(dbFieldName, "%" + param + "%");
-                yield String.format("lower(%s.%s) like :%s", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, QueryConfig::likeValue));
+                yield String.format("lower(%s.%s) like :%s", rootEntity, dbFieldName, param);
             }
             case eq, in -> {
-                qb.withParam(dbFieldName, v);
-                yield String.format("%s.%s in (:%s)", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, v -> v));
+                yield String.format("%s.%s in (:%s)", rootEntity, dbFieldName, param);
             }
             case lt -> {
-                qb.withParam(dbFieldName, v.getFirst());
-                yield String.format("%s.%s < :%s", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, List::getFirst));
+                yield String.format("%s.%s < :%s", rootEntity, dbFieldName, param);
             }
             case lte -> {
-                qb.withParam(dbFieldName, v.getFirst());
-                yield String.format("%s.%s <= :%s", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, List::getFirst));
+                yield String.format("%s.%s <= :%s", rootEntity, dbFieldName, param);
             }
             case gt -> {
-                qb.withParam(dbFieldName, v.getFirst());
-                yield String.format("%s.%s > :%s", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, List::getFirst));
+                yield String.format("%s.%s > :%s", rootEntity, dbFieldName, param);
             }
             case gte -> {
-                qb.withParam(dbFieldName, v.getFirst());
-                yield String.format("%s.%s >= :%s", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, List::getFirst));
+                yield String.format("%s.%s >= :%s", rootEntity, dbFieldName, param);
             }
             case ne, ni -> {
-                qb.withParam(dbFieldName, v);
-                yield String.format("%s.%s not in (:%s)", rootEntity, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param, position, v -> v));
+                yield String.format("%s.%s not in (:%s)", rootEntity, dbFieldName, param);
             }
             case btw -> {
-                qb.withParam(dbFieldName + "Min", v.getFirst())
-                        .withParam(dbFieldName + "Max", v.getLast());
-                yield String.format("%s.%s between :%sMin and :%sMax", rootEntity, dbFieldName, dbFieldName, dbFieldName);
+                qb.withParameterBinding(new ParameterBinding(param + "Min", position, List::getFirst))
+                        .withParameterBinding(new ParameterBinding(param + "Max", position, List::getLast));
+                yield String.format("%s.%s between :%sMin and :%sMax", rootEntity, dbFieldName, param, param);
             }
         };
-        qb.withWhereClause(q);
+        return q;
     }
 
     /**
@@ -166,26 +239,26 @@ public class QueryConfig {
      * @param sortBy the sort criteria containing field name and direction (asc/desc)
      */
     public static void appendSortByClause(QueryConfig.QueryConfigBuilder qb, SortByClause sortBy) {
-        var dbFieldName = sortBy.getName();
-        var rootEntity = Q_ROOT;
-
-        // Allow custom field mapping
-        if (sortBy.getEntityFieldName() != null && !sortBy.getEntityFieldName().isEmpty()) {
-            dbFieldName = sortBy.getEntityFieldName();
-        }
-
-        // Allow custom entity alias
-        if (sortBy.getRootEntityName() != null && !sortBy.getRootEntityName().isEmpty()) {
-            rootEntity = sortBy.getRootEntityName();
-        }
+        appendSortByClause(qb, sortBy, false);
+    }
 
-        // Default to ascending if no sort type specified
-        SortByClause.sortType sortType = sortBy.getType();
-        if (sortType == null) {
-            sortType = SortByClause.sortType.asc;
-        }
+    /**
+     * @param grouped true when the query is grouped by root: the sort key is then aggregated
+     */
+    public static void appendSortByClause(QueryConfig.QueryConfigBuilder qb, SortByClause sortBy, boolean grouped) {
+        var path = resolveRootEntity(sortBy) + "." + resolveFieldName(sortBy);
+        var sortType = resolveSortType(sortBy);
+        qb.withSortByClause(String.format("%s %s", grouped ? aggregate(path, sortType) : path, sortType));
+    }
 
-        qb.withSortByClause(String.format("%s.%s %s", rootEntity, dbFieldName, sortType));
+    /**
+     * Sort key of a root in a query grouped by root: its lowest value in ascending order and its
+     * highest in descending order, so that a root comes where its first joined row would.
+     *
+     * @param path the sorted path (e.g., "cp.phone")
+     */
+    public static String aggregate(String path, SortByClause.sortType sortType) {
+        return String.format("%s(%s)", sortType == SortByClause.sortType.desc ? "max" : "min", path);
     }
 
     /**
@@ -197,13 +270,13 @@ public class QueryConfig {
      * <h3>Example output:</h3>
      * <pre>
      * SELECT qRoot FROM User qRoot
-     * WHERE qRoot.firstName like :firstName AND qRoot.age >= :age
+     * WHERE qRoot.firstName like :p0 AND qRoot.age >= :p1
      * ORDER BY qRoot.lastName asc
      * </pre>
      *
      * @return the complete JPQL query string
      */
-    public String getQueryString() {
+    private String buildQueryString() {
         var query = baseQuery;
         var where = "";
         if (whereClauses != null && !whereClauses.isEmpty()) {
@@ -217,17 +290,63 @@ public class QueryConfig {
             where += "(" + specialWhereClause + ")";
         }
 
+        var grouped = groupByClause != null && !groupByClause.isEmpty();
+        if (!grouped && seekClause != null && !seekClause.isEmpty()) {
+            if (!where.isEmpty()) {
+                where += " and ";
+            }
+            where += "(" + seekClause + ")";
+        }
+
         if (!where.isEmpty()) {
             query += " where " + where;
         }
 
+        if (grouped) {
+            query += " group by " + groupByClause;
+            if (seekClause != null && !seekClause.isEmpty()) {
+                query += " having " + seekClause;
+            }
+        }
+
+        var orderBy = new ArrayList<String>();
+        if (sortByClauses != null) {
+            orderBy.addAll(sortByClauses);
+        }
+        if (tieBreakerSortByClauses != null) {
+            orderBy.addAll(tieBreakerSortByClauses);
+        }
 
-        if (sortByClauses != null && !sortByClauses.isEmpty()) {
-            query += " order by " + String.join(", ", sortByClauses);
+        if (!orderBy.isEmpty()) {
+            query += " order by " + String.join(", ", orderBy);
         }
 
         logger.debug("=================== >>>>>>>>>>>> query: {}", query);
 
         return query;
     }
+
+    /**
+     * Binds the values of the given where clauses to the query, following the binding plan.
+     *
+     * @param query        the query created from {@link #getQueryString()}
+     * @param whereClauses the where clauses of the search, in the order used to build this plan
+     */
+    public void bind(Query query, List<WhereClause> whereClauses) {
+        if (parameterBindings == null) {
+            return;
+        }
+        parameterBindings.forEach(b -> query.setParameter(b.name(),
+                b.valueExtractor().apply(whereClauses.get(b.position()).getValues())));
+    }
+
+    /**
+     * One named parameter of the plan.
+     *
+     * @param name           the parameter name, without the leading colon
+     * @param position       the position of the where clause supplying the value
+     * @param valueExtractor turns the where clause values into the bound value
+     */
+    public record ParameterBinding(String name, int position, Function<List<?>, Object> valueExtractor) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache of compiled {@link QueryConfig} plans keyed by {@link QueryShape}.
+ *
+ * <p>Since the plans never embed filter values, the number of shapes is bounded by the
+ * supported fields, operators and sorts of each search criteria. Beyond
+ * {@code app.search.plan.cache-maximum-size} shapes, the least recently used plans are evicted,
+ * so the shapes in use keep their plan whatever the shapes seen before.
+ */
+@Component
+public class QueryPlanCache {
+
+    private final LinkedHashMap<QueryShape, QueryConfig> plans = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final int maximumSize;
+
+    @Autowired
+    public QueryPlanCache(@Value("${app.search.plan.cache-maximum-size:2048}") int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the plan of the given shape, compiling it on the first request.
+     *
+     * @param shape    the normalized query shape
+     * @param compiler builds the plan of the shape on a miss
+     * @return the compiled plan
+     */
+    public QueryConfig getOrCompile(QueryShape shape, Function<QueryShape, QueryConfig> compiler) {
+        synchronized (this) {
+            var plan = plans.get(shape);
+            if (plan != null) {
+                hitCount.increment();
+                return plan;
+            }
+        }
+
+        missCount.increment();
+        var plan = compiler.apply(shape);
+        if (maximumSize <= 0) {
+            return plan;
+        }
+
+        synchronized (this) {
+            var existing = plans.putIfAbsent(shape, plan);
+            if (existing != null) {
+                return existing;
+            }
+            var iterator = plans.entrySet().iterator();
+            while (plans.size() > maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+        return plan;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public synchronized int getSize() {
+        return plans.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized void clear() {
+        plans.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the {@link QueryPlanCache} statistics, using the Micrometer cache meter names
+ * ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}) tagged with {@code cache=queryPlan}.
+ */
+@Component
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private static final String CACHE_NAME = "queryPlan";
+
+    private final QueryPlanCache cache;
+
+    @Autowired
+    public QueryPlanCacheMetrics(QueryPlanCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", cache, QueryPlanCache::getHitCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .description("The number of searches that reused a compiled query plan")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", cache, QueryPlanCache::getMissCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .description("The number of searches that compiled a new query plan")
+                .register(registry);
+
+        FunctionCounter.builder("cache.evictions", cache, QueryPlanCache::getEvictionCount)
+                .tag("cache", CACHE_NAME)
+                .description("The number of query plans evicted by the size limit")
+                .register(registry);
+
+        Gauge.builder("cache.size", cache, QueryPlanCache::getSize)
+                .tag("cache", CACHE_NAME)
+                .description("The number of compiled query plans")
+                .register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+
+import java.util.List;
+
+/**
+ * Normalized shape of a search query: everything that changes the JPQL text, and nothing
+ * that only changes the bound values.
+ *
+ * <p>Two searches with the same shape produce the same JPQL string and the same parameter
+ * binding plan, so the compiled {@link QueryConfig} can be shared between them.
+ *
+ * @param baseQuery          the base JPQL query; it carries the entity and the join set
+ * @param specialWhereClause the DAO specific where clause, if any
+ * @param whereClauseJoinOp  the operator joining the where clauses, normalized to upper case
+ * @param whereClauses       the field/operator list, in the order of the search criteria
+ * @param sortByClauses      the sort list
+ * @param keysetMask         the null pattern of the keyset cursor (see {@link KeysetCursor#getMask()}),
+ *                           or {@code null} outside of keyset mode
+ */
+public record QueryShape(String baseQuery,
+                         String specialWhereClause,
+                         WhereClauseJoinOp whereClauseJoinOp,
+                         List<ClauseShape> whereClauses,
+                         List<ClauseShape> sortByClauses,
+                         String keysetMask) {
+
+    public static QueryShape of(String baseQuery, String specialWhereClause, AbstractSearchCriteria sc) {
+        return of(baseQuery, specialWhereClause, sc, null);
+    }
+
+    public static QueryShape of(String baseQuery, String specialWhereClause, AbstractSearchCriteria sc, KeysetCursor cursor) {
+        return of(baseQuery, specialWhereClause, sc, cursor, true);
+    }
+
+    /**
+     * @param sorted false when the query ignores the sort-by clauses; the shape then has none
+     */
+    public static QueryShape of(String baseQuery, String specialWhereClause, AbstractSearchCriteria sc, KeysetCursor cursor, boolean sorted) {
+        var whereClauses = sc.getWhereClauses() == null ? List.<ClauseShape>of() : sc.getWhereClauses()
+                .stream()
+                .map(QueryShape::toShape)
+                .toList();
+
+        var sortByClauses = !sorted || sc.getSortByClauses() == null ? List.<ClauseShape>of() : sc.getSortByClauses()
+                .stream()
+                .map(QueryShape::toShape)
+                .toList();
+
+        var keysetMask = cursor == null ? null : cursor.getMask();
+
+        return new QueryShape(baseQuery, specialWhereClause, normalize(sc.getWhereClauseJoinOp()), whereClauses, sortByClauses, keysetMask);
+    }
+
+    private static WhereClauseJoinOp normalize(WhereClauseJoinOp joinOp) {
+        return switch (joinOp) {
+            case null -> WhereClauseJoinOp.AND;
+            case AND, and -> WhereClauseJoinOp.AND;
+            case OR, or -> WhereClauseJoinOp.OR;
+        };
+    }
+
+    static ClauseShape toShape(WhereClause whereClause) {
+        return new ClauseShape(QueryConfig.resolveRootEntity(whereClause),
+                QueryConfig.resolveFieldName(whereClause),
+                whereClause.getOper().name());
+    }
+
+    static ClauseShape toShape(SortByClause sortByClause) {
+        return new ClauseShape(QueryConfig.resolveRootEntity(sortByClause),
+                QueryConfig.resolveFieldName(sortByClause),
+                QueryConfig.resolveSortType(sortByClause).name());
+    }
+
+    /**
+     * Shape of one where or sort-by clause.
+     *
+     * @param rootEntity the entity alias the clause applies to
+     * @param fieldName  the entity field name
+     * @param operator   the filter operator, or the sort direction
+     */
+    public record ClauseShape(String rootEntity, String fieldName, String operator) {
+    }
+}
@@ -0,0 +1,330 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+import ca.bigmwaj.emapp.as.entity.platform.ContactEmailEntity;
+import ca.bigmwaj.emapp.as.entity.platform.ContactEntity;
+import ca.bigmwaj.emapp.as.entity.platform.ContactPhoneEntity;
+import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory trigram indexes of the text columns searched with {@code like} from typeahead
+ * fields: user names, contact names, emails and phones.
+ *
+ * <p>A {@code like} where clause on an indexed column gets an {@code id in (...)} clause on the
+ * same alias, added next to it in a copy of the criteria the queries run, so MySQL reads the
+ * candidate rows by primary key instead of scanning the table with {@code lower(x) like '%value%'}.
+ * The criteria of the caller, which keys the cached results and totals, is left as is. The index may
+ * select rows the collation of the column does not match, so the {@code like} clause is kept and
+ * the database still decides what matches. Nothing is added when the index is not loaded yet,
+ * when the where clauses are joined with OR, when the value is shorter than a trigram or has a
+ * SQL wildcard, when it matches more than {@code app.search.index.max-candidates} rows, or when
+ * the alias is filtered through an exists subquery, where each where clause gets its own subquery
+ * and an {@code id in (...)} clause would not narrow the {@code like} one.
+ *
+ * <p>The indexes are loaded when the application is ready, then follow the committed inserts,
+ * updates and deletes of the indexed entities through Hibernate post-commit events, whichever
+ * service writes them. Bulk JPQL statements bypass these events.
+ */
+@Component
+public class SearchIndex implements MeterBinder, PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final Map<Class<?>, List<String>> INDEXED_FIELDS = Map.of(
+            UserEntity.class, List.of("username"),
+            ContactEntity.class, List.of("firstName", "lastName"),
+            ContactEmailEntity.class, List.of("email"),
+            ContactPhoneEntity.class, List.of("phone"));
+
+    private static final String ID_FIELD = "id";
+
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    private final LongAdder resolvedCount = new LongAdder();
+
+    private final LongAdder unresolvedCount = new LongAdder();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final boolean enabled;
+
+    private final int maxCandidates;
+
+    private volatile boolean loading;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public SearchIndex(EntityManagerFactory entityManagerFactory,
+                       @Value("${app.search.index.enabled:true}") boolean enabled,
+                       @Value("${app.search.index.max-candidates:1000}") int maxCandidates) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+
+        INDEXED_FIELDS.forEach((entityClass, fieldNames) -> {
+            var idType = entityManagerFactory.getMetamodel().entity(entityClass).getIdType().getJavaType();
+            fieldNames.forEach(fieldName -> columns.put(key(entityClass, fieldName), new Column(entityClass, fieldName, idType)));
+        });
+
+        if (enabled) {
+            var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+    }
+
+    private static String key(Class<?> entityClass, String fieldName) {
+        return entityClass.getSimpleName() + "." + fieldName;
+    }
+
+    /**
+     * Loads every indexed column. Rows written while loading keep the value of their write event.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        loading = true;
+        var start = System.nanoTime();
+        var em = entityManagerFactory.createEntityManager();
+        try {
+            for (var column : columns.values()) {
+                var query = String.format("select e.%s, e.%s from %s e", ID_FIELD, column.fieldName(), column.entityClass().getSimpleName());
+                try (var rows = em.createQuery(query, Object[].class).getResultStream()) {
+                    rows.forEach(row -> {
+                        var id = ((Number) row[0]).longValue();
+                        if (!column.written().contains(id)) {
+                            column.index().put(id, (String) row[1]);
+                        }
+                    });
+                }
+                em.clear();
+            }
+            ready = true;
+            logger.info("Search index loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Search index load failed; like clauses are left to the database", e);
+        } finally {
+            loading = false;
+            columns.values().forEach(c -> c.written().clear());
+            em.close();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds to each {@code like} clause of the criteria that an index can answer an
+     * {@code id in (...)} clause on the same alias, right after it.
+     *
+     * @param dao the DAO searched, whose {@link AbstractDao#getSearchAliases()} give the indexed aliases
+     * @return a copy of the criteria with the added clauses, or the criteria itself when nothing is added
+     */
+    public AbstractSearchCriteria resolve(AbstractSearchCriteria sc, AbstractDao<?, ?> dao) {
+        var aliases = dao.getSearchAliases();
+        if (!ready || aliases.isEmpty() || sc.getWhereClauses() == null || isJoinedWithOr(sc)) {
+            return sc;
+        }
+
+        // The count query ignores the sort-by clauses, so each of these aliases is an exists subquery there
+        var existsAliases = dao.getExistsSubqueries(sc, false).keySet();
+
+        var whereClauses = new ArrayList<>(sc.getWhereClauses());
+        var resolved = false;
+        for (int i = 0; i < whereClauses.size(); i++) {
+            var whereClause = whereClauses.get(i);
+            if (whereClause.getOper() != WhereClause.oper.like || whereClause.getValues() == null || whereClause.getValues().isEmpty()) {
+                continue;
+            }
+            var alias = QueryConfig.resolveRootEntity(whereClause);
+            var entityClass = existsAliases.contains(alias) ? null : aliases.get(alias);
+            var column = entityClass == null ? null : columns.get(key(entityClass, QueryConfig.resolveFieldName(whereClause)));
+            if (column == null) {
+                continue;
+            }
+
+            var ids = search(column, whereClause.getValues().getFirst().toString());
+            if (ids == null) {
+                unresolvedCount.increment();
+                continue;
+            }
+            resolvedCount.increment();
+            // Skips the added clause
+            whereClauses.add(++i, idClause(whereClause.getName(), alias, column.idType(), ids));
+            resolved = true;
+        }
+
+        if (!resolved) {
+            return sc;
+        }
+        var copy = BeanUtils.instantiateClass(sc.getClass());
+        BeanUtils.copyProperties(sc, copy);
+        copy.setWhereClauses(whereClauses);
+        return copy;
+    }
+
+    private static boolean isJoinedWithOr(AbstractSearchCriteria sc) {
+        return sc.getWhereClauseJoinOp() == WhereClauseJoinOp.OR || sc.getWhereClauseJoinOp() == WhereClauseJoinOp.or;
+    }
+
+    private long[] search(Column column, String fragment) {
+        // '%' and '_' are wildcards of the like clause
+        if (fragment.indexOf('%') >= 0 || fragment.indexOf('_') >= 0) {
+            return null;
+        }
+        var ids = column.index().search(fragment);
+        return ids == null || ids.length > maxCandidates ? null : ids;
+    }
+
+    private static WhereClause idClause(String name, String alias, Class<?> idType, long[] ids) {
+        var values = Arrays.stream(ids)
+                .mapToObj(id -> toIdType(idType, id))
+                .toList();
+        var whereClause = new WhereClause(name, WhereClause.oper.in, values);
+        whereClause.setRootEntityName(alias);
+        whereClause.setEntityFieldName(ID_FIELD);
+        return whereClause;
+    }
+
+    private static Object toIdType(Class<?> idType, long id) {
+        if (idType == Short.class) {
+            return (short) id;
+        }
+        if (idType == Integer.class) {
+            return (int) id;
+        }
+        return id;
+    }
+
+    private void onWrite(EntityPersister persister, Object id, Object entity) {
+        var fieldNames = INDEXED_FIELDS.get(persister.getMappedClass());
+        if (fieldNames == null) {
+            return;
+        }
+        var rowId = ((Number) id).longValue();
+        for (var fieldName : fieldNames) {
+            var column = columns.get(key(persister.getMappedClass(), fieldName));
+            if (loading) {
+                column.written().add(rowId);
+            }
+            if (entity == null) {
+                column.index().remove(rowId);
+            } else {
+                column.index().put(rowId, (String) persister.getPropertyValue(entity, fieldName));
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onWrite(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onWrite(event.getPersister(), event.getId(), event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onWrite(event.getPersister(), event.getId(), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return INDEXED_FIELDS.containsKey(persister.getMappedClass());
+    }
+
+    public long getResolvedCount() {
+        return resolvedCount.sum();
+    }
+
+    public long getUnresolvedCount() {
+        return unresolvedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        columns.forEach((key, column) -> Gauge.builder("search.index.size", column.index(), TrigramIndex::size)
+                .tag("column", key)
+                .description("The number of rows of the search index")
+                .register(registry));
+
+        FunctionCounter.builder("search.index.clauses", this, SearchIndex::getResolvedCount)
+                .tag("result", "resolved")
+                .description("The number of like clauses answered by the search index")
+                .register(registry);
+
+        FunctionCounter.builder("search.index.clauses", this, SearchIndex::getUnresolvedCount)
+                .tag("result", "unresolved")
+                .description("The number of like clauses on indexed columns left to the database")
+                .register(registry);
+    }
+
+    /**
+     * @param written the ids written while the index loads, which the load must not overwrite
+     */
+    private record Column(Class<?> entityClass, String fieldName, Class<?> idType, TrigramIndex index, Set<Long> written) {
+
+        Column(Class<?> entityClass, String fieldName, Class<?> idType) {
+            this(entityClass, fieldName, idType, new TrigramIndex(), ConcurrentHashMap.newKeySet());
+        }
+    }
+}
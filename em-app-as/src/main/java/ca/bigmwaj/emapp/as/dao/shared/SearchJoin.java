@@ -0,0 +1,18 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+/**
+ * A join of a search query, added only when a where or sort-by clause refers to its alias.
+ *
+ * <p>A where clause on a child collection is compiled into an {@code exists (...)} subquery
+ * instead, unless a sort-by clause already needs the join.
+ *
+ * @param alias          the alias the clauses refer to (see {@code SupportedField#rootEntityName})
+ * @param parent         the alias this join depends on, or {@code null} when it joins the root entity
+ * @param clause         the JPQL join clause
+ * @param collection     true when the join can return more than one row per root entity
+ * @param existsSubquery the correlated subquery used instead of the join by where clauses, e.g.
+ *                       {@code select 1 from ContactPhoneEntity cp where cp.contact = qRoot};
+ *                       {@code null} when the where clauses need the join
+ */
+public record SearchJoin(String alias, String parent, String clause, boolean collection, String existsSubquery) {
+}
@@ -0,0 +1,190 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Latency and row metrics of the search queries, per query shape.
+ *
+ * <p>Every search query is timed as {@code search.query} (with a percentile histogram), and the
+ * rows it returns are recorded as {@code search.rows}. The rows the database returned to
+ * Hibernate for the search JPQL of a shape are counted as {@code search.query.rows}, from the
+ * Hibernate query statistics ({@code hibernate.generate_statistics}); the DAO notes each JPQL it
+ * runs with {@link #onQuery(String)} while the shape is measured. The tags describe the shape of
+ * the query without any filter value:
+ * <ul>
+ *   <li>{@code entity}: the searched entity</li>
+ *   <li>{@code operation}: {@code find}, {@code keyset}, {@code projection}, {@code count} or {@code estimate}</li>
+ *   <li>{@code operators}: the sorted set of where clause operators</li>
+ *   <li>{@code joins}: the joined aliases, and the aliases filtered through an exists subquery</li>
+ *   <li>{@code sort}: the sort-by fields and directions</li>
+ * </ul>
+ */
+@Component
+public class SearchMetrics {
+
+    private static final String NONE = "none";
+
+    /**
+     * The JPQL run by the measure of the current thread, or null outside of a measure.
+     */
+    private static final ThreadLocal<Set<String>> QUERIES = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    private final Statistics statistics;
+
+    private final Map<Tags, ShapeMeters> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SearchMetrics(MeterRegistry registry, EntityManagerFactory entityManagerFactory) {
+        this.registry = registry;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Notes a search JPQL run by the current thread, so that its rows are counted for the shape
+     * being measured. Does nothing outside of a measure.
+     */
+    public static void onQuery(String jpql) {
+        var queries = QUERIES.get();
+        if (queries != null) {
+            queries.add(jpql);
+        }
+    }
+
+    /**
+     * Times a page query, and records its rows.
+     */
+    public <T> List<T> recordFind(AbstractDao<?, ?> dao, AbstractSearchCriteria sc, String operation, Supplier<List<T>> find) {
+        return measure(tags(dao, sc, operation, true), find, List::size);
+    }
+
+    /**
+     * Times a count query, and records the number of matches as its returned rows.
+     */
+    public long recordCount(AbstractDao<?, ?> dao, AbstractSearchCriteria sc, String operation, LongSupplier count) {
+        return measure(tags(dao, sc, operation, false), count::getAsLong, Long::longValue);
+    }
+
+    private <T> T measure(Tags tags, Supplier<T> query, ToLongFunction<T> returnedRows) {
+        var shapeMeters = meters.computeIfAbsent(tags, ShapeMeters::new);
+        var previous = QUERIES.get();
+        var queries = new HashSet<String>();
+        QUERIES.set(queries);
+
+        var sample = Timer.start(registry);
+        var timer = shapeMeters.error;
+        try {
+            var result = query.get();
+            timer = shapeMeters.success;
+            shapeMeters.returned.record(returnedRows.applyAsLong(result));
+            return result;
+        } finally {
+            sample.stop(timer);
+            QUERIES.set(previous);
+            shapeMeters.queries.addAll(queries);
+        }
+    }
+
+    /**
+     * The meters of a query shape, registered once.
+     */
+    private final class ShapeMeters {
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private final DistributionSummary returned;
+
+        /**
+         * The JPQL of the shape; a few when the keyset cursors of the shape have different null patterns.
+         */
+        private final Set<String> queries = ConcurrentHashMap.newKeySet();
+
+        private ShapeMeters(Tags tags) {
+            success = timer(tags.and("outcome", "success"));
+            error = timer(tags.and("outcome", "error"));
+            returned = DistributionSummary.builder("search.rows")
+                    .tags(tags)
+                    .tag("rows", "returned")
+                    .description("The rows of the search queries, per query shape")
+                    .register(registry);
+            FunctionCounter.builder("search.query.rows", this, ShapeMeters::getReadRows)
+                    .tags(tags)
+                    .description("The rows the database returned for the search queries, per query shape")
+                    .register(registry);
+        }
+
+        private double getReadRows() {
+            return queries.stream()
+                    .mapToLong(e -> statistics.getQueryStatistics(e).getExecutionRowCount())
+                    .sum();
+        }
+
+        private Timer timer(Tags tags) {
+            return Timer.builder("search.query")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .description("The duration of the search queries, per query shape")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * @param sorted false for the queries that ignore the sort-by clauses
+     */
+    static Tags tags(AbstractDao<?, ?> dao, AbstractSearchCriteria sc, String operation, boolean sorted) {
+        var operators = new TreeSet<String>();
+        var joins = new TreeSet<String>();
+        if (sc.getWhereClauses() != null) {
+            var existsSubqueries = dao.getExistsSubqueries(sc, sorted);
+            sc.getWhereClauses().forEach(e -> {
+                operators.add(e.getOper().name());
+                var alias = QueryConfig.resolveRootEntity(e);
+                if (existsSubqueries.containsKey(alias)) {
+                    joins.add("exists:" + alias);
+                }
+            });
+        }
+        dao.getRequiredSearchJoins(sc, sorted).forEach(e -> joins.add(e.alias()));
+
+        var sort = !sorted || sc.getSortByClauses() == null ? List.<String>of() : sc.getSortByClauses()
+                .stream()
+                .map(QueryShape::toShape)
+                .map(e -> e.rootEntity() + "." + e.fieldName() + " " + e.operator())
+                .toList();
+
+        return Tags.of("entity", dao.getEntityClass().getSimpleName(),
+                "operation", operation,
+                "operators", join(operators),
+                "joins", join(joins),
+                "sort", join(sort));
+    }
+
+    private static String join(Iterable<String> values) {
+        var joined = String.join(",", values);
+        return joined.isEmpty() ? NONE : joined;
+    }
+}
@@ -0,0 +1,138 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of exact search totals ({@code calculateStatTotal}), keyed by the count query shape
+ * and its bound values.
+ *
+ * <p>An entry expires after {@code app.search.total.cache-ttl}, and as soon as one of the
+ * entity classes the search reads is written (see {@link EntityWriteTracker}). Hits, misses
+ * and size are published as {@code cache.gets} / {@code cache.size} with tag {@code cache=searchTotal}.
+ */
+@Component
+public class SearchTotalCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "searchTotal";
+
+    private final Map<Key, Entry> totals = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final EntityWriteTracker writeTracker;
+
+    private final long ttlNanos;
+
+    private final int maximumSize;
+
+    /**
+     * Bound of the "estimate" mode: a search with more matches reports "bound+".
+     */
+    @Getter
+    private final int estimateBound;
+
+    @Autowired
+    public SearchTotalCache(EntityWriteTracker writeTracker,
+                            @Value("${app.search.total.cache-ttl:30s}") Duration ttl,
+                            @Value("${app.search.total.cache-maximum-size:10000}") int maximumSize,
+                            @Value("${app.search.total.estimate-bound:1000}") int estimateBound) {
+        this.writeTracker = writeTracker;
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+        this.estimateBound = estimateBound;
+    }
+
+    /**
+     * Returns the cached total of the search, counting it on a miss.
+     *
+     * @param key          the search key (see {@code AbstractDao#getTotalKey})
+     * @param dependencies the entity classes the search reads
+     * @param counter      runs the count query
+     * @return the total
+     */
+    public long getOrCount(Key key, Collection<? extends Class<?>> dependencies, LongSupplier counter) {
+        // The version is read before counting, so a write committed meanwhile invalidates the entry
+        var version = writeTracker.getVersion(dependencies);
+        var now = System.nanoTime();
+
+        var entry = totals.get(key);
+        if (entry != null && entry.version() == version && now - entry.expiresAt() < 0) {
+            hitCount.increment();
+            return entry.total();
+        }
+
+        missCount.increment();
+        var total = counter.getAsLong();
+        if (totals.size() >= maximumSize) {
+            totals.values().removeIf(e -> now - e.expiresAt() >= 0);
+        }
+        if (totals.size() < maximumSize) {
+            totals.put(key, new Entry(total, version, now + ttlNanos));
+        }
+        return total;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int getSize() {
+        return totals.size();
+    }
+
+    public void clear() {
+        totals.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, SearchTotalCache::getHitCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .description("The number of search totals read from the cache")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", this, SearchTotalCache::getMissCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .description("The number of search totals counted in the database")
+                .register(registry);
+
+        Gauge.builder("cache.size", this, SearchTotalCache::getSize)
+                .tag("cache", CACHE_NAME)
+                .description("The number of cached search totals")
+                .register(registry);
+    }
+
+    /**
+     * @param shape  the count query shape
+     * @param values the values of the where clauses, in order
+     * @param params the values of the DAO specific where clause
+     */
+    public record Key(QueryShape shape, List<List<?>> values, Map<String, Object> params) {
+    }
+
+    private record Entry(long total, long version, long expiresAt) {
+    }
+}
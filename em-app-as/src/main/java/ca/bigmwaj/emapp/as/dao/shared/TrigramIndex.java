@@ -0,0 +1,292 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram inverted index of one text column, selecting the candidate rows of
+ * {@code lower(x) like '%fragment%'} without reading the table.
+ *
+ * <p>Each value is normalized (see {@link #normalize(String)}) then split into its 3-character
+ * substrings; every trigram keeps the sorted ids of the rows containing it in a primitive
+ * {@code long[]}. The trigrams and the row values are themselves kept in sorted {@code long[]}
+ * keys, looked up by binary search, so that no id or trigram is boxed. A fragment is answered by intersecting the lists of its trigrams, smallest
+ * first, then checking the candidates against their normalized value.
+ *
+ * <p>The normalization ignores case and accents, as the default collation of MySQL does, so the
+ * result may hold rows the database would not match, but should not miss any: the database
+ * keeps deciding what matches.
+ */
+public class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final LongArrayMap<Postings> postings = new LongArrayMap<>();
+
+    private final LongArrayMap<String> values = new LongArrayMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes the value of a row, replacing its previous value.
+     *
+     * @param value the column value; a {@code null} value removes the row
+     */
+    public void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            if (value != null) {
+                var normalized = normalize(value);
+                values.put(id, normalized);
+                for (var gram : grams(normalized)) {
+                    var list = postings.get(gram);
+                    if (list == null) {
+                        list = new Postings();
+                        postings.put(gram, list);
+                    }
+                    list.add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(long id) {
+        var previous = values.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (var gram : grams(previous)) {
+            var list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * @param fragment the text of a {@code like} filter, without wildcard
+     * @return the sorted ids of the rows whose value contains the fragment, ignoring case and
+     * accents, or {@code null} when the fragment is shorter than a trigram and cannot be answered
+     * by the index
+     */
+    public long[] search(String fragment) {
+        var normalized = fragment == null ? null : normalize(fragment);
+        if (normalized == null || normalized.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            var grams = grams(normalized);
+            var lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(e -> e.size));
+
+            var candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            var count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = lists[i].retain(candidates, count);
+            }
+
+            // The trigrams may all be present without being contiguous
+            var matches = 0;
+            for (int i = 0; i < count; i++) {
+                if (values.get(candidates[i]).contains(normalized)) {
+                    candidates[matches++] = candidates[i];
+                }
+            }
+            return Arrays.copyOf(candidates, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            values.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the value in lower case, whatever the default locale, without its diacritics
+     * (e.g., "José" becomes "jose")
+     */
+    static String normalize(String value) {
+        var decomposed = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * @return the sorted distinct trigrams of a normalized value, each packed as three 16-bit chars
+     */
+    static long[] grams(String value) {
+        var grams = new long[Math.max(0, value.length() - GRAM_LENGTH + 1)];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        var count = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (count == 0 || grams[count - 1] != grams[i]) {
+                grams[count++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, count);
+    }
+
+    /**
+     * Map of sorted {@code long} keys, with the value of each key at the same position. Keys are
+     * mostly added in increasing order, which appends.
+     */
+    private static final class LongArrayMap<V> {
+
+        private long[] keys = new long[16];
+
+        private Object[] values = new Object[16];
+
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        V get(long key) {
+            var position = Arrays.binarySearch(keys, 0, size, key);
+            return position < 0 ? null : (V) values[position];
+        }
+
+        void put(long key, V value) {
+            var position = size == 0 || keys[size - 1] < key ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+            if (position >= 0) {
+                values[position] = value;
+                return;
+            }
+            var insertion = -position - 1;
+            if (size == keys.length) {
+                var capacity = keys.length + (keys.length >> 1) + 1;
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+            System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+            keys[insertion] = key;
+            values[insertion] = value;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(long key) {
+            var position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                return null;
+            }
+            var value = (V) values[position];
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            values[--size] = null;
+            return value;
+        }
+
+        void clear() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Sorted list of ids, growing by half. Ids are mostly added in increasing order, which appends.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            var position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            var insertion = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            var position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Keeps in {@code candidates} the ids that are also in this list.
+         *
+         * @return the number of ids kept, moved to the head of {@code candidates}
+         */
+        int retain(long[] candidates, int count) {
+            var kept = 0;
+            var from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                var position = Arrays.binarySearch(ids, from, size, candidates[i]);
+                if (position >= 0) {
+                    candidates[kept++] = candidates[i];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            return kept;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+        }
+    }
+}
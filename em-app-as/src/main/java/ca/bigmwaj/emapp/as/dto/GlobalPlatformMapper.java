@@ -1,7 +1,9 @@
 package ca.bigmwaj.emapp.as.dto;
 
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
 import ca.bigmwaj.emapp.as.dto.platform.*;
 import ca.bigmwaj.emapp.as.entity.platform.*;
+import ca.bigmwaj.emapp.as.lvo.platform.AccountContactRoleLvo;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -141,6 +143,57 @@ public interface GlobalPlatformMapper {
     @Mapping(target = "role", source = "roleId", qualifiedByName = "mapRoleId")
     UserRoleEntity toEntity(RoleUserDto dto);
 
+    /**
+     * Search result profile of a user: the contact points of its contact are mapped only when
+     * included (e.g., {@code contact.phones}).
+     */
+    default UserDto toDto(UserEntity entity, FetchPlan plan) {
+        var dto = toDto(entity);
+        if (dto.getContact() != null) {
+            mapContactPoints(entity.getContact(), dto.getContact(), plan.subPlan("contact"));
+        }
+        return dto;
+    }
+
+    /**
+     * Search result profile of a contact: {@code emails}, {@code phones} and {@code addresses}
+     * are mapped only when included.
+     */
+    default ContactDto toDto(ContactEntity entity, FetchPlan plan) {
+        var dto = toDto(entity);
+        mapContactPoints(entity, dto, plan);
+        return dto;
+    }
+
+    /**
+     * Search result profile of an account: {@code accountContacts} maps every account contact,
+     * {@code mainContact} only the principal ones.
+     */
+    default AccountDto toDto(AccountEntity entity, FetchPlan plan) {
+        var dto = toDto(entity);
+        if (plan.includes("accountContacts")) {
+            dto.setAccountContacts(entity.getAccountContacts().stream().map(this::toDto).toList());
+        } else if (plan.includes("mainContact")) {
+            dto.setAccountContacts(entity.getAccountContacts().stream()
+                    .filter(e -> AccountContactRoleLvo.PRINCIPAL.equals(e.getRole()))
+                    .map(this::toDto)
+                    .toList());
+        }
+        return dto;
+    }
+
+    default void mapContactPoints(ContactEntity entity, ContactDto dto, FetchPlan plan) {
+        if (plan.includes("emails")) {
+            dto.setEmails(entity.getEmails().stream().map(this::toDto).toList());
+        }
+        if (plan.includes("phones")) {
+            dto.setPhones(entity.getPhones().stream().map(this::toDto).toList());
+        }
+        if (plan.includes("addresses")) {
+            dto.setAddresses(entity.getAddresses().stream().map(this::toDto).toList());
+        }
+    }
+
     @Named("mapContact")
     default Long mapContact(ContactDto contact) {
         return contact != null ? contact.getId() : null;
@@ -157,12 +210,12 @@ public interface GlobalPlatformMapper {
     }
 
     @Named("mapAccount")
-    default Short mapAccount(AccountDto account) {
+    default Long mapAccount(AccountDto account) {
         return account != null ? account.getId() : null;
     }
 
     @Named("mapAccountId")
-    default AccountEntity mapAccountId(Short accountId) {
+    default AccountEntity mapAccountId(Long accountId) {
         if (accountId == null) {
             return null;
         }
@@ -172,12 +225,12 @@ public interface GlobalPlatformMapper {
     }
 
     @Named("mapGroup")
-    default Short mapGroup(GroupDto group) {
+    default Long mapGroup(GroupDto group) {
         return group != null ? group.getId() : null;
     }
 
     @Named("mapGroupId")
-    default GroupEntity mapGroupId(Short groupId) {
+    default GroupEntity mapGroupId(Long groupId) {
         if (groupId == null) {
             return null;
         }
@@ -187,12 +240,12 @@ public interface GlobalPlatformMapper {
     }
 
     @Named("mapRole")
-    default Short mapRole(RoleDto role) {
+    default Long mapRole(RoleDto role) {
         return role != null ? role.getId() : null;
     }
 
     @Named("mapRoleId")
-    default RoleEntity mapRoleId(Short roleId) {
+    default RoleEntity mapRoleId(Long roleId) {
         if (roleId == null) {
             return null;
         }
@@ -202,12 +255,12 @@ public interface GlobalPlatformMapper {
     }
 
     @Named("mapUser")
-    default Short mapUser(UserDto user) {
+    default Long mapUser(UserDto user) {
         return user != null ? user.getId() : null;
     }
 
     @Named("mapUserId")
-    default UserEntity mapUserId(Short userId) {
+    default UserEntity mapUserId(Long userId) {
         if (userId == null) {
             return null;
         }
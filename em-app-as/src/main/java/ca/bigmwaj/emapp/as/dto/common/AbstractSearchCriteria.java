@@ -5,21 +5,28 @@ import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
 import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
 public abstract class AbstractSearchCriteria {
 
-    public static final Short DEFAULT_QUERY_LIMIT = 1_000;
+    public static final Integer DEFAULT_QUERY_LIMIT = 1_000;
+
+    public static final int MAX_PAGE_SIZE = Short.MAX_VALUE;
 
     @Positive
-    private Short pageSize;
+    @Max(MAX_PAGE_SIZE)
+    private Integer pageSize;
 
     @PositiveOrZero
     private Integer pageIndex;
@@ -28,11 +35,37 @@ public abstract class AbstractSearchCriteria {
 
     private boolean calculateStatTotal;
 
+    /**
+     * With {@link #calculateStatTotal}: counts at most a bounded number of matches (e.g., "1000+")
+     * instead of the exact total.
+     */
+    private boolean estimateStatTotal;
+
+    /**
+     * Opt-in keyset (seek) pagination: pages are read after the {@link #after} cursor
+     * instead of skipping {@code pageSize * pageIndex} rows, and {@link #pageIndex} is ignored.
+     */
+    private boolean keysetPagination;
+
+    /**
+     * Opaque cursor returned in {@code SearchInfos.after} by the previous keyset page.
+     */
+    private String after;
+
     @Valid
     private List<WhereClause> whereClauses;
 
+    /**
+     * Comma separated association paths to load and map (e.g., {@code contact.phones,contact.emails}).
+     */
     private String include;
 
+    /**
+     * Comma separated DTO fields to return (e.g., {@code username,status,contact.lastName}); only
+     * their columns are read. The other fields of the returned DTOs are left empty.
+     */
+    private String fields;
+
     @Valid
     private List<SortByClause> sortByClauses;
 
@@ -47,8 +80,38 @@ public abstract class AbstractSearchCriteria {
         return pageIndex;
     }
 
+    /**
+     * @return the association paths of {@link #include}; subclasses add those of their include flags
+     */
+    @JsonIgnore
+    public Set<String> getIncludes() {
+        var includes = new LinkedHashSet<String>();
+        if (include != null) {
+            Arrays.stream(include.split(","))
+                    .map(String::trim)
+                    .filter(e -> !e.isEmpty())
+                    .forEach(includes::add);
+        }
+        return includes;
+    }
+
+    /**
+     * @return the DTO fields of {@link #fields}, in order; empty when the whole DTOs are requested
+     */
+    @JsonIgnore
+    public Set<String> getFieldSet() {
+        var fieldSet = new LinkedHashSet<String>();
+        if (fields != null) {
+            Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(e -> !e.isEmpty())
+                    .forEach(fieldSet::add);
+        }
+        return fieldSet;
+    }
+
     @JsonIgnore
-    public Short getLimit() {
+    public Integer getLimit() {
         if (pageSize == null) {
             return DEFAULT_QUERY_LIMIT;
         }
@@ -13,7 +13,7 @@ import lombok.experimental.SuperBuilder;
 @SuperBuilder(toBuilder = true, setterPrefix = "with")
 public class AccountContactDto extends AbstractChangeTrackingDto {
 
-    private Short accountId;
+    private Long accountId;
 
     private ContactDto contact;
 
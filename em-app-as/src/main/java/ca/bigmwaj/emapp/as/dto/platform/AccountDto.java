@@ -17,7 +17,7 @@ import java.util.List;
 @SuperBuilder(toBuilder = true, setterPrefix = "with")
 public class AccountDto extends AbstractStatusTrackingDto<AccountStatusLvo> {
 
-    private Short id;
+    private Long id;
 
     private String name;
 
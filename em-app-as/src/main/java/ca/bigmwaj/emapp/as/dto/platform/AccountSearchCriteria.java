@@ -5,11 +5,14 @@ import ca.bigmwaj.emapp.as.lvo.platform.AccountStatusLvo;
 import ca.bigmwaj.emapp.as.validator.shared.SupportedField;
 import ca.bigmwaj.emapp.as.validator.shared.ValidSortByClausePatterns;
 import ca.bigmwaj.emapp.as.validator.shared.ValidWhereClausePatterns;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.util.Set;
+
 @EqualsAndHashCode(callSuper = true)
 @Data
 @NoArgsConstructor
@@ -44,4 +47,16 @@ public class AccountSearchCriteria extends AbstractSearchCriteria {
 
     private boolean includeAccountContacts;
 
+    @Override
+    @JsonIgnore
+    public Set<String> getIncludes() {
+        var includes = super.getIncludes();
+        if (includeMainContact) {
+            includes.add("mainContact");
+        }
+        if (includeAccountContacts) {
+            includes.add("accountContacts");
+        }
+        return includes;
+    }
 }
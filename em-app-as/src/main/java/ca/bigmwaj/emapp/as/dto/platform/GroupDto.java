@@ -16,7 +16,7 @@ import java.util.List;
 @NoArgsConstructor
 public class GroupDto extends AbstractChangeTrackingDto {
 
-    private Short id;
+    private Long id;
 
     private String name;
 
@@ -12,7 +12,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public class GroupRoleDto extends AbstractChangeTrackingDto {
 
-    private Short groupId;
+    private Long groupId;
 
     private RoleDto role;
 }
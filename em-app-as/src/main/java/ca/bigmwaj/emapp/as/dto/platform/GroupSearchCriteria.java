@@ -26,6 +26,6 @@ import lombok.NoArgsConstructor;
         })
 public class GroupSearchCriteria extends AbstractSearchCriteria {
 
-    private Short assignableToGroupId;
+    private Long assignableToGroupId;
 
 }
@@ -12,7 +12,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public class GroupUserDto extends AbstractChangeTrackingDto {
 
-    private Short groupId;
+    private Long groupId;
 
     private UserDto user;
 }
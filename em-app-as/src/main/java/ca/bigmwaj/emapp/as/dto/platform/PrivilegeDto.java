@@ -12,7 +12,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public class PrivilegeDto extends AbstractBaseDto {
 
-    private Short id;
+    private Long id;
 
     private String name;
 
@@ -24,6 +24,6 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class PrivilegeSearchCriteria extends AbstractSearchCriteria {
 
-    private Short assignableToRoleId;
+    private Long assignableToRoleId;
 
 }
@@ -27,6 +27,6 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class RoleSearchCriteria extends AbstractSearchCriteria {
 
-    private Short assignableToGroupId;
+    private Long assignableToGroupId;
 
 }
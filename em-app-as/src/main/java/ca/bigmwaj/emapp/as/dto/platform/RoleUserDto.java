@@ -12,7 +12,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public class RoleUserDto extends AbstractChangeTrackingDto {
 
-    private Short roleId;
+    private Long roleId;
 
     private UserDto user;
 }
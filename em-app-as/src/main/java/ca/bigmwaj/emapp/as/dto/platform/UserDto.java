@@ -19,7 +19,7 @@ import java.util.List;
 @SuperBuilder(toBuilder = true, setterPrefix = "with")
 public class UserDto extends AbstractStatusTrackingDto<UserStatusLvo> {
 
-    private Short id;
+    private Long id;
 
     private String picture;
 
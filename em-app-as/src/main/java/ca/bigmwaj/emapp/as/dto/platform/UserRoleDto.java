@@ -12,7 +12,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 public class UserRoleDto extends AbstractChangeTrackingDto {
 
-    private Short userId;
+    private Long userId;
 
     private RoleDto role;
 }
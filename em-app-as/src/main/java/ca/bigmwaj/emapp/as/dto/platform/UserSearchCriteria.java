@@ -38,7 +38,7 @@ import lombok.NoArgsConstructor;
         })
 public class UserSearchCriteria extends AbstractSearchCriteria {
 
-    private Short assignableToRoleId;
+    private Long assignableToRoleId;
 
-    private Short assignableToGroupId;
+    private Long assignableToGroupId;
 }
@@ -0,0 +1,57 @@
+package ca.bigmwaj.emapp.as.dto.security;
+
+import ca.bigmwaj.emapp.as.lvo.platform.PrivilegeLvo;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of privileges, as a bitset indexed by {@link PrivilegeLvo} ordinal, so that
+ * checking a privilege is a single bit test.
+ */
+public final class PermissionSet {
+
+    public static final PermissionSet EMPTY = of(List.of());
+
+    private final long[] words;
+
+    private final List<GrantedAuthority> authorities;
+
+    private PermissionSet(long[] words, List<GrantedAuthority> authorities) {
+        this.words = words;
+        this.authorities = authorities;
+    }
+
+    public static PermissionSet of(Collection<PrivilegeLvo> privileges) {
+        var words = new long[(PrivilegeLvo.values().length + 63) >>> 6];
+        for (var privilege : privileges) {
+            words[privilege.ordinal() >>> 6] |= 1L << privilege.ordinal();
+        }
+
+        var authorities = new ArrayList<GrantedAuthority>();
+        for (var privilege : PrivilegeLvo.values()) {
+            if ((words[privilege.ordinal() >>> 6] & (1L << privilege.ordinal())) != 0) {
+                authorities.add(new AuthenticatedUserGrantedAuthority(privilege.name()));
+            }
+        }
+        return new PermissionSet(words, Collections.unmodifiableList(authorities));
+    }
+
+    public boolean has(PrivilegeLvo privilege) {
+        return (words[privilege.ordinal() >>> 6] & (1L << privilege.ordinal())) != 0;
+    }
+
+    /**
+     * @return one authority per privilege, named after the privilege (e.g., {@code PLATFORM_USER_VIEW})
+     */
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public int size() {
+        return authorities.size();
+    }
+}
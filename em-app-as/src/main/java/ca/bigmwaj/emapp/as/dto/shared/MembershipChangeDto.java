@@ -0,0 +1,22 @@
+package ca.bigmwaj.emapp.as.dto.shared;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Members to add to and remove from a group or a role, by id. Removals are applied first, so an
+ * id in both lists ends up a member. Adding a member twice or removing a non-member is a no-op.
+ */
+@Data
+@NoArgsConstructor
+public class MembershipChangeDto {
+
+    private List<@NotNull @Positive Long> added = new ArrayList<>();
+
+    private List<@NotNull @Positive Long> removed = new ArrayList<>();
+}
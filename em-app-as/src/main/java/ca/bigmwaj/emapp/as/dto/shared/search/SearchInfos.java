@@ -10,18 +10,31 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class SearchInfos {
 
-    public static final Short DEFAULT_QUERY_LIMIT = 1_000;
+    public static final Integer DEFAULT_QUERY_LIMIT = 1_000;
 
     private Long total;
 
-    private Short pageSize;
+    private Integer pageSize;
 
     private Integer pageIndex;
 
     private boolean calculateStatTotal;
 
+    /**
+     * True when {@link #total} is a lower bound: the search has more matches (e.g., "1000+").
+     */
+    private boolean totalEstimated;
+
+    private boolean keysetPagination;
+
+    /**
+     * In keyset mode, the cursor of the next page, or {@code null} when there is no next page.
+     */
+    private String after;
+
     public SearchInfos(AbstractSearchCriteria searchCriteria) {
         setCalculateStatTotal(searchCriteria.isCalculateStatTotal());
+        setKeysetPagination(searchCriteria.isKeysetPagination());
         setPageSize(searchCriteria.getPageSize());
         setPageIndex(searchCriteria.getPageIndex());
     }
@@ -35,7 +48,7 @@ public class SearchInfos {
     }
 
     @JsonIgnore
-    public Short getLimit() {
+    public Integer getLimit() {
         if (pageSize == null) {
             return DEFAULT_QUERY_LIMIT;
         }
@@ -0,0 +1,39 @@
+package ca.bigmwaj.emapp.as.entity.common;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Base class of the association entities (user role, group user, ...), whose key is made of the
+ * ids of the two associated entities.
+ *
+ * <p>An assigned key does not tell Spring Data whether the row exists, so {@code save} and
+ * {@code saveAll} would merge every new association, i.e. select it before inserting it. The
+ * entity rather knows whether it was loaded or persisted, and a new one is persisted right
+ * away, its insert joining the JDBC batch of the flush.
+ */
+@MappedSuperclass
+public abstract class AbstractAssociationEntity extends AbstractChangeTrackingEntity implements Persistable<Object> {
+
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public Object getId() {
+        return getDefaultKey();
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
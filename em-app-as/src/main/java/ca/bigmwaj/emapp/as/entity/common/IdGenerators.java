@@ -0,0 +1,27 @@
+package ca.bigmwaj.emapp.as.entity.common;
+
+/**
+ * The table the entity ids are allocated from.
+ *
+ * <p>MySQL has no sequence, and its auto-increment ({@code GenerationType.IDENTITY}) makes
+ * Hibernate run every insert on its own, to read the generated id back. The entities rather use
+ * a {@code @TableGenerator} on this table, with one row per entity (the segment). Hibernate's
+ * pooled optimizer reserves {@link #ALLOCATION_SIZE} ids per round trip to this table and hands
+ * them out from memory, so the inserts of an aggregate (a contact and its contact points, a
+ * group and its members) are sent in JDBC batches.
+ *
+ * <p>Ids are no longer gap free: the ids reserved and not used by an instance are lost when it stops.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "PLATFORM_ID_GENERATOR";
+
+    public static final String SEGMENT_COLUMN = "SEGMENT";
+
+    public static final String VALUE_COLUMN = "NEXT_VAL";
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
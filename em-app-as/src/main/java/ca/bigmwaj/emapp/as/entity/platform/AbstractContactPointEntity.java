@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractBaseEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.as.lvo.platform.OwnerTypeLvo;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -12,7 +13,10 @@ import lombok.EqualsAndHashCode;
 public abstract class AbstractContactPointEntity extends AbstractBaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "contactPointIdGenerator")
+    @TableGenerator(name = "contactPointIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_CONTACT_POINT",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
     private Long id;
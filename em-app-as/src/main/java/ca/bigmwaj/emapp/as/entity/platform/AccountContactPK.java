@@ -14,7 +14,7 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class AccountContactPK implements Serializable {
 
-    private Short account;
+    private Long account;
 
     private Long contact;
 
@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractStatusTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.as.lvo.platform.AccountStatusLvo;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -16,10 +17,13 @@ import java.util.List;
 public class AccountEntity extends AbstractStatusTrackingEntity<AccountStatusLvo> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "accountIdGenerator")
+    @TableGenerator(name = "accountIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_ACCOUNT",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
-    private Short id;
+    private Long id;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "STATUS", nullable = false)
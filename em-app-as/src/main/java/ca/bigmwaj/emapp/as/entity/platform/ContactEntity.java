@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractChangeTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.as.lvo.platform.OwnerTypeLvo;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -17,7 +18,10 @@ import java.util.List;
 public class ContactEntity extends AbstractChangeTrackingEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "contactIdGenerator")
+    @TableGenerator(name = "contactIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_CONTACT",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
     private Long id;
@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractStatusTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.dm.lvo.platform.DeadLetterStatusLvo;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -13,7 +14,10 @@ import lombok.EqualsAndHashCode;
 public class DeadLetterEntity extends AbstractStatusTrackingEntity<DeadLetterStatusLvo> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "deadLetterIdGenerator")
+    @TableGenerator(name = "deadLetterIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_DEAD_LETTER",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
     private Long id;
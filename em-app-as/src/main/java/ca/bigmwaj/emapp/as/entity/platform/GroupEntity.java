@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractChangeTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.as.lvo.platform.OwnerTypeLvo;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -16,10 +17,13 @@ import java.util.List;
 public class GroupEntity extends AbstractChangeTrackingEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "groupIdGenerator")
+    @TableGenerator(name = "groupIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_GROUP",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
-    private Short id;
+    private Long id;
 
     @Column(name = "NAME", nullable = false, unique = true, updatable = false)
     private String name;
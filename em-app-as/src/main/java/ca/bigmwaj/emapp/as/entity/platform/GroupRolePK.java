@@ -14,9 +14,9 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class GroupRolePK implements Serializable {
 
-    private Short group;
+    private Long group;
 
-    private Short role;
+    private Long role;
 
     public GroupRolePK(@Nonnull GroupRoleEntity entity) {
         super();
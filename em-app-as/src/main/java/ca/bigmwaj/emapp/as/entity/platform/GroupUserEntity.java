@@ -1,6 +1,6 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
-import ca.bigmwaj.emapp.as.entity.common.AbstractChangeTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.AbstractAssociationEntity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -10,7 +10,7 @@ import lombok.EqualsAndHashCode;
 @Entity
 @Table(name = "PLATFORM_GROUP_USER")
 @Data
-public class GroupUserEntity extends AbstractChangeTrackingEntity {
+public class GroupUserEntity extends AbstractAssociationEntity {
 
     @Id
     @ManyToOne
@@ -14,9 +14,9 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class GroupUserPK implements Serializable {
 
-    private Short group;
+    private Long group;
 
-    private Short user;
+    private Long user;
 
     public GroupUserPK(@Nonnull GroupUserEntity entity) {
         super();
@@ -1,6 +1,6 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
-import ca.bigmwaj.emapp.as.entity.common.AbstractChangeTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.AbstractAssociationEntity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -11,7 +11,7 @@ import lombok.EqualsAndHashCode;
 @Entity
 @Table(name = "PLATFORM_ROLE_PRIVILEGE")
 @Data
-public class RolePrivilegeEntity extends AbstractChangeTrackingEntity {
+public class RolePrivilegeEntity extends AbstractAssociationEntity {
 
     @Id
     @ManyToOne
@@ -14,9 +14,9 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class RolePrivilegePK implements Serializable {
 
-    private Short role;
+    private Long role;
 
-    private Short privilege;
+    private Long privilege;
 
     public RolePrivilegePK(@Nonnull RolePrivilegeEntity entity) {
         super();
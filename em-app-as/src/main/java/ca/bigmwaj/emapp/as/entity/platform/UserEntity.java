@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.entity.platform;
 
 import ca.bigmwaj.emapp.as.entity.common.AbstractStatusTrackingEntity;
+import ca.bigmwaj.emapp.as.entity.common.IdGenerators;
 import ca.bigmwaj.emapp.as.lvo.platform.OwnerTypeLvo;
 import ca.bigmwaj.emapp.as.lvo.platform.UserStatusLvo;
 import ca.bigmwaj.emapp.as.lvo.platform.UsernameTypeLvo;
@@ -15,10 +16,13 @@ import lombok.EqualsAndHashCode;
 public class UserEntity extends AbstractStatusTrackingEntity<UserStatusLvo> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "userIdGenerator")
+    @TableGenerator(name = "userIdGenerator", table = IdGenerators.TABLE, pkColumnName = IdGenerators.SEGMENT_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "PLATFORM_USER",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "ID", updatable = false)
     @EqualsAndHashCode.Include()
-    private Short id;
+    private Long id;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "STATUS", nullable = false)
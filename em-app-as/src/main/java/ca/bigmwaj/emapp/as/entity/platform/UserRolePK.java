@@ -14,9 +14,9 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class UserRolePK implements Serializable {
 
-    private Short user;
+    private Long user;
 
-    private Short role;
+    private Long role;
 
     public UserRolePK(@Nonnull UserRoleEntity entity) {
         super();
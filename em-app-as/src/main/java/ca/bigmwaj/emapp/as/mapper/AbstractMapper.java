@@ -1,12 +1,18 @@
 package ca.bigmwaj.emapp.as.mapper;
 
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
 import ca.bigmwaj.emapp.as.entity.common.AbstractBaseEntity;
 import ca.bigmwaj.emapp.as.entity.common.AbstractChangeTrackingEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 public class AbstractMapper {
 
@@ -37,4 +43,24 @@ public class AbstractMapper {
         }
         return entity;
     }
+
+    /**
+     * Loads the entities of the given ids with one query, instead of one {@code findById} per id.
+     *
+     * @param entityName the entity name of the error message
+     * @return the entities by id
+     * @throws IllegalArgumentException if one of the ids does not exist
+     */
+    protected <E, ID> Map<ID, E> findAllById(JpaRepository<E, ID> dao, Collection<ID> ids, Function<E, ID> idGetter, String entityName) {
+        var entities = new HashMap<ID, E>();
+        for (var chunk : AbstractDao.inListChunks(ids)) {
+            dao.findAllById(chunk).forEach(e -> entities.put(idGetter.apply(e), e));
+        }
+        for (var id : ids) {
+            if (!entities.containsKey(id)) {
+                throw new IllegalArgumentException(entityName + " not found with id: " + id);
+            }
+        }
+        return entities;
+    }
 }
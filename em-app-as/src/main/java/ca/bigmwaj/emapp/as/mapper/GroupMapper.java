@@ -8,6 +8,8 @@ import ca.bigmwaj.emapp.as.entity.platform.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 @Component
@@ -38,27 +40,65 @@ public class GroupMapper extends AbstractMapper {
     }
 
     public GroupUserEntity mappingForCreate(GroupEntity entity, GroupUserDto dto) {
-        var user = dto.getUser();
-        Objects.requireNonNull(user, "User must not be null");
-        Objects.requireNonNull(user.getId(), "User ID must not be null");
-        var userEntity = userDao.findById(user.getId()).orElseThrow(() -> new IllegalArgumentException("User not found with id: " + user.getId()));
+        return mappingForCreateGroupUsers(entity, List.of(dto)).getFirst();
+    }
+
+    /**
+     * Maps the users to add to a group, loading them with one query.
+     */
+    public List<GroupUserEntity> mappingForCreateGroupUsers(GroupEntity entity, List<GroupUserDto> dtos) {
+        var userIds = dtos.stream()
+                .map(dto -> {
+                    var user = dto.getUser();
+                    Objects.requireNonNull(user, "User must not be null");
+                    Objects.requireNonNull(user.getId(), "User ID must not be null");
+                    return user.getId();
+                })
+                .toList();
+        return mappingForCreateGroupUserIds(entity, userIds);
+    }
 
-        var child = new GroupUserEntity();
-        child.setGroup(entity);
-        child.setUser(userEntity);
-        return beforeCreateHistEntity(child);
+    /**
+     * Maps the users of the given ids to add to a group, loading them with one query
+     * per chunk of ids.
+     */
+    public List<GroupUserEntity> mappingForCreateGroupUserIds(GroupEntity entity, Collection<Long> userIds) {
+        var users = findAllById(userDao, userIds, UserEntity::getId, "User");
+        return userIds.stream()
+                .map(userId -> {
+                    var child = new GroupUserEntity();
+                    child.setGroup(entity);
+                    child.setUser(users.get(userId));
+                    return beforeCreateHistEntity(child);
+                })
+                .toList();
     }
 
     public GroupRoleEntity mappingForCreate(GroupEntity entity, GroupRoleDto dto) {
-        var role = dto.getRole();
-        Objects.requireNonNull(role, "Role must not be null");
-        Objects.requireNonNull(role.getId(), "Role ID must not be null");
+        return mappingForCreateGroupRoles(entity, List.of(dto)).getFirst();
+    }
 
-        var roleEntity = roleDao.findById(role.getId()).orElseThrow(() -> new IllegalArgumentException("Role not found with id: " + role.getId()));
+    /**
+     * Maps the roles to assign to a group, loading them with one query.
+     */
+    public List<GroupRoleEntity> mappingForCreateGroupRoles(GroupEntity entity, List<GroupRoleDto> dtos) {
+        var roleIds = dtos.stream()
+                .map(dto -> {
+                    var role = dto.getRole();
+                    Objects.requireNonNull(role, "Role must not be null");
+                    Objects.requireNonNull(role.getId(), "Role ID must not be null");
+                    return role.getId();
+                })
+                .toList();
 
-        var child = new GroupRoleEntity();
-        child.setGroup(entity);
-        child.setRole(roleEntity);
-        return beforeCreateHistEntity(child);
+        var roles = findAllById(roleDao, roleIds, RoleEntity::getId, "Role");
+        return roleIds.stream()
+                .map(roleId -> {
+                    var child = new GroupRoleEntity();
+                    child.setGroup(entity);
+                    child.setRole(roles.get(roleId));
+                    return beforeCreateHistEntity(child);
+                })
+                .toList();
     }
 }
@@ -8,6 +8,8 @@ import ca.bigmwaj.emapp.as.entity.platform.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 @Component
@@ -45,15 +47,31 @@ public class RoleMapper extends AbstractMapper {
     }
 
     public RolePrivilegeEntity mappingForCreate(RoleEntity entity, RolePrivilegeDto dto) {
-        var privilege = dto.getPrivilege();
-        Objects.requireNonNull(privilege, "privilege must not be null");
-        Objects.requireNonNull(privilege.getId(), "privilege ID must not be null");
+        return mappingForCreateRolePrivileges(entity, List.of(dto)).getFirst();
+    }
+
+    /**
+     * Maps the privileges to assign to a role, loading them with one query.
+     */
+    public List<RolePrivilegeEntity> mappingForCreateRolePrivileges(RoleEntity entity, List<RolePrivilegeDto> dtos) {
+        var privilegeIds = dtos.stream()
+                .map(dto -> {
+                    var privilege = dto.getPrivilege();
+                    Objects.requireNonNull(privilege, "privilege must not be null");
+                    Objects.requireNonNull(privilege.getId(), "privilege ID must not be null");
+                    return privilege.getId();
+                })
+                .toList();
 
-        var privilegeEntity = privilegeDao.findById(privilege.getId()).orElseThrow(() -> new IllegalArgumentException("Privilege not found with id: " + privilege.getId()));
-        var child = new RolePrivilegeEntity();
-        child.setRole(entity);
-        child.setPrivilege(privilegeEntity);
-        return beforeCreateHistEntity(child);
+        var privileges = findAllById(privilegeDao, privilegeIds, PrivilegeEntity::getId, "Privilege");
+        return privilegeIds.stream()
+                .map(privilegeId -> {
+                    var child = new RolePrivilegeEntity();
+                    child.setRole(entity);
+                    child.setPrivilege(privileges.get(privilegeId));
+                    return beforeCreateHistEntity(child);
+                })
+                .toList();
     }
 
     public RolePrivilegeEntity mappingForDelete(RoleEntity entity, RolePrivilegeDto dto) {
@@ -68,15 +86,38 @@ public class RoleMapper extends AbstractMapper {
     // RoleUser mapping methods. User should exist in DB
 
     public UserRoleEntity mappingForCreate(RoleEntity entity, RoleUserDto dto) {
-        var user = dto.getUser();
-        Objects.requireNonNull(user, "user must not be null");
-        Objects.requireNonNull(user.getId(), "user ID must not be null");
-        var userEntity = userDao.findById(user.getId()).orElseThrow(() -> new IllegalArgumentException("User not found with id: " + user.getId()));
-        var child = new UserRoleEntity();
-        child.setRole(entity);
-        child.setUser(userEntity);
+        return mappingForCreateRoleUsers(entity, List.of(dto)).getFirst();
+    }
+
+    /**
+     * Maps the users to assign to a role, loading them with one query.
+     */
+    public List<UserRoleEntity> mappingForCreateRoleUsers(RoleEntity entity, List<RoleUserDto> dtos) {
+        var userIds = dtos.stream()
+                .map(dto -> {
+                    var user = dto.getUser();
+                    Objects.requireNonNull(user, "user must not be null");
+                    Objects.requireNonNull(user.getId(), "user ID must not be null");
+                    return user.getId();
+                })
+                .toList();
+        return mappingForCreateRoleUserIds(entity, userIds);
+    }
 
-        return beforeCreateHistEntity(child);
+    /**
+     * Maps the users of the given ids to assign to a role, loading them with one query
+     * per chunk of ids.
+     */
+    public List<UserRoleEntity> mappingForCreateRoleUserIds(RoleEntity entity, Collection<Long> userIds) {
+        var users = findAllById(userDao, userIds, UserEntity::getId, "User");
+        return userIds.stream()
+                .map(userId -> {
+                    var child = new UserRoleEntity();
+                    child.setRole(entity);
+                    child.setUser(users.get(userId));
+                    return beforeCreateHistEntity(child);
+                })
+                .toList();
     }
 
     public UserRoleEntity mappingForDelete(RoleEntity entity, RoleUserDto dto) {
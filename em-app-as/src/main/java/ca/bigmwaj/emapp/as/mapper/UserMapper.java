@@ -10,7 +10,6 @@ import ca.bigmwaj.emapp.as.entity.platform.ContactEntity;
 import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
 import ca.bigmwaj.emapp.as.lvo.platform.AccountContactRoleLvo;
 import ca.bigmwaj.emapp.as.lvo.platform.UserStatusLvo;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -20,8 +19,7 @@ import java.util.Objects;
 @Component
 public class UserMapper extends AbstractMapper {
 
-    //    @Autowired
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordEncoder passwordEncoder;
 
     private final ContactDao contactDao;
 
@@ -29,7 +27,8 @@ public class UserMapper extends AbstractMapper {
 
     private final AccountContactDao accountContactDao;
 
-    public UserMapper(ContactDao contactDao, UserDao userDao, AccountContactDao accountContactDao) {
+    public UserMapper(PasswordEncoder passwordEncoder, ContactDao contactDao, UserDao userDao, AccountContactDao accountContactDao) {
+        this.passwordEncoder = passwordEncoder;
         this.contactDao = contactDao;
         this.userDao = userDao;
         this.accountContactDao = accountContactDao;
@@ -55,7 +54,7 @@ public class UserMapper extends AbstractMapper {
         return beforeCreateHistEntity(entity);
     }
 
-    private ContactEntity getPrincipalContactForAccount(Short accountId) {
+    private ContactEntity getPrincipalContactForAccount(Long accountId) {
         return accountContactDao.findByAccountIdAndRole(accountId, AccountContactRoleLvo.PRINCIPAL)
                 .map(AccountContactEntity::getContact)
                 .orElseThrow(() -> new IllegalArgumentException("Principal contact not found for account id: " + accountId));
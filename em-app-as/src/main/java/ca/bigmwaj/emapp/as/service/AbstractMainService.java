@@ -1,19 +1,34 @@
 package ca.bigmwaj.emapp.as.service;
 
 import ca.bigmwaj.emapp.as.dao.AbstractDao;
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
+import ca.bigmwaj.emapp.as.dao.shared.QueryPlanCache;
+import ca.bigmwaj.emapp.as.dao.shared.SearchIndex;
+import ca.bigmwaj.emapp.as.dao.shared.SearchMetrics;
+import ca.bigmwaj.emapp.as.dao.shared.SearchTotalCache;
 import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
 import ca.bigmwaj.emapp.as.dto.shared.search.SearchInfos;
 import ca.bigmwaj.emapp.as.entity.common.AbstractBaseEntity;
+import ca.bigmwaj.emapp.as.service.shared.SearchCountExecutor;
+import ca.bigmwaj.emapp.as.service.shared.SearchResultCache;
 import ca.bigmwaj.emapp.dm.dto.AbstractBaseDto;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 public abstract class AbstractMainService<D extends AbstractBaseDto, E extends AbstractBaseEntity, ID>
         extends AbstractBaseService {
@@ -22,28 +37,151 @@ public abstract class AbstractMainService<D extends AbstractBaseDto, E extends A
     protected Logger logger = LoggerFactory.getLogger(this.getClass());
     @PersistenceContext
     private EntityManager entityManager;
+    @Autowired
+    private QueryPlanCache queryPlanCache;
+    @Autowired
+    private SearchTotalCache searchTotalCache;
+    @Autowired
+    private SearchCountExecutor searchCountExecutor;
+    @Autowired
+    private SearchIndex searchIndex;
+    @Autowired
+    private SearchResultCache searchResultCache;
+    @Autowired
+    private SearchMetrics searchMetrics;
+    @Value("${app.export.chunk-size:500}")
+    private int exportChunkSize;
+
+    protected EntityManager getEntityManager() {
+        return entityManager;
+    }
 
     protected abstract Function<E, D> getEntityToDtoMapper();
 
+    /**
+     * Mapper of the search and export results; services whose DTOs have optional associations
+     * map only those of the fetch plan.
+     */
+    protected Function<E, D> getEntityToDtoMapper(FetchPlan plan) {
+        return getEntityToDtoMapper();
+    }
+
+    /**
+     * Factory of the partial DTOs of the searches that request {@code fields}, or {@code null}
+     * when the service always returns whole DTOs.
+     */
+    protected Supplier<D> getProjectionFactory() {
+        return null;
+    }
+
+    /**
+     * @return true to cache the whole search results (see {@link SearchResultCache}); worth it for
+     * the small entities whose screens repeat the same searches
+     */
+    protected boolean isSearchResultCacheable() {
+        return false;
+    }
+
     protected abstract AbstractDao<E, ID> getDao();
 
     public DataListDto<D> search(AbstractSearchCriteria sc) {
         Objects.requireNonNull(sc);
+        // The caches are keyed by the criteria of the caller, the queries run the resolved copy
+        var query = searchIndex.resolve(sc, getDao());
+        if (isSearchResultCacheable()) {
+            return searchResultCache.getOrSearch(SearchResultCache.Key.of(getDao(), sc), getDao().getSearchDependencies(),
+                    () -> searchUncached(sc, query));
+        }
+        return searchUncached(sc, query);
+    }
 
+    /**
+     * @param query the criteria the queries run, i.e. {@code sc} with the clauses of the {@link SearchIndex}
+     */
+    private DataListDto<D> searchUncached(AbstractSearchCriteria sc, AbstractSearchCriteria query) {
         var searchStats = new SearchInfos(sc);
 
+        // The count runs next to the page query when the executor has a free slot
+        LongSupplier total = null;
         if (sc.isCalculateStatTotal()) {
-            var total = getDao().countAllByCriteria(entityManager, sc);
-            searchStats.setTotal(total);
+            if (sc.isEstimateStatTotal()) {
+                var bound = searchTotalCache.getEstimateBound();
+                total = searchCountExecutor.fork(() -> searchMetrics.recordCount(getDao(), query, "estimate",
+                        () -> getDao().countAllByCriteria(entityManager, queryPlanCache, query, bound)));
+            } else {
+                total = searchCountExecutor.fork(() -> searchTotalCache.getOrCount(getDao().getTotalKey(sc),
+                        getDao().getSearchDependencies(), () -> searchMetrics.recordCount(getDao(), query, "count",
+                                () -> getDao().countAllByCriteria(entityManager, queryPlanCache, query))));
+            }
+        }
+
+        var r = findPage(query, searchStats);
+
+        if (total != null) {
+            var count = total.getAsLong();
+            if (sc.isEstimateStatTotal()) {
+                var bound = searchTotalCache.getEstimateBound();
+                searchStats.setTotal(Math.min(count, bound));
+                searchStats.setTotalEstimated(count > bound);
+            } else {
+                searchStats.setTotal(count);
+            }
         }
-        var r = getDao().findAllByCriteria(entityManager, sc)
-                .stream()
-                .map(this.getEntityToDtoMapper())
-                .toList();
 
         return new DataListDto<>(searchStats, r);
     }
 
+    private List<D> findPage(AbstractSearchCriteria sc, SearchInfos searchStats) {
+        var fields = getProjectionFactory() == null || sc.isKeysetPagination()
+                ? List.<String>of()
+                : getDao().getProjectedFields(sc);
+        if (!fields.isEmpty()) {
+            return searchMetrics.recordFind(getDao(), sc, "projection",
+                    () -> getDao().findProjectionByCriteria(entityManager, queryPlanCache, sc, fields)
+                            .stream()
+                            .map(row -> toProjection(row, fields))
+                            .toList());
+        }
+
+        // The mapping is part of the measure, as it triggers the batch fetches of the associations
+        var mapper = this.getEntityToDtoMapper(FetchPlan.of(sc));
+        if (sc.isKeysetPagination()) {
+            return searchMetrics.recordFind(getDao(), sc, "keyset", () -> {
+                var page = getDao().findKeysetPageByCriteria(entityManager, queryPlanCache, sc);
+                searchStats.setAfter(page.after());
+                return page.data().stream().map(mapper).toList();
+            });
+        }
+        return searchMetrics.recordFind(getDao(), sc, "find",
+                () -> getDao().findAllByCriteria(entityManager, queryPlanCache, sc).stream().map(mapper).toList());
+    }
+
+    /**
+     * @param row a row of {@link AbstractDao#findProjectionByCriteria}: the root id followed by the field values
+     */
+    protected D toProjection(Object[] row, List<String> fields) {
+        var dto = getProjectionFactory().get();
+        var wrapper = new BeanWrapperImpl(dto);
+        wrapper.setAutoGrowNestedPaths(true);
+        wrapper.setPropertyValue("key", row[0]);
+        for (int i = 0; i < fields.size(); i++) {
+            wrapper.setPropertyValue(fields.get(i), row[i + 1]);
+        }
+        return dto;
+    }
+
+    /**
+     * Streams every match of the criteria to the consumer, ignoring the pagination. Entities are
+     * read and mapped by chunks, and never held beyond their chunk.
+     */
+    @Transactional(readOnly = true)
+    public void export(AbstractSearchCriteria sc, Consumer<? super D> consumer) {
+        Objects.requireNonNull(sc);
+        var mapper = getEntityToDtoMapper(FetchPlan.of(sc));
+        getDao().scrollAllByCriteria(entityManager, queryPlanCache, searchIndex.resolve(sc, getDao()), exportChunkSize,
+                entities -> entities.stream().map(mapper).forEach(consumer));
+    }
+
     public D findById(ID id) {
         Objects.requireNonNull(id, "ID cannot be null for findById.");
         return getDao().findById(id)
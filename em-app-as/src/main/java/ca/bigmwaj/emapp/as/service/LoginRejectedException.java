@@ -0,0 +1,38 @@
+package ca.bigmwaj.emapp.as.service;
+
+import org.springframework.security.core.AuthenticationException;
+
+import java.time.Duration;
+
+/**
+ * A login refused before the password is checked: too many recent failures for the username or
+ * the client address, or no capacity left to hash the password.
+ */
+public class LoginRejectedException extends AuthenticationException {
+
+    public enum Reason {
+        TOO_MANY_FAILURES,
+        OVERLOADED
+    }
+
+    private final Reason reason;
+
+    private final Duration retryAfter;
+
+    public LoginRejectedException(Reason reason, Duration retryAfter) {
+        super("Login rejected: " + reason);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return how long the client should wait before trying again
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
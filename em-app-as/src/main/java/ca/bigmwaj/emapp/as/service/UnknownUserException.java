@@ -0,0 +1,20 @@
+package ca.bigmwaj.emapp.as.service;
+
+import java.util.Set;
+
+/**
+ * A membership change referencing users that do not exist, rejected before any write.
+ */
+public class UnknownUserException extends RuntimeException {
+
+    private final Set<Long> userIds;
+
+    public UnknownUserException(Set<Long> userIds) {
+        super("Users with IDs %s do not exist.".formatted(userIds));
+        this.userIds = userIds;
+    }
+
+    public Set<Long> getUserIds() {
+        return userIds;
+    }
+}
@@ -1,16 +1,15 @@
 package ca.bigmwaj.emapp.as.service.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.AccountDao;
-import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.dao.shared.EntityWriteTracker;
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
 import ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper;
 import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.AccountContactDto;
 import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
 import ca.bigmwaj.emapp.as.dto.platform.AccountSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
-import ca.bigmwaj.emapp.as.entity.platform.AccountContactEntity;
 import ca.bigmwaj.emapp.as.entity.platform.AccountEntity;
-import ca.bigmwaj.emapp.as.entity.platform.ContactEntity;
 import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
 import ca.bigmwaj.emapp.as.mapper.AccountMapper;
 import ca.bigmwaj.emapp.as.service.AbstractMainService;
@@ -19,12 +18,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
-public class AccountService extends AbstractMainService<AccountDto, AccountEntity, Short> {
+public class AccountService extends AbstractMainService<AccountDto, AccountEntity, Long> {
 
     private final AccountDao dao;
 
@@ -34,15 +33,19 @@ public class AccountService extends AbstractMainService<AccountDto, AccountEntit
 
     private final ContactService contactService;
 
-    private final UserDao userDao;
+    private final EntityWriteTracker writeTracker;
+
+    private final PermissionService permissionService;
 
     @Autowired
-    public AccountService(AccountDao dao, AccountMapper mapper, UserService userService, ContactService contactService, UserDao userDao) {
+    public AccountService(AccountDao dao, AccountMapper mapper, UserService userService, ContactService contactService,
+                          EntityWriteTracker writeTracker, PermissionService permissionService) {
         this.dao = dao;
         this.mapper = mapper;
         this.userService = userService;
         this.contactService = contactService;
-        this.userDao = userDao;
+        this.writeTracker = writeTracker;
+        this.permissionService = permissionService;
     }
 
     @Override
@@ -50,11 +53,26 @@ public class AccountService extends AbstractMainService<AccountDto, AccountEntit
         return GlobalPlatformMapper.INSTANCE::toDto;
     }
 
+    @Override
+    protected Function<AccountEntity, AccountDto> getEntityToDtoMapper(FetchPlan plan) {
+        return e -> GlobalPlatformMapper.INSTANCE.toDto(e, plan);
+    }
+
+    @Override
+    protected Supplier<AccountDto> getProjectionFactory() {
+        return AccountDto::new;
+    }
+
     @Override
     protected AccountDao getDao() {
         return dao;
     }
 
+    @Override
+    protected boolean isSearchResultCacheable() {
+        return true;
+    }
+
     @Override
     public DataListDto<AccountDto> search(AbstractSearchCriteria sc) {
         return super.search(sc);
@@ -111,33 +129,13 @@ public class AccountService extends AbstractMainService<AccountDto, AccountEntit
         return GlobalPlatformMapper.INSTANCE.toDto(dao.save(mapper.mappingForStatusChange(dto)));
     }
 
-    private<E> List<E> emptyIfNull(List<E> list) {
-        return list != null ? list : List.of();
-    }
-
-    private List<UserEntity> getAccountUsers(AccountEntity account) {
-        var contacts = account.getAccountContacts().stream()
-                .map(AccountContactEntity::getContact)
-                .toList();
-        return userDao.findAllByContactIn(contacts);
-    }
-
     @Override
-    public void deleteById(Short id) {
-        var account = dao.findById(id).orElseThrow(() -> new IllegalArgumentException("Account not found with id: " + id));
-
-        retire(account).getAccountContacts()
-                .stream()
-                .map(this::retire)
-                .map(AccountContactEntity::getContact)
-                .map(this::retire)
-                .map(e -> List.of(emptyIfNull(e.getEmails()), emptyIfNull(e.getPhones()), emptyIfNull(e.getAddresses())))
-                .flatMap(List::stream)
-                .flatMap(List::stream)
-                .forEach(this::retire);
-
-        getAccountUsers(account).forEach(this::retire);
-
-        dao.save(account);
+    public void deleteById(Long id) {
+        if (!dao.retireById(getEntityManager(), id)) {
+            throw new IllegalArgumentException("Account not found with id: " + id);
+        }
+        writeTracker.onBulkWrite(dao.getRetireCascade());
+        // The retired users of the account are not known here
+        permissionService.onBulkWrite(UserEntity.class, null);
     }
 }
@@ -1,6 +1,7 @@
 package ca.bigmwaj.emapp.as.service.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.ContactDao;
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
 import ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper;
 import ca.bigmwaj.emapp.as.dto.platform.AbstractContactPointDto;
 import ca.bigmwaj.emapp.as.dto.platform.ContactDto;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
@@ -33,6 +35,16 @@ public class ContactService extends AbstractMainService<ContactDto, ContactEntit
         return GlobalPlatformMapper.INSTANCE::toDto;
     }
 
+    @Override
+    protected Function<ContactEntity, ContactDto> getEntityToDtoMapper(FetchPlan plan) {
+        return e -> GlobalPlatformMapper.INSTANCE.toDto(e, plan);
+    }
+
+    @Override
+    protected Supplier<ContactDto> getProjectionFactory() {
+        return ContactDto::new;
+    }
+
     @Override
     protected ContactDao getDao() {
         return dao;
@@ -3,15 +3,19 @@ package ca.bigmwaj.emapp.as.service.platform;
 import ca.bigmwaj.emapp.as.dao.platform.GroupDao;
 import ca.bigmwaj.emapp.as.dao.platform.GroupRoleDao;
 import ca.bigmwaj.emapp.as.dao.platform.GroupUserDao;
+import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.dao.shared.EntityWriteTracker;
 import ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper;
 import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.*;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import ca.bigmwaj.emapp.as.dto.shared.MembershipChangeDto;
 import ca.bigmwaj.emapp.as.dto.shared.search.SearchInfos;
 import ca.bigmwaj.emapp.as.entity.platform.*;
 import ca.bigmwaj.emapp.as.mapper.GroupMapper;
 import ca.bigmwaj.emapp.as.service.AbstractMainService;
 import ca.bigmwaj.emapp.as.service.ServiceException;
+import ca.bigmwaj.emapp.as.service.UnknownUserException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.PageRequest;
@@ -20,14 +24,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
-public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Short> {
+public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Long> {
 
     private final GroupDao dao;
 
@@ -37,15 +44,25 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
 
     private final GroupMapper mapper;
 
+    private final EntityWriteTracker writeTracker;
+
+    private final UserDao userDao;
+
+    private final PermissionService permissionService;
+
     @Autowired
-    public GroupService(GroupDao dao, GroupRoleDao groupRoleDao, GroupUserDao groupUserDao, GroupMapper mapper) {
+    public GroupService(GroupDao dao, GroupRoleDao groupRoleDao, GroupUserDao groupUserDao, GroupMapper mapper,
+                        EntityWriteTracker writeTracker, UserDao userDao, PermissionService permissionService) {
         this.dao = dao;
         this.groupRoleDao = groupRoleDao;
         this.groupUserDao = groupUserDao;
         this.mapper = mapper;
+        this.writeTracker = writeTracker;
+        this.userDao = userDao;
+        this.permissionService = permissionService;
     }
 
-    public DataListDto<GroupUserDto> findGroupUsers(Short groupId, DefaultSearchCriteria sc) {
+    public DataListDto<GroupUserDto> findGroupUsers(Long groupId, DefaultSearchCriteria sc) {
         Objects.requireNonNull(groupId, "Role ID cannot be null for finding group users.");
 
         Example<GroupUserEntity> example = Example.of(new GroupUserEntity());
@@ -65,7 +82,7 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
         return new DataListDto<>(searchInfos, result);
     }
 
-    public DataListDto<GroupRoleDto> findGroupRoles(Short groupId, DefaultSearchCriteria sc) {
+    public DataListDto<GroupRoleDto> findGroupRoles(Long groupId, DefaultSearchCriteria sc) {
 
         Example<GroupRoleEntity> example = Example.of(new GroupRoleEntity());
         example.getProbe().setGroup(new GroupEntity());
@@ -89,15 +106,11 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
             final var entity = mapper.mappingForCreate(dto);
 
             if (dto.getGroupRoles() != null && !dto.getGroupRoles().isEmpty()) {
-                var roles = dto.getGroupRoles().stream()
-                        .map(child -> mapper.mappingForCreate(entity, child)).toList();
-                entity.setGroupRoles(roles);
+                entity.setGroupRoles(mapper.mappingForCreateGroupRoles(entity, dto.getGroupRoles()));
             }
 
             if (dto.getGroupUsers() != null && !dto.getGroupUsers().isEmpty()) {
-                var users = dto.getGroupUsers().stream()
-                        .map(child -> mapper.mappingForCreate(entity, child)).toList();
-                entity.setGroupUsers(users);
+                entity.setGroupUsers(mapper.mappingForCreateGroupUsers(entity, dto.getGroupUsers()));
             }
 
             return GlobalPlatformMapper.INSTANCE.toDto(dao.save(entity));
@@ -109,45 +122,75 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
     }
 
     private void removeDeletedRoles(GroupEntity entity, GroupDto dto) {
-        Predicate<Short> deletable = id -> dto.getGroupRoles().stream()
+        var deleted = dto.getGroupRoles().stream()
                 .filter(GroupRoleDto::isDeleteAction)
                 .map(GroupRoleDto::getRole)
                 .map(RoleDto::getId)
-                .anyMatch(id::equals);
+                .collect(Collectors.toSet());
 
-        var finalList = entity.getGroupRoles().stream()
-                .filter(Predicate.not(e -> deletable.test(e.getRole().getId())))
-                .toList();
-
-        entity.setGroupRoles(new ArrayList<>(finalList));
+        if (!deleted.isEmpty()) {
+            entity.getGroupRoles().removeIf(e -> deleted.contains(e.getRole().getId()));
+        }
     }
 
     private void addNewRoles(GroupEntity entity, GroupDto dto) {
-        dto.getGroupRoles().stream()
+        var created = dto.getGroupRoles().stream()
                 .filter(GroupRoleDto::isCreateAction)
-                .map(e -> mapper.mappingForCreate(entity, e))
-                .forEach(entity.getGroupRoles()::add);
+                .toList();
+        if (!created.isEmpty()) {
+            entity.getGroupRoles().addAll(groupRoleDao.saveAll(mapper.mappingForCreateGroupRoles(entity, created)));
+        }
     }
 
-    private void removeDeletedUsers(GroupEntity entity, GroupDto dto) {
-        Predicate<Short> deletable = id -> dto.getGroupUsers().stream()
-                .filter(GroupUserDto::isDeleteAction)
+    private static Set<Long> userIds(GroupDto dto, Predicate<GroupUserDto> action) {
+        return dto.getGroupUsers().stream()
+                .filter(action)
                 .map(GroupUserDto::getUser)
                 .map(UserDto::getId)
-                .anyMatch(id::equals);
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 
-        var finalList = entity.getGroupUsers().stream()
-                .filter(Predicate.not(e -> deletable.test(e.getUser().getId())))
-                .toList();
+    /**
+     * Removes then adds group members with bulk deletes and batched inserts, without loading the
+     * members of the group. Adding a member twice or removing a non-member is a no-op.
+     *
+     * @throws UnknownUserException if an added user does not exist, checked with one query before any write
+     */
+    private void changeUsers(GroupEntity entity, Set<Long> added, Set<Long> removed) {
+        if (!added.isEmpty()) {
+            var unknownUserIds = new LinkedHashSet<>(added);
+            unknownUserIds.removeAll(userDao.findExistingValues(getEntityManager(), "id", Long.class, added));
+            if (!unknownUserIds.isEmpty()) {
+                throw new UnknownUserException(unknownUserIds);
+            }
+        }
 
-        entity.setGroupUsers(new ArrayList<>(finalList));
+        if (!removed.isEmpty()) {
+            groupUserDao.deleteByGroupIdAndUserIds(getEntityManager(), entity.getId(), removed);
+            writeTracker.onBulkWrite(List.of(GroupUserEntity.class));
+            permissionService.onBulkWrite(GroupEntity.class, entity.getId());
+        }
+
+        if (!added.isEmpty()) {
+            var newUserIds = new LinkedHashSet<>(added);
+            newUserIds.removeAll(groupUserDao.findUserIds(getEntityManager(), entity.getId(), added));
+            if (!newUserIds.isEmpty()) {
+                groupUserDao.saveAll(mapper.mappingForCreateGroupUserIds(entity, newUserIds));
+            }
+        }
     }
 
-    private void addNewUsers(GroupEntity entity, GroupDto dto) {
-        dto.getGroupUsers().stream()
-                .filter(GroupUserDto::isCreateAction)
-                .map(e -> mapper.mappingForCreate(entity, e))
-                .forEach(entity.getGroupUsers()::add);
+    public void changeGroupUsers(Long groupId, MembershipChangeDto change) {
+        Objects.requireNonNull(groupId, "Group ID cannot be null for changing group users.");
+        try {
+            var entity = dao.findById(groupId).orElseThrow(() -> new IllegalArgumentException("Group not found with id: " + groupId));
+            changeUsers(entity, new LinkedHashSet<>(change.getAdded()), new LinkedHashSet<>(change.getRemoved()));
+        } catch (UnknownUserException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            throw new ServiceException("Failed to change Group users: " + e.getMessage(), e);
+        }
     }
 
     public GroupDto update(GroupDto dto) {
@@ -163,15 +206,13 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
             }
 
             if (dto.getGroupUsers() != null && !dto.getGroupUsers().isEmpty()) {
-                if (entity.getGroupUsers() == null) {
-                    entity.setGroupUsers(new ArrayList<>(dto.getGroupUsers().size()));
-                }
-                removeDeletedUsers(entity, dto);
-                addNewUsers(entity, dto);
+                changeUsers(entity, userIds(dto, GroupUserDto::isCreateAction), userIds(dto, GroupUserDto::isDeleteAction));
             }
 
             return GlobalPlatformMapper.INSTANCE.toDto(dao.save(entity));
 
+        } catch (UnknownUserException e) {
+            throw e;
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
             throw new ServiceException("Failed to update Group: " + e.getMessage(), e);
@@ -187,4 +228,9 @@ public class GroupService extends AbstractMainService<GroupDto, GroupEntity, Sho
     protected GroupDao getDao() {
         return dao;
     }
+
+    @Override
+    protected boolean isSearchResultCacheable() {
+        return true;
+    }
 }
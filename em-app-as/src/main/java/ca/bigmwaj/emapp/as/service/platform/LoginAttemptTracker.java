@@ -0,0 +1,195 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.service.LoginRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters of the failed logins, per username and client address, per username and
+ * per client address, so that a credential-stuffing burst is refused before any password is hashed.
+ *
+ * <p>A counter halves every {@code app.security.login.failure-half-life}: a user who mistypes a
+ * password now and then never reaches the limits, while a client trying passwords in a loop is
+ * refused until its counter has decayed below the limit. A username is refused to an address
+ * after {@code app.security.login.max-failures-per-username} failures from that address, and
+ * an address is refused after {@code app.security.login.max-failures-per-address} failures of
+ * any username. The username counter of an address is low, and nobody can lock out an account
+ * through it by failing its logins from elsewhere; a username is refused to every address only
+ * after {@code app.security.login.max-failures-per-account} failures from any address, a higher
+ * limit that throttles the guesses spread over many addresses. A successful login clears the
+ * counter of its username and address only, so that an address trying many accounts, and an
+ * account tried from many addresses, stay limited.
+ *
+ * <p>The address is the client address of the request, as resolved from the forwarded headers
+ * of a trusted proxy ({@code server.forward-headers-strategy}); without it, every client behind
+ * a proxy would share its address and its limit.
+ *
+ * <p>Each map keeps at most {@code app.security.login.tracker-maximum-size} counters, in least
+ * recently used order. Refused logins are published as {@code login.rejected} with tag
+ * {@code reason=too_many_failures}.
+ */
+@Component
+public class LoginAttemptTracker implements MeterBinder {
+
+    private final Counters usernames;
+
+    private final Counters accounts;
+
+    private final Counters addresses;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final double halfLifeNanos;
+
+    @Autowired
+    public LoginAttemptTracker(@Value("${app.security.login.max-failures-per-username:5}") int maxFailuresPerUsername,
+                               @Value("${app.security.login.max-failures-per-account:20}") int maxFailuresPerAccount,
+                               @Value("${app.security.login.max-failures-per-address:50}") int maxFailuresPerAddress,
+                               @Value("${app.security.login.failure-half-life:10m}") Duration halfLife,
+                               @Value("${app.security.login.tracker-maximum-size:100000}") int maximumSize) {
+        this.halfLifeNanos = halfLife.toNanos();
+        this.usernames = new Counters(maxFailuresPerUsername, maximumSize);
+        this.accounts = new Counters(maxFailuresPerAccount, maximumSize);
+        this.addresses = new Counters(maxFailuresPerAddress, maximumSize);
+    }
+
+    /**
+     * Refuses the login when the username failed too often recently from the address or from
+     * any address, or the address failed too often with any username.
+     *
+     * @param username the username, in any case
+     * @param address  the client address, or null when unknown
+     * @throws LoginRejectedException with the time until the counter falls below its limit
+     */
+    public void check(String username, String address) {
+        var now = System.nanoTime();
+        var wait = Math.max(Math.max(usernames.wait(key(username, address), now), accounts.wait(key(username, null), now)),
+                addresses.wait(address, now));
+        if (wait > 0) {
+            rejectedCount.increment();
+            throw new LoginRejectedException(LoginRejectedException.Reason.TOO_MANY_FAILURES,
+                    Duration.ofSeconds((long) Math.ceil(wait / 1e9)));
+        }
+    }
+
+    public void onFailure(String username, String address) {
+        var now = System.nanoTime();
+        usernames.increment(key(username, address), now);
+        accounts.increment(key(username, null), now);
+        addresses.increment(address, now);
+    }
+
+    public void onSuccess(String username, String address) {
+        usernames.remove(key(username, address));
+    }
+
+    private static String key(String username, String address) {
+        if (username == null) {
+            return null;
+        }
+        var key = username.toLowerCase(Locale.ROOT);
+        return address == null ? key : key + '@' + address;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public int getSize() {
+        return usernames.size() + accounts.size() + addresses.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("login.rejected", this, LoginAttemptTracker::getRejectedCount)
+                .tag("reason", "too_many_failures")
+                .description("The number of logins refused before hashing, after too many failures")
+                .register(registry);
+
+        Gauge.builder("login.failures.tracked", this, LoginAttemptTracker::getSize)
+                .description("The number of usernames per address, usernames and addresses with a failure counter")
+                .register(registry);
+    }
+
+    private final class Counters {
+
+        /**
+         * The value a counter must fall to for the next login: a counter reaches the limit with
+         * its last failure, but has already decayed a little when it is checked.
+         */
+        private final double threshold;
+
+        private final LinkedHashMap<String, Counter> counters;
+
+        Counters(int limit, int maximumSize) {
+            // Below 1, a counter would need a full half-life to fall back under it
+            this.threshold = Math.max(limit - 1, 0.5);
+            this.counters = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Counter> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        /**
+         * @return the nanos until the counter falls to the threshold, 0 when it already has
+         */
+        synchronized long wait(String key, long now) {
+            var counter = key == null ? null : counters.get(key);
+            if (counter == null) {
+                return 0;
+            }
+            var value = counter.decay(now, halfLifeNanos);
+            return value <= threshold ? 0 : Math.max(1, (long) (halfLifeNanos * (Math.log(value / threshold) / Math.log(2))));
+        }
+
+        synchronized void increment(String key, long now) {
+            if (key != null) {
+                counters.computeIfAbsent(key, k -> new Counter(now)).increment(now, halfLifeNanos);
+            }
+        }
+
+        synchronized void remove(String key) {
+            if (key != null) {
+                counters.remove(key);
+            }
+        }
+
+        synchronized int size() {
+            return counters.size();
+        }
+    }
+
+    private static final class Counter {
+
+        private double value;
+
+        private long updatedAt;
+
+        Counter(long now) {
+            this.updatedAt = now;
+        }
+
+        double decay(long now, double halfLifeNanos) {
+            value *= Math.pow(0.5, (now - updatedAt) / halfLifeNanos);
+            updatedAt = now;
+            return value;
+        }
+
+        void increment(long now, double halfLifeNanos) {
+            value = decay(now, halfLifeNanos) + 1;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.service.LoginRejectedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the login passwords on a dedicated, bounded pool, so that the BCrypt work of the logins
+ * cannot take more than {@code app.security.login.threads} cores from the rest of the API.
+ *
+ * <p>At most {@code app.security.login.queue-capacity} checks wait for a thread. A login arriving
+ * when the queue is full, or waiting longer than {@code app.security.login.timeout}, is refused at
+ * once with {@link LoginRejectedException.Reason#OVERLOADED} instead of holding its request thread.
+ * Refused logins are published as {@code login.rejected} with tag {@code reason=overloaded}.
+ *
+ * <p>When a password matches a hash of another cost than {@code app.security.password.bcrypt-strength},
+ * the password is hashed again on the same thread, so the stored hashes follow the configured cost.
+ *
+ * <p>The login of an unknown username is checked against a hash of a random password, made once
+ * with the configured cost, so that it takes as long as a real check and the response time does
+ * not tell which usernames exist.
+ */
+@Component
+public class LoginExecutor implements MeterBinder, DisposableBean {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private static final Duration RETRY_AFTER_OVERLOAD = Duration.ofSeconds(1);
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final ThreadPoolExecutor executor;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final int strength;
+
+    private final long timeoutNanos;
+
+    /**
+     * The hash the password of an unknown username is checked against; no password matches it.
+     */
+    private final String dummyPassword;
+
+    @Autowired
+    public LoginExecutor(PasswordEncoder passwordEncoder,
+                         @Value("${app.security.password.bcrypt-strength:10}") int strength,
+                         @Value("${app.security.login.threads:0}") int threads,
+                         @Value("${app.security.login.queue-capacity:64}") int queueCapacity,
+                         @Value("${app.security.login.timeout:10s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.timeoutNanos = timeout.toNanos();
+        this.dummyPassword = passwordEncoder.encode(UUID.randomUUID().toString());
+
+        // By default, half of the cores, so a login burst always leaves the other half to the API
+        var poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("login-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Checks a password against its stored hash.
+     *
+     * @param rawPassword     the password of the login
+     * @param encodedPassword the stored hash
+     * @return whether the password matches, and its new hash when the stored one must be upgraded
+     * @throws LoginRejectedException when the pool cannot check the password in time
+     */
+    public Verification verify(String rawPassword, String encodedPassword) {
+        Future<Verification> verification;
+        try {
+            verification = executor.submit(() -> {
+                if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                    return new Verification(false, null);
+                }
+                var upgraded = needsUpgrade(encodedPassword) ? passwordEncoder.encode(rawPassword) : null;
+                return new Verification(true, upgraded);
+            });
+        } catch (RejectedExecutionException e) {
+            throw overloaded();
+        }
+
+        try {
+            return verification.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(true);
+            throw overloaded();
+        } catch (InterruptedException e) {
+            verification.cancel(true);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to check the password", e.getCause());
+        }
+    }
+
+    /**
+     * Checks a password the way {@link #verify} does, against a hash no password matches, for
+     * the login of an unknown username.
+     *
+     * @return a verification that does not match
+     * @throws LoginRejectedException when the pool cannot check the password in time
+     */
+    public Verification verifyUnknown(String rawPassword) {
+        verify(rawPassword, dummyPassword);
+        return new Verification(false, null);
+    }
+
+    /**
+     * @return whether the hash is a BCrypt hash of another cost than the configured one
+     */
+    boolean needsUpgrade(String encodedPassword) {
+        var matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private LoginRejectedException overloaded() {
+        rejectedCount.increment();
+        return new LoginRejectedException(LoginRejectedException.Reason.OVERLOADED, RETRY_AFTER_OVERLOAD);
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("login.rejected", this, LoginExecutor::getRejectedCount)
+                .tag("reason", "overloaded")
+                .description("The number of logins refused because the password checks were saturated")
+                .register(registry);
+
+        Gauge.builder("login.queue.size", this, LoginExecutor::getQueueSize)
+                .description("The number of password checks waiting for a thread")
+                .register(registry);
+
+        Gauge.builder("login.active", this, LoginExecutor::getActiveCount)
+                .description("The number of password checks running")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param matches         whether the password matches the stored hash
+     * @param upgradedPassword the password hashed with the configured cost, or null when the stored hash is kept
+     */
+    public record Verification(boolean matches, String upgradedPassword) {
+    }
+}
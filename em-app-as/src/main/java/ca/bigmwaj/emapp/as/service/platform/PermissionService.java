@@ -0,0 +1,338 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.dto.security.AuthenticatedUserGrantedAuthority;
+import ca.bigmwaj.emapp.as.dto.security.PermissionSet;
+import ca.bigmwaj.emapp.as.entity.platform.*;
+import ca.bigmwaj.emapp.as.lvo.platform.PrivilegeLvo;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Effective permissions of the users: the privileges of their roles, assigned directly or
+ * through their groups, resolved with one query and cached per username as a
+ * {@link PermissionSet}, so that an authorization check is a bit test.
+ *
+ * <p>A cached set records the user, roles and groups it was resolved from, and is dropped when
+ * one of them or one of their assignments is written: the committed writes are followed through
+ * Hibernate post-commit events, and the bulk statements are reported with {@link #onBulkWrite}.
+ * A write to a privilege drops every set. A set also expires after
+ * {@code app.security.permission.cache-ttl}; beyond {@code app.security.permission.cache-maximum-size}
+ * users, the expired sets are dropped, and the new ones are not cached until there is room.
+ */
+@Service
+public class PermissionService implements MeterBinder, PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionService.class);
+
+    private static final String CACHE_NAME = "permission";
+
+    /**
+     * Authority of every authenticated user, whatever its privileges.
+     */
+    public static final GrantedAuthority USER_AUTHORITY = new AuthenticatedUserGrantedAuthority("USER");
+
+    static final Set<Class<?>> DEPENDENCIES = Set.of(UserEntity.class, UserRoleEntity.class, GroupEntity.class,
+            GroupUserEntity.class, GroupRoleEntity.class, RoleEntity.class, RolePrivilegeEntity.class, PrivilegeEntity.class);
+
+    private static final Map<String, PrivilegeLvo> PRIVILEGES = Arrays.stream(PrivilegeLvo.values())
+            .collect(Collectors.toUnmodifiableMap(PrivilegeLvo::name, Function.identity()));
+
+    private final Map<String, Entry> permissions = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by every invalidation, so that a set resolved meanwhile is not kept.
+     */
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final UserDao userDao;
+
+    private final long ttlNanos;
+
+    private final int maximumSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public PermissionService(UserDao userDao, EntityManagerFactory entityManagerFactory,
+                             @Value("${app.security.permission.cache-ttl:5m}") Duration ttl,
+                             @Value("${app.security.permission.cache-maximum-size:10000}") int maximumSize) {
+        this.userDao = userDao;
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+
+        var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * @return the effective privileges of the user; empty for an unknown user
+     */
+    public PermissionSet getPermissions(String username) {
+        var key = username.toLowerCase(Locale.ROOT);
+        var now = System.nanoTime();
+
+        var entry = permissions.get(key);
+        if (entry != null && now - entry.expiresAt() < 0) {
+            hitCount.increment();
+            return entry.permissions();
+        }
+
+        missCount.increment();
+        // Read before resolving, so that a write committed meanwhile is not missed
+        var invalidations = invalidationCount.get();
+        entry = resolve(key, now + ttlNanos);
+
+        if (permissions.size() >= maximumSize) {
+            permissions.values().removeIf(e -> now - e.expiresAt() >= 0);
+        }
+        if (permissions.size() < maximumSize) {
+            permissions.put(key, entry);
+            // An invalidation between the read and the put may have missed the entry
+            if (invalidationCount.get() != invalidations) {
+                permissions.remove(key, entry);
+            }
+        }
+        return entry.permissions();
+    }
+
+    /**
+     * @return {@link #USER_AUTHORITY} and one authority per effective privilege of the user
+     */
+    public List<GrantedAuthority> getAuthorities(String username) {
+        var privileges = getPermissions(username).getAuthorities();
+        var authorities = new ArrayList<GrantedAuthority>(privileges.size() + 1);
+        authorities.add(USER_AUTHORITY);
+        authorities.addAll(privileges);
+        return authorities;
+    }
+
+    /**
+     * Checks a privilege of the authenticated user, e.g.
+     * {@code @PreAuthorize("@permissionService.hasPrivilege(authentication, 'PLATFORM_USER_VIEW')")}.
+     */
+    public boolean hasPrivilege(Authentication authentication, PrivilegeLvo privilege) {
+        return authentication != null && authentication.isAuthenticated()
+                && getPermissions(authentication.getName()).has(privilege);
+    }
+
+    private PermissionSet resolve(String username) {
+        var privileges = new ArrayList<PrivilegeLvo>();
+        for (var name : userDao.findPrivilegeNames(entityManager, username)) {
+            var privilege = PRIVILEGES.get(name);
+            if (privilege == null) {
+                logger.warn("Unknown privilege {} ignored", name);
+            } else {
+                privileges.add(privilege);
+            }
+        }
+        return PermissionSet.of(privileges);
+    }
+
+    private Entry resolve(String username, long expiresAt) {
+        var privileges = new ArrayList<PrivilegeLvo>();
+        for (var name : userDao.findPrivilegeNames(entityManager, username)) {
+            var privilege = PRIVILEGES.get(name);
+            if (privilege == null) {
+                logger.warn("Unknown privilege {} ignored", name);
+            } else {
+                privileges.add(privilege);
+            }
+        }
+
+        Long userId = null;
+        var roleIds = new TreeSet<Long>();
+        var groupIds = new TreeSet<Long>();
+        for (var row : userDao.findPermissionScope(entityManager, username)) {
+            userId = (Long) row[0];
+            if (row[1] != null) {
+                roleIds.add((Long) row[1]);
+            }
+            if (row[2] != null) {
+                groupIds.add((Long) row[2]);
+            }
+            if (row[3] != null) {
+                roleIds.add((Long) row[3]);
+            }
+        }
+        return new Entry(PermissionSet.of(privileges), userId, Set.copyOf(roleIds), Set.copyOf(groupIds), expiresAt);
+    }
+
+    /**
+     * Reports the rows written by bulk statements, once the current transaction commits (at once
+     * without transaction).
+     *
+     * @param entityClass the {@link UserEntity}, {@link GroupEntity} or {@link RoleEntity} the rows depend on
+     * @param id          the id of the user, group or role; {@code null} for any
+     */
+    public void onBulkWrite(Class<?> entityClass, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(entityClass, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(entityClass, id);
+            }
+        });
+    }
+
+    /**
+     * Drops the sets resolved from the user, group or role, or every set when {@code id} is {@code null}.
+     */
+    private void invalidate(Class<?> entityClass, Long id) {
+        invalidationCount.incrementAndGet();
+        if (id == null || entityClass == PrivilegeEntity.class) {
+            permissions.clear();
+        } else if (entityClass == UserEntity.class) {
+            // A user created with the username of an unknown user is no longer unknown
+            permissions.values().removeIf(e -> e.userId() == null || id.equals(e.userId()));
+        } else if (entityClass == GroupEntity.class) {
+            permissions.values().removeIf(e -> e.groupIds().contains(id));
+        } else if (entityClass == RoleEntity.class) {
+            permissions.values().removeIf(e -> e.roleIds().contains(id));
+        }
+    }
+
+    private void onWrite(Object entity) {
+        switch (entity) {
+            case UserEntity e -> invalidate(UserEntity.class, e.getId());
+            case UserRoleEntity e -> invalidate(UserEntity.class, e.getUser().getId());
+            case GroupUserEntity e -> invalidate(UserEntity.class, e.getUser().getId());
+            case GroupEntity e -> invalidate(GroupEntity.class, e.getId());
+            case GroupRoleEntity e -> invalidate(GroupEntity.class, e.getGroup().getId());
+            case RoleEntity e -> invalidate(RoleEntity.class, e.getId());
+            case RolePrivilegeEntity e -> invalidate(RoleEntity.class, e.getRole().getId());
+            case PrivilegeEntity e -> invalidate(PrivilegeEntity.class, e.getId());
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        onWrite(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onWrite(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onWrite(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was written
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return DEPENDENCIES.contains(persister.getMappedClass());
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int getSize() {
+        return permissions.size();
+    }
+
+    public void clear() {
+        permissions.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, PermissionService::getHitCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .description("The number of permission sets read from the cache")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", this, PermissionService::getMissCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .description("The number of permission sets resolved in the database")
+                .register(registry);
+
+        Gauge.builder("cache.size", this, PermissionService::getSize)
+                .tag("cache", CACHE_NAME)
+                .description("The number of cached permission sets")
+                .register(registry);
+    }
+
+    /**
+     * @param userId the id of the user, {@code null} for an unknown user
+     * @param roleIds the ids of the roles of the user, assigned directly or through its groups
+     */
+    private record Entry(PermissionSet permissions, Long userId, Set<Long> roleIds, Set<Long> groupIds, long expiresAt) {
+    }
+}
@@ -16,7 +16,7 @@ import java.util.function.Predicate;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
-public class PrivilegeService extends AbstractMainService<PrivilegeDto, PrivilegeEntity, Short> {
+public class PrivilegeService extends AbstractMainService<PrivilegeDto, PrivilegeEntity, Long> {
 
     private final PrivilegeDao dao;
 
@@ -35,6 +35,11 @@ public class PrivilegeService extends AbstractMainService<PrivilegeDto, Privileg
         return dao;
     }
 
+    @Override
+    protected boolean isSearchResultCacheable() {
+        return true;
+    }
+
     public long syncPrivileges() {
         var existing = dao.findAll().stream().map(PrivilegeEntity::getName).toList();
         Predicate<String> isExisting = existing::contains;
@@ -1,10 +1,12 @@
 package ca.bigmwaj.emapp.as.service.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.*;
+import ca.bigmwaj.emapp.as.dao.shared.EntityWriteTracker;
 import ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper;
 import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
 import ca.bigmwaj.emapp.as.dto.platform.*;
 import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import ca.bigmwaj.emapp.as.dto.shared.MembershipChangeDto;
 import ca.bigmwaj.emapp.as.dto.shared.search.SearchInfos;
 import ca.bigmwaj.emapp.as.entity.platform.RoleEntity;
 import ca.bigmwaj.emapp.as.entity.platform.RolePrivilegeEntity;
@@ -12,6 +14,7 @@ import ca.bigmwaj.emapp.as.entity.platform.UserRoleEntity;
 import ca.bigmwaj.emapp.as.mapper.RoleMapper;
 import ca.bigmwaj.emapp.as.service.AbstractMainService;
 import ca.bigmwaj.emapp.as.service.ServiceException;
+import ca.bigmwaj.emapp.as.service.UnknownUserException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.PageRequest;
@@ -19,14 +22,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
-public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short> {
+public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Long> {
 
     private final RoleDao dao;
 
@@ -36,12 +42,22 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
 
     private final RolePrivilegeDao rolePrivilegeDao;
 
+    private final EntityWriteTracker writeTracker;
+
+    private final UserDao userDao;
+
+    private final PermissionService permissionService;
+
     @Autowired
-    public RoleService(RoleDao dao, RoleMapper mapper, UserRoleDao userRoleDao, RolePrivilegeDao rolePrivilegeDao) {
+    public RoleService(RoleDao dao, RoleMapper mapper, UserRoleDao userRoleDao, RolePrivilegeDao rolePrivilegeDao,
+                       EntityWriteTracker writeTracker, UserDao userDao, PermissionService permissionService) {
         this.dao = dao;
         this.mapper = mapper;
         this.userRoleDao = userRoleDao;
         this.rolePrivilegeDao = rolePrivilegeDao;
+        this.writeTracker = writeTracker;
+        this.userDao = userDao;
+        this.permissionService = permissionService;
     }
 
     @Override
@@ -54,7 +70,12 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
         return dao;
     }
 
-    public DataListDto<RolePrivilegeDto> findRolePrivileges(Short roleId, DefaultSearchCriteria sc) {
+    @Override
+    protected boolean isSearchResultCacheable() {
+        return true;
+    }
+
+    public DataListDto<RolePrivilegeDto> findRolePrivileges(Long roleId, DefaultSearchCriteria sc) {
         Objects.requireNonNull(roleId, "Role ID cannot be null for finding role privileges.");
         Example<RolePrivilegeEntity> example = Example.of(new RolePrivilegeEntity());
         example.getProbe().setRole(new RoleEntity());
@@ -74,7 +95,7 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
         return new DataListDto<>(searchInfos, result);
     }
 
-    public DataListDto<RoleUserDto> findRoleUsers(Short roleId, DefaultSearchCriteria sc) {
+    public DataListDto<RoleUserDto> findRoleUsers(Long roleId, DefaultSearchCriteria sc) {
         Objects.requireNonNull(roleId, "Role ID cannot be null for finding role users.");
 
         Example<UserRoleEntity> example = Example.of(new UserRoleEntity());
@@ -95,9 +116,12 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
         return new DataListDto<>(searchInfos, result);
     }
 
-    public void beforeDelete(Short roleId) {
+    public void beforeDelete(Long roleId) {
         Objects.requireNonNull(roleId, "Role ID cannot be null for finding role privileges.");
-        userRoleDao.deleteAll(userRoleDao.findByRoleId(roleId));
+        if (userRoleDao.deleteByRoleId(getEntityManager(), roleId) > 0) {
+            writeTracker.onBulkWrite(List.of(UserRoleEntity.class));
+            permissionService.onBulkWrite(RoleEntity.class, roleId);
+        }
     }
 
     public RoleDto create(RoleDto dto) {
@@ -105,18 +129,13 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
             final var entity = mapper.mappingForCreate(dto);
 
             if (dto.getRolePrivileges() != null && !dto.getRolePrivileges().isEmpty()) {
-                var privileges = dto.getRolePrivileges().stream()
-                        .map(child -> mapper.mappingForCreate(entity, child))
-                        .toList();
-                entity.setRolePrivileges(privileges);
+                entity.setRolePrivileges(mapper.mappingForCreateRolePrivileges(entity, dto.getRolePrivileges()));
             }
 
             var createdEntity = dao.save(entity);
 
             if (dto.getRoleUsers() != null && !dto.getRoleUsers().isEmpty()) {
-                dto.getRoleUsers().stream()
-                        .map(child -> mapper.mappingForCreate(entity, child))
-                        .forEach(userRoleDao::save);
+                userRoleDao.saveAll(mapper.mappingForCreateRoleUsers(entity, dto.getRoleUsers()));
             }
             return GlobalPlatformMapper.INSTANCE.toDto(createdEntity);
         } catch (Exception e) {
@@ -126,39 +145,75 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
     }
 
     private void removeDeletedPrivileges(RoleEntity entity, RoleDto dto) {
-        Predicate<Short> deletable = id -> dto.getRolePrivileges().stream()
+        var deleted = dto.getRolePrivileges().stream()
                 .filter(RolePrivilegeDto::isDeleteAction)
                 .map(RolePrivilegeDto::getPrivilege)
                 .map(PrivilegeDto::getId)
-                .anyMatch(id::equals);
+                .collect(Collectors.toSet());
 
-        entity.getRolePrivileges().removeIf(id -> deletable.test(id.getPrivilege().getId()));
+        if (!deleted.isEmpty()) {
+            entity.getRolePrivileges().removeIf(e -> deleted.contains(e.getPrivilege().getId()));
+        }
     }
 
     private void addNewPrivileges(RoleEntity entity, RoleDto dto) {
-        dto.getRolePrivileges().stream()
+        var created = dto.getRolePrivileges().stream()
                 .filter(RolePrivilegeDto::isCreateAction)
-                .map(e -> mapper.mappingForCreate(entity, e))
-                .forEach(entity.getRolePrivileges()::add);
+                .toList();
+        if (!created.isEmpty()) {
+            entity.getRolePrivileges().addAll(mapper.mappingForCreateRolePrivileges(entity, created));
+        }
     }
 
-    private void removeDeletedUsers(RoleEntity entity, RoleDto dto) {
-        Predicate<Short> deletable = id -> dto.getRoleUsers().stream()
-                .filter(RoleUserDto::isDeleteAction)
+    private static Set<Long> userIds(RoleDto dto, Predicate<RoleUserDto> action) {
+        return dto.getRoleUsers().stream()
+                .filter(action)
                 .map(RoleUserDto::getUser)
                 .map(UserDto::getId)
-                .anyMatch(id::equals);
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 
-        userRoleDao.findByRoleId(entity.getId()).stream()
-                .filter(ur -> deletable.test(ur.getUser().getId()))
-                .forEach(userRoleDao::delete);
+    /**
+     * Removes the role from users then assigns it to users, with bulk deletes and batched
+     * inserts. Assigning the role twice or removing it from a user without it is a no-op.
+     *
+     * @throws UnknownUserException if an added user does not exist, checked with one query before any write
+     */
+    private void changeUsers(RoleEntity entity, Set<Long> added, Set<Long> removed) {
+        if (!added.isEmpty()) {
+            var unknownUserIds = new LinkedHashSet<>(added);
+            unknownUserIds.removeAll(userDao.findExistingValues(getEntityManager(), "id", Long.class, added));
+            if (!unknownUserIds.isEmpty()) {
+                throw new UnknownUserException(unknownUserIds);
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            userRoleDao.deleteByRoleIdAndUserIds(getEntityManager(), entity.getId(), removed);
+            writeTracker.onBulkWrite(List.of(UserRoleEntity.class));
+            permissionService.onBulkWrite(RoleEntity.class, entity.getId());
+        }
+
+        if (!added.isEmpty()) {
+            var newUserIds = new LinkedHashSet<>(added);
+            newUserIds.removeAll(userRoleDao.findUserIds(getEntityManager(), entity.getId(), added));
+            if (!newUserIds.isEmpty()) {
+                userRoleDao.saveAll(mapper.mappingForCreateRoleUserIds(entity, newUserIds));
+            }
+        }
     }
 
-    private void addNewUsers(RoleEntity entity, RoleDto dto) {
-        dto.getRoleUsers().stream()
-                .filter(RoleUserDto::isCreateAction)
-                .map(e -> mapper.mappingForCreate(entity, e))
-                .forEach(userRoleDao::save);
+    public void changeRoleUsers(Long roleId, MembershipChangeDto change) {
+        Objects.requireNonNull(roleId, "Role ID cannot be null for changing role users.");
+        try {
+            var entity = dao.findById(roleId).orElseThrow(() -> new IllegalArgumentException("Role not found with id: " + roleId));
+            changeUsers(entity, new LinkedHashSet<>(change.getAdded()), new LinkedHashSet<>(change.getRemoved()));
+        } catch (UnknownUserException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+            throw new ServiceException("Failed to change Role users: " + e.getMessage(), e);
+        }
     }
 
     public RoleDto update(RoleDto dto) {
@@ -171,11 +226,12 @@ public class RoleService extends AbstractMainService<RoleDto, RoleEntity, Short>
             }
 
             if (dto.getRoleUsers() != null && !dto.getRoleUsers().isEmpty()) {
-                removeDeletedUsers(entity, dto);
-                addNewUsers(entity, dto);
+                changeUsers(entity, userIds(dto, RoleUserDto::isCreateAction), userIds(dto, RoleUserDto::isDeleteAction));
             }
 
             return GlobalPlatformMapper.INSTANCE.toDto(entity);
+        } catch (UnknownUserException e) {
+            throw e;
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
             throw new ServiceException("Failed to update Role: " + e.getMessage(), e);
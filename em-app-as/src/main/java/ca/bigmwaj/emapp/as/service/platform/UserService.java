@@ -1,11 +1,11 @@
 package ca.bigmwaj.emapp.as.service.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
 import static ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper.INSTANCE;
 import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
 import ca.bigmwaj.emapp.as.dto.platform.UserDto;
 import ca.bigmwaj.emapp.as.dto.security.AuthenticatedUser;
-import ca.bigmwaj.emapp.as.dto.security.AuthenticatedUserGrantedAuthority;
 import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
 import ca.bigmwaj.emapp.as.integration.KafkaPublisher;
 import ca.bigmwaj.emapp.as.lvo.platform.UserStatusLvo;
@@ -17,18 +17,21 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Transactional(rollbackFor = {RuntimeException.class, Exception.class})
 @Service
-public class UserService extends AbstractMainService<UserDto, UserEntity, Short> implements AuthenticationManager {
+public class UserService extends AbstractMainService<UserDto, UserEntity, Long> implements AuthenticationManager {
 
     private final UserDao dao;
 
@@ -38,14 +41,31 @@ public class UserService extends AbstractMainService<UserDto, UserEntity, Short>
 
     private final KafkaPublisher kafkaPublisher;
 
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PermissionService permissionService;
+
+    private final LoginExecutor loginExecutor;
+
+    private final LoginAttemptTracker loginAttemptTracker;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate writeTransaction;
 
     @Autowired
-    public UserService(UserDao dao, UserMapper mapper, ContactService contactService, KafkaPublisher kafkaPublisher) {
+    public UserService(UserDao dao, UserMapper mapper, ContactService contactService, KafkaPublisher kafkaPublisher,
+                       PermissionService permissionService, LoginExecutor loginExecutor,
+                       LoginAttemptTracker loginAttemptTracker, PlatformTransactionManager transactionManager) {
         this.dao = dao;
         this.mapper = mapper;
         this.contactService = contactService;
         this.kafkaPublisher = kafkaPublisher;
+        this.permissionService = permissionService;
+        this.loginExecutor = loginExecutor;
+        this.loginAttemptTracker = loginAttemptTracker;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public UserDto create(UserDto dto) {
@@ -95,33 +115,85 @@ public class UserService extends AbstractMainService<UserDto, UserEntity, Short>
         return !dao.existsByUsername(username);
     }
 
+    /**
+     * Checks a username and password. Logins from a username or client address that failed too
+     * often recently are refused before any hashing (see {@link LoginAttemptTracker}), and the
+     * password is checked on the bounded {@link LoginExecutor}, against a dummy hash for an unknown
+     * username so that it takes as long; both refusals are raised as
+     * {@link ca.bigmwaj.emapp.as.service.LoginRejectedException}.
+     *
+     * <p>No connection is held while the password is checked: the user is read in a short
+     * read-only transaction, and a rehashed password is saved in its own transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         var username = authentication.getName();
         var password = authentication.getCredentials().toString();
-        var user = dao.findByUsernameIgnoreCase(username).orElse(null);
-
-        if (user != null && passwordEncoder.matches(password, user.getPassword())) {
-            var status = user.getStatus();
-            boolean enabled = UserStatusLvo.ACTIVE.equals(status);
+        var address = authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+        loginAttemptTracker.check(username, address);
+
+        var user = readTransaction.execute(status -> dao.findByUsernameIgnoreCase(username)
+                .map(e -> new LoginUser(INSTANCE.toDto(e), e.getPassword(), e.getStatus()))
+                .orElse(null));
+        // An unknown username takes as long as a real check, so that the response time does not tell it is unknown
+        var verification = user == null || user.password() == null
+                ? loginExecutor.verifyUnknown(password)
+                : loginExecutor.verify(password, user.password());
+
+        if (verification.matches()) {
+            loginAttemptTracker.onSuccess(username, address);
+            if (verification.upgradedPassword() != null) {
+                writeTransaction.executeWithoutResult(status -> upgradePassword(user, verification.upgradedPassword()));
+            }
+
+            boolean enabled = UserStatusLvo.ACTIVE.equals(user.status());
             boolean accountNonExpired = true;
             boolean credentialsNonExpired = true;
             boolean accountNonLocked = true;
-            var authorities = Collections.singleton(new AuthenticatedUserGrantedAuthority("USER"));
-            var authUser = new AuthenticatedUser(INSTANCE.toDto(user), enabled,
+            var authorities = permissionService.getAuthorities(user.dto().getUsername());
+            var authUser = new AuthenticatedUser(user.dto(), enabled,
                     accountNonExpired, credentialsNonExpired, accountNonLocked, authorities);
             return UsernamePasswordAuthenticationToken.authenticated(authUser, username, authorities);
 
         } else {
+            loginAttemptTracker.onFailure(username, address);
             throw new BadCredentialsException("Bad credentials");
         }
     }
 
+    /**
+     * Saves the rehashed password, unless the password was changed since it was read.
+     */
+    private void upgradePassword(LoginUser user, String upgradedPassword) {
+        dao.findById(user.dto().getId())
+                .filter(e -> user.password().equals(e.getPassword()))
+                .ifPresent(e -> e.setPassword(upgradedPassword));
+    }
+
+    /**
+     * The user of a login, read before the password is checked.
+     *
+     * @param password the password hash
+     */
+    private record LoginUser(UserDto dto, String password, UserStatusLvo status) {
+    }
+
     @Override
     protected Function<UserEntity, UserDto> getEntityToDtoMapper() {
         return INSTANCE::toDto;
     }
 
+    @Override
+    protected Function<UserEntity, UserDto> getEntityToDtoMapper(FetchPlan plan) {
+        return e -> INSTANCE.toDto(e, plan);
+    }
+
+    @Override
+    protected Supplier<UserDto> getProjectionFactory() {
+        return UserDto::new;
+    }
+
     @Override
     protected UserDao getDao() {
         return dao;
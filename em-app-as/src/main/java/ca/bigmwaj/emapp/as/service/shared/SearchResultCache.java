@@ -0,0 +1,214 @@
+package ca.bigmwaj.emapp.as.service.shared;
+
+import ca.bigmwaj.emapp.as.dao.AbstractDao;
+import ca.bigmwaj.emapp.as.dao.shared.EntityWriteTracker;
+import ca.bigmwaj.emapp.as.dao.shared.QueryShape;
+import ca.bigmwaj.emapp.as.dao.shared.SearchTotalCache;
+import ca.bigmwaj.emapp.as.dto.common.AbstractSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of whole search results ({@link DataListDto}), for the small entities whose
+ * admin screens repeat the same searches (roles, groups, privileges, accounts).
+ *
+ * <p>Results are keyed by entity type and normalized search criteria (see {@link Key#of}), and
+ * evicted in least recently used order when the cache holds more than
+ * {@code app.search.result.cache-maximum-size} results or more than
+ * {@code app.search.result.cache-maximum-weight} rows. An entry expires after
+ * {@code app.search.result.cache-ttl}, and as soon as one of the entity classes the search reads
+ * is written (see {@link EntityWriteTracker}), i.e. when a create, update, delete or status
+ * change of the service commits.
+ *
+ * <p>Hits, misses, evictions, size and weight are published with tag {@code cache=searchResult}.
+ * A cached result is shared between callers and must not be modified.
+ */
+@Component
+public class SearchResultCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "searchResult";
+
+    private final LinkedHashMap<Key, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final EntityWriteTracker writeTracker;
+
+    private final long ttlNanos;
+
+    private final int maximumSize;
+
+    private final long maximumWeight;
+
+    private long weight;
+
+    @Autowired
+    public SearchResultCache(EntityWriteTracker writeTracker,
+                             @Value("${app.search.result.cache-ttl:60s}") Duration ttl,
+                             @Value("${app.search.result.cache-maximum-size:1000}") int maximumSize,
+                             @Value("${app.search.result.cache-maximum-weight:100000}") long maximumWeight) {
+        this.writeTracker = writeTracker;
+        this.ttlNanos = ttl.toNanos();
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * Returns the cached result of the search, running it on a miss.
+     *
+     * @param key          the search key
+     * @param dependencies the entity classes the search reads
+     * @param search       runs the search
+     * @return the result
+     */
+    public <D extends DataListDto<?>> D getOrSearch(Key key, Collection<? extends Class<?>> dependencies, Supplier<D> search) {
+        // The version is read before searching, so a write committed meanwhile invalidates the entry
+        var version = writeTracker.getVersion(dependencies);
+        var now = System.nanoTime();
+
+        synchronized (this) {
+            var entry = results.get(key);
+            if (entry != null && entry.version() == version && now - entry.expiresAt() < 0) {
+                hitCount.increment();
+                @SuppressWarnings("unchecked")
+                var result = (D) entry.result();
+                return result;
+            }
+            if (entry != null) {
+                remove(key, entry);
+            }
+        }
+
+        missCount.increment();
+        var result = search.get();
+        var entryWeight = Math.max(1, result.getData() == null ? 0 : result.getData().size());
+        if (entryWeight > maximumWeight) {
+            return result;
+        }
+
+        synchronized (this) {
+            var previous = results.put(key, new Entry(result, version, now + ttlNanos, entryWeight));
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += entryWeight;
+            evict();
+        }
+        return result;
+    }
+
+    private void evict() {
+        var iterator = results.entrySet().iterator();
+        while ((results.size() > maximumSize || weight > maximumWeight) && iterator.hasNext()) {
+            weight -= iterator.next().getValue().weight();
+            iterator.remove();
+            evictionCount.increment();
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        results.remove(key);
+        weight -= entry.weight();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public synchronized int getSize() {
+        return results.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized void clear() {
+        results.clear();
+        weight = 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, SearchResultCache::getHitCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .description("The number of search results read from the cache")
+                .register(registry);
+
+        FunctionCounter.builder("cache.gets", this, SearchResultCache::getMissCount)
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .description("The number of searches run in the database")
+                .register(registry);
+
+        FunctionCounter.builder("cache.evictions", this, SearchResultCache::getEvictionCount)
+                .tag("cache", CACHE_NAME)
+                .description("The number of search results evicted by the size or weight limits")
+                .register(registry);
+
+        Gauge.builder("cache.size", this, SearchResultCache::getSize)
+                .tag("cache", CACHE_NAME)
+                .description("The number of cached search results")
+                .register(registry);
+
+        Gauge.builder("cache.weight", this, SearchResultCache::getWeight)
+                .tag("cache", CACHE_NAME)
+                .description("The number of rows of the cached search results")
+                .register(registry);
+    }
+
+    /**
+     * Normalized search: the filter key of the totals (count query shape and bound values), the
+     * sort list and everything else of the criteria that changes the result.
+     */
+    public record Key(Class<?> entityClass,
+                      SearchTotalCache.Key filter,
+                      List<QueryShape.ClauseShape> sortByClauses,
+                      Integer offset,
+                      Integer limit,
+                      boolean keysetPagination,
+                      String after,
+                      Set<String> includes,
+                      Set<String> fields,
+                      boolean calculateStatTotal,
+                      boolean estimateStatTotal) {
+
+        public static Key of(AbstractDao<?, ?> dao, AbstractSearchCriteria sc) {
+            var sortByClauses = QueryShape.of(dao.getFindAllQuery(), null, sc).sortByClauses();
+            return new Key(dao.getEntityClass(), dao.getTotalKey(sc), sortByClauses,
+                    sc.isKeysetPagination() ? null : sc.getOffset(), sc.getLimit(),
+                    sc.isKeysetPagination(), sc.getAfter(), sc.getIncludes(), sc.getFieldSet(),
+                    sc.isCalculateStatTotal(), sc.isEstimateStatTotal());
+        }
+    }
+
+    private record Entry(DataListDto<?> result, long version, long expiresAt, long weight) {
+    }
+}
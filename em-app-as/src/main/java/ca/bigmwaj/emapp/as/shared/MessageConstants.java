@@ -53,4 +53,8 @@ public interface MessageConstants {
      * Account successfully deleted.
      */
     String MSG0013 = "Account successfully deleted.";
+    /**
+     * The pagination cursor is invalid.
+     */
+    String MSG0014 = "The pagination cursor is invalid. Restart from the first page.";
 }
@@ -0,0 +1,79 @@
+package ca.bigmwaj.emapp.as.validator.rule.common;
+
+import ca.bigmwaj.emapp.as.validator.shared.ValidationBatch;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationConfigurationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule checking whether its values exist in the database, which can check all the values of a
+ * validation at once.
+ *
+ * <p>Within a {@link ValidationBatch}, the rule reads the answer the batch looked up for the value;
+ * otherwise, or for a value the batch did not collect, it queries the database for the value alone.
+ */
+public abstract class AbstractBatchRule extends AbstractRule {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return the value as looked up in the database, or null when the value is not checked (e.g., null or blank)
+     */
+    public abstract Object toKey(Object value);
+
+    /**
+     * @param key a key of {@link #toKey}
+     * @return whether the key exists
+     */
+    protected abstract boolean exists(Object key);
+
+    /**
+     * @param keys keys of {@link #toKey}
+     * @return the keys that exist, with one query per chunk of keys
+     */
+    public abstract Set<?> findExisting(Collection<Object> keys);
+
+    /**
+     * @return true when the values must exist (e.g., a referenced id), false when they must not (e.g., a unique name)
+     */
+    protected abstract boolean mustExist();
+
+    @Override
+    public boolean isValid(Object value, Map<String, String> parameters) {
+        var key = toKey(value);
+        if (key == null) {
+            return true; // Let @NotNull handle this
+        }
+
+        var batch = ValidationBatch.current();
+        var found = batch == null ? null : batch.exists(this, key);
+        if (found == null) {
+            found = exists(key);
+        }
+        return found == mustExist();
+    }
+
+    /**
+     * @return the value as an id, or null for a null value
+     * @throws ValidationConfigurationException if the value is not a number
+     */
+    protected static Long toId(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            throw new ValidationConfigurationException(e.getMessage(), e);
+        }
+    }
+
+    protected EntityManager getEntityManager() {
+        return entityManager;
+    }
+}
@@ -1,9 +1,8 @@
 package ca.bigmwaj.emapp.as.validator.rule.common;
 
+import ca.bigmwaj.emapp.as.validator.shared.PropertyAccessor;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.Data;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 
 import java.util.Map;
 
@@ -26,8 +25,13 @@ public abstract class AbstractRule {
     }
 
     public boolean validate(ConstraintValidatorContext context, Object dto, String fieldName, Map<String, String> parameters) {
-        BeanWrapper wrapper = new BeanWrapperImpl(dto);
-        Object value = wrapper.getPropertyValue(fieldName);
+        return validate(context, dto, fieldName, PropertyAccessor.getter(dto.getClass(), fieldName).apply(dto), parameters);
+    }
+
+    /**
+     * Validates a value already read from the DTO, e.g. through the {@link PropertyAccessor} of the field.
+     */
+    public boolean validate(ConstraintValidatorContext context, Object dto, String fieldName, Object value, Map<String, String> parameters) {
         boolean isValid = isValid(dto, value, parameters);
 
         if (!isValid) {
@@ -1,24 +1,40 @@
 package ca.bigmwaj.emapp.as.validator.rule.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.GroupDao;
-import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 @Component("GroupNameUniqueRule")
-public class GroupNameUniqueRule extends AbstractRule {
+public class GroupNameUniqueRule extends AbstractBatchRule {
 
     @Autowired
     private GroupDao GroupDao;
 
     @Override
-    public boolean isValid(Object value, Map<String, String> parameters) {
-        if (value == null) {
-            return true; // Let @NotNull handle this
-        }
-        return !GroupDao.existsByNameIgnoreCase(value.toString());
+    public Object toKey(Object value) {
+        return value == null ? null : value.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected boolean exists(Object key) {
+        return GroupDao.existsByNameIgnoreCase((String) key);
+    }
+
+    @Override
+    public Set<?> findExisting(Collection<Object> keys) {
+        var names = keys.stream().map(String.class::cast).toList();
+        return GroupDao.findExistingValuesIgnoreCase(getEntityManager(), "name", names);
+    }
+
+    @Override
+    protected boolean mustExist() {
+        return false;
     }
 
     @Override
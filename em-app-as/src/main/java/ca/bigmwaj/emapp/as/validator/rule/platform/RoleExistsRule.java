@@ -1,30 +1,39 @@
 package ca.bigmwaj.emapp.as.validator.rule.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.RoleDao;
-import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
-import ca.bigmwaj.emapp.as.validator.xml.ValidationConfigurationException;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 @Component("RoleExistsRule")
-public class RoleExistsRule extends AbstractRule {
+public class RoleExistsRule extends AbstractBatchRule {
 
     @Autowired
     private RoleDao roleDao;
 
     @Override
-    public boolean isValid(Object value, Map<String, String> parameters) {
-        if (value == null) {
-            return true; // Let @NotNull handle this
-        }
-        try {
-            Short id = Short.valueOf(value.toString());
-            return roleDao.existsById(id);
-        } catch (NumberFormatException e) {
-            throw new ValidationConfigurationException(e.getMessage(), e);
-        }
+    public Object toKey(Object value) {
+        return toId(value);
+    }
+
+    @Override
+    protected boolean exists(Object key) {
+        return roleDao.existsById((Long) key);
+    }
+
+    @Override
+    public Set<?> findExisting(Collection<Object> keys) {
+        var ids = keys.stream().map(Long.class::cast).toList();
+        return roleDao.findExistingValues(getEntityManager(), "id", Long.class, ids);
+    }
+
+    @Override
+    protected boolean mustExist() {
+        return true;
     }
 
     @Override
@@ -1,24 +1,40 @@
 package ca.bigmwaj.emapp.as.validator.rule.platform;
 
 import ca.bigmwaj.emapp.as.dao.platform.RoleDao;
-import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 @Component("RoleNameUniqueRule")
-public class RoleNameUniqueRule extends AbstractRule {
+public class RoleNameUniqueRule extends AbstractBatchRule {
 
     @Autowired
     private RoleDao roleDao;
 
     @Override
-    public boolean isValid(Object value, Map<String, String> parameters) {
-        if (value == null) {
-            return true; // Let @NotNull handle this
-        }
-        return !roleDao.existsByNameIgnoreCase(value.toString());
+    public Object toKey(Object value) {
+        return value == null ? null : value.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected boolean exists(Object key) {
+        return roleDao.existsByNameIgnoreCase((String) key);
+    }
+
+    @Override
+    public Set<?> findExisting(Collection<Object> keys) {
+        var names = keys.stream().map(String.class::cast).toList();
+        return roleDao.findExistingValuesIgnoreCase(getEntityManager(), "name", names);
+    }
+
+    @Override
+    protected boolean mustExist() {
+        return false;
     }
 
     @Override
@@ -1,25 +1,52 @@
 package ca.bigmwaj.emapp.as.validator.rule.platform;
 
+import ca.bigmwaj.emapp.as.dao.platform.UserDao;
 import ca.bigmwaj.emapp.as.service.platform.UserService;
-import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Component("UniqueUsernameRule")
-public class UniqueUsernameRule extends AbstractRule {
+public class UniqueUsernameRule extends AbstractBatchRule {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDao userDao;
+
     @Override
-    public boolean isValid(Object username, Map<String, String> parameters) {
+    public Object toKey(Object username) {
         String _username = (String) username;
         if (_username == null || _username.isBlank()) {
-            return true; // Let @NotBlank handle this
+            return null; // Let @NotBlank handle this
         }
-        return userService.isUsernameUnique(_username);
+        return _username;
+    }
+
+    @Override
+    protected boolean exists(Object key) {
+        return !userService.isUsernameUnique((String) key);
+    }
+
+    @Override
+    public Set<?> findExisting(Collection<Object> keys) {
+        var usernames = keys.stream().map(String.class::cast).toList();
+        // The default MySQL collation matches the usernames ignoring case, so the answers are compared the same way
+        var existing = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        existing.addAll(userDao.findExistingValues(getEntityManager(), "username", String.class, usernames));
+        return usernames.stream().filter(existing::contains).collect(Collectors.toSet());
+    }
+
+    @Override
+    protected boolean mustExist() {
+        return false;
     }
 
     @Override
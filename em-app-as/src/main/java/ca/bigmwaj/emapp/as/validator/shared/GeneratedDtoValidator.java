@@ -0,0 +1,28 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * A validator generated at build time from the validator XML file of a namespace, by the
+ * annotation processor of em-app-codegen. {@link SpringDtoValidator} runs it instead of
+ * interpreting the validation plan of the namespace.
+ */
+public interface GeneratedDtoValidator {
+
+    /**
+     * @return the namespace of {@code @ValidDto} (e.g., "platform/account")
+     */
+    String getNamespace();
+
+    /**
+     * @return the DTO type the validator was generated for
+     */
+    Class<?> getDtoType();
+
+    /**
+     * @param dto       the DTO, of {@link #getDtoType()}
+     * @param operation the bit of the operation (see {@link ConditionEvaluator#operation(String)})
+     */
+    boolean isValid(Object dto, int operation, ConstraintValidatorContext context);
+}
@@ -0,0 +1,125 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.NotReadablePropertyException;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reads a property of the validated DTOs, without the introspection and the allocation of a
+ * {@code BeanWrapperImpl} per read.
+ *
+ * <p>The getter of a property is looked up once per DTO class, and turned into a
+ * {@link Function} by {@link LambdaMetafactory}, so that a read is a plain interface call the JIT
+ * can inline; when the metafactory cannot be used, the {@link MethodHandle} is invoked instead.
+ * An accessor remembers the getter of the last class it read, the class of a field being nearly
+ * always the same. A dotted path reads the nested properties in turn, and is null as soon as one
+ * of them is.
+ */
+public final class PropertyAccessor {
+
+    private static final ClassValue<Map<String, Function<Object, Object>>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Object, Object>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String path;
+
+    private final String[] properties;
+
+    private volatile Getter last;
+
+    private PropertyAccessor(String path) {
+        this.path = path;
+        this.properties = path.split("\\.");
+    }
+
+    public static PropertyAccessor of(String path) {
+        return new PropertyAccessor(path);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @param bean the DTO
+     * @return the value of the property
+     * @throws NotReadablePropertyException if the class of a bean of the path has no getter for the property
+     */
+    public Object get(Object bean) {
+        if (properties.length == 1) {
+            var getter = last;
+            if (getter == null || getter.type() != bean.getClass()) {
+                getter = new Getter(bean.getClass(), getter(bean.getClass(), properties[0]));
+                last = getter;
+            }
+            return getter.function().apply(bean);
+        }
+
+        var value = bean;
+        for (var property : properties) {
+            if (value == null) {
+                return null;
+            }
+            value = getter(value.getClass(), property).apply(value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the getter of the property of the class, created on first use
+     */
+    public static Function<Object, Object> getter(Class<?> type, String property) {
+        return GETTERS.get(type).computeIfAbsent(property, e -> createGetter(type, e));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(Class<?> type, String property) {
+        var descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            throw new NotReadablePropertyException(type, property);
+        }
+
+        var readMethod = descriptor.getReadMethod();
+        MethodHandle handle;
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(readMethod.getDeclaringClass(), MethodHandles.lookup());
+            handle = lookup.unreflect(readMethod);
+        } catch (IllegalAccessException e) {
+            throw new NotReadablePropertyException(type, property, "Getter is not accessible", e);
+        }
+
+        try {
+            var site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            var generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException("Failed to read property " + property + " of " + type.getName(), ex);
+                }
+            };
+        }
+    }
+
+    private record Getter(Class<?> type, Function<Object, Object> function) {
+    }
+}
@@ -1,26 +1,39 @@
 package ca.bigmwaj.emapp.as.validator.shared;
 
 import ca.bigmwaj.emapp.as.validator.ValidationException;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
 import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
 import ca.bigmwaj.emapp.as.validator.xml.RuleFactory;
 import ca.bigmwaj.emapp.as.validator.xml.ValidationConfigurationException;
-import ca.bigmwaj.emapp.as.validator.xml.ValidationXmlParser;
-import ca.bigmwaj.emapp.as.validator.xml.model.FieldValidation;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationPlanCache;
 import ca.bigmwaj.emapp.as.validator.xml.model.RuleConfig;
-import ca.bigmwaj.emapp.as.validator.xml.model.ValidationConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.ValidationPlan;
 import ca.bigmwaj.emapp.dm.dto.AbstractBaseDto;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Spring-based DTO validator that loads validation rules from XML configuration.
- * Uses the namespace from @ValidDto annotation to locate and parse XML validation files.
+ * Uses the namespace and operation from @ValidDto annotation to get the validation plan compiled
+ * from the XML validation files (see {@link ValidationPlanCache}).
+ *
+ * <p>With {@code app.validation.batch-lookups}, a plan with database rules is run in two passes:
+ * the values of the {@link AbstractBatchRule}s whose condition holds are first collected in the
+ * whole DTO tree and looked up with one query per rule (see {@link ValidationBatch}), then the
+ * rules run against these answers.
+ *
+ * <p>When em-app-codegen generated a {@link GeneratedDtoValidator} for the namespace and the DTO
+ * type, it runs instead of the plan, unless {@code app.validation.generated} is off or the plans
+ * are hot reloaded.
  */
 @Component
 public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object> {
@@ -28,22 +41,48 @@ public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object>
     private static final Logger logger = LoggerFactory.getLogger(SpringDtoValidator.class);
 
     @Autowired
-    private ValidationXmlParser xmlParser;
+    private ValidationPlanCache planCache;
 
     @Autowired
     private RuleFactory ruleFactory;
 
     @Autowired
-    private ConditionEvaluator conditionEvaluator;
+    private ObjectProvider<GeneratedDtoValidator> generatedValidators;
+
+    @Value("${app.validation.batch-lookups:true}")
+    private boolean batchLookups;
+
+    @Value("${app.validation.generated:true}")
+    private boolean useGenerated;
+
+    @Value("${app.validation.hot-reload:false}")
+    private boolean hotReload;
 
     private String namespace;
 
     private String operation;
 
+    /**
+     * The bit of the operation, see {@link ConditionEvaluator#operation(String)}.
+     */
+    private int operationBit;
+
+    /**
+     * The validator generated for the namespace, or null when the plan is interpreted.
+     */
+    private GeneratedDtoValidator generated;
+
     @Override
     public void initialize(ValidDto constraintAnnotation) {
         this.namespace = constraintAnnotation.value();
         this.operation = constraintAnnotation.operation();
+        this.operationBit = ConditionEvaluator.operation(operation);
+        if (useGenerated && !hotReload) {
+            this.generated = generatedValidators.orderedStream()
+                    .filter(e -> e.getNamespace().equals(namespace))
+                    .findFirst()
+                    .orElse(null);
+        }
     }
 
     @Override
@@ -60,8 +99,19 @@ public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object>
             throw new ValidationException("Operation must be specified in @ValidDto annotation");
         }
 
+        ValidationBatch batch = null;
         try {
-            var config = getValidationConfig(null);
+            var plan = getValidationPlan();
+
+            if (batchLookups && plan.hasBatchRules()) {
+                batch = ValidationBatch.open();
+                collect(dto, plan, batch);
+                batch.execute();
+            }
+
+            if (generated != null && generated.getDtoType().isInstance(dto)) {
+                return generated.isValid(dto, operationBit, context);
+            }
 
             // Disable default constraint violation
             //context.disableDefaultConstraintViolation();
@@ -69,8 +119,8 @@ public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object>
             // Execute validation for each field
 
             var isValid = true;
-            for (var fieldValidation : config.getFields()) {
-                boolean validField = validateField(dto, fieldValidation, context);
+            for (var field : plan.fields()) {
+                boolean validField = validateField(dto, field, context);
                 isValid = isValid && validField;
             }
             return isValid;
@@ -82,41 +132,49 @@ public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object>
         } catch (Exception e) {
             logger.error("Unexpected error during validation for namespace: {}", namespace, e);
             throw new ValidationException("Unexpected error during validation", e);
+        } finally {
+            if (batch != null) {
+                batch.close();
+            }
         }
     }
 
-    private ValidationConfig getValidationConfig(String currentPath) {
+    private ValidationPlan getValidationPlan() {
         try {
-            return xmlParser.getValidationConfig(currentPath, this.namespace);
+            return planCache.getPlan(this.namespace, this.operation);
         } catch (Exception e) {
             logger.error("Error loading validation configuration for namespace: {}", namespace, e);
             throw new ValidationConfigurationException("Failed to load validation configuration", e);
         }
     }
 
-    private boolean validateField(Object dto, FieldValidation fieldValidation, ConstraintValidatorContext context) {
+    private boolean validateField(Object dto, ValidationPlan.Field field, ConstraintValidatorContext context) {
         boolean isValid = true;
+        Object value = null;
+        boolean valueRead = false;
 
-        for (var conditionConfig : fieldValidation.getConditions()) {
+        for (var condition : field.conditions()) {
             // Evaluate condition
-            var conditionMet = conditionEvaluator.evaluate(operation, conditionConfig.getExpression(), dto);
+            var conditionMet = condition.condition().test(operationBit, dto);
             if (conditionMet) {
-                isValid = conditionConfig.getRules().stream()
-                        .allMatch(rc -> validate(rc, context, dto, fieldValidation.getName()));
+                if (!valueRead) {
+                    value = field.accessor().get(dto);
+                    valueRead = true;
+                }
+                isValid = validate(condition.rules(), context, dto, field.name(), value);
             }
         }
 
-        if (isValid && fieldValidation.getValidationConfig() != null) {
-            var nestedConfig = fieldValidation.getValidationConfig();
-            var wrapper = new BeanWrapperImpl(dto);
-            var nestedObject = wrapper.getPropertyValue(fieldValidation.getName());
+        if (isValid && field.nested() != null) {
+            var nestedPlan = field.nested();
+            var nestedObject = valueRead ? value : field.accessor().get(dto);
             if (nestedObject != null) {
                 if (nestedObject instanceof AbstractBaseDto) {
-                    isValid = nestedConfig.getFields().stream()
+                    isValid = nestedPlan.fields().stream()
                             .allMatch(fv -> validateField(nestedObject, fv, context));
                 } else {
                     for (var nestedObjectItem : (Iterable<?>) nestedObject) {
-                        isValid = nestedConfig.getFields().stream()
+                        isValid = nestedPlan.fields().stream()
                                 .allMatch(fv -> validateField(nestedObjectItem, fv, context));
 
                         if (!isValid) {
@@ -129,6 +187,55 @@ public class SpringDtoValidator implements ConstraintValidator<ValidDto, Object>
         return isValid;
     }
 
+    /**
+     * First pass: adds to the batch the values of the batch rules whose condition holds, for the dto
+     * and its nested dtos.
+     */
+    private void collect(Object dto, ValidationPlan plan, ValidationBatch batch) {
+        for (var field : plan.fields()) {
+            Object value = null;
+            boolean valueRead = false;
+
+            for (var condition : field.conditions()) {
+                if (condition.hasBatchRules() && condition.condition().test(operationBit, dto)) {
+                    if (!valueRead) {
+                        value = field.accessor().get(dto);
+                        valueRead = true;
+                    }
+                    for (var rule : condition.rules()) {
+                        if (rule.rule() instanceof AbstractBatchRule batchRule) {
+                            batch.add(batchRule, value);
+                        }
+                    }
+                }
+            }
+
+            if (field.nested() != null && field.nested().hasBatchRules()) {
+                var nestedObject = valueRead ? value : field.accessor().get(dto);
+                if (nestedObject instanceof AbstractBaseDto) {
+                    collect(nestedObject, field.nested(), batch);
+                } else if (nestedObject != null) {
+                    for (var nestedObjectItem : (Iterable<?>) nestedObject) {
+                        collect(nestedObjectItem, field.nested(), batch);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the rules until one fails.
+     */
+    private static boolean validate(List<ValidationPlan.Rule> rules, ConstraintValidatorContext context, Object dto,
+                                    String fieldName, Object value) {
+        for (var rule : rules) {
+            if (!rule.rule().validate(context, dto, fieldName, value, rule.parameters())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean validate(RuleConfig ruleConfig, ConstraintValidatorContext context, Object dto, String fieldName) {
         AbstractRule rule = ruleFactory.createRule(ruleConfig);
         return rule.validate(context, dto, fieldName, ruleConfig.getParameters());
@@ -0,0 +1,91 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The database lookups of a validation, made for all its values before the rules run.
+ *
+ * <p>{@link SpringDtoValidator} opens a batch for the current thread, {@link #add adds} the values
+ * of the {@link AbstractBatchRule}s in the whole DTO tree, and {@link #execute looks them up} with
+ * one query per rule, so that validating a DTO with hundreds of ids costs a fixed number of
+ * queries. The rules then read the answers through {@link #current()}.
+ */
+public final class ValidationBatch implements AutoCloseable {
+
+    private static final ThreadLocal<ValidationBatch> CURRENT = new ThreadLocal<>();
+
+    private final ValidationBatch previous;
+
+    /**
+     * The keys to look up, and the answers, by rule; identity maps, the rules being all equal for
+     * Lombok's {@code @Data}.
+     */
+    private final Map<AbstractBatchRule, Set<Object>> pending = new IdentityHashMap<>();
+
+    private final Map<AbstractBatchRule, Map<Object, Boolean>> answers = new IdentityHashMap<>();
+
+    private ValidationBatch(ValidationBatch previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Opens a batch for the current thread, until {@link #close()}.
+     */
+    public static ValidationBatch open() {
+        var batch = new ValidationBatch(CURRENT.get());
+        CURRENT.set(batch);
+        return batch;
+    }
+
+    /**
+     * @return the batch of the current thread, or null
+     */
+    public static ValidationBatch current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds a value the rule will check.
+     */
+    public void add(AbstractBatchRule rule, Object value) {
+        var key = rule.toKey(value);
+        if (key != null && exists(rule, key) == null) {
+            pending.computeIfAbsent(rule, e -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Looks up the keys added since the last execution, with one query per rule.
+     */
+    public void execute() {
+        pending.forEach((rule, keys) -> {
+            var existing = rule.findExisting(keys);
+            var ruleAnswers = answers.computeIfAbsent(rule, e -> new HashMap<>());
+            keys.forEach(key -> ruleAnswers.put(key, existing.contains(key)));
+        });
+        pending.clear();
+    }
+
+    /**
+     * @return whether the key exists, or null when it was not looked up
+     */
+    public Boolean exists(AbstractBatchRule rule, Object key) {
+        var ruleAnswers = answers.get(rule);
+        return ruleAnswers == null ? null : ruleAnswers.get(key);
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -3,47 +3,208 @@ package ca.bigmwaj.emapp.as.validator.xml;
 import org.jspecify.annotations.NonNull;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.BooleanLiteral;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.*;
 
+/**
+ * Evaluates the {@code <condition expression="...">} of the validation XML files.
+ *
+ * <p>An expression is parsed once by {@link #compile}. The parts reading only the operation
+ * variables ({@code #create}, {@code #createOrUpdate}, ...), {@code true} and {@code false}, joined
+ * by {@code and}, {@code or} and {@code not}, are decided at compile time for every operation: a
+ * condition like {@code #create}, {@code #update or #delete} or {@code true} is then a constant of
+ * the operation, and {@code #create and adminUsernameTypePhone} is false without evaluation for
+ * any other operation than create. The remaining expressions are evaluated with SpEL compiled to
+ * bytecode ({@link SpelCompilerMode#MIXED}), against a shared evaluation context per operation.
+ */
 @Component
 public class ConditionEvaluator {
 
-    private static @NonNull StandardEvaluationContext getStandardEvaluationContext(String operation, Object dto) {
-        StandardEvaluationContext context = new StandardEvaluationContext(dto);
-        context.setVariable("create", CREATE.equals(operation));
-        context.setVariable("update", UPDATE.equals(operation));
-        context.setVariable("delete", DELETE.equals(operation));
-        context.setVariable("changeStatus", CHANGE_STATUS.equals(operation));
-
-        context.setVariable("createOrUpdate", List.of(CREATE, UPDATE).contains(operation));
-        context.setVariable("updateOrChangeStatus", List.of(UPDATE, CHANGE_STATUS).contains(operation));
-        context.setVariable("createUpdateOrChangeStatus", List.of(CREATE, UPDATE, CHANGE_STATUS).contains(operation));
-        context.setVariable("createOrChangeStatus", List.of(CREATE, CHANGE_STATUS).contains(operation));
+    private static final List<String> OPERATIONS = List.of(CREATE, UPDATE, DELETE, CHANGE_STATUS);
+
+    /**
+     * The operation of the operations other than create, update, delete and change status.
+     */
+    private static final int OTHER_OPERATION = 1 << OPERATIONS.size();
+
+    private static final int ALL_OPERATIONS = (OTHER_OPERATION << 1) - 1;
+
+    private static final Map<String, Integer> OPERATION_VARIABLES = Map.of(
+            "create", operation(CREATE),
+            "update", operation(UPDATE),
+            "delete", operation(DELETE),
+            "changeStatus", operation(CHANGE_STATUS),
+            "createOrUpdate", operation(CREATE) | operation(UPDATE),
+            "updateOrChangeStatus", operation(UPDATE) | operation(CHANGE_STATUS),
+            "createUpdateOrChangeStatus", operation(CREATE) | operation(UPDATE) | operation(CHANGE_STATUS),
+            "createOrChangeStatus", operation(CREATE) | operation(CHANGE_STATUS));
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ConditionEvaluator.class.getClassLoader()));
+
+    private final Map<String, Condition> conditions = new ConcurrentHashMap<>();
+
+    /**
+     * The evaluation contexts by operation index; they hold the operation variables only, the DTO
+     * being passed as root object of each evaluation.
+     */
+    private final StandardEvaluationContext[] contexts = new StandardEvaluationContext[OPERATIONS.size() + 1];
+
+    public ConditionEvaluator() {
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = getStandardEvaluationContext(1 << i);
+        }
+    }
+
+    private static @NonNull StandardEvaluationContext getStandardEvaluationContext(int operation) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        OPERATION_VARIABLES.forEach((name, operations) -> context.setVariable(name, (operations & operation) != 0));
         return context;
     }
 
-    public boolean evaluate(String operation, String expression, Object dto) {
+    /**
+     * @param operation the operation of {@code @ValidDto}
+     * @return the bit of the operation, as expected by {@link Condition#test}
+     */
+    public static int operation(String operation) {
+        var index = OPERATIONS.indexOf(operation);
+        return index < 0 ? OTHER_OPERATION : 1 << index;
+    }
+
+    /**
+     * Parses a condition expression.
+     *
+     * @throws ValidationConfigurationException if the expression cannot be parsed
+     */
+    public Condition compile(String expression) {
         if (expression == null || expression.trim().isEmpty()) {
-            return false;
+            return new Condition(expression, null, 0, ALL_OPERATIONS);
         }
 
+        SpelExpression exp;
         try {
-            ExpressionParser parser = new SpelExpressionParser();
-            StandardEvaluationContext context = getStandardEvaluationContext(operation, dto);
-            Expression exp = parser.parseExpression(expression);
-            return Boolean.TRUE.equals(exp.getValue(context, Boolean.class));
+            exp = (SpelExpression) parser.parseExpression(expression);
         } catch (ParseException e) {
             throw new ValidationConfigurationException("Failed to parse condition expression: " + expression, e);
-        } catch (EvaluationException e) {
-            throw new ValidationConfigurationException("Failed to evaluate condition expression: " + expression, e);
+        }
+
+        int always = 0;
+        int never = 0;
+        for (int operation = 1; operation <= OTHER_OPERATION; operation <<= 1) {
+            var value = decide(exp.getAST(), operation);
+            if (Boolean.TRUE.equals(value)) {
+                always |= operation;
+            } else if (Boolean.FALSE.equals(value)) {
+                never |= operation;
+            }
+        }
+        return new Condition(expression, (always | never) == ALL_OPERATIONS ? null : exp, always, never);
+    }
+
+    /**
+     * @return the value of the node for the operation, or null when it depends on the DTO
+     */
+    private static Boolean decide(SpelNode node, int operation) {
+        if (node instanceof BooleanLiteral literal) {
+            return (Boolean) literal.getLiteralValue().getValue();
+        }
+        if (node instanceof VariableReference) {
+            var operations = OPERATION_VARIABLES.get(node.toStringAST().substring(1));
+            return operations == null ? null : (operations & operation) != 0;
+        }
+        if (node instanceof OperatorNot) {
+            var value = decide(node.getChild(0), operation);
+            return value == null ? null : !value;
+        }
+        if (node instanceof OpAnd || node instanceof OpOr) {
+            var shortCircuit = node instanceof OpOr;
+            var left = decide(node.getChild(0), operation);
+            var right = decide(node.getChild(1), operation);
+            if (Boolean.valueOf(shortCircuit).equals(left) || Boolean.valueOf(shortCircuit).equals(right)) {
+                return shortCircuit;
+            }
+            return left == null || right == null ? null : !shortCircuit;
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates a condition expression, compiled on its first evaluation.
+     */
+    public boolean evaluate(String operation, String expression, Object dto) {
+        if (expression == null || expression.trim().isEmpty()) {
+            return false;
+        }
+        return conditions.computeIfAbsent(expression, this::compile).test(operation(operation), dto);
+    }
+
+    /**
+     * A compiled condition expression.
+     */
+    public final class Condition {
+
+        private final String expression;
+
+        private final Expression spelExpression;
+
+        private final int always;
+
+        private final int never;
+
+        private Condition(String expression, Expression spelExpression, int always, int never) {
+            this.expression = expression;
+            this.spelExpression = spelExpression;
+            this.always = always;
+            this.never = never;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * @param operation the bit of the operation (see {@link ConditionEvaluator#operation(String)})
+         * @return whether the condition is false for the operation, whatever the DTO
+         */
+        public boolean isNever(int operation) {
+            return (never & operation) != 0;
+        }
+
+        /**
+         * @param operation the bit of the operation (see {@link ConditionEvaluator#operation(String)})
+         * @param dto       the validated DTO
+         */
+        public boolean test(int operation, Object dto) {
+            if ((always & operation) != 0) {
+                return true;
+            }
+            if ((never & operation) != 0) {
+                return false;
+            }
+
+            try {
+                var context = contexts[Integer.numberOfTrailingZeros(operation)];
+                return Boolean.TRUE.equals(spelExpression.getValue(context, dto, Boolean.class));
+            } catch (EvaluationException e) {
+                throw new ValidationConfigurationException("Failed to evaluate condition expression: " + expression, e);
+            }
         }
     }
 }
@@ -0,0 +1,314 @@
+package ca.bigmwaj.emapp.as.validator.xml;
+
+import ca.bigmwaj.emapp.as.validator.xml.model.ConditionConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.FieldValidation;
+import ca.bigmwaj.emapp.as.validator.xml.model.RuleConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.ValidationConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.ValidationPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled validation plans of the XML validators, by namespace and operation.
+ *
+ * <p>Every {@code validator/**}{@code /*.xml} file of the classpath is parsed once at startup,
+ * and compiled into an immutable {@link ValidationPlan}: the {@code validationConfig ref}s are
+ * resolved to the plans of their namespaces, shared between the files referencing them, and the
+ * rule types to their rule beans; the condition expressions are compiled by
+ * {@link ConditionEvaluator}. An invalid file, an invalid expression, an unknown rule type, a missing or cyclic
+ * {@code ref} fails the startup instead of the first request using it. A namespace the startup
+ * scan did not find is compiled on its first use.
+ *
+ * <p>The plan of an operation keeps only the conditions that can hold for the operation (see
+ * {@link ConditionEvaluator.Condition#isNever}), and the fields left with a condition or a nested
+ * plan, so that e.g. a delete validates the {@code id} only.
+ *
+ * <p>With {@code app.validation.hot-reload} (for development, when the classpath resources are
+ * plain files), the directories of the XML files are watched, and every plan is compiled again
+ * when one of them changes; on error, the previous plans are kept.
+ */
+@Component
+public class ValidationPlanCache implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidationPlanCache.class);
+
+    private static final String VALIDATOR_LOCATION = "classpath*:validator/**/*.xml";
+
+    private static final String VALIDATOR_DIRECTORY = "/validator/";
+
+    private final ValidationXmlParser xmlParser;
+
+    private final RuleFactory ruleFactory;
+
+    private final ConditionEvaluator conditionEvaluator;
+
+    private final boolean hotReload;
+
+    private volatile Plans plans = new Plans(new ConcurrentHashMap<>());
+
+    private WatchService watchService;
+
+    @Autowired
+    public ValidationPlanCache(ValidationXmlParser xmlParser, RuleFactory ruleFactory, ConditionEvaluator conditionEvaluator,
+                               @Value("${app.validation.hot-reload:false}") boolean hotReload) {
+        this.xmlParser = xmlParser;
+        this.ruleFactory = ruleFactory;
+        this.conditionEvaluator = conditionEvaluator;
+        this.hotReload = hotReload;
+    }
+
+    /**
+     * Compiles every validator once the rule beans exist.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        var resources = findValidatorResources();
+        plans = compileAll(resources);
+        logger.info("Compiled {} validation plans", plans.byNamespace().size());
+        if (hotReload) {
+            watch(resources);
+        }
+    }
+
+    /**
+     * @param namespace the namespace of {@code @ValidDto} (e.g., "platform/account")
+     * @return the plan of the namespace, compiled on first use when it was not found at startup
+     * @throws ValidationConfigurationException if the namespace cannot be compiled
+     */
+    public ValidationPlan getPlan(String namespace) {
+        return getPlan(plans, namespace);
+    }
+
+    /**
+     * @param namespace the namespace of {@code @ValidDto} (e.g., "platform/account")
+     * @param operation the operation of {@code @ValidDto}
+     * @return the plan of the namespace without the conditions that cannot hold for the operation
+     * @throws ValidationConfigurationException if the namespace cannot be compiled
+     */
+    public ValidationPlan getPlan(String namespace, String operation) {
+        var current = plans;
+        var key = new Key(namespace, ConditionEvaluator.operation(operation));
+        var plan = current.byOperation().get(key);
+        if (plan == null) {
+            plan = specialize(getPlan(current, namespace), key.operation(), new IdentityHashMap<>());
+            current.byOperation().putIfAbsent(key, plan);
+        }
+        return plan;
+    }
+
+    private ValidationPlan getPlan(Plans current, String namespace) {
+        var plan = current.byNamespace().get(namespace);
+        if (plan == null) {
+            var compiled = new HashMap<>(current.byNamespace());
+            compile(namespace, compiled, new LinkedHashSet<>());
+            // Keep the refs compiled on the way, so that they are shared with the next namespaces
+            for (var entry : compiled.entrySet()) {
+                current.byNamespace().putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            plan = current.byNamespace().get(namespace);
+        }
+        return plan;
+    }
+
+    private Plans compileAll(List<Resource> resources) {
+        var compiled = new HashMap<String, ValidationPlan>();
+        for (var resource : resources) {
+            compile(namespaceOf(resource), compiled, new LinkedHashSet<>());
+        }
+        return new Plans(new ConcurrentHashMap<>(compiled));
+    }
+
+    /**
+     * @param specialized the plans already specialized, so that a plan shared through refs stays shared
+     */
+    private static ValidationPlan specialize(ValidationPlan plan, int operation, Map<ValidationPlan, ValidationPlan> specialized) {
+        var result = specialized.get(plan);
+        if (result != null) {
+            return result;
+        }
+
+        var fields = new ArrayList<ValidationPlan.Field>();
+        for (var field : plan.fields()) {
+            var conditions = field.conditions()
+                    .stream()
+                    .filter(e -> !e.condition().isNever(operation))
+                    .toList();
+            var nested = field.nested() == null ? null : specialize(field.nested(), operation, specialized);
+            if (nested != null && nested.fields().isEmpty()) {
+                nested = null;
+            }
+            if (!conditions.isEmpty() || nested != null) {
+                fields.add(new ValidationPlan.Field(field.name(), field.type(), conditions, nested, field.accessor()));
+            }
+        }
+        result = new ValidationPlan(plan.namespace(), fields);
+        specialized.put(plan, result);
+        return result;
+    }
+
+    /**
+     * @param compiled  the plans compiled so far, completed with the plan of the namespace and of its refs
+     * @param compiling the namespaces being compiled, in ref order
+     */
+    private ValidationPlan compile(String namespace, Map<String, ValidationPlan> compiled, SequencedSet<String> compiling) {
+        var plan = compiled.get(namespace);
+        if (plan != null) {
+            return plan;
+        }
+        if (!compiling.add(namespace)) {
+            throw new ValidationConfigurationException("Cyclic validationConfig ref: "
+                    + String.join(" -> ", compiling) + " -> " + namespace);
+        }
+
+        ValidationConfig config;
+        try {
+            config = xmlParser.getValidationConfig(null, namespace);
+        } catch (ValidationConfigurationException e) {
+            throw new ValidationConfigurationException("Invalid validator: " + namespace, e);
+        }
+        plan = compile(namespace, config, compiled, compiling);
+        compiling.remove(namespace);
+        compiled.put(namespace, plan);
+        return plan;
+    }
+
+    private ValidationPlan compile(String namespace, ValidationConfig config, Map<String, ValidationPlan> compiled,
+                                   SequencedSet<String> compiling) {
+        if (config.getRef() != null && !config.getRef().isEmpty()) {
+            return compile(config.getRef(), compiled, compiling);
+        }
+
+        var fields = new ArrayList<ValidationPlan.Field>();
+        for (var field : config.getFields()) {
+            var nested = field.getValidationConfig() == null ? null
+                    : compile(null, field.getValidationConfig(), compiled, compiling);
+            fields.add(new ValidationPlan.Field(field.getName(), field.getType(), compile(field), nested));
+        }
+        return new ValidationPlan(namespace, fields);
+    }
+
+    private List<ValidationPlan.Condition> compile(FieldValidation field) {
+        var conditions = new ArrayList<ValidationPlan.Condition>();
+        for (ConditionConfig condition : field.getConditions()) {
+            var rules = new ArrayList<ValidationPlan.Rule>();
+            for (RuleConfig rule : condition.getRules()) {
+                rules.add(new ValidationPlan.Rule(rule.getType(), ruleFactory.createRule(rule), rule.getParameters()));
+            }
+            conditions.add(new ValidationPlan.Condition(conditionEvaluator.compile(condition.getExpression()), rules));
+        }
+        return conditions;
+    }
+
+    private static List<Resource> findValidatorResources() {
+        try {
+            return List.of(new PathMatchingResourcePatternResolver().getResources(VALIDATOR_LOCATION));
+        } catch (IOException e) {
+            throw new ValidationConfigurationException("Failed to list the validation configuration files", e);
+        }
+    }
+
+    /**
+     * @return the path of the resource under {@code validator/}, without extension
+     */
+    private static String namespaceOf(Resource resource) {
+        try {
+            var url = resource.getURL().toString();
+            var start = url.lastIndexOf(VALIDATOR_DIRECTORY) + VALIDATOR_DIRECTORY.length();
+            return url.substring(start, url.length() - ".xml".length());
+        } catch (IOException e) {
+            throw new ValidationConfigurationException("Failed to resolve the namespace of " + resource, e);
+        }
+    }
+
+    private void watch(List<Resource> resources) {
+        var directories = new LinkedHashSet<Path>();
+        for (var resource : resources) {
+            try {
+                if (resource.isFile()) {
+                    directories.add(resource.getFile().toPath().getParent());
+                }
+            } catch (IOException e) {
+                logger.warn("Validation configuration file {} cannot be watched", resource, e);
+            }
+        }
+        if (directories.isEmpty()) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (var directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            logger.warn("Validation configuration files cannot be watched", e);
+            return;
+        }
+
+        Thread.ofPlatform().name("validation-plan-reload").daemon().start(() -> {
+            try {
+                while (true) {
+                    var key = watchService.take();
+                    key.pollEvents();
+                    key.reset();
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Stopped by destroy()
+            }
+        });
+        logger.info("Watching {} for validation configuration changes", directories);
+    }
+
+    private void reload() {
+        try {
+            plans = compileAll(findValidatorResources());
+            logger.info("Reloaded {} validation plans", plans.byNamespace().size());
+        } catch (ValidationConfigurationException e) {
+            logger.error("Validation configuration reload failed, the previous plans are kept", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * The plans of a compilation, replaced as a whole on reload.
+     */
+    private record Plans(Map<String, ValidationPlan> byNamespace, Map<Key, ValidationPlan> byOperation) {
+
+        Plans(Map<String, ValidationPlan> byNamespace) {
+            this(byNamespace, new ConcurrentHashMap<>());
+        }
+    }
+
+    private record Key(String namespace, int operation) {
+    }
+}
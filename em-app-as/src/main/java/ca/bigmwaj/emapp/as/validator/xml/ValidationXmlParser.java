@@ -28,6 +28,15 @@ public class ValidationXmlParser {
     @Autowired
     private ValidationNamespaceResolver namespaceResolver;
 
+    /**
+     * Loads and parses the XML file of a namespace. The {@code validationConfig ref}s are kept as
+     * {@link ValidationConfig#getRef()}, and resolved by {@link ValidationPlanCache}.
+     *
+     * @param currentPath the path of the fields of the file, null for the root
+     * @param namespace   the namespace (e.g., "platform/account")
+     * @return ValidationConfig object
+     * @throws ValidationConfigurationException if the file cannot be found or parsed
+     */
     public ValidationConfig getValidationConfig(String currentPath, String namespace) {
         try {
             var xmlStream = namespaceResolver.resolveNamespace(namespace);
@@ -114,7 +123,8 @@ public class ValidationXmlParser {
                 if (validationNode.getNodeType() == Node.ELEMENT_NODE && validationNode.getParentNode().equals(fieldElement)) {
                     var ref = ((Element) validationNode).getAttribute("ref");
                     if (!ref.isEmpty()) {
-                        var refConfig = getValidationConfig(currentPath, ref);
+                        var refConfig = new ValidationConfig();
+                        refConfig.setRef(ref);
                         field.setValidationConfig(refConfig);
                     } else {
                         var config = parseValidator(currentPath, (Element) validationNode);
@@ -11,6 +11,9 @@ import java.util.List;
 @Data
 public class ValidationConfig {
 
+    /**
+     * The namespace of the validator whose fields are used instead, for a {@code <validationConfig ref="..."/>}.
+     */
     private String ref;
 
     private List<FieldValidation> fields = new ArrayList<>();
@@ -0,0 +1,71 @@
+package ca.bigmwaj.emapp.as.validator.xml.model;
+
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.shared.PropertyAccessor;
+import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, immutable form of a {@link ValidationConfig}: the {@code ref}s are replaced by the
+ * plans of their namespaces, the expressions by compiled conditions, and the rule types by their
+ * rule beans.
+ *
+ * @param namespace the namespace of the XML file, or null for an inline {@code validationConfig}
+ * @param fields    the fields to validate, in XML order
+ */
+public record ValidationPlan(String namespace, List<Field> fields) {
+
+    public ValidationPlan {
+        fields = List.copyOf(fields);
+    }
+
+    /**
+     * @return whether a rule of the plan, or of its nested plans, checks its values against the database
+     */
+    public boolean hasBatchRules() {
+        for (var field : fields) {
+            if (field.conditions().stream().anyMatch(Condition::hasBatchRules)
+                    || field.nested() != null && field.nested().hasBatchRules()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param nested   the plan of the fields of the dto, or of every dto of the list; null for a plain field
+     * @param accessor reads the field from the DTOs
+     */
+    public record Field(String name, FieldValidation.fieldType type, List<Condition> conditions, ValidationPlan nested,
+                        PropertyAccessor accessor) {
+
+        public Field {
+            conditions = List.copyOf(conditions);
+        }
+
+        public Field(String name, FieldValidation.fieldType type, List<Condition> conditions, ValidationPlan nested) {
+            this(name, type, conditions, nested, PropertyAccessor.of(name));
+        }
+    }
+
+    public record Condition(ConditionEvaluator.Condition condition, List<Rule> rules) {
+
+        public Condition {
+            rules = List.copyOf(rules);
+        }
+
+        public boolean hasBatchRules() {
+            return rules.stream().anyMatch(e -> e.rule() instanceof AbstractBatchRule);
+        }
+    }
+
+    public record Rule(String type, AbstractRule rule, Map<String, String> parameters) {
+
+        public Rule {
+            parameters = Map.copyOf(parameters);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ca.bigmwaj.emapp.as.api.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+
+    private static final String JWT_SECRET = "test-secret-test-secret-test-secret-test-secret-test-secret";
+
+    @Test
+    void givenValidToken_whenGetVerifiedClaims_thenClaimsAreVerifiedOnceAndCached() {
+        var provider = new JwtTokenProvider(JWT_SECRET, 60_000, 10);
+        var token = provider.generateTokenForUser("john", "john@example.com", "John Doe");
+
+        var claims = provider.getVerifiedClaims(token).orElseThrow();
+
+        assertEquals("john", claims.getSubject());
+        assertEquals("local", provider.getAuthorizedClientRegistrationId(claims));
+        assertSame(claims, provider.getVerifiedClaims(token).orElseThrow());
+        assertEquals(1, provider.getClaimsCacheSize());
+    }
+
+    @Test
+    void givenTamperedSignature_whenGetVerifiedClaims_thenEmptyAndNotCached() {
+        var provider = new JwtTokenProvider(JWT_SECRET, 60_000, 10);
+        var token = provider.generateTokenForUser("john", "john@example.com", "John Doe");
+        // A character inside the signature, as the last one may only carry padding bits
+        var i = token.lastIndexOf('.') + 5;
+        var tampered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+
+        assertTrue(provider.getVerifiedClaims(tampered).isEmpty());
+        assertEquals(0, provider.getClaimsCacheSize());
+        assertTrue(provider.getVerifiedClaims(token).isPresent());
+        assertTrue(provider.getVerifiedClaims(tampered).isEmpty());
+        assertEquals(1, provider.getClaimsCacheSize());
+    }
+
+    @Test
+    void givenForeignToken_whenGetVerifiedClaims_thenEmptyAndNotCached() {
+        var provider = new JwtTokenProvider(JWT_SECRET, 60_000, 10);
+        var foreign = new JwtTokenProvider(JWT_SECRET.replace('t', 'x'), 60_000, 10)
+                .generateTokenForUser("john", "john@example.com", "John Doe");
+
+        assertTrue(provider.getVerifiedClaims(foreign).isEmpty());
+        assertEquals(0, provider.getClaimsCacheSize());
+    }
+
+    @Test
+    void givenExpiredToken_whenGetVerifiedClaims_thenEmpty() {
+        var provider = new JwtTokenProvider(JWT_SECRET, -1_000, 10);
+        var token = provider.generateTokenForUser("john", "john@example.com", "John Doe");
+
+        assertTrue(provider.getVerifiedClaims(token).isEmpty());
+    }
+
+    @Test
+    void givenFullCache_whenGetVerifiedClaims_thenLeastRecentlyUsedTokenIsEvicted() {
+        var provider = new JwtTokenProvider(JWT_SECRET, 60_000, 2);
+
+        provider.getVerifiedClaims(provider.generateTokenForUser("a", null, null));
+        provider.getVerifiedClaims(provider.generateTokenForUser("b", null, null));
+        provider.getVerifiedClaims(provider.generateTokenForUser("c", null, null));
+
+        assertEquals(2, provider.getClaimsCacheSize());
+    }
+}
@@ -0,0 +1,53 @@
+package ca.bigmwaj.emapp.as.api.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportWriterTest {
+
+    public record Row(Long id, String name, List<String> tags) {
+    }
+
+    private static String export(ExportFormat format, Object... rows) throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new ExportWriter(format, out)) {
+            for (var row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void givenRows_whenExportNdjson_thenOneDocumentPerLine() throws Exception {
+        assertEquals("{\"id\":1,\"name\":\"a\",\"tags\":[]}\n{\"id\":2,\"name\":null,\"tags\":[\"x\"]}\n",
+                export(ExportFormat.ndjson, new Row(1L, "a", List.of()), new Row(2L, null, List.of("x"))));
+    }
+
+    @Test
+    void givenRows_whenExportCsv_thenHeaderIsWrittenOnceAndValuesAreEscaped() throws Exception {
+        assertEquals("id,name,tags\r\n1,\"Doe, John\",[]\r\n2,,\"[\"\"x\"\"]\"\r\n",
+                export(ExportFormat.csv, new Row(1L, "Doe, John", List.of()), new Row(2L, null, List.of("x"))));
+    }
+
+    @Test
+    void givenQuote_whenEscapeCsv_thenQuoteIsDoubled() {
+        assertEquals("plain", ExportWriter.escapeCsv("plain"));
+        assertEquals("\"say \"\"hi\"\"\"", ExportWriter.escapeCsv("say \"hi\""));
+    }
+
+    @Test
+    void givenFormula_whenExportCsv_thenValueIsPrefixedAndQuoted() throws Exception {
+        assertEquals("id,name,tags\r\n-1,\"'=HYPERLINK(\"\"x\"\")\",[]\r\n2,\"'@SUM(A1)\",[]\r\n3,\"'\tcmd\",[]\r\n",
+                export(ExportFormat.csv, new Row(-1L, "=HYPERLINK(\"x\")", List.of()),
+                        new Row(2L, "@SUM(A1)", List.of()), new Row(3L, "\tcmd", List.of())));
+        assertEquals("'+1", ExportWriter.escapeFormula("+1"));
+        assertEquals("'-1", ExportWriter.escapeFormula("-1"));
+        assertEquals("a-b", ExportWriter.escapeFormula("a-b"));
+    }
+}
@@ -13,7 +13,7 @@ public class TestAccountContactDtoBuilder extends AccountContactDto{
     public static TestAccountContactDtoBuilderBuilder withDefaults() {
         return TestAccountContactDtoBuilder.builder()
 //                .withEditAction(EditActionLvo.CREATE)
-                .withAccountId((short) 1)
+                .withAccountId(1L)
                 .withRole(AccountContactRoleLvo.PRINCIPAL);
     }
 
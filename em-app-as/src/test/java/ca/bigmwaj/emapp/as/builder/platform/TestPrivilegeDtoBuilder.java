@@ -22,7 +22,7 @@ public class TestPrivilegeDtoBuilder extends PrivilegeDto {
         return TestPrivilegeDtoBuilder.builder()
 //                .withEditAction(EditActionLvo.NONE)
                 .withName("TEST_PERMANENT_PRIVILEGE")
-                .withId((short)1)
+                .withId(1L)
                 .withDescription("Default test privilege");
     }
 }
@@ -0,0 +1,43 @@
+package ca.bigmwaj.emapp.as.dao.platform;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountDaoTest {
+
+    private final AccountDao dao = mock(AccountDao.class, CALLS_REAL_METHODS);
+
+    private final EntityManager em = mock(EntityManager.class);
+
+    private final Query query = mock(Query.class);
+
+    @Test
+    void givenAccount_whenRetireById_thenOneBulkUpdatePerRetiredEntityClass() {
+        when(em.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter("id", 7L)).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(1);
+
+        assertTrue(dao.retireById(em, 7L));
+
+        verify(query, times(dao.getRetireCascade().size())).executeUpdate();
+        verify(em).createQuery("update AccountEntity a set a.retired = true where a.id = :id");
+        verify(em).createQuery("update UserEntity u set u.retired = true where u.contact.id in "
+                + "(select ac.contact.id from AccountContactEntity ac where ac.account.id = :id)");
+        verify(em, never()).find(any(), any());
+    }
+
+    @Test
+    void givenUnknownAccount_whenRetireById_thenNothingElseIsUpdated() {
+        when(em.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter("id", 7L)).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(0);
+
+        assertFalse(dao.retireById(em, 7L));
+
+        verify(query).executeUpdate();
+    }
+}
@@ -0,0 +1,47 @@
+package ca.bigmwaj.emapp.as.dao.platform;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GroupUserDaoTest {
+
+    private final GroupUserDao dao = mock(GroupUserDao.class, CALLS_REAL_METHODS);
+
+    private final EntityManager em = mock(EntityManager.class);
+
+    @Test
+    void givenManyUsers_whenDeleteByGroupIdAndUserIds_thenOneBulkDeletePerChunk() {
+        var query = mock(Query.class);
+        when(em.createQuery("delete from GroupUserEntity gu where gu.group.id = :groupId and gu.user.id in (:userIds)")).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(1_000, 1_000, 500);
+
+        var userIds = LongStream.rangeClosed(1, 2_500).boxed().toList();
+
+        assertEquals(2_500, dao.deleteByGroupIdAndUserIds(em, 3L, userIds));
+        verify(query, times(3)).executeUpdate();
+        verify(query).setParameter("userIds", userIds.subList(2_000, 2_500));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenUsers_whenFindUserIds_thenOnlyMembersAreReturned() {
+        TypedQuery<Long> query = mock(TypedQuery.class);
+        when(em.createQuery("select gu.user.id from GroupUserEntity gu where gu.group.id = :groupId and gu.user.id in (:userIds)", Long.class))
+                .thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(2L));
+
+        assertEquals(Set.of(2L), dao.findUserIds(em, 3L, List.of(1L, 2L)));
+        verify(query).setParameter("groupId", 3L);
+    }
+}
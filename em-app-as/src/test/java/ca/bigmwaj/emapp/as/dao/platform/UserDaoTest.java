@@ -0,0 +1,154 @@
+package ca.bigmwaj.emapp.as.dao.platform;
+
+import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dao.shared.QueryPlanCache;
+import ca.bigmwaj.emapp.as.dto.platform.UserSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserDaoTest {
+
+    private final UserDao dao = mock(UserDao.class, CALLS_REAL_METHODS);
+
+    private static WhereClause where(String name, String rootEntityName) {
+        var clause = new WhereClause(name, WhereClause.oper.eq, List.of("x"));
+        clause.setRootEntityName(rootEntityName);
+        return clause;
+    }
+
+    @Test
+    void givenNoClause_whenGetIdQuery_thenNoJoinIsAdded() {
+        var sc = new UserSearchCriteria();
+
+        assertEquals("select qRoot.id from UserEntity qRoot", dao.getIdQuery(dao.getIdSelection(sc), sc));
+    }
+
+    @Test
+    void givenContactFilter_whenGetIdQuery_thenOnlyTheContactIsJoined() {
+        var sc = new UserSearchCriteria();
+        sc.setWhereClauses(List.of(where("firstName", "c")));
+
+        assertEquals("select qRoot.id from UserEntity qRoot left join ContactEntity c on qRoot.contact = c",
+                dao.getIdQuery(dao.getIdSelection(sc), sc));
+    }
+
+    @Test
+    void givenPhoneFilter_whenPrepareQueryConfig_thenFilterIsAnExistsSubqueryWithoutJoin() {
+        var sc = new UserSearchCriteria();
+        sc.setWhereClauses(List.of(where("phone", "cp")));
+        sc.setSortByClauses(List.of(new SortByClause("username")));
+        var baseQuery = dao.getIdQuery(dao.getIdSelection(sc), sc);
+
+        assertEquals("select qRoot.id, qRoot.username from UserEntity qRoot "
+                        + "where (exists (select 1 from ContactPhoneEntity cp where cp.contact = qRoot.contact and cp.phone in (:p0))) "
+                        + "order by qRoot.username asc",
+                dao.prepareQueryConfig(QueryConfig.builder().withBaseQuery(baseQuery), sc).getQueryString());
+    }
+
+    @Test
+    void givenPhoneFilterAndPhoneSort_whenPrepareQueryConfig_thenRootsAreGroupedAndPhoneIsAggregated() {
+        var sc = new UserSearchCriteria();
+        var sortBy = new SortByClause("phone");
+        sortBy.setRootEntityName("cp");
+        sc.setWhereClauses(List.of(where("phone", "cp")));
+        sc.setSortByClauses(List.of(sortBy));
+        var baseQuery = dao.getIdQuery(dao.getIdSelection(sc), sc);
+
+        assertEquals("select qRoot.id, min(cp.phone) from UserEntity qRoot "
+                        + "left join ContactEntity c on qRoot.contact = c "
+                        + "left outer join ContactPhoneEntity cp on c = cp.contact "
+                        + "where (cp.phone in (:p0)) group by qRoot.id order by min(cp.phone) asc",
+                dao.prepareQueryConfig(QueryConfig.builder().withBaseQuery(baseQuery), sc).getQueryString());
+    }
+
+    @Test
+    void givenDescendingEmailSort_whenPrepareQueryConfig_thenEachRootIsSortedByItsHighestEmail() {
+        var sc = new UserSearchCriteria();
+        var sortBy = new SortByClause("email", SortByClause.sortType.desc);
+        sortBy.setRootEntityName("ce");
+        sc.setSortByClauses(List.of(new SortByClause("username"), sortBy));
+        var baseQuery = dao.getIdQuery(dao.getIdSelection(sc), sc);
+
+        assertEquals("select qRoot.id, min(qRoot.username), max(ce.email) from UserEntity qRoot "
+                        + "left join ContactEntity c on qRoot.contact = c "
+                        + "left outer join ContactEmailEntity ce on c = ce.contact "
+                        + "group by qRoot.id order by min(qRoot.username) asc, max(ce.email) desc",
+                dao.prepareQueryConfig(QueryConfig.builder().withBaseQuery(baseQuery), sc).getQueryString());
+    }
+
+    @Test
+    void givenPhoneFilterAndPhoneSort_whenGetCountAllQuery_thenSortJoinsAreDropped() {
+        var sc = new UserSearchCriteria();
+        var sortBy = new SortByClause("phone");
+        sortBy.setRootEntityName("cp");
+        sc.setWhereClauses(List.of(where("phone", "cp")));
+        sc.setSortByClauses(List.of(sortBy));
+
+        assertEquals("select count(qRoot.id) from UserEntity qRoot "
+                        + "where (exists (select 1 from ContactPhoneEntity cp where cp.contact = qRoot.contact and cp.phone in (:p0)))",
+                dao.prepareQueryConfig(QueryConfig.builder().withBaseQuery(dao.getCountAllQuery(sc)), sc, false).getQueryString());
+    }
+
+    @Test
+    void givenFields_whenGetProjectedFields_thenUnknownFieldsAreIgnored() {
+        var sc = new UserSearchCriteria();
+        sc.setFields("username, password,contact.lastName,userRoles");
+
+        assertEquals(List.of("username", "contact.lastName"), dao.getProjectedFields(sc));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenContactField_whenFindProjectionByCriteria_thenOnlyTheFieldColumnsAreSelected() {
+        var sc = new UserSearchCriteria();
+        sc.setSortByClauses(List.of(new SortByClause("username")));
+
+        var em = mock(EntityManager.class);
+        var query = mock(TypedQuery.class);
+        when(em.createQuery("select qRoot.id, qRoot.username, c.lastName from UserEntity qRoot "
+                + "left join ContactEntity c on qRoot.contact = c order by qRoot.username asc", Object[].class)).thenReturn(query);
+        when(query.setFirstResult(anyInt())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.<Object[]>of(new Object[]{1L, "john", "Doe"}));
+
+        var rows = dao.findProjectionByCriteria(em, new QueryPlanCache(10), sc, List.of("username", "contact.lastName"));
+
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[]{1L, "john", "Doe"}, rows.getFirst());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void givenIds_whenHydrateByIds_thenEntitiesFollowTheIdOrder() {
+        var first = new UserEntity();
+        first.setId(1L);
+        var second = new UserEntity();
+        second.setId(2L);
+
+        var em = mock(EntityManager.class);
+        var query = mock(TypedQuery.class);
+        when(em.createQuery(dao.getHydrateQuery(), UserEntity.class)).thenReturn(query);
+        when(query.setParameter("ids", List.of(2L, 1L))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(first, second));
+
+        assertEquals(List.of(second, first), dao.hydrateByIds(em, List.of(2L, 1L)));
+    }
+
+    @Test
+    void givenNoId_whenHydrateByIds_thenNoQueryIsRun() {
+        var em = mock(EntityManager.class);
+
+        assertTrue(dao.hydrateByIds(em, List.of()).isEmpty());
+        verifyNoInteractions(em);
+    }
+}
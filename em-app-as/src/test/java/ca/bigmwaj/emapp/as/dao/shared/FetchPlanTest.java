@@ -0,0 +1,40 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.platform.AccountSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.platform.UserSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchPlanTest {
+
+    @Test
+    void givenNoInclude_whenOf_thenPlanIsEmpty() {
+        assertSame(FetchPlan.NONE, FetchPlan.of(new UserSearchCriteria()));
+    }
+
+    @Test
+    void givenNestedInclude_whenOf_thenParentsAreIncluded() {
+        var sc = new UserSearchCriteria();
+        sc.setInclude(" contact.phones , contact.emails,,");
+
+        var plan = FetchPlan.of(sc);
+
+        assertEquals(Set.of("contact", "contact.phones", "contact.emails"), plan.paths());
+        assertEquals(Set.of("phones", "emails"), plan.subPlan("contact").paths());
+        assertSame(FetchPlan.NONE, plan.subPlan("account"));
+    }
+
+    @Test
+    void givenAccountIncludeFlags_whenOf_thenFlagsAreIncluded() {
+        var sc = new AccountSearchCriteria();
+        sc.setIncludeMainContact(true);
+
+        var plan = FetchPlan.of(sc);
+
+        assertTrue(plan.includes("mainContact"));
+        assertFalse(plan.includes("accountContacts"));
+    }
+}
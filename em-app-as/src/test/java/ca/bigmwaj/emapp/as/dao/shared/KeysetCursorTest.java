@@ -0,0 +1,111 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.lvo.platform.UserStatusLvo;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KeysetCursorTest {
+
+    private static DefaultSearchCriteria criteria(String after) {
+        var sc = new DefaultSearchCriteria();
+        sc.setKeysetPagination(true);
+        sc.setSortByClauses(List.of(
+                new SortByClause("status", SortByClause.sortType.desc),
+                new SortByClause("username")));
+        sc.setAfter(after);
+        return sc;
+    }
+
+    private static QueryConfig compile(KeysetCursor cursor, DefaultSearchCriteria sc) {
+        var builder = QueryConfig.builder().withBaseQuery("select " + cursor.getSelection() + " from UserEntity qRoot");
+        cursor.appendTo(builder, sc.getSortByClauses().size());
+        sc.getSortByClauses().forEach(e -> QueryConfig.appendSortByClause(builder, e));
+        return builder.build();
+    }
+
+    @Test
+    void givenNoAfterToken_whenCompile_thenIdTieBreakerIsAppendedWithoutSeekPredicate() {
+        var sc = criteria(null);
+        var cursor = KeysetCursor.of(sc);
+
+        assertTrue(cursor.isFirstPage());
+        assertEquals("", cursor.getMask());
+        assertEquals("select qRoot, qRoot.status, qRoot.username, qRoot.id from UserEntity qRoot order by qRoot.status desc, qRoot.username asc, qRoot.id asc",
+                compile(cursor, sc).getQueryString());
+    }
+
+    @Test
+    void givenGroupedQuery_whenCompile_thenSortKeysAreAggregatedAndSeekPredicateIsHaving() {
+        var token = KeysetCursor.of(criteria(null)).encode(new Object[]{new Object(), UserStatusLvo.ACTIVE, "john", 7L});
+        var sc = criteria(token);
+        var cursor = KeysetCursor.of(sc, true);
+
+        var builder = QueryConfig.builder()
+                .withBaseQuery("select " + cursor.getSelection("qRoot.id") + " from UserEntity qRoot")
+                .withGroupByClause("qRoot.id");
+        cursor.appendTo(builder, sc.getSortByClauses().size());
+        sc.getSortByClauses().forEach(e -> QueryConfig.appendSortByClause(builder, e, true));
+
+        assertEquals("select qRoot.id, max(qRoot.status), min(qRoot.username), min(qRoot.id) from UserEntity qRoot "
+                        + "group by qRoot.id having "
+                        + "(max(qRoot.status) < :k0 or max(qRoot.status) is null) "
+                        + "or (max(qRoot.status) = :k0 and min(qRoot.username) > :k1) "
+                        + "or (max(qRoot.status) = :k0 and min(qRoot.username) = :k1 and min(qRoot.id) > :k2) "
+                        + "order by max(qRoot.status) desc, min(qRoot.username) asc, min(qRoot.id) asc",
+                builder.build().getQueryString());
+    }
+
+    @Test
+    void givenLastRow_whenEncodeAndDecode_thenSeekPredicateBindsRowValues() {
+        var first = KeysetCursor.of(criteria(null));
+        var token = first.encode(new Object[]{new Object(), UserStatusLvo.ACTIVE, "john", (short) 42});
+
+        var sc = criteria(token);
+        var cursor = KeysetCursor.of(sc);
+        assertEquals("vvv", cursor.getMask());
+        assertEquals("select qRoot, qRoot.status, qRoot.username, qRoot.id from UserEntity qRoot where "
+                        + "((qRoot.status < :k0 or qRoot.status is null) "
+                        + "or (qRoot.status = :k0 and qRoot.username > :k1) "
+                        + "or (qRoot.status = :k0 and qRoot.username = :k1 and qRoot.id > :k2)) "
+                        + "order by qRoot.status desc, qRoot.username asc, qRoot.id asc",
+                compile(cursor, sc).getQueryString());
+
+        var query = mock(Query.class);
+        cursor.bind(query);
+        verify(query).setParameter("k0", UserStatusLvo.ACTIVE);
+        verify(query).setParameter("k1", "john");
+        verify(query).setParameter("k2", (short) 42);
+    }
+
+    @Test
+    void givenNullSortValue_whenDecode_thenNullIsPartOfTheMask() {
+        var token = KeysetCursor.of(criteria(null)).encode(new Object[]{new Object(), UserStatusLvo.ACTIVE, null, 7L});
+        var cursor = KeysetCursor.of(criteria(token));
+
+        assertEquals("vnv", cursor.getMask());
+        var query = mock(Query.class);
+        cursor.bind(query);
+        verify(query, never()).setParameter(eq("k1"), any());
+    }
+
+    @Test
+    void givenTokenOfOtherSort_whenDecode_thenThrows() {
+        var token = KeysetCursor.of(criteria(null)).encode(new Object[]{new Object(), UserStatusLvo.ACTIVE, "john", 1L});
+        var sc = criteria(token);
+        sc.setSortByClauses(List.of(new SortByClause("username")));
+
+        assertThrows(KeysetCursorException.class, () -> KeysetCursor.of(sc));
+    }
+
+    @Test
+    void givenMalformedToken_whenDecode_thenThrows() {
+        assertThrows(KeysetCursorException.class, () -> KeysetCursor.of(criteria("garbage")));
+    }
+}
@@ -0,0 +1,124 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class QueryPlanCacheTest {
+
+    private static final String BASE_QUERY = "select qRoot from UserEntity qRoot";
+
+    private static DefaultSearchCriteria criteria(String username, String status) {
+        var sc = new DefaultSearchCriteria();
+        sc.setWhereClauses(List.of(
+                new WhereClause("username", WhereClause.oper.like, List.of(username)),
+                new WhereClause("status", WhereClause.oper.in, List.of(status))));
+        sc.setSortByClauses(List.of(new SortByClause("username")));
+        return sc;
+    }
+
+    private static QueryConfig compile(QueryShape shape, DefaultSearchCriteria sc) {
+        var builder = QueryConfig.builder()
+                .withBaseQuery(shape.baseQuery())
+                .withWhereClauseJoinOp(shape.whereClauseJoinOp());
+        for (int i = 0; i < sc.getWhereClauses().size(); i++) {
+            QueryConfig.appendWhereClause(builder, sc.getWhereClauses().get(i), i);
+        }
+        sc.getSortByClauses().forEach(e -> QueryConfig.appendSortByClause(builder, e));
+        return builder.build();
+    }
+
+    @Test
+    void givenDifferentValues_whenBuildShape_thenShapesAreEqual() {
+        var first = QueryShape.of(BASE_QUERY, null, criteria("john", "ACTIVE"));
+        var second = QueryShape.of(BASE_QUERY, null, criteria("jane", "INACTIVE"));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void givenLowerCaseJoinOp_whenBuildShape_thenJoinOpIsNormalized() {
+        var lower = criteria("john", "ACTIVE");
+        lower.setWhereClauseJoinOp(WhereClauseJoinOp.or);
+        var upper = criteria("john", "ACTIVE");
+        upper.setWhereClauseJoinOp(WhereClauseJoinOp.OR);
+        assertEquals(QueryShape.of(BASE_QUERY, null, lower), QueryShape.of(BASE_QUERY, null, upper));
+    }
+
+    @Test
+    void givenDifferentOperator_whenBuildShape_thenShapesDiffer() {
+        var sc = criteria("john", "ACTIVE");
+        sc.getWhereClauses().getFirst().setOper(WhereClause.oper.eq);
+        assertNotEquals(QueryShape.of(BASE_QUERY, null, criteria("john", "ACTIVE")), QueryShape.of(BASE_QUERY, null, sc));
+    }
+
+    @Test
+    void givenSameShape_whenGetOrCompile_thenPlanIsReused() {
+        var cache = new QueryPlanCache(10);
+        var first = criteria("john", "ACTIVE");
+        var second = criteria("jane", "INACTIVE");
+
+        var plan1 = cache.getOrCompile(QueryShape.of(BASE_QUERY, null, first), s -> compile(s, first));
+        var plan2 = cache.getOrCompile(QueryShape.of(BASE_QUERY, null, second), s -> compile(s, second));
+
+        assertSame(plan1, plan2);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void givenFullCache_whenGetOrCompile_thenLeastRecentlyUsedPlanIsEvicted() {
+        var cache = new QueryPlanCache(2);
+        var byUsername = criteria("john", "ACTIVE");
+        var byStatus = criteria("john", "ACTIVE");
+        byStatus.getWhereClauses().getFirst().setOper(WhereClause.oper.eq);
+        var unsorted = criteria("john", "ACTIVE");
+        unsorted.setSortByClauses(List.of());
+
+        var plan = cache.getOrCompile(QueryShape.of(BASE_QUERY, null, byUsername), s -> compile(s, byUsername));
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, byStatus), s -> compile(s, byStatus));
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, byUsername), s -> compile(s, byUsername));
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, unsorted), s -> compile(s, unsorted));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(plan, cache.getOrCompile(QueryShape.of(BASE_QUERY, null, byUsername), s -> compile(s, byUsername)));
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, byStatus), s -> compile(s, byStatus));
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void givenNoMaximumSize_whenGetOrCompile_thenPlanIsNotStored() {
+        var cache = new QueryPlanCache(0);
+        var sc = criteria("john", "ACTIVE");
+
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, sc), s -> compile(s, sc));
+        cache.getOrCompile(QueryShape.of(BASE_QUERY, null, sc), s -> compile(s, sc));
+
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void givenWhereClauses_whenCompile_thenValuesAreBoundAsParameters() {
+        var sc = criteria("John", "ACTIVE");
+        var plan = compile(QueryShape.of(BASE_QUERY, null, sc), sc);
+
+        assertEquals("select qRoot from UserEntity qRoot where (lower(qRoot.username) like :p0 AND qRoot.status in (:p1)) order by qRoot.username asc",
+                plan.getQueryString());
+
+        var query = mock(Query.class);
+        plan.bind(query, sc.getWhereClauses());
+        verify(query).setParameter("p0", "%john%");
+        verify(query).setParameter("p1", List.of("ACTIVE"));
+    }
+}
@@ -0,0 +1,111 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.dto.platform.UserSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchMetricsTest {
+
+    private final UserDao dao = mock(UserDao.class, CALLS_REAL_METHODS);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final Statistics statistics = mock(Statistics.class);
+
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+
+    @BeforeEach
+    void setUp() {
+        var sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+    }
+
+    private static UserSearchCriteria criteria() {
+        var phone = new WhereClause("phone", WhereClause.oper.like, List.of("555"));
+        phone.setRootEntityName("cp");
+        var lastName = new SortByClause("lastName", SortByClause.sortType.desc);
+        lastName.setRootEntityName("c");
+
+        var sc = new UserSearchCriteria();
+        sc.setWhereClauses(List.of(new WhereClause("status", WhereClause.oper.in, List.of("ACTIVE")), phone));
+        sc.setSortByClauses(List.of(lastName));
+        return sc;
+    }
+
+    @Test
+    void givenCriteria_whenTags_thenShapeIsDescribedWithoutValues() {
+        var tags = SearchMetrics.tags(dao, criteria(), "find", true);
+
+        assertEquals("UserEntity", tags.stream().filter(t -> t.getKey().equals("entity")).findFirst().orElseThrow().getValue());
+        assertEquals("in,like", tags.stream().filter(t -> t.getKey().equals("operators")).findFirst().orElseThrow().getValue());
+        assertEquals("c,exists:cp", tags.stream().filter(t -> t.getKey().equals("joins")).findFirst().orElseThrow().getValue());
+        assertEquals("c.lastName desc", tags.stream().filter(t -> t.getKey().equals("sort")).findFirst().orElseThrow().getValue());
+        assertTrue(tags.stream().noneMatch(t -> t.getValue().contains("555")));
+    }
+
+    @Test
+    void givenPageQuery_whenRecordFind_thenDurationAndRowsAreRecorded() {
+        var queryStatistics = mock(QueryStatistics.class);
+        when(queryStatistics.getExecutionRowCount()).thenReturn(5L);
+        when(statistics.getQueryStatistics("select qRoot.id from UserEntity qRoot")).thenReturn(queryStatistics);
+
+        var metrics = new SearchMetrics(registry, entityManagerFactory);
+        var result = metrics.recordFind(dao, criteria(), "find", () -> {
+            SearchMetrics.onQuery("select qRoot.id from UserEntity qRoot");
+            return List.of("a", "b");
+        });
+
+        assertEquals(List.of("a", "b"), result);
+        assertEquals(1, registry.get("search.query").tag("operation", "find").tag("outcome", "success").timer().count());
+        assertEquals(2, registry.get("search.rows").tag("rows", "returned").summary().totalAmount());
+        assertEquals(5, registry.get("search.query.rows").tag("operation", "find").functionCounter().count());
+    }
+
+    @Test
+    void givenSameShape_whenRecordFindTwice_thenMetersAreReused() {
+        var metrics = new SearchMetrics(registry, entityManagerFactory);
+
+        metrics.recordFind(dao, criteria(), "find", () -> List.of("a"));
+        metrics.recordFind(dao, criteria(), "find", () -> List.of("b", "c"));
+
+        assertEquals(2, registry.get("search.query").tag("outcome", "success").timer().count());
+        assertEquals(3, registry.get("search.rows").summary().totalAmount());
+        assertEquals(1, registry.get("search.rows").summaries().size());
+    }
+
+    @Test
+    void givenNoMeasure_whenOnQuery_thenNothingIsNoted() {
+        var metrics = new SearchMetrics(registry, entityManagerFactory);
+        SearchMetrics.onQuery("select qRoot.id from UserEntity qRoot");
+
+        metrics.recordFind(dao, criteria(), "find", List::of);
+
+        assertEquals(0, registry.get("search.query.rows").functionCounter().count());
+        verifyNoInteractions(statistics);
+    }
+
+    @Test
+    void givenFailingCount_whenRecordCount_thenErrorIsTimed() {
+        var metrics = new SearchMetrics(registry, entityManagerFactory);
+
+        assertThrows(IllegalStateException.class, () -> metrics.recordCount(dao, criteria(), "count", () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, registry.get("search.query").tag("operation", "count").tag("outcome", "error").timer().count());
+        assertEquals("none", registry.get("search.query").timer().getId().getTag("sort"));
+    }
+}
@@ -0,0 +1,58 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchTotalCacheTest {
+
+    private static final Set<Class<?>> DEPENDENCIES = Set.of(String.class);
+
+    private final EntityWriteTracker writeTracker = mock(EntityWriteTracker.class);
+
+    private static SearchTotalCache.Key key(String value) {
+        var shape = QueryShape.of("select count(qRoot.id) from UserEntity qRoot", null, new DefaultSearchCriteria());
+        return new SearchTotalCache.Key(shape, List.of(List.of(value)), Map.of());
+    }
+
+    @Test
+    void givenSameSearch_whenGetOrCount_thenSecondCallIsAHit() {
+        var cache = new SearchTotalCache(writeTracker, Duration.ofMinutes(1), 10, 1_000);
+        var counts = new AtomicLong();
+
+        assertEquals(42L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 42L + counts.getAndIncrement()));
+        assertEquals(42L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 42L + counts.getAndIncrement()));
+        assertEquals(43L, cache.getOrCount(key("b"), DEPENDENCIES, () -> 42L + counts.getAndIncrement()));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    void givenWriteToDependency_whenGetOrCount_thenTotalIsCountedAgain() {
+        var cache = new SearchTotalCache(writeTracker, Duration.ofMinutes(1), 10, 1_000);
+        when(writeTracker.getVersion(DEPENDENCIES)).thenReturn(0L, 1L);
+
+        assertEquals(1L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 1L));
+        assertEquals(2L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 2L));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    void givenExpiredEntry_whenGetOrCount_thenTotalIsCountedAgain() {
+        var cache = new SearchTotalCache(writeTracker, Duration.ZERO, 10, 1_000);
+
+        assertEquals(1L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 1L));
+        assertEquals(2L, cache.getOrCount(key("a"), DEPENDENCIES, () -> 2L));
+        assertEquals(2, cache.getMissCount());
+    }
+}
@@ -0,0 +1,103 @@
+package ca.bigmwaj.emapp.as.dao.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static TrigramIndex index() {
+        var index = new TrigramIndex();
+        index.put(3, "John");
+        index.put(1, "Johanna");
+        index.put(2, "Marie-Jo");
+        index.put(7, "njoh");
+        return index;
+    }
+
+    @Test
+    void givenFragment_whenSearch_thenSortedIdsOfValuesContainingItIgnoringCase() {
+        assertArrayEquals(new long[]{1, 3, 7}, index().search("JOH"));
+        assertArrayEquals(new long[]{3}, index().search("ohn"));
+    }
+
+    @Test
+    void givenTrigramsThatAreNotContiguous_whenSearch_thenCandidateIsDropped() {
+        var index = new TrigramIndex();
+        index.put(1, "abcxbcd");
+
+        assertArrayEquals(new long[0], index.search("abcd"));
+    }
+
+    @Test
+    void givenShortFragment_whenSearch_thenIndexCannotAnswer() {
+        assertNull(index().search("jo"));
+    }
+
+    @Test
+    void givenUnknownTrigram_whenSearch_thenNoId() {
+        assertArrayEquals(new long[0], index().search("xyz"));
+    }
+
+    @Test
+    void givenUpdatedValue_whenSearch_thenOldValueIsNoLongerIndexed() {
+        var index = index();
+        index.put(3, "Paul");
+
+        assertArrayEquals(new long[]{1, 7}, index.search("joh"));
+        assertArrayEquals(new long[]{3}, index.search("aul"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void givenRemovedRowOrNullValue_whenSearch_thenRowIsNotReturned() {
+        var index = index();
+        index.remove(1);
+        index.put(7, null);
+
+        assertArrayEquals(new long[]{3}, index.search("joh"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void givenIdsPutInDecreasingOrder_whenSearch_thenIdsAreSorted() {
+        var index = new TrigramIndex();
+        for (long id = 100; id > 0; id -= 3) {
+            index.put(id, "user" + id);
+        }
+        index.put(50, "user50");
+
+        assertArrayEquals(new long[]{1, 10, 13, 16, 19, 100}, index.search("user1"));
+        assertArrayEquals(new long[]{50, 52, 55, 58}, index.search("user5"));
+        assertEquals(35, index.size());
+    }
+
+    @Test
+    void givenAccents_whenSearch_thenAccentsAreIgnoredOnBothSides() {
+        var index = new TrigramIndex();
+        index.put(1, "José");
+        index.put(2, "Jose");
+        index.put(3, "HÉLÈNE");
+
+        assertArrayEquals(new long[]{1, 2}, index.search("jose"));
+        assertArrayEquals(new long[]{1, 2}, index.search("OSÉ"));
+        assertArrayEquals(new long[]{3}, index.search("helene"));
+    }
+
+    @Test
+    void givenTurkishDefaultLocale_whenSearch_thenCaseIsIgnoredAsWithTheRootLocale() {
+        var defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            var index = new TrigramIndex();
+            index.put(1, "INGRID");
+
+            assertArrayEquals(new long[]{1}, index.search("ingr"));
+            assertArrayEquals(new long[]{1}, index.search("Ingr"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
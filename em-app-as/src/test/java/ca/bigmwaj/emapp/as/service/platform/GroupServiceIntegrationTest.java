@@ -82,13 +82,13 @@ class GroupServiceIntegrationTest extends AbstractDtoValidatorTest {
         // When the user ID in any GroupUserDto is null,
         // validation should fail with a violation on the "id"
         // field since the user must exist in the DB
-        short existingUserId = existingUser.getId();
+        long existingUserId = existingUser.getId();
         existingUser.setId(null);
         assertViolationsOnField(groupDto, "id", "The field 'id' cannot be null.");
 
         // When the user ID in any GroupUserDto does not exist in the DB,
         // validation should fail with a violation on the "id"
-        existingUser.setId((short) (existingUserId + 100));
+        existingUser.setId(existingUserId + 100);
         assertViolationsOnField(groupDto, "id", "User with ID %s does not exist." .formatted(existingUser.getId()));
 
         existingUser.setId(existingUserId); // reset to valid state for next test
@@ -102,13 +102,13 @@ class GroupServiceIntegrationTest extends AbstractDtoValidatorTest {
         // When the role ID in GroupRoleDto is null,
         // validation should fail with a violation on the "id"
         // field since the role must exist in the DB
-        short existingRoleId = existingRole.getId();
+        long existingRoleId = existingRole.getId();
         existingRole.setId(null);
         assertViolationsOnField(groupDto, "id", "The field 'id' cannot be null.");
 
         // When the group ID in GroupRoleDto does not exist in the DB,
         // validation should fail with a violation on the "id"
-        existingRole.setId((short) (existingRoleId + 100));
+        existingRole.setId(existingRoleId + 100);
         assertViolationsOnField(groupDto, "id", "Role with ID %s does not exist." .formatted(existingRole.getId()));
 
         existingRole.setId(existingRoleId); // reset to valid state for next test
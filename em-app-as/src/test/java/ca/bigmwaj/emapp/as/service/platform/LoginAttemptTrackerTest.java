@@ -0,0 +1,82 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.service.LoginRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginAttemptTrackerTest {
+
+    @Test
+    void givenTooManyFailuresForUsername_whenCheck_thenLoginIsRejectedFromThatAddressInAnyCase() {
+        var tracker = new LoginAttemptTracker(3, 100, 100, Duration.ofMinutes(10), 100);
+        for (int i = 0; i < 3; i++) {
+            tracker.check("john", "10.0.0.1");
+            tracker.onFailure("john", "10.0.0.1");
+        }
+
+        var e = assertThrows(LoginRejectedException.class, () -> tracker.check("JOHN", "10.0.0.1"));
+        assertEquals(LoginRejectedException.Reason.TOO_MANY_FAILURES, e.getReason());
+        assertTrue(e.getRetryAfter().toSeconds() >= 1);
+        assertDoesNotThrow(() -> tracker.check("mary", "10.0.0.1"));
+        assertEquals(1, tracker.getRejectedCount());
+    }
+
+    @Test
+    void givenTooManyFailuresForUsernameFromAnotherAddress_whenCheck_thenUsernameIsNotLockedOut() {
+        var tracker = new LoginAttemptTracker(3, 100, 100, Duration.ofMinutes(10), 100);
+        for (int i = 0; i < 10; i++) {
+            tracker.onFailure("john", "10.0.0.1");
+        }
+
+        assertThrows(LoginRejectedException.class, () -> tracker.check("john", "10.0.0.1"));
+        assertDoesNotThrow(() -> tracker.check("john", "10.0.0.2"));
+    }
+
+    @Test
+    void givenTooManyFailuresForUsernameFromManyAddresses_whenCheck_thenUsernameIsRejectedFromEveryAddress() {
+        var tracker = new LoginAttemptTracker(3, 4, 100, Duration.ofMinutes(10), 100);
+        for (int i = 0; i < 4; i++) {
+            tracker.check("john", "10.0.0." + i);
+            tracker.onFailure("john", "10.0.0." + i);
+        }
+
+        assertThrows(LoginRejectedException.class, () -> tracker.check("john", "10.0.0.9"));
+        assertDoesNotThrow(() -> tracker.check("mary", "10.0.0.9"));
+    }
+
+    @Test
+    void givenTooManyFailuresFromAddress_whenCheck_thenEveryUsernameIsRejected() {
+        var tracker = new LoginAttemptTracker(100, 100, 2, Duration.ofMinutes(10), 100);
+        tracker.onFailure("john", "10.0.0.1");
+        tracker.onFailure("mary", "10.0.0.1");
+
+        assertThrows(LoginRejectedException.class, () -> tracker.check("paul", "10.0.0.1"));
+        assertDoesNotThrow(() -> tracker.check("paul", null));
+    }
+
+    @Test
+    void givenSuccess_whenCheck_thenUsernameCounterIsCleared() {
+        var tracker = new LoginAttemptTracker(2, 100, 100, Duration.ofMinutes(10), 100);
+        tracker.onFailure("john", "10.0.0.1");
+        tracker.onFailure("john", "10.0.0.1");
+
+        tracker.onSuccess("John", "10.0.0.1");
+
+        assertDoesNotThrow(() -> tracker.check("john", "10.0.0.1"));
+    }
+
+    @Test
+    void givenHalfLifeElapsed_whenCheck_thenCounterHasDecayed() throws InterruptedException {
+        var tracker = new LoginAttemptTracker(2, 100, 100, Duration.ofMillis(20), 100);
+        tracker.onFailure("john", null);
+        tracker.onFailure("john", null);
+        assertThrows(LoginRejectedException.class, () -> tracker.check("john", null));
+
+        Thread.sleep(50);
+
+        assertDoesNotThrow(() -> tracker.check("john", null));
+    }
+}
@@ -0,0 +1,90 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.service.LoginRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginExecutorTest {
+
+    private LoginExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void givenHashOfConfiguredCost_whenVerify_thenHashIsKept() {
+        var encoder = new BCryptPasswordEncoder(4);
+        executor = new LoginExecutor(encoder, 4, 1, 1, Duration.ofSeconds(10));
+
+        var verification = executor.verify("secret", encoder.encode("secret"));
+
+        assertTrue(verification.matches());
+        assertNull(verification.upgradedPassword());
+        assertFalse(executor.verify("wrong", encoder.encode("secret")).matches());
+    }
+
+    @Test
+    void givenUnknownUsername_whenVerifyUnknown_thenPasswordIsCheckedAgainstAHashOfTheConfiguredCost() {
+        var encoder = spy(new BCryptPasswordEncoder(4));
+        executor = new LoginExecutor(encoder, 4, 1, 1, Duration.ofSeconds(10));
+
+        assertFalse(executor.verifyUnknown("secret").matches());
+
+        var hash = ArgumentCaptor.forClass(String.class);
+        verify(encoder).matches(eq("secret"), hash.capture());
+        assertFalse(executor.needsUpgrade(hash.getValue()));
+    }
+
+    @Test
+    void givenHashOfAnotherCost_whenVerify_thenPasswordIsRehashed() {
+        var encoder = new BCryptPasswordEncoder(5);
+        executor = new LoginExecutor(encoder, 5, 1, 1, Duration.ofSeconds(10));
+
+        var verification = executor.verify("secret", new BCryptPasswordEncoder(4).encode("secret"));
+
+        assertTrue(verification.matches());
+        assertTrue(verification.upgradedPassword().startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", verification.upgradedPassword()));
+    }
+
+    @Test
+    void givenFullQueue_whenVerify_thenLoginIsRejectedAsOverloaded() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var encoder = mock(PasswordEncoder.class);
+        when(encoder.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        executor = new LoginExecutor(encoder, 10, 1, 1, Duration.ofSeconds(10));
+
+        try (var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            callers.submit(() -> executor.verify("a", "hash"));
+            started.await();
+            callers.submit(() -> executor.verify("b", "hash"));
+            while (executor.getQueueSize() == 0) {
+                Thread.onSpinWait();
+            }
+
+            var e = assertThrows(LoginRejectedException.class, () -> executor.verify("c", "hash"));
+            assertEquals(LoginRejectedException.Reason.OVERLOADED, e.getReason());
+            assertEquals(1, executor.getRejectedCount());
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ca.bigmwaj.emapp.as.service.platform;
+
+import ca.bigmwaj.emapp.as.dao.platform.UserDao;
+import ca.bigmwaj.emapp.as.entity.platform.GroupEntity;
+import ca.bigmwaj.emapp.as.entity.platform.RoleEntity;
+import ca.bigmwaj.emapp.as.entity.platform.RolePrivilegeEntity;
+import ca.bigmwaj.emapp.as.entity.platform.UserEntity;
+import ca.bigmwaj.emapp.as.entity.platform.UserRoleEntity;
+import ca.bigmwaj.emapp.as.lvo.platform.PrivilegeLvo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PermissionServiceTest {
+
+    private final UserDao userDao = mock(UserDao.class);
+
+    private final PermissionService service = new PermissionService(userDao, entityManagerFactory(), Duration.ofMinutes(1), 10);
+
+    private static EntityManagerFactory entityManagerFactory() {
+        var serviceRegistry = mock(ServiceRegistryImplementor.class);
+        when(serviceRegistry.getService(EventListenerRegistry.class)).thenReturn(mock(EventListenerRegistry.class));
+        var sessionFactory = mock(SessionFactoryImplementor.class);
+        when(sessionFactory.getServiceRegistry()).thenReturn(serviceRegistry);
+        var entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        return entityManagerFactory;
+    }
+
+    @BeforeEach
+    void setUp() {
+        // john (1) has role 10 directly, and role 20 through group 100
+        when(userDao.findPermissionScope(any(), eq("john"))).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 10L, 100L, 20L}));
+        when(userDao.findPermissionScope(any(), eq("jane"))).thenReturn(List.<Object[]>of(
+                new Object[]{2L, 30L, null, null}));
+    }
+
+    private static UserEntity user(long id) {
+        var user = new UserEntity();
+        user.setId(id);
+        return user;
+    }
+
+    private static RoleEntity role(long id) {
+        var role = new RoleEntity();
+        role.setId(id);
+        return role;
+    }
+
+    private static PostInsertEvent insertEvent(Object entity) {
+        return new PostInsertEvent(entity, null, null, null, null);
+    }
+
+    @Test
+    void givenRolePrivileges_whenGetPermissions_thenBitsOfThePrivilegesAreSet() {
+        when(userDao.findPrivilegeNames(any(), eq("john"))).thenReturn(List.of("PLATFORM_USER_VIEW", "PLATFORM_ACCOUNT_CREATE", "UNKNOWN"));
+
+        var permissions = service.getPermissions("John");
+
+        assertTrue(permissions.has(PrivilegeLvo.PLATFORM_USER_VIEW));
+        assertTrue(permissions.has(PrivilegeLvo.PLATFORM_ACCOUNT_CREATE));
+        assertFalse(permissions.has(PrivilegeLvo.PLATFORM_USER_DELETE));
+        assertEquals(List.of("PLATFORM_ACCOUNT_CREATE", "PLATFORM_USER_VIEW"),
+                permissions.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void givenCachedPermissions_whenGetPermissions_thenDatabaseIsNotQueriedAgain() {
+        when(userDao.findPrivilegeNames(any(), eq("john"))).thenReturn(List.of("PLATFORM_USER_VIEW"));
+        var authentication = UsernamePasswordAuthenticationToken.authenticated("john", null, List.of());
+
+        service.getPermissions("john");
+
+        assertTrue(service.hasPrivilege(authentication, PrivilegeLvo.PLATFORM_USER_VIEW));
+        assertFalse(service.hasPrivilege(authentication, PrivilegeLvo.PLATFORM_USER_UPDATE));
+        verify(userDao, times(1)).findPrivilegeNames(any(), any());
+        assertEquals(2, service.getHitCount());
+    }
+
+    @Test
+    void givenWriteToARoleOfTheUser_whenGetPermissions_thenPermissionsAreResolvedAgain() {
+        when(userDao.findPrivilegeNames(any(), eq("john"))).thenReturn(List.of("PLATFORM_USER_VIEW"), List.of());
+        var rolePrivilege = new RolePrivilegeEntity();
+        rolePrivilege.setRole(role(20));
+
+        assertTrue(service.getPermissions("john").has(PrivilegeLvo.PLATFORM_USER_VIEW));
+        service.onPostDelete(new PostDeleteEvent(rolePrivilege, null, null, null, null));
+
+        assertFalse(service.getPermissions("john").has(PrivilegeLvo.PLATFORM_USER_VIEW));
+    }
+
+    @Test
+    void givenWriteToAnotherUserOrRole_whenGetPermissions_thenCachedPermissionsAreKept() {
+        when(userDao.findPrivilegeNames(any(), any())).thenReturn(List.of("PLATFORM_USER_VIEW"));
+        var userRole = new UserRoleEntity();
+        userRole.setUser(user(2));
+        userRole.setRole(role(10));
+
+        service.getPermissions("john");
+        service.getPermissions("jane");
+        service.onPostInsert(insertEvent(userRole));
+        service.onPostInsert(insertEvent(role(30)));
+
+        assertEquals(1, service.getSize());
+        service.getPermissions("john");
+        assertEquals(1, service.getHitCount());
+    }
+
+    @Test
+    void givenBulkWriteToAGroupOfTheUser_whenGetPermissions_thenPermissionsAreResolvedAgain() {
+        when(userDao.findPrivilegeNames(any(), any())).thenReturn(List.of("PLATFORM_USER_VIEW"));
+
+        service.getPermissions("john");
+        service.getPermissions("jane");
+        service.onBulkWrite(GroupEntity.class, 100L);
+
+        assertEquals(1, service.getSize());
+        service.getPermissions("john");
+        verify(userDao, times(2)).findPrivilegeNames(any(), eq("john"));
+    }
+
+    @Test
+    void givenCreatedUser_whenGetPermissions_thenUnknownUserIsResolvedAgain() {
+        when(userDao.findPrivilegeNames(any(), any())).thenReturn(List.of());
+
+        service.getPermissions("nobody");
+        service.onPostInsert(insertEvent(user(3)));
+
+        assertEquals(0, service.getSize());
+    }
+
+    @Test
+    void givenWriteWhileResolving_whenGetPermissions_thenResolvedPermissionsAreNotCached() {
+        when(userDao.findPrivilegeNames(any(), eq("john"))).thenAnswer(invocation -> {
+            service.onPostInsert(insertEvent(role(10)));
+            return List.of("PLATFORM_USER_VIEW");
+        });
+
+        assertTrue(service.getPermissions("john").has(PrivilegeLvo.PLATFORM_USER_VIEW));
+        assertEquals(0, service.getSize());
+    }
+
+    @Test
+    void givenUnknownUser_whenGetAuthorities_thenOnlyTheUserAuthority() {
+        when(userDao.findPrivilegeNames(any(), any())).thenReturn(List.of());
+
+        assertEquals(List.of(PermissionService.USER_AUTHORITY), service.getAuthorities("nobody"));
+    }
+}
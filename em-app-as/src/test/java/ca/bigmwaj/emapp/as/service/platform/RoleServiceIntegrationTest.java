@@ -84,13 +84,13 @@ class RoleServiceIntegrationTest extends AbstractDtoValidatorTest {
         // When the user ID in any RoleUserDto is null,
         // validation should fail with a violation on the "user.id"
         // field since the user must exist in the DB
-        short existingUserId = existingUser.getId();
+        long existingUserId = existingUser.getId();
         existingUser.setId(null);
         assertViolationsOnField(roleDto, "id", "The field 'id' cannot be null.");
 
         // When the user ID in any RoleUserDto does not exist in the DB,
         // validation should fail with a violation on the "user.id"
-        existingUser.setId((short) (existingUserId + 100));
+        existingUser.setId(existingUserId + 100);
         assertViolationsOnField(roleDto, "id", "User with ID %s does not exist.".formatted(existingUser.getId()));
 
         existingUser.setId(existingUserId); // reset to valid state for next test
@@ -104,13 +104,13 @@ class RoleServiceIntegrationTest extends AbstractDtoValidatorTest {
         // When the privilege ID in RolePrivilegeDto is null,
         // validation should fail with a violation on the "privilege.id"
         // field since the privilege must exist in the DB
-        short existingPrivilegeId = existingPrivilege.getId();
+        long existingPrivilegeId = existingPrivilege.getId();
         existingPrivilege.setId(null);
         assertViolationsOnField(roleDto, "id", "The field 'id' cannot be null.");
 
         // When the privilege ID in RolePrivilegeDto does not exist in the DB,
         // validation should fail with a violation on the "privilege.id"
-        existingPrivilege.setId((short) (existingPrivilegeId + 100));
+        existingPrivilege.setId(existingPrivilegeId + 100);
         assertViolationsOnField(roleDto, "id", "Privilege with ID %s does not exist.".formatted(existingPrivilege.getId()));
 
         existingPrivilege.setId(existingPrivilegeId); // reset to valid state for next test
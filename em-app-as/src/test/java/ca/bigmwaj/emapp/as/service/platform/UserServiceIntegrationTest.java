@@ -110,7 +110,7 @@ class UserServiceIntegrationTest extends AbstractDtoValidatorTest {
     void testUserDto_UpdateWithValidData() {
         UserDto dto = TestUserDtoBuilder.withDefaults().build();
         dto.setNew(false);
-        dto.setId((short) 1);
+        dto.setId(1L);
 
         Set<ConstraintViolation<UserDto>> violations = validator.validate(dto);
 
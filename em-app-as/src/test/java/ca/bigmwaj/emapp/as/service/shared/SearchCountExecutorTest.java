@@ -0,0 +1,87 @@
+package ca.bigmwaj.emapp.as.service.shared;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchCountExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private SearchCountExecutor executor;
+
+    private SearchCountExecutor executor(boolean enabled, int maxConcurrency) {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        executor = new SearchCountExecutor(transactionManager, enabled, maxConcurrency);
+        return executor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void givenFreeSlot_whenFork_thenCountRunsInItsOwnTransactionOnAnotherThread() {
+        var caller = Thread.currentThread();
+        var executor = executor(true, 1);
+
+        var total = executor.fork(() -> Thread.currentThread() == caller ? -1 : 42);
+
+        assertEquals(42, total.getAsLong());
+        assertEquals(1, executor.getConcurrentCount());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void givenNoFreeSlot_whenFork_thenCountRunsOnTheCaller() throws InterruptedException {
+        var caller = Thread.currentThread();
+        var executor = executor(true, 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var first = executor.fork(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS) ? 1 : 0;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        var second = executor.fork(() -> Thread.currentThread() == caller ? 2 : -1);
+        assertEquals(2, second.getAsLong());
+        assertEquals(1, executor.getSequentialCount());
+
+        release.countDown();
+        assertEquals(1, first.getAsLong());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    void givenFailingCount_whenGetTotal_thenCauseIsRethrown() {
+        var executor = executor(true, 1);
+
+        var total = executor.fork(() -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        assertThrows(IllegalArgumentException.class, total::getAsLong);
+    }
+
+    @Test
+    void givenDisabled_whenFork_thenNoTransactionIsStarted() {
+        var executor = executor(false, 4);
+
+        assertEquals(7, executor.fork(() -> 7).getAsLong());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+}
@@ -0,0 +1,92 @@
+package ca.bigmwaj.emapp.as.service.shared;
+
+import ca.bigmwaj.emapp.as.dao.shared.EntityWriteTracker;
+import ca.bigmwaj.emapp.as.dao.shared.QueryShape;
+import ca.bigmwaj.emapp.as.dao.shared.SearchTotalCache;
+import ca.bigmwaj.emapp.as.dto.common.DefaultSearchCriteria;
+import ca.bigmwaj.emapp.as.dto.platform.PrivilegeDto;
+import ca.bigmwaj.emapp.as.dto.shared.DataListDto;
+import ca.bigmwaj.emapp.as.entity.platform.PrivilegeEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+
+    private static final Set<Class<?>> DEPENDENCIES = Set.of(PrivilegeEntity.class);
+
+    private final EntityWriteTracker writeTracker = mock(EntityWriteTracker.class);
+
+    private static SearchResultCache.Key key(String value) {
+        var sc = new DefaultSearchCriteria();
+        var shape = QueryShape.of("select count(qRoot.id) from PrivilegeEntity qRoot", null, sc);
+        var filter = new SearchTotalCache.Key(shape, List.of(List.of(value)), Map.of());
+        return new SearchResultCache.Key(PrivilegeEntity.class, filter, List.of(), 0, 20,
+                false, null, Set.of(), Set.of(), false, false);
+    }
+
+    private static DataListDto<PrivilegeDto> result(int rows) {
+        return new DataListDto<>(Collections.nCopies(rows, new PrivilegeDto()));
+    }
+
+    @Test
+    void givenSameSearch_whenGetOrSearch_thenSecondCallIsAHit() {
+        var cache = new SearchResultCache(writeTracker, Duration.ofMinutes(1), 10, 100);
+        var first = result(2);
+
+        assertSame(first, cache.getOrSearch(key("a"), DEPENDENCIES, () -> first));
+        assertSame(first, cache.getOrSearch(key("a"), DEPENDENCIES, () -> result(2)));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getWeight());
+    }
+
+    @Test
+    void givenFullCache_whenGetOrSearch_thenLeastRecentlyUsedResultIsEvicted() {
+        var cache = new SearchResultCache(writeTracker, Duration.ofMinutes(1), 2, 100);
+        var a = result(1);
+        cache.getOrSearch(key("a"), DEPENDENCIES, () -> a);
+        cache.getOrSearch(key("b"), DEPENDENCIES, () -> result(1));
+        cache.getOrSearch(key("a"), DEPENDENCIES, () -> result(1));
+
+        cache.getOrSearch(key("c"), DEPENDENCIES, () -> result(1));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.getOrSearch(key("a"), DEPENDENCIES, () -> result(1)));
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    void givenWeightLimit_whenGetOrSearch_thenOldestRowsAreEvicted() {
+        var cache = new SearchResultCache(writeTracker, Duration.ofMinutes(1), 10, 5);
+        cache.getOrSearch(key("a"), DEPENDENCIES, () -> result(3));
+        cache.getOrSearch(key("b"), DEPENDENCIES, () -> result(3));
+
+        assertEquals(1, cache.getSize());
+        assertEquals(3, cache.getWeight());
+
+        cache.getOrSearch(key("c"), DEPENDENCIES, () -> result(6));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void givenWriteToDependency_whenGetOrSearch_thenSearchRunsAgain() {
+        var cache = new SearchResultCache(writeTracker, Duration.ofMinutes(1), 10, 100);
+        when(writeTracker.getVersion(DEPENDENCIES)).thenReturn(0L, 1L);
+        var second = result(1);
+
+        cache.getOrSearch(key("a"), DEPENDENCIES, () -> result(1));
+
+        assertSame(second, cache.getOrSearch(key("a"), DEPENDENCIES, () -> second));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getSize());
+    }
+}
@@ -0,0 +1,261 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import ca.bigmwaj.emapp.as.builder.platform.TestAccountDtoBuilder;
+import ca.bigmwaj.emapp.as.builder.platform.TestContactDtoBuilder;
+import ca.bigmwaj.emapp.as.builder.platform.TestGroupDtoBuilder;
+import ca.bigmwaj.emapp.as.builder.platform.TestRoleDtoBuilder;
+import ca.bigmwaj.emapp.as.builder.platform.TestUserDtoBuilder;
+import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
+import ca.bigmwaj.emapp.as.dto.platform.ContactDto;
+import ca.bigmwaj.emapp.as.dto.platform.DeadLetterDto;
+import ca.bigmwaj.emapp.as.dto.platform.GroupDto;
+import ca.bigmwaj.emapp.as.dto.platform.RoleDto;
+import ca.bigmwaj.emapp.as.dto.platform.UserDto;
+import ca.bigmwaj.emapp.as.lvo.platform.UsernameTypeLvo;
+import ca.bigmwaj.emapp.as.validator.ValidationException;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.EmailRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.EqualsRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.MaxLengthRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.MaxRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.MinRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.NonEmptyRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.NonNullRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.NotBlankRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.PhoneRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.BirthDateRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.GroupNameUniqueRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.OwnerTypeRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.PrincipalAccountContactRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.PrivilegeExistsRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.RoleExistsRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.RoleNameUniqueRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.UniqueUsernameRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.UserExistsRule;
+import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+import ca.bigmwaj.emapp.as.validator.xml.RuleFactory;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationNamespaceResolver;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationPlanCache;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationXmlParser;
+import ca.bigmwaj.emapp.as.validator.xml.model.RuleConfig;
+import ca.bigmwaj.emapp.dm.dto.AbstractBaseDto;
+import jakarta.validation.ConstraintValidatorContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the validators em-app-codegen generated from validator/platform/*.xml and the interpreted
+ * validation plans of the same files on the same DTOs, and expects the same results and violations.
+ */
+class GeneratedDtoValidatorTest {
+
+    private static final String GENERATED_PACKAGE = "ca.bigmwaj.emapp.as.validator.generated.";
+
+    private static final List<String> OPERATIONS = List.of(CREATE, UPDATE, DELETE, CHANGE_STATUS, "change-password");
+
+    /**
+     * The namespaces of the {@code @ValidDto}s of the platform controllers.
+     */
+    private static final Set<String> VALIDATED_NAMESPACES = Set.of("platform/account", "platform/contact",
+            "platform/dead-letter", "platform/group", "platform/role", "platform/user");
+
+    private static final Map<Class<?>, List<Supplier<AbstractBaseDto>>> SAMPLES = Map.of(
+            AccountDto.class, List.of(AccountDto::new,
+                    () -> TestAccountDtoBuilder.builderWithAllDefaults().build(),
+                    () -> {
+                        AccountDto dto = TestAccountDtoBuilder.builderWithAllDefaults().build();
+                        dto.setId(1L);
+                        dto.setName("A".repeat(50));
+                        dto.setStatus(null);
+                        dto.setAdminUsername("not a phone");
+                        dto.setAdminUsernameType(UsernameTypeLvo.PHONE);
+                        return dto;
+                    }),
+            ContactDto.class, List.of(ContactDto::new,
+                    () -> TestContactDtoBuilder.builderWithAllDefaults().build(),
+                    () -> {
+                        ContactDto dto = TestContactDtoBuilder.builderWithAllDefaults().build();
+                        dto.setId(1L);
+                        dto.setFirstName(" ");
+                        dto.setLastName("L".repeat(100));
+                        return dto;
+                    }),
+            DeadLetterDto.class, List.of(DeadLetterDto::new),
+            GroupDto.class, List.of(GroupDto::new,
+                    () -> TestGroupDtoBuilder.builderWithAllDefaults().build(),
+                    () -> {
+                        GroupDto dto = TestGroupDtoBuilder.builderWithAllDefaults().build();
+                        dto.setId(1L);
+                        dto.setName(null);
+                        return dto;
+                    }),
+            RoleDto.class, List.of(RoleDto::new,
+                    () -> TestRoleDtoBuilder.builderWithAllDefaults().build(),
+                    () -> {
+                        RoleDto dto = TestRoleDtoBuilder.builderWithAllDefaults().build();
+                        dto.setId(1L);
+                        dto.setName("R".repeat(100));
+                        return dto;
+                    }),
+            UserDto.class, List.of(UserDto::new,
+                    () -> TestUserDtoBuilder.builderWithAllDefaults().build(),
+                    () -> {
+                        UserDto dto = TestUserDtoBuilder.builderWithAllDefaults().build();
+                        dto.setId(1L);
+                        dto.setUsername("u".repeat(40));
+                        dto.setContact(null);
+                        return dto;
+                    }));
+
+    private final ConditionEvaluator conditionEvaluator = new ConditionEvaluator();
+
+    private final Map<String, AbstractRule> rules = new HashMap<>();
+
+    private ValidationPlanCache planCache;
+
+    @BeforeEach
+    void setUp() {
+        for (var rule : List.of(new NonNullRule(), new NotBlankRule(), new NonEmptyRule(), new MaxLengthRule(),
+                new MinRule(), new MaxRule(), new EqualsRule(), new EmailRule(), new PhoneRule(), new BirthDateRule(),
+                new OwnerTypeRule(), new PrincipalAccountContactRule())) {
+            rules.put(rule.getClass().getAnnotation(Component.class).value(), rule);
+        }
+        // The database rules answer from the value alone
+        for (var rule : List.<AbstractRule>of(new RoleExistsRule(), new UserExistsRule(), new PrivilegeExistsRule(),
+                new GroupNameUniqueRule(), new RoleNameUniqueRule(), new UniqueUsernameRule())) {
+            var name = rule.getClass().getAnnotation(Component.class).value();
+            var spy = spy(rule);
+            doAnswer(e -> e.getArgument(0) == null || e.getArgument(0).toString().length() % 2 == 0)
+                    .when(spy).isValid(any(), any());
+            rules.put(name, spy);
+        }
+
+        var ruleFactory = mock(RuleFactory.class);
+        when(ruleFactory.createRule(any())).thenAnswer(e -> rules.get(e.<RuleConfig>getArgument(0).getType()));
+        var xmlParser = new ValidationXmlParser();
+        ReflectionTestUtils.setField(xmlParser, "namespaceResolver", new ValidationNamespaceResolver());
+        planCache = new ValidationPlanCache(xmlParser, ruleFactory, conditionEvaluator, false);
+    }
+
+    @Test
+    void givenPlatformValidators_whenValidate_thenGeneratedValidatorsAgreeWithThePlans() throws Exception {
+        var validators = generatedValidators();
+        assertTrue(validators.keySet().containsAll(VALIDATED_NAMESPACES), "Generated: " + validators.keySet());
+
+        for (var validator : validators.entrySet()) {
+            var samples = SAMPLES.get(validator.getValue().getDtoType());
+            assertNotNull(samples, "No sample of " + validator.getValue().getDtoType());
+
+            for (var operation : OPERATIONS) {
+                for (int i = 0; i < samples.size(); i++) {
+                    var expected = interpret(validator.getKey(), operation, samples.get(i).get());
+                    var actual = run(validator.getValue(), operation, samples.get(i).get());
+                    assertEquals(expected, actual, validator.getKey() + " " + operation + " sample " + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the generated validators of validator/platform/*.xml, by namespace
+     */
+    private Map<String, GeneratedDtoValidator> generatedValidators() throws Exception {
+        var validators = new TreeMap<String, GeneratedDtoValidator>();
+        for (var resource : new PathMatchingResourcePatternResolver().getResources("classpath*:validator/platform/*.xml")) {
+            var namespace = "platform/" + resource.getFilename().substring(0, resource.getFilename().length() - ".xml".length());
+            Class<?> validatorClass;
+            try {
+                validatorClass = Class.forName(GENERATED_PACKAGE + className(namespace));
+            } catch (ClassNotFoundException e) {
+                continue; // Only referenced by other validators
+            }
+
+            var constructor = validatorClass.getConstructors()[0];
+            var arguments = new ArrayList<>();
+            for (var parameterType : constructor.getParameterTypes()) {
+                arguments.add(parameterType == ConditionEvaluator.class ? conditionEvaluator
+                        : rules.values().stream().filter(parameterType::isInstance).findFirst().orElseThrow());
+            }
+            validators.put(namespace, (GeneratedDtoValidator) constructor.newInstance(arguments.toArray()));
+        }
+        return validators;
+    }
+
+    private static String className(String namespace) {
+        var name = new StringBuilder();
+        for (var part : namespace.split("[/\\-_.]")) {
+            name.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+        }
+        return name.append("Validator").toString();
+    }
+
+    private Outcome interpret(String namespace, String operation, AbstractBaseDto dto) {
+        var interpreter = new SpringDtoValidator();
+        ReflectionTestUtils.setField(interpreter, "planCache", planCache);
+        var annotation = mock(ValidDto.class);
+        when(annotation.value()).thenReturn(namespace);
+        when(annotation.operation()).thenReturn(operation);
+        interpreter.initialize(annotation);
+
+        var violations = new ArrayList<String>();
+        try {
+            return new Outcome(interpreter.isValid(dto, context(violations)), violations, null);
+        } catch (RuntimeException e) {
+            // The interpreter wraps the errors of the rules
+            var error = e.getClass() == ValidationException.class && e.getCause() != null ? e.getCause() : e;
+            return new Outcome(null, violations, error.getClass());
+        }
+    }
+
+    private static Outcome run(GeneratedDtoValidator validator, String operation, AbstractBaseDto dto) {
+        var violations = new ArrayList<String>();
+        try {
+            return new Outcome(validator.isValid(dto, ConditionEvaluator.operation(operation), context(violations)), violations, null);
+        } catch (RuntimeException e) {
+            return new Outcome(null, violations, e.getClass());
+        }
+    }
+
+    /**
+     * @param violations completed with each violation, as field: message
+     */
+    private static ConstraintValidatorContext context(List<String> violations) {
+        var context = mock(ConstraintValidatorContext.class);
+        when(context.buildConstraintViolationWithTemplate(anyString())).thenAnswer(template -> {
+            var builder = mock(ConstraintValidatorContext.ConstraintViolationBuilder.class);
+            when(builder.addPropertyNode(anyString())).thenAnswer(node -> {
+                var nodeBuilder = mock(ConstraintValidatorContext.ConstraintViolationBuilder.NodeBuilderCustomizableContext.class);
+                when(nodeBuilder.addConstraintViolation()).thenAnswer(e -> {
+                    violations.add(node.getArgument(0) + ": " + template.getArgument(0));
+                    return context;
+                });
+                return nodeBuilder;
+            });
+            return builder;
+        });
+        return context;
+    }
+
+    /**
+     * @param valid null when the validation failed with an error
+     */
+    private record Outcome(Boolean valid, List<String> violations, Class<?> error) {
+    }
+}
@@ -0,0 +1,55 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
+import ca.bigmwaj.emapp.as.dto.platform.ContactDto;
+import ca.bigmwaj.emapp.as.dto.platform.UserDto;
+import ca.bigmwaj.emapp.as.lvo.platform.UsernameTypeLvo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.NotReadablePropertyException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertyAccessorTest {
+
+    @Test
+    void givenProperty_whenGet_thenValueOfGetterIsReturned() {
+        var user = UserDto.builder().withUsername("john").build();
+        user.setId(7L);
+
+        assertEquals("john", PropertyAccessor.of("username").get(user));
+        assertEquals(7L, PropertyAccessor.of("id").get(user));
+    }
+
+    @Test
+    void givenBooleanGetter_whenGet_thenValueIsBoxed() {
+        var account = AccountDto.builder().withAdminUsernameType(UsernameTypeLvo.PHONE).build();
+
+        assertEquals(Boolean.TRUE, PropertyAccessor.of("adminUsernameTypePhone").get(account));
+    }
+
+    @Test
+    void givenAnotherClass_whenGet_thenGetterOfThatClassIsUsed() {
+        var accessor = PropertyAccessor.of("id");
+        var user = new UserDto();
+        user.setId(1L);
+        var contact = new ContactDto();
+        contact.setId(2L);
+
+        assertEquals(1L, accessor.get(user));
+        assertEquals(2L, accessor.get(contact));
+        assertEquals(1L, accessor.get(user));
+    }
+
+    @Test
+    void givenDottedPath_whenGet_thenNestedPropertyOrNullIsReturned() {
+        var user = UserDto.builder().withContact(ContactDto.builder().withFirstName("John").build()).build();
+
+        assertEquals("John", PropertyAccessor.of("contact.firstName").get(user));
+        assertNull(PropertyAccessor.of("contact.firstName").get(new UserDto()));
+    }
+
+    @Test
+    void givenUnknownProperty_whenGet_thenPropertyIsNotReadable() {
+        assertThrows(NotReadablePropertyException.class, () -> PropertyAccessor.of("unknown").get(new UserDto()));
+    }
+}
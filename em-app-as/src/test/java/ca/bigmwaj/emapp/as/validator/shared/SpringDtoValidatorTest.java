@@ -1,15 +1,15 @@
 package ca.bigmwaj.emapp.as.validator.shared;
 
 import ca.bigmwaj.emapp.as.validator.ValidationException;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractBatchRule;
 import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
 import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
 import ca.bigmwaj.emapp.as.validator.xml.RuleFactory;
 import ca.bigmwaj.emapp.as.validator.xml.ValidationConfigurationException;
-import ca.bigmwaj.emapp.as.validator.xml.ValidationXmlParser;
-import ca.bigmwaj.emapp.as.validator.xml.model.ConditionConfig;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationPlanCache;
 import ca.bigmwaj.emapp.as.validator.xml.model.FieldValidation;
 import ca.bigmwaj.emapp.as.validator.xml.model.RuleConfig;
-import ca.bigmwaj.emapp.as.validator.xml.model.ValidationConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.ValidationPlan;
 import ca.bigmwaj.emapp.dm.dto.AbstractBaseDto;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.Data;
@@ -20,10 +20,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static ca.bigmwaj.emapp.as.validator.shared.ValidDto.CREATE;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,26 +40,28 @@ import static org.mockito.Mockito.*;
 class SpringDtoValidatorTest {
 
     @Mock
-    private ValidationXmlParser xmlParser;
+    private ValidationPlanCache planCache;
 
     @Mock
     private RuleFactory ruleFactory;
 
-    @Mock
-    private ConditionEvaluator conditionEvaluator;
-
     @Mock
     private ConstraintValidatorContext context;
 
     @Mock
     private AbstractRule rule;
 
+    @Mock
+    private ObjectProvider<GeneratedDtoValidator> generatedValidators;
+
     @InjectMocks
     private SpringDtoValidator validator;
 
     private TestDto testDto;
 
-    private ValidationConfig validationConfig;
+    private final ConditionEvaluator conditionEvaluator = new ConditionEvaluator();
+
+    private ValidationPlan validationPlan;
 
     @BeforeEach
     void setUp() {
@@ -97,34 +105,26 @@ class SpringDtoValidatorTest {
 
     @Test
     void isValid_withValidDto_shouldReturnTrue() throws Exception {
-        setupValidValidationConfig();
+        setupValidValidationConfig("#create");
 
-        when(xmlParser.getValidationConfig(any(), eq("test.namespace")))
-            .thenReturn(validationConfig);
-        when(conditionEvaluator.evaluate(eq(CREATE), anyString(), any()))
-            .thenReturn(true);
-        when(ruleFactory.createRule(any(RuleConfig.class)))
-            .thenReturn(rule);
-        when(rule.validate(eq(context), any(), anyString(), anyMap()))
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(validationPlan);
+        when(rule.validate(eq(context), any(), anyString(), any(), anyMap()))
             .thenReturn(true);
 
         boolean result = validator.isValid(testDto, context);
 
         assertTrue(result);
-        verify(xmlParser).getValidationConfig(any(), eq("test.namespace"));
+        verify(planCache).getPlan("test.namespace", CREATE);
     }
 
     @Test
     void isValid_withInvalidDto_shouldReturnFalse() throws Exception {
-        setupValidValidationConfig();
+        setupValidValidationConfig("#create");
 
-        when(xmlParser.getValidationConfig(any(), eq("test.namespace")))
-            .thenReturn(validationConfig);
-        when(conditionEvaluator.evaluate(eq(CREATE), anyString(), any()))
-            .thenReturn(true);
-        when(ruleFactory.createRule(any(RuleConfig.class)))
-            .thenReturn(rule);
-        when(rule.validate(eq(context), any(), anyString(), anyMap()))
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(validationPlan);
+        when(rule.validate(eq(context), any(), anyString(), any(), anyMap()))
             .thenReturn(false);
 
         boolean result = validator.isValid(testDto, context);
@@ -134,22 +134,20 @@ class SpringDtoValidatorTest {
 
     @Test
     void isValid_withConditionNotMet_shouldReturnTrue() throws Exception {
-        setupValidValidationConfig();
+        setupValidValidationConfig("#update");
 
-        when(xmlParser.getValidationConfig(any(), eq("test.namespace")))
-            .thenReturn(validationConfig);
-        when(conditionEvaluator.evaluate(eq(CREATE), anyString(), any()))
-            .thenReturn(false);
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(validationPlan);
 
         boolean result = validator.isValid(testDto, context);
 
         assertTrue(result);
-        verify(ruleFactory, never()).createRule(any());
+        verify(rule, never()).validate(any(), any(), anyString(), any(), anyMap());
     }
 
     @Test
     void isValid_withConfigurationError_shouldThrowException() throws Exception {
-        when(xmlParser.getValidationConfig(any(), eq("test.namespace")))
+        when(planCache.getPlan("test.namespace", CREATE))
             .thenThrow(new ValidationConfigurationException("Config error"));
 
         assertThrows(ValidationConfigurationException.class, () ->
@@ -165,13 +163,9 @@ class SpringDtoValidatorTest {
 
         setupNestedValidationConfig();
 
-        when(xmlParser.getValidationConfig(any(), eq("test.namespace")))
-            .thenReturn(validationConfig);
-        when(conditionEvaluator.evaluate(eq(CREATE), anyString(), any()))
-            .thenReturn(true);
-        when(ruleFactory.createRule(any(RuleConfig.class)))
-            .thenReturn(rule);
-        when(rule.validate(eq(context), any(), anyString(), anyMap()))
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(validationPlan);
+        when(rule.validate(eq(context), any(), anyString(), any(), anyMap()))
             .thenReturn(true);
 
         boolean result = validator.isValid(testDto, context);
@@ -179,6 +173,49 @@ class SpringDtoValidatorTest {
         assertTrue(result);
     }
 
+    @Test
+    void isValid_withBatchRuleInDtoList_shouldLookUpAllValuesAtOnce() {
+        var batchRule = new CountingBatchRule();
+        ReflectionTestUtils.setField(validator, "batchLookups", true);
+        testDto.setChildren(List.of(child("a"), child("b"), child("c")));
+
+        var condition = new ValidationPlan.Condition(conditionEvaluator.compile("#create"), List.of(new ValidationPlan.Rule("unique", batchRule, Map.of())));
+        var nestedPlan = new ValidationPlan(null, List.of(new ValidationPlan.Field("name", FieldValidation.fieldType.field, List.of(condition), null)));
+        var field = new ValidationPlan.Field("children", FieldValidation.fieldType.dtoList, Collections.emptyList(), nestedPlan);
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(new ValidationPlan("test.namespace", List.of(field)));
+
+        boolean result = validator.isValid(testDto, context);
+
+        assertTrue(result);
+        assertEquals(List.of(Set.of("a", "b", "c")), batchRule.getBatches());
+        assertEquals(0, batchRule.getSingleLookups());
+        assertNull(ValidationBatch.current());
+    }
+
+    @Test
+    void isValid_withGeneratedValidator_shouldRunItInsteadOfThePlan() {
+        setupValidValidationConfig("#create");
+        var generated = mock(GeneratedDtoValidator.class);
+        when(generated.getNamespace()).thenReturn("test.namespace");
+        doReturn(TestDto.class).when(generated).getDtoType();
+        when(generated.isValid(testDto, ConditionEvaluator.operation(CREATE), context)).thenReturn(false);
+        when(generatedValidators.orderedStream()).thenReturn(Stream.of(generated));
+        when(planCache.getPlan("test.namespace", CREATE))
+            .thenReturn(validationPlan);
+
+        ReflectionTestUtils.setField(validator, "useGenerated", true);
+        ValidDto annotation = mock(ValidDto.class);
+        when(annotation.value()).thenReturn("test.namespace");
+        when(annotation.operation()).thenReturn(CREATE);
+        validator.initialize(annotation);
+
+        boolean result = validator.isValid(testDto, context);
+
+        assertFalse(result);
+        verify(rule, never()).validate(any(), any(), anyString(), any(), anyMap());
+    }
+
     @Test
     void validate_withValidRule_shouldReturnTrue() {
         RuleConfig ruleConfig = new RuleConfig();
@@ -194,57 +231,75 @@ class SpringDtoValidatorTest {
         verify(rule).validate(context, testDto, "name", Map.of());
     }
 
-    private void setupValidValidationConfig() {
-        validationConfig = new ValidationConfig();
+    private void setupValidValidationConfig(String expression) {
+        var condition = new ValidationPlan.Condition(conditionEvaluator.compile(expression), List.of(new ValidationPlan.Rule("required", rule, Map.of())));
+        var field = new ValidationPlan.Field("name", FieldValidation.fieldType.field, List.of(condition), null);
 
-        FieldValidation fieldValidation = new FieldValidation();
-        fieldValidation.setName("name");
+        validationPlan = new ValidationPlan("test.namespace", List.of(field));
+    }
 
-        ConditionConfig conditionConfig = new ConditionConfig();
-        conditionConfig.setExpression(CREATE);
+    private void setupNestedValidationConfig() {
+        var condition = new ValidationPlan.Condition(conditionEvaluator.compile("#create"), List.of(new ValidationPlan.Rule("required", rule, Map.of())));
+        var nestedField = new ValidationPlan.Field("name", FieldValidation.fieldType.field, List.of(condition), null);
+        var nestedPlan = new ValidationPlan(null, List.of(nestedField));
 
-        RuleConfig ruleConfig = new RuleConfig();
-        ruleConfig.setType("required");
-        ruleConfig.setParameters(Map.of());
+        var field = new ValidationPlan.Field("nested", FieldValidation.fieldType.dto, Collections.emptyList(), nestedPlan);
 
-        conditionConfig.setRules(List.of(ruleConfig));
-        fieldValidation.setConditions(List.of(conditionConfig));
+        validationPlan = new ValidationPlan("test.namespace", List.of(field));
+    }
 
-        validationConfig.setFields(List.of(fieldValidation));
+    private static TestDto child(String name) {
+        var child = new TestDto();
+        child.setName(name);
+        return child;
     }
 
-    private void setupNestedValidationConfig() {
-        validationConfig = new ValidationConfig();
+    @EqualsAndHashCode(callSuper = true)
+    @Data
+    static class TestDto extends AbstractBaseDto {
+        private String name;
+        private TestDto nested;
+        private List<TestDto> children;
+    }
 
-        FieldValidation fieldValidation = new FieldValidation();
-        fieldValidation.setName("nested");
+    /**
+     * A unique rule for which no value exists, recording its lookups.
+     */
+    static class CountingBatchRule extends AbstractBatchRule {
 
-        ValidationConfig nestedConfig = new ValidationConfig();
-        FieldValidation nestedField = new FieldValidation();
-        nestedField.setName("name");
+        private final List<Set<Object>> batches = new ArrayList<>();
 
-        ConditionConfig conditionConfig = new ConditionConfig();
-        conditionConfig.setExpression(CREATE);
+        private int singleLookups;
 
-        RuleConfig ruleConfig = new RuleConfig();
-        ruleConfig.setType("required");
-        ruleConfig.setParameters(Map.of());
+        @Override
+        public Object toKey(Object value) {
+            return value;
+        }
 
-        conditionConfig.setRules(List.of(ruleConfig));
-        nestedField.setConditions(List.of(conditionConfig));
-        nestedConfig.setFields(List.of(nestedField));
+        @Override
+        protected boolean exists(Object key) {
+            singleLookups++;
+            return false;
+        }
 
-        fieldValidation.setValidationConfig(nestedConfig);
-        fieldValidation.setConditions(Collections.emptyList());
+        @Override
+        public Set<?> findExisting(Collection<Object> keys) {
+            batches.add(Set.copyOf(keys));
+            return Set.of();
+        }
 
-        validationConfig.setFields(List.of(fieldValidation));
-    }
+        @Override
+        protected boolean mustExist() {
+            return false;
+        }
 
-    @EqualsAndHashCode(callSuper = true)
-    @Data
-    static class TestDto extends AbstractBaseDto {
-        private String name;
-        private TestDto nested;
+        List<Set<Object>> getBatches() {
+            return batches;
+        }
+
+        int getSingleLookups() {
+            return singleLookups;
+        }
     }
 }
 
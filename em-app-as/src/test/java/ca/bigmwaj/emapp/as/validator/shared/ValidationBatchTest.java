@@ -0,0 +1,47 @@
+package ca.bigmwaj.emapp.as.validator.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationBatchTest {
+
+    @Test
+    void givenAddedValues_whenExecute_thenEachRuleLooksUpItsKeysOnce() {
+        var first = new SpringDtoValidatorTest.CountingBatchRule();
+        var second = new SpringDtoValidatorTest.CountingBatchRule();
+
+        try (var batch = ValidationBatch.open()) {
+            batch.add(first, "a");
+            batch.add(first, "a");
+            batch.add(first, null);
+            batch.add(second, "b");
+            batch.execute();
+
+            assertEquals(Boolean.FALSE, batch.exists(first, "a"));
+            assertNull(batch.exists(first, "b"));
+            assertEquals(Boolean.FALSE, batch.exists(second, "b"));
+
+            batch.add(first, "a");
+            batch.add(first, "c");
+            batch.execute();
+        }
+
+        assertEquals(List.of(Set.of("a"), Set.of("c")), first.getBatches());
+        assertEquals(List.of(Set.of("b")), second.getBatches());
+    }
+
+    @Test
+    void givenNestedBatch_whenClose_thenOuterBatchIsCurrentAgain() {
+        try (var outer = ValidationBatch.open()) {
+            try (var inner = ValidationBatch.open()) {
+                assertSame(inner, ValidationBatch.current());
+            }
+            assertSame(outer, ValidationBatch.current());
+        }
+        assertNull(ValidationBatch.current());
+    }
+}
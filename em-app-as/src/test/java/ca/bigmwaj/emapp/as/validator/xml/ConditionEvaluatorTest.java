@@ -97,6 +97,31 @@ class ConditionEvaluatorTest {
         assertFalse(result);
     }
 
+    @Test
+    void testCompile_OperationVariablesAreConstants() {
+        var condition = evaluator.compile("#update or #changeStatus or #delete");
+
+        assertTrue(condition.test(ConditionEvaluator.operation(UPDATE), null));
+        assertTrue(condition.test(ConditionEvaluator.operation(DELETE), null));
+        assertFalse(condition.test(ConditionEvaluator.operation(CREATE), null));
+        assertTrue(condition.isNever(ConditionEvaluator.operation(CREATE)));
+        assertTrue(condition.isNever(ConditionEvaluator.operation("change-password")));
+    }
+
+    @Test
+    void testCompile_OperationAndPropertyIsNeverForOtherOperations() {
+        TestDto dto = new TestDto();
+        dto.setName("name");
+        var condition = evaluator.compile("#create and name != null");
+
+        assertTrue(condition.test(ConditionEvaluator.operation(CREATE), dto));
+        assertTrue(condition.isNever(ConditionEvaluator.operation(UPDATE)));
+        assertFalse(condition.isNever(ConditionEvaluator.operation(CREATE)));
+
+        dto.setName(null);
+        assertFalse(condition.test(ConditionEvaluator.operation(CREATE), dto));
+    }
+
     @Test
     void testEvaluate_InvalidExpression() {
         TestDto dto = new TestDto();
@@ -88,7 +88,7 @@ class SpringDtoValidatorIntegrationTest {
     void testAccountDto_UpdateWithValidData() {
         AccountDto dto = new AccountDto();
 //        dto.setEditAction(EditActionLvo.UPDATE);
-        dto.setId((short)1);
+        dto.setId(1L);
         dto.setName("Updated Account");
         dto.setStatus(AccountStatusLvo.ACTIVE);
 
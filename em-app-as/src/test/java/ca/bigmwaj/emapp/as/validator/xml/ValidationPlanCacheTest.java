@@ -0,0 +1,109 @@
+package ca.bigmwaj.emapp.as.validator.xml;
+
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
+import ca.bigmwaj.emapp.as.validator.xml.model.ConditionConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.FieldValidation;
+import ca.bigmwaj.emapp.as.validator.xml.model.RuleConfig;
+import ca.bigmwaj.emapp.as.validator.xml.model.ValidationConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ValidationPlanCacheTest {
+
+    private final ValidationXmlParser xmlParser = mock(ValidationXmlParser.class);
+
+    private final RuleFactory ruleFactory = mock(RuleFactory.class);
+
+    private final ValidationPlanCache cache = new ValidationPlanCache(xmlParser, ruleFactory, new ConditionEvaluator(), false);
+
+    private static ValidationConfig config(String ref) {
+        var rule = new RuleConfig();
+        rule.setType("NonNullRule");
+        var condition = new ConditionConfig();
+        condition.setExpression("#create");
+        condition.getRules().add(rule);
+
+        var id = new FieldValidation();
+        id.setName("id");
+        id.getConditions().add(condition);
+
+        var config = new ValidationConfig();
+        config.getFields().add(id);
+        if (ref != null) {
+            var nested = new ValidationConfig();
+            nested.setRef(ref);
+            var child = new FieldValidation();
+            child.setName("child");
+            child.setType(FieldValidation.fieldType.dto);
+            child.setValidationConfig(nested);
+            config.getFields().add(child);
+        }
+        return config;
+    }
+
+    @Test
+    void givenRef_whenGetPlan_thenRefIsCompiledOnceAndShared() {
+        var rule = mock(AbstractRule.class);
+        when(ruleFactory.createRule(any())).thenReturn(rule);
+        when(xmlParser.getValidationConfig(null, "a")).thenReturn(config("b"));
+        when(xmlParser.getValidationConfig(null, "b")).thenReturn(config(null));
+
+        var plan = cache.getPlan("a");
+
+        assertSame(rule, plan.fields().get(0).conditions().get(0).rules().get(0).rule());
+        assertSame(cache.getPlan("b"), plan.fields().get(1).nested());
+        assertSame(plan, cache.getPlan("a"));
+        verify(xmlParser, times(1)).getValidationConfig(null, "b");
+    }
+
+    @Test
+    void givenOperation_whenGetPlan_thenConditionsThatCannotHoldAreDropped() {
+        when(ruleFactory.createRule(any())).thenReturn(mock(AbstractRule.class));
+        when(xmlParser.getValidationConfig(null, "a")).thenReturn(config("b"));
+        when(xmlParser.getValidationConfig(null, "b")).thenReturn(config(null));
+
+        var create = cache.getPlan("a", ValidDto.CREATE);
+        var update = cache.getPlan("a", ValidDto.UPDATE);
+
+        assertEquals(2, create.fields().size());
+        assertTrue(update.fields().isEmpty());
+        assertSame(create, cache.getPlan("a", ValidDto.CREATE));
+    }
+
+    @Test
+    void givenCyclicRefs_whenGetPlan_thenConfigurationIsRejected() {
+        when(ruleFactory.createRule(any())).thenReturn(mock(AbstractRule.class));
+        when(xmlParser.getValidationConfig(null, "a")).thenReturn(config("b"));
+        when(xmlParser.getValidationConfig(null, "b")).thenReturn(config("a"));
+
+        var e = assertThrows(ValidationConfigurationException.class, () -> cache.getPlan("a"));
+        assertEquals("Cyclic validationConfig ref: a -> b -> a", e.getMessage());
+    }
+
+    @Test
+    void givenUnknownRuleType_whenGetPlan_thenConfigurationIsRejected() {
+        when(ruleFactory.createRule(any())).thenThrow(new ValidationConfigurationException("Failed to create rule of type: NonNullRule"));
+        when(xmlParser.getValidationConfig(null, "a")).thenReturn(config(null));
+
+        assertThrows(ValidationConfigurationException.class, () -> cache.getPlan("a"));
+    }
+
+    @Test
+    void givenPlatformValidators_whenStartup_thenEveryFileIsCompiled() {
+        when(ruleFactory.createRule(any())).thenReturn(mock(AbstractRule.class));
+        var parser = new ValidationXmlParser();
+        ReflectionTestUtils.setField(parser, "namespaceResolver", new ValidationNamespaceResolver());
+        var realCache = new ValidationPlanCache(parser, ruleFactory, new ConditionEvaluator(), false);
+
+        realCache.afterSingletonsInstantiated();
+
+        var user = realCache.getPlan("platform/user");
+        var contact = user.fields().stream().filter(f -> f.name().equals("contact")).findFirst().orElseThrow();
+        assertSame(realCache.getPlan("platform/contact"), contact.nested());
+    }
+}
@@ -126,19 +126,19 @@ class AccountDtoValidatorTest extends AbstractDtoValidatorTest {
     void testAccountDto_ChangeStatusFieldsValidation() {
         // Full data
         assertNoViolations(TestAccountDtoBuilder.builderWithAllDefaults()
-                .withId((short) 1).build());
+                .withId(1L).build());
 //                .withEditAction(EditActionLvo.CHANGE_STATUS).build());
 
         // Only required data
         assertNoViolations(TestAccountDtoBuilder.builder()
-                .withId((short) 1)
+                .withId(1L)
 //                .withEditAction(EditActionLvo.CHANGE_STATUS)
                 .withStatus(AccountStatusLvo.ACTIVE)
                 .withStatusDate(LocalDateTime.now()).build());
 
         // Missing status
         assertViolationsOnField(TestAccountDtoBuilder.builder()
-                .withId((short) 1)
+                .withId(1L)
 //                .withEditAction(EditActionLvo.CHANGE_STATUS)
                 .withStatus(null).build(), "status");
 
@@ -149,7 +149,7 @@ class AccountDtoValidatorTest extends AbstractDtoValidatorTest {
 
         // Missing status date
         assertViolationsOnField(TestAccountDtoBuilder.builder()
-                .withId((short) 1)
+                .withId(1L)
 //                .withEditAction(EditActionLvo.CHANGE_STATUS)
                 .withStatusDate(null).build(), "statusDate");
     }
@@ -159,13 +159,13 @@ class AccountDtoValidatorTest extends AbstractDtoValidatorTest {
     void testAccountDto_UpdateFieldsValidation() {
         // Full data
         assertNoViolations(TestAccountDtoBuilder.builderWithAllDefaults()
-                .withId((short) 1)
+                .withId(1L)
 //                .withEditAction(EditActionLvo.UPDATE)
                 .build());
 
         // Only account data
         assertNoViolations(TestAccountDtoBuilder.withDefaults()
-                .withId((short) 1)
+                .withId(1L)
 //                .withEditAction(EditActionLvo.UPDATE)
                 .build());
 
@@ -0,0 +1,69 @@
+package ca.bigmwaj.emapp.bench.converter;
+
+import ca.bigmwaj.emapp.as.converter.shared.ClausePatternsConverter;
+import ca.bigmwaj.emapp.as.converter.shared.WhereClausePatternsConverter;
+import ca.bigmwaj.emapp.as.dto.platform.UserSearchCriteria;
+import ca.bigmwaj.emapp.as.validator.shared.ValidSortByClausePatterns;
+import ca.bigmwaj.emapp.as.validator.shared.ValidWhereClausePatterns;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.TypeDescriptor;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of the {@code where} and {@code sortBy} request parameters of a user search into
+ * clauses, as done by the MVC data binder on every search request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClausePatternsConverterBenchmark {
+
+    private static final String WHERE_PATTERNS = "status:in:ACTIVE,BLOCKED;ownerType:eq:ACCOUNT;username:like:john;"
+            + "firstName:like:jo;lastName:like:smi;phone:like:418;email:like:example.com";
+
+    private static final String SORT_BY_PATTERNS = "lastName:desc;firstName:asc;username";
+
+    private final ClausePatternsConverter converter = new ClausePatternsConverter();
+
+    private final TypeDescriptor sourceType = TypeDescriptor.valueOf(String.class);
+
+    private TypeDescriptor whereTargetType;
+
+    private TypeDescriptor sortByTargetType;
+
+    private static TypeDescriptor targetType(Class<? extends Annotation> annotationType) {
+        var annotations = Arrays.stream(UserSearchCriteria.class.getAnnotations())
+                .filter(e -> e.annotationType().equals(annotationType))
+                .toArray(Annotation[]::new);
+        return new TypeDescriptor(ResolvableType.forClass(List.class), null, annotations);
+    }
+
+    @Setup
+    public void setup() {
+        whereTargetType = targetType(ValidWhereClausePatterns.class);
+        sortByTargetType = targetType(ValidSortByClausePatterns.class);
+    }
+
+    @Benchmark
+    public Object convertWhereClauses() {
+        return converter.convert(WHERE_PATTERNS, sourceType, whereTargetType);
+    }
+
+    @Benchmark
+    public Object convertSortByClauses() {
+        return converter.convert(SORT_BY_PATTERNS, sourceType, sortByTargetType);
+    }
+
+    @Benchmark
+    public Object convertWhereClausesDirectly() {
+        return new WhereClausePatternsConverter(whereTargetType, WHERE_PATTERNS).convert();
+    }
+}
@@ -0,0 +1,73 @@
+package ca.bigmwaj.emapp.bench.dao;
+
+import ca.bigmwaj.emapp.as.dao.shared.QueryConfig;
+import ca.bigmwaj.emapp.as.dto.shared.search.SortByClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClause;
+import ca.bigmwaj.emapp.as.dto.shared.search.WhereClauseJoinOp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the JPQL string of a user search (where clauses, exists subquery and sort-by clauses),
+ * i.e. the work of a query plan cache miss.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryConfigBenchmark {
+
+    private static final String BASE_QUERY = "select qRoot from UserEntity qRoot join qRoot.contact c";
+
+    private static final String PHONE_SUBQUERY = "select 1 from ContactPhoneEntity cp where cp.contact = qRoot.contact";
+
+    private List<WhereClause> whereClauses;
+
+    private WhereClause phoneClause;
+
+    private List<SortByClause> sortByClauses;
+
+    private static WhereClause whereClause(String name, WhereClause.oper oper, List<?> values, String rootEntityName) {
+        var clause = new WhereClause(name, oper, values);
+        clause.setRootEntityName(rootEntityName);
+        return clause;
+    }
+
+    private static SortByClause sortByClause(String name, SortByClause.sortType type, String rootEntityName) {
+        var clause = new SortByClause(name, type);
+        clause.setRootEntityName(rootEntityName);
+        return clause;
+    }
+
+    @Setup
+    public void setup() {
+        whereClauses = List.of(
+                whereClause("status", WhereClause.oper.in, List.of("ACTIVE", "BLOCKED"), null),
+                whereClause("username", WhereClause.oper.like, List.of("john"), null),
+                whereClause("firstName", WhereClause.oper.like, List.of("jo"), "c"),
+                whereClause("birthDate", WhereClause.oper.btw, List.of("1970-01-01", "2000-01-01"), "c"));
+        phoneClause = whereClause("phone", WhereClause.oper.like, List.of("418"), "cp");
+        sortByClauses = List.of(
+                sortByClause("lastName", SortByClause.sortType.desc, "c"),
+                sortByClause("username", SortByClause.sortType.asc, null));
+    }
+
+    @Benchmark
+    public String buildQueryString() {
+        var qb = QueryConfig.builder()
+                .withBaseQuery(BASE_QUERY)
+                .withWhereClauseJoinOp(WhereClauseJoinOp.and);
+
+        for (var i = 0; i < whereClauses.size(); i++) {
+            QueryConfig.appendWhereClause(qb, whereClauses.get(i), i);
+        }
+        QueryConfig.appendWhereClause(qb, phoneClause, whereClauses.size(), PHONE_SUBQUERY);
+        sortByClauses.forEach(e -> QueryConfig.appendSortByClause(qb, e));
+
+        return qb.build().getQueryString();
+    }
+}
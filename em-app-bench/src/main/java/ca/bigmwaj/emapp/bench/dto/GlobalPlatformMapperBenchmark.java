@@ -0,0 +1,125 @@
+package ca.bigmwaj.emapp.bench.dto;
+
+import ca.bigmwaj.emapp.as.dao.shared.FetchPlan;
+import ca.bigmwaj.emapp.as.dto.GlobalPlatformMapper;
+import ca.bigmwaj.emapp.as.entity.platform.*;
+import ca.bigmwaj.emapp.as.lvo.platform.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Entity to DTO mapping of the search results, for contacts having many contact points.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalPlatformMapperBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private static final FetchPlan CONTACT_PLAN = FetchPlan.of(List.of("emails", "phones", "addresses"));
+
+    private static final FetchPlan USER_PLAN = FetchPlan.of(List.of("contact.emails", "contact.phones", "contact.addresses"));
+
+    /**
+     * The number of emails, of phones and of addresses of every contact.
+     */
+    @Param({"1", "10", "100"})
+    private int contactPointsPerType;
+
+    private final GlobalPlatformMapper mapper = GlobalPlatformMapper.INSTANCE;
+
+    private ContactEntity contact;
+
+    private List<UserEntity> users;
+
+    private ContactEntity contact(long id) {
+        var contact = new ContactEntity();
+        contact.setId(id);
+        contact.setFirstName("First" + id);
+        contact.setLastName("Last" + id);
+        contact.setBirthDate(LocalDate.of(1980, 1, 1));
+        contact.setOwnerType(OwnerTypeLvo.ACCOUNT);
+        contact.setCreatedBy("bench");
+        contact.setCreatedDate(LocalDateTime.now());
+
+        for (var i = 0; i < contactPointsPerType; i++) {
+            var pointId = id * 1000 + i;
+
+            var email = new ContactEmailEntity();
+            email.setId(pointId);
+            email.setContact(contact);
+            email.setOwnerType(OwnerTypeLvo.ACCOUNT);
+            email.setDefaultContactPoint(i == 0);
+            email.setEmail("user" + pointId + "@example.com");
+            email.setType(EmailTypeLvo.WORK);
+            contact.getEmails().add(email);
+
+            var phone = new ContactPhoneEntity();
+            phone.setId(pointId);
+            phone.setContact(contact);
+            phone.setOwnerType(OwnerTypeLvo.ACCOUNT);
+            phone.setDefaultContactPoint(i == 0);
+            phone.setPhone(String.valueOf(4180000000L + pointId));
+            phone.setIndicative("+1");
+            phone.setType(PhoneTypeLvo.MOBILE);
+            contact.getPhones().add(phone);
+
+            var address = new ContactAddressEntity();
+            address.setId(pointId);
+            address.setContact(contact);
+            address.setOwnerType(OwnerTypeLvo.ACCOUNT);
+            address.setDefaultContactPoint(i == 0);
+            address.setAddress(pointId + " Main Street");
+            address.setCity("Quebec");
+            address.setRegion("QC");
+            address.setCountry("CA");
+            address.setType(AddressTypeLvo.HOME);
+            contact.getAddresses().add(address);
+        }
+        return contact;
+    }
+
+    private UserEntity user(int id) {
+        var user = new UserEntity();
+        user.setId((long) id);
+        user.setUsername("user" + id);
+        user.setUsernameType(UsernameTypeLvo.BASIC);
+        user.setStatus(UserStatusLvo.ACTIVE);
+        user.setOwnerType(OwnerTypeLvo.ACCOUNT);
+        user.setContact(contact(id));
+        return user;
+    }
+
+    @Setup
+    public void setup() {
+        contact = contact(1);
+        users = IntStream.rangeClosed(1, PAGE_SIZE).mapToObj(this::user).toList();
+    }
+
+    @Benchmark
+    public Object mapContact() {
+        return mapper.toDto(contact, CONTACT_PLAN);
+    }
+
+    @Benchmark
+    public Object mapContactWithoutContactPoints() {
+        return mapper.toDto(contact, FetchPlan.NONE);
+    }
+
+    /**
+     * A page of users including the contact points of their contacts.
+     */
+    @Benchmark
+    public Object mapUserPage() {
+        return users.stream().map(e -> mapper.toDto(e, USER_PLAN)).toList();
+    }
+}
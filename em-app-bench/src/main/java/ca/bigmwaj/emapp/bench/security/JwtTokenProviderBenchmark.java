@@ -0,0 +1,65 @@
+package ca.bigmwaj.emapp.bench.security;
+
+import ca.bigmwaj.emapp.as.api.auth.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification of the bearer token, done by the authentication filter on every API request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private static final String JWT_SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    // As bound from app.jwt.* in the application
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(JWT_SECRET, 86_400_000L, 10_000);
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        token = jwtTokenProvider.generateTokenForUser("john.doe@example.com", "john.doe@example.com", "John Doe");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromJWT() {
+        return jwtTokenProvider.getUsernameFromJWT(token);
+    }
+
+    /**
+     * What the authentication filter did per request before the claims cache: validate, then
+     * read the subject and the provider, parsing and verifying the token three times.
+     */
+    @Benchmark
+    public void authenticationFilterUncached(Blackhole blackhole) {
+        if (jwtTokenProvider.validateToken(token)) {
+            blackhole.consume(jwtTokenProvider.getUsernameFromJWT(token));
+            blackhole.consume(jwtTokenProvider.getAuthorizedClientRegistrationIdFromJWT(token));
+        }
+    }
+
+    /**
+     * What the authentication filter does per request: the verified claims, from the cache once
+     * the token has been seen.
+     */
+    @Benchmark
+    public void authenticationFilter(Blackhole blackhole) {
+        jwtTokenProvider.getVerifiedClaims(token).ifPresent(claims -> {
+            blackhole.consume(claims.getSubject());
+            blackhole.consume(jwtTokenProvider.getAuthorizedClientRegistrationId(claims));
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package ca.bigmwaj.emapp.bench.validator;
+
+import ca.bigmwaj.emapp.as.dto.platform.AccountDto;
+import ca.bigmwaj.emapp.as.lvo.platform.UsernameTypeLvo;
+import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
+import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of the {@code <condition expression="...">} of the validation XML files, once per
+ * condition of every validated field: by expression text ({@code evaluate}), and as compiled in the
+ * validation plans ({@code test}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConditionEvaluatorBenchmark {
+
+    /**
+     * The shapes found in validator/platform/*.xml: a constant, an operation variable, a
+     * disjunction of operations, and an operation combined with a DTO property.
+     */
+    @Param({"true", "#createOrUpdate", "#update or #changeStatus or #delete", "#create and adminUsernameTypePhone"})
+    private String expression;
+
+    private final ConditionEvaluator conditionEvaluator = new ConditionEvaluator();
+
+    private final int operation = ConditionEvaluator.operation(ValidDto.CREATE);
+
+    private ConditionEvaluator.Condition condition;
+
+    private AccountDto dto;
+
+    @Setup
+    public void setup() {
+        dto = AccountDto.builder()
+                .withName("Account")
+                .withAdminUsernameType(UsernameTypeLvo.PHONE)
+                .build();
+        condition = conditionEvaluator.compile(expression);
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return conditionEvaluator.evaluate(ValidDto.CREATE, expression, dto);
+    }
+
+    @Benchmark
+    public boolean test() {
+        return condition.test(operation, dto);
+    }
+}
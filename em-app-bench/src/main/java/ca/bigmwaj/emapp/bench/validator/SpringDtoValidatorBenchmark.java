@@ -0,0 +1,190 @@
+package ca.bigmwaj.emapp.bench.validator;
+
+import ca.bigmwaj.emapp.as.dto.platform.*;
+import ca.bigmwaj.emapp.as.lvo.platform.*;
+import ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule;
+import ca.bigmwaj.emapp.as.validator.rule.common.NonNullRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.BirthDateRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.OwnerTypeRule;
+import ca.bigmwaj.emapp.as.validator.rule.platform.PrincipalAccountContactRule;
+import ca.bigmwaj.emapp.as.validator.shared.SpringDtoValidator;
+import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
+import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+import ca.bigmwaj.emapp.as.validator.xml.RuleFactory;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationNamespaceResolver;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationPlanCache;
+import ca.bigmwaj.emapp.as.validator.xml.ValidationXmlParser;
+import jakarta.validation.ConstraintValidatorContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code @ValidDto} validation of create requests against the real validator/platform/*.xml files.
+ *
+ * <p>The validation engine runs in a small Spring context holding the validator beans and the
+ * rules. The rules reading the database are replaced by rules accepting every value, so the
+ * benchmark measures the engine (validation plans, conditions, property access and rules) and not MySQL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpringDtoValidatorBenchmark {
+
+    private static final List<String> DATABASE_RULES = List.of("UniqueUsernameRule", "UserExistsRule", "RoleExistsRule",
+            "PrivilegeExistsRule", "GroupNameUniqueRule", "RoleNameUniqueRule");
+
+    /**
+     * The number of emails, of phones and of addresses of every contact.
+     */
+    @Param({"1", "10"})
+    private int contactPointsPerType;
+
+    private AnnotationConfigApplicationContext context;
+
+    private SpringDtoValidator contactValidator;
+
+    private SpringDtoValidator userValidator;
+
+    private SpringDtoValidator accountValidator;
+
+    private ConstraintValidatorContext constraintValidatorContext;
+
+    private ContactDto contact;
+
+    private UserDto user;
+
+    private AccountDto account;
+
+    @ValidDto(value = "platform/contact", operation = ValidDto.CREATE)
+    private static final class CreateContact {
+    }
+
+    @ValidDto(value = "platform/user", operation = ValidDto.CREATE)
+    private static final class CreateUser {
+    }
+
+    @ValidDto(value = "platform/account", operation = ValidDto.CREATE)
+    private static final class CreateAccount {
+    }
+
+    private static final class AcceptingRule extends AbstractRule {
+
+        @Override
+        public boolean isValid(Object value, Map<String, String> parameters) {
+            return true;
+        }
+    }
+
+    /**
+     * A context accepting the violations of invalid fields, like the one of Hibernate Validator.
+     */
+    private static Object noOp(Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getReturnType().isInterface() ? noOp(method.getReturnType()) : null);
+    }
+
+    private SpringDtoValidator validator(Class<?> annotated) {
+        var validator = context.getAutowireCapableBeanFactory().createBean(SpringDtoValidator.class);
+        validator.initialize(annotated.getAnnotation(ValidDto.class));
+        return validator;
+    }
+
+    private ContactDto contactDto() {
+        var builder = ContactDto.builder()
+                .withFirstName("John")
+                .withLastName("Doe")
+                .withBirthDate(LocalDate.of(1980, 1, 1))
+                .withOwnerType(OwnerTypeLvo.ACCOUNT);
+
+        IntStream.range(0, contactPointsPerType).forEach(i -> builder
+                .withEmail(ContactEmailDto.builder()
+                        .withEmail("john" + i + "@example.com")
+                        .withType(EmailTypeLvo.WORK)
+                        .withOwnerType(OwnerTypeLvo.ACCOUNT)
+                        .withDefaultContactPoint(i == 0)
+                        .build())
+                .withPhone(ContactPhoneDto.builder()
+                        .withPhone(String.valueOf(4180000000L + i))
+                        .withIndicative("+1")
+                        .withType(PhoneTypeLvo.MOBILE)
+                        .withOwnerType(OwnerTypeLvo.ACCOUNT)
+                        .withDefaultContactPoint(i == 0)
+                        .build())
+                .withAddress(ContactAddressDto.builder()
+                        .withAddress(i + " Main Street")
+                        .withCity("Quebec")
+                        .withRegion("QC")
+                        .withCountry("CA")
+                        .withType(AddressTypeLvo.HOME)
+                        .withOwnerType(OwnerTypeLvo.ACCOUNT)
+                        .withDefaultContactPoint(i == 0)
+                        .build()));
+        return builder.build();
+    }
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(ValidationXmlParser.class, ValidationNamespaceResolver.class, ValidationPlanCache.class,
+                RuleFactory.class, ConditionEvaluator.class, BirthDateRule.class, OwnerTypeRule.class, PrincipalAccountContactRule.class);
+        context.scan(NonNullRule.class.getPackageName());
+        DATABASE_RULES.forEach(e -> context.registerBean(e, AbstractRule.class, AcceptingRule::new));
+        context.refresh();
+
+        contactValidator = validator(CreateContact.class);
+        userValidator = validator(CreateUser.class);
+        accountValidator = validator(CreateAccount.class);
+        constraintValidatorContext = (ConstraintValidatorContext) noOp(ConstraintValidatorContext.class);
+
+        contact = contactDto();
+        user = UserDto.builder()
+                .withUsername("john.doe")
+                .withPassword("Secret123!")
+                .withUsernameType(UsernameTypeLvo.BASIC)
+                .withStatus(UserStatusLvo.ACTIVE)
+                .withOwnerType(OwnerTypeLvo.ACCOUNT)
+                .withContact(contactDto())
+                .build();
+        account = AccountDto.builder()
+                .withName("Elite Maintenance")
+                .withDescription("Benchmark account")
+                .withStatus(AccountStatusLvo.ACTIVE)
+                .withAdminUsername("admin@emapp.ca")
+                .withAdminUsernameType(UsernameTypeLvo.EMAIL)
+                .withAccountContact(AccountContactDto.builder()
+                        .withRole(AccountContactRoleLvo.PRINCIPAL)
+                        .withContact(contactDto())
+                        .build())
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean validateContact() {
+        return contactValidator.isValid(contact, constraintValidatorContext);
+    }
+
+    @Benchmark
+    public boolean validateUser() {
+        return userValidator.isValid(user, constraintValidatorContext);
+    }
+
+    @Benchmark
+    public boolean validateAccount() {
+        return accountValidator.isValid(account, constraintValidatorContext);
+    }
+}
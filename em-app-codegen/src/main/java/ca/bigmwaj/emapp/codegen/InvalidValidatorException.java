@@ -0,0 +1,11 @@
+package ca.bigmwaj.emapp.codegen;
+
+/**
+ * A validator XML file that cannot be compiled, reported as a compilation error.
+ */
+class InvalidValidatorException extends RuntimeException {
+
+    InvalidValidatorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,278 @@
+package ca.bigmwaj.emapp.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.Set;
+
+/**
+ * Generates a Java validator for every namespace of a {@code @ValidDto}, from the validator XML
+ * file of the namespace (see {@link ValidatorSourceWriter}).
+ *
+ * <p>Every XML file of the {@value #DIR_OPTION} directory is checked, whether a {@code @ValidDto}
+ * uses it or not: an invalid file, a rule type that is no {@code @Component} rule of the
+ * {@value #RULE_PACKAGES_OPTION} packages, a missing or cyclic {@code ref}, or a field without
+ * getter fails the compilation. A namespace used with several DTO types gets no generated
+ * validator, and stays interpreted.
+ *
+ * <p>Without the {@value #DIR_OPTION} option (e.g., when compiling the tests), nothing is generated.
+ */
+@SupportedAnnotationTypes(ValidatorProcessor.VALID_DTO)
+@SupportedOptions({ValidatorProcessor.DIR_OPTION, ValidatorProcessor.RULE_PACKAGES_OPTION})
+public class ValidatorProcessor extends AbstractProcessor {
+
+    static final String VALID_DTO = "ca.bigmwaj.emapp.as.validator.shared.ValidDto";
+
+    static final String ABSTRACT_RULE = "ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule";
+
+    static final String COMPONENT = "org.springframework.stereotype.Component";
+
+    static final String GENERATED_PACKAGE = "ca.bigmwaj.emapp.as.validator.generated";
+
+    /**
+     * The directory of the validator XML files, e.g. {@code src/main/resources/validator}.
+     */
+    static final String DIR_OPTION = "emapp.validator.dir";
+
+    /**
+     * The packages of the rules, separated by commas.
+     */
+    static final String RULE_PACKAGES_OPTION = "emapp.validator.rulePackages";
+
+    private boolean processed;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        var dir = processingEnv.getOptions().get(DIR_OPTION);
+        if (processed || dir == null || annotations.isEmpty()) {
+            return false;
+        }
+        processed = true;
+
+        var usages = findUsages(roundEnv.getElementsAnnotatedWith(annotations.iterator().next()));
+        var origin = usages.values().stream().flatMap(e -> e.values().stream()).findFirst().orElse(null);
+        try {
+            var validators = new Validators(Path.of(dir), findRules());
+            validators.checkAll();
+
+            usages.forEach((namespace, types) -> {
+                var element = types.values().iterator().next();
+                if (types.size() > 1) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "Namespace " + namespace + " is validated with several DTO types, it is not generated", element);
+                    return;
+                }
+                try {
+                    new ValidatorSourceWriter(processingEnv, validators, namespace, types.keySet().iterator().next())
+                            .write(element);
+                } catch (InvalidValidatorException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, namespace + ": " + e.getMessage(), element);
+                }
+            });
+        } catch (InvalidValidatorException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), origin);
+        }
+        return false;
+    }
+
+    /**
+     * @return the DTO types of the namespaces, each with an element annotated with it
+     */
+    private Map<String, Map<TypeElement, Element>> findUsages(Set<? extends Element> elements) {
+        var usages = new LinkedHashMap<String, Map<TypeElement, Element>>();
+        for (var element : elements) {
+            var annotation = findAnnotation(element, VALID_DTO);
+            if (annotation == null || !(element.asType() instanceof DeclaredType type)) {
+                continue;
+            }
+            var namespace = (String) annotationValue(annotation, "value");
+            usages.computeIfAbsent(namespace, e -> new LinkedHashMap<>())
+                    .putIfAbsent((TypeElement) type.asElement(), element);
+        }
+        return usages;
+    }
+
+    /**
+     * @return the rule classes of the rule packages, by bean name
+     */
+    private Map<String, TypeElement> findRules() {
+        var option = processingEnv.getOptions().get(RULE_PACKAGES_OPTION);
+        if (option == null || option.isBlank()) {
+            throw new InvalidValidatorException("Missing option " + RULE_PACKAGES_OPTION);
+        }
+        var abstractRule = processingEnv.getElementUtils().getTypeElement(ABSTRACT_RULE);
+        if (abstractRule == null) {
+            throw new InvalidValidatorException(ABSTRACT_RULE + " not found");
+        }
+
+        var types = processingEnv.getTypeUtils();
+        var rules = new HashMap<String, TypeElement>();
+        for (var packageName : option.split(",")) {
+            var element = processingEnv.getElementUtils().getPackageElement(packageName.trim());
+            if (element == null) {
+                throw new InvalidValidatorException("Rule package " + packageName.trim() + " not found");
+            }
+            for (var type : ElementFilter.typesIn(element.getEnclosedElements())) {
+                var component = findAnnotation(type, COMPONENT);
+                if (component != null && !type.getModifiers().contains(Modifier.ABSTRACT)
+                        && types.isSubtype(types.erasure(type.asType()), types.erasure(abstractRule.asType()))) {
+                    var name = (String) annotationValue(component, "value");
+                    rules.put(name.isEmpty() ? defaultBeanName(type) : name, type);
+                }
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * @return the bean name Spring gives to a component without name
+     */
+    private static String defaultBeanName(TypeElement type) {
+        var name = type.getSimpleName().toString();
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (var annotation : element.getAnnotationMirrors()) {
+            var type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private Object annotationValue(AnnotationMirror annotation, String name) {
+        for (var entry : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The validator XML files of the directory, parsed once, and the rule classes.
+     */
+    static final class Validators {
+
+        private final Path dir;
+
+        private final Map<String, TypeElement> rules;
+
+        private final Map<String, ValidatorXml> files = new HashMap<>();
+
+        Validators(Path dir, Map<String, TypeElement> rules) {
+            this.dir = dir;
+            this.rules = rules;
+        }
+
+        /**
+         * @throws InvalidValidatorException if the namespace has no file, or an invalid one
+         */
+        ValidatorXml get(String namespace) {
+            var file = files.get(namespace);
+            if (file == null) {
+                var path = dir.resolve(namespace + ".xml");
+                if (!Files.isRegularFile(path)) {
+                    throw new InvalidValidatorException("Validation configuration file not found for namespace: " + namespace);
+                }
+                try {
+                    file = ValidatorXml.parse(path);
+                } catch (InvalidValidatorException e) {
+                    throw new InvalidValidatorException("Invalid validator " + namespace + ": " + e.getMessage());
+                }
+                files.put(namespace, file);
+            }
+            return file;
+        }
+
+        /**
+         * @throws InvalidValidatorException if no rule has the type
+         */
+        TypeElement getRule(String type) {
+            var rule = rules.get(type);
+            if (rule == null) {
+                throw new InvalidValidatorException("Unknown rule type: " + type);
+            }
+            return rule;
+        }
+
+        /**
+         * Checks every file of the directory: rule types and refs.
+         */
+        void checkAll() {
+            List<Path> paths;
+            try (var stream = Files.walk(dir)) {
+                paths = stream.filter(e -> e.toString().endsWith(".xml")).sorted().toList();
+            } catch (IOException | UncheckedIOException e) {
+                throw new InvalidValidatorException("Failed to list the validator files of " + dir + ": " + e.getMessage());
+            }
+
+            for (var path : paths) {
+                var relative = dir.relativize(path).toString().replace('\\', '/');
+                var namespace = relative.substring(0, relative.length() - ".xml".length());
+                var compiling = new LinkedHashSet<String>();
+                compiling.add(namespace);
+                check(namespace, get(namespace), compiling);
+            }
+        }
+
+        private void check(String namespace, ValidatorXml config, SequencedSet<String> compiling) {
+            if (config.ref() != null) {
+                if (!compiling.add(config.ref())) {
+                    throw new InvalidValidatorException("Cyclic validationConfig ref: "
+                            + String.join(" -> ", compiling) + " -> " + config.ref());
+                }
+                check(config.ref(), get(config.ref()), compiling);
+                compiling.remove(config.ref());
+                return;
+            }
+
+            var unknownRules = new ArrayList<String>();
+            for (var field : config.fields()) {
+                for (var condition : field.conditions()) {
+                    for (var rule : condition.rules()) {
+                        if (!rules.containsKey(rule.type())) {
+                            unknownRules.add(rule.type());
+                        }
+                    }
+                }
+                if (field.nested() != null) {
+                    check(namespace, field.nested(), compiling);
+                }
+            }
+            if (!unknownRules.isEmpty()) {
+                throw new InvalidValidatorException("Unknown rule type(s) " + unknownRules + " in validator " + namespace);
+            }
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package ca.bigmwaj.emapp.codegen;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the Java validator of a namespace and its DTO type.
+ *
+ * <p>The generated class does what {@code SpringDtoValidator} does with the validation plan of the
+ * namespace, in straight-line code: a method per field reads the field with its getter, tests the
+ * conditions and calls the rule beans, injected by class; a method per nested configuration and
+ * DTO type validates the nested DTOs. Conditions over the operation variables, {@code true},
+ * {@code false} and the boolean properties of the DTO, joined by {@code and}, {@code or} and
+ * {@code not}, are written as Java expressions; other conditions are compiled by the
+ * {@code ConditionEvaluator} when the validator is created.
+ */
+final class ValidatorSourceWriter {
+
+    /**
+     * The operations of the operation variables, as declared by {@code ConditionEvaluator}.
+     */
+    private static final Map<String, String> OPERATION_VARIABLES = Map.of(
+            "create", "CREATE",
+            "update", "UPDATE",
+            "delete", "DELETE",
+            "changeStatus", "CHANGE_STATUS",
+            "createOrUpdate", "CREATE | UPDATE",
+            "updateOrChangeStatus", "UPDATE | CHANGE_STATUS",
+            "createUpdateOrChangeStatus", "CREATE | UPDATE | CHANGE_STATUS",
+            "createOrChangeStatus", "CREATE | CHANGE_STATUS");
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*(#?[A-Za-z_][A-Za-z0-9_]*|&&|\\|\\||!|\\(|\\))");
+
+    private final ProcessingEnvironment env;
+
+    private final ValidatorProcessor.Validators validators;
+
+    private final String namespace;
+
+    private final TypeElement dtoType;
+
+    private final StringBuilder methods = new StringBuilder();
+
+    private final Set<String> methodNames = new HashSet<>();
+
+    /**
+     * The method of each namespace and DTO type already written.
+     */
+    private final Map<String, String> planMethods = new HashMap<>();
+
+    private final Map<TypeElement, String> ruleFields = new LinkedHashMap<>();
+
+    private final Map<Map<String, String>, String> parameters = new LinkedHashMap<>();
+
+    /**
+     * The conditions left to the {@code ConditionEvaluator}, by expression.
+     */
+    private final Map<String, String> conditions = new LinkedHashMap<>();
+
+    private int planCount;
+
+    ValidatorSourceWriter(ProcessingEnvironment env, ValidatorProcessor.Validators validators, String namespace, TypeElement dtoType) {
+        this.env = env;
+        this.validators = validators;
+        this.namespace = namespace;
+        this.dtoType = dtoType;
+    }
+
+    /**
+     * @param origin the element the generated class originates from
+     */
+    void write(Element origin) {
+        var className = className(namespace);
+        var dto = typeName(dtoType);
+
+        var rootFields = fieldMethods(validators.get(namespace), dtoType, planCount++);
+
+        var source = new StringBuilder();
+        source.append("package ").append(ValidatorProcessor.GENERATED_PACKAGE).append(";\n\n");
+        source.append("""
+                import ca.bigmwaj.emapp.as.validator.shared.GeneratedDtoValidator;
+                import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
+                import ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator;
+                import jakarta.validation.ConstraintValidatorContext;
+                import org.springframework.beans.factory.annotation.Autowired;
+                import org.springframework.stereotype.Component;
+
+                import javax.annotation.processing.Generated;
+                import java.util.Map;
+
+                """);
+        source.append("/**\n * Validator of the namespace ").append(namespace).append(", generated from validator/")
+                .append(namespace).append(".xml.\n */\n");
+        source.append("@Generated(\"").append(ValidatorProcessor.class.getName()).append("\")\n");
+        source.append("@Component\n");
+        source.append("public final class ").append(className).append(" implements GeneratedDtoValidator {\n\n");
+
+        source.append("    private static final int CREATE = ConditionEvaluator.operation(ValidDto.CREATE);\n\n");
+        source.append("    private static final int UPDATE = ConditionEvaluator.operation(ValidDto.UPDATE);\n\n");
+        source.append("    private static final int DELETE = ConditionEvaluator.operation(ValidDto.DELETE);\n\n");
+        source.append("    private static final int CHANGE_STATUS = ConditionEvaluator.operation(ValidDto.CHANGE_STATUS);\n\n");
+        parameters.forEach((values, name) -> source.append("    private static final Map<String, String> ")
+                .append(name).append(" = ").append(mapLiteral(values)).append(";\n\n"));
+        ruleFields.forEach((rule, name) -> source.append("    private final ").append(typeName(rule)).append(' ')
+                .append(name).append(";\n\n"));
+        conditions.forEach((expression, name) -> source.append("    private final ConditionEvaluator.Condition ")
+                .append(name).append(";\n\n"));
+
+        var constructorParameters = new ArrayList<String>();
+        ruleFields.forEach((rule, name) -> constructorParameters.add(typeName(rule) + " " + name));
+        if (!conditions.isEmpty()) {
+            constructorParameters.add("ConditionEvaluator conditionEvaluator");
+        }
+        source.append("    @Autowired\n");
+        source.append("    public ").append(className).append('(').append(String.join(", ", constructorParameters)).append(") {\n");
+        ruleFields.values().forEach(name -> source.append("        this.").append(name).append(" = ").append(name).append(";\n"));
+        conditions.forEach((expression, name) -> source.append("        this.").append(name)
+                .append(" = conditionEvaluator.compile(").append(literal(expression)).append(");\n"));
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public String getNamespace() {\n");
+        source.append("        return ").append(literal(namespace)).append(";\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public Class<?> getDtoType() {\n");
+        source.append("        return ").append(dto).append(".class;\n");
+        source.append("    }\n\n");
+
+        source.append("    @Override\n");
+        source.append("    public boolean isValid(Object object, int operation, ConstraintValidatorContext context) {\n");
+        source.append("        var dto = (").append(dto).append(") object;\n");
+        source.append("        boolean valid = true;\n");
+        rootFields.forEach(method -> source.append("        valid &= ").append(method).append("(dto, operation, context);\n"));
+        source.append("        return valid;\n");
+        source.append("    }\n");
+
+        source.append(methods);
+        source.append("}\n");
+
+        var qualifiedName = ValidatorProcessor.GENERATED_PACKAGE + "." + className;
+        try (var writer = env.getFiler().createSourceFile(qualifiedName, origin).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            throw new InvalidValidatorException("Failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param refNamespace the namespace of the configuration, null for an inline configuration
+     * @return the method validating the dto with the configuration, all fields being valid
+     */
+    private String planMethod(String refNamespace, ValidatorXml config, TypeElement type) {
+        var key = refNamespace == null ? null : refNamespace + "@" + type.getQualifiedName();
+        if (key != null && planMethods.containsKey(key)) {
+            return planMethods.get(key);
+        }
+
+        var plan = planCount++;
+        var name = methodName("validate" + plan);
+        if (key != null) {
+            planMethods.put(key, name);
+        }
+
+        var fields = fieldMethods(config, type, plan);
+        var method = new StringBuilder();
+        method.append("\n");
+        if (refNamespace != null) {
+            method.append("    // ").append(refNamespace).append('\n');
+        }
+        method.append("    private boolean ").append(name).append('(').append(typeName(type))
+                .append(" dto, int operation, ConstraintValidatorContext context) {\n");
+        if (fields.isEmpty()) {
+            method.append("        return true;\n");
+        } else {
+            method.append("        return ").append(String.join("\n                && ",
+                    fields.stream().map(e -> e + "(dto, operation, context)").toList())).append(";\n");
+        }
+        method.append("    }\n");
+        methods.append(method);
+        return name;
+    }
+
+    /**
+     * @return the methods validating the fields of the configuration, in order
+     */
+    private List<String> fieldMethods(ValidatorXml config, TypeElement type, int plan) {
+        var fields = new ArrayList<String>();
+        for (var field : config.fields()) {
+            if (field.conditions().isEmpty() && field.nested() == null) {
+                continue;
+            }
+            fields.add(fieldMethod(field, type, plan));
+        }
+        return fields;
+    }
+
+    private String fieldMethod(ValidatorXml.Field field, TypeElement type, int plan) {
+        var getter = getter(type, field.name());
+        if (getter == null) {
+            throw new InvalidValidatorException("No getter for field " + field.name() + " of " + type.getQualifiedName());
+        }
+
+        var name = methodName("validate" + plan + capitalize(field.name()));
+        var body = new StringBuilder();
+        body.append("        boolean valid = true;\n");
+        body.append("        var value = dto.").append(getter.method()).append("();\n");
+
+        for (var condition : field.conditions()) {
+            var test = condition(condition.expression(), type);
+            if ("false".equals(test)) {
+                continue;
+            }
+
+            var calls = new ArrayList<String>();
+            for (var rule : condition.rules()) {
+                calls.add(ruleField(validators.getRule(rule.type())) + ".validate(context, dto, " + literal(field.name())
+                        + ", value, " + parameters(rule.parameters()) + ")");
+            }
+            var rules = calls.isEmpty() ? "true" : String.join("\n                    && ", calls);
+            if ("true".equals(test)) {
+                body.append("        valid = ").append(rules).append(";\n");
+            } else {
+                body.append("        if (").append(test).append(") {\n");
+                body.append("            valid = ").append(rules).append(";\n");
+                body.append("        }\n");
+            }
+        }
+
+        if (field.nested() != null) {
+            var config = field.nested();
+            var refNamespace = config.ref();
+            if (refNamespace != null) {
+                config = validators.get(refNamespace);
+            }
+
+            var elementType = elementType(getter.type());
+            body.append("        if (valid && value != null) {\n");
+            if (elementType != null) {
+                var nested = planMethod(refNamespace, config, elementType);
+                body.append("            for (var item : value) {\n");
+                body.append("                valid = ").append(nested).append("(item, operation, context);\n");
+                body.append("                if (!valid) {\n");
+                body.append("                    break;\n");
+                body.append("                }\n");
+                body.append("            }\n");
+            } else if (getter.type() instanceof DeclaredType declared) {
+                var nested = planMethod(refNamespace, config, (TypeElement) declared.asElement());
+                body.append("            valid = ").append(nested).append("(value, operation, context);\n");
+            } else {
+                throw new InvalidValidatorException("Field " + field.name() + " of " + type.getQualifiedName() + " is not a dto");
+            }
+            body.append("        }\n");
+        }
+        body.append("        return valid;\n");
+
+        methods.append("\n    private boolean ").append(name).append('(').append(typeName(type))
+                .append(" dto, int operation, ConstraintValidatorContext context) {\n")
+                .append(body)
+                .append("    }\n");
+        return name;
+    }
+
+    /**
+     * @return the Java expression of the condition, or the test of its compiled condition
+     */
+    private String condition(String expression, TypeElement type) {
+        if (expression == null || expression.isBlank()) {
+            return "false";
+        }
+        var java = new ConditionTranslator(expression, type).translate();
+        if (java != null) {
+            return java;
+        }
+        var name = conditions.computeIfAbsent(expression, e -> "condition" + conditions.size());
+        return name + ".test(operation, dto)";
+    }
+
+    private String ruleField(TypeElement rule) {
+        return ruleFields.computeIfAbsent(rule, e -> {
+            var name = decapitalize(e.getSimpleName().toString());
+            return ruleFields.containsValue(name) ? name + ruleFields.size() : name;
+        });
+    }
+
+    private String parameters(Map<String, String> values) {
+        return parameters.computeIfAbsent(values, e -> "PARAMETERS_" + parameters.size());
+    }
+
+    private String methodName(String name) {
+        var unique = name;
+        for (int i = 2; !methodNames.add(unique); i++) {
+            unique = name + "_" + i;
+        }
+        return unique;
+    }
+
+    /**
+     * @return the getter of the property, or null; a field without getter is assumed to get one from Lombok
+     */
+    private Getter getter(TypeElement type, String property) {
+        var capitalized = capitalize(property);
+        var members = env.getElementUtils().getAllMembers(type);
+        for (var method : ElementFilter.methodsIn(members)) {
+            var name = method.getSimpleName().toString();
+            if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getParameters().isEmpty()
+                    && (name.equals("get" + capitalized)
+                    || name.equals("is" + capitalized) && method.getReturnType().getKind() == TypeKind.BOOLEAN)) {
+                return new Getter(name, memberType(type, method));
+            }
+        }
+        for (var field : ElementFilter.fieldsIn(members)) {
+            if (field.getSimpleName().contentEquals(property) && !field.getModifiers().contains(Modifier.STATIC)) {
+                var prefix = field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get";
+                return new Getter(prefix + capitalized, memberType(type, field));
+            }
+        }
+        return null;
+    }
+
+    private TypeMirror memberType(TypeElement type, Element member) {
+        var memberType = env.getTypeUtils().asMemberOf((DeclaredType) type.asType(), member);
+        return memberType instanceof ExecutableType executable ? executable.getReturnType() : memberType;
+    }
+
+    /**
+     * @return the type of the elements of an iterable type, or null when the type is not iterable
+     */
+    private TypeElement elementType(TypeMirror type) {
+        var types = env.getTypeUtils();
+        var iterable = env.getElementUtils().getTypeElement(Iterable.class.getName());
+        if (!(type instanceof DeclaredType declared)
+                || !types.isAssignable(types.erasure(type), types.erasure(iterable.asType()))) {
+            return null;
+        }
+        if (declared.getTypeArguments().size() != 1) {
+            throw new InvalidValidatorException("Cannot resolve the element type of " + type);
+        }
+        var argument = declared.getTypeArguments().getFirst();
+        if (argument instanceof WildcardType wildcard) {
+            argument = wildcard.getExtendsBound();
+        }
+        if (!(argument instanceof DeclaredType element)) {
+            throw new InvalidValidatorException("Cannot resolve the element type of " + type);
+        }
+        return (TypeElement) element.asElement();
+    }
+
+    private String typeName(TypeElement type) {
+        return env.getTypeUtils().erasure(type.asType()).toString();
+    }
+
+    private static String className(String namespace) {
+        var name = new StringBuilder();
+        for (var part : namespace.split("[/\\-_.]")) {
+            name.append(capitalize(part));
+        }
+        return name.append("Validator").toString();
+    }
+
+    private static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String decapitalize(String name) {
+        return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String mapLiteral(Map<String, String> values) {
+        if (values.isEmpty()) {
+            return "Map.of()";
+        }
+        var entries = values.entrySet()
+                .stream()
+                .map(e -> "Map.entry(" + literal(e.getKey()) + ", " + literal(e.getValue()) + ")")
+                .toList();
+        return "Map.ofEntries(" + String.join(", ", entries) + ")";
+    }
+
+    private static String literal(String value) {
+        var literal = new StringBuilder("\"");
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * @param method the name of the getter
+     * @param type   the type of the property, as a member of the DTO type
+     */
+    private record Getter(String method, TypeMirror type) {
+    }
+
+    /**
+     * Translates a condition expression to Java, or gives up (null) on anything else than the
+     * operation variables, {@code true}, {@code false} and the boolean properties of the DTO,
+     * joined by {@code and}/{@code &&}, {@code or}/{@code ||}, {@code not}/{@code !} and parentheses.
+     */
+    private final class ConditionTranslator {
+
+        private final List<String> tokens = new ArrayList<>();
+
+        private final TypeElement type;
+
+        private int position;
+
+        ConditionTranslator(String expression, TypeElement type) {
+            this.type = type;
+            var matcher = TOKEN.matcher(expression);
+            var end = 0;
+            while (matcher.find() && matcher.start() == end) {
+                tokens.add(matcher.group(1));
+                end = matcher.end();
+            }
+            if (!expression.substring(end).isBlank()) {
+                tokens.clear();
+            }
+        }
+
+        String translate() {
+            if (tokens.isEmpty()) {
+                return null;
+            }
+            var java = or();
+            return java == null || position != tokens.size() ? null : java;
+        }
+
+        private String or() {
+            var java = and();
+            while (java != null && (accept("or") || accept("||"))) {
+                var right = and();
+                java = right == null ? null : "(" + java + " || " + right + ")";
+            }
+            return java;
+        }
+
+        private String and() {
+            var java = not();
+            while (java != null && (accept("and") || accept("&&"))) {
+                var right = not();
+                java = right == null ? null : "(" + java + " && " + right + ")";
+            }
+            return java;
+        }
+
+        private String not() {
+            if (accept("not") || accept("!")) {
+                var java = not();
+                return java == null ? null : "!" + java;
+            }
+            return primary();
+        }
+
+        private String primary() {
+            if (position == tokens.size()) {
+                return null;
+            }
+            if (accept("(")) {
+                var java = or();
+                return java != null && accept(")") ? java : null;
+            }
+
+            var token = tokens.get(position++);
+            if (token.equalsIgnoreCase("true") || token.equalsIgnoreCase("false")) {
+                return token.toLowerCase();
+            }
+            if (token.startsWith("#")) {
+                var operations = OPERATION_VARIABLES.get(token.substring(1));
+                return operations == null ? null : "((operation & (" + operations + ")) != 0)";
+            }
+            if (token.equals("(") || token.equals(")") || isOperator(token)) {
+                return null;
+            }
+            var getter = getter(type, token);
+            return getter != null && getter.type().getKind() == TypeKind.BOOLEAN ? "dto." + getter.method() + "()" : null;
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isOperator(String token) {
+            return List.of("and", "or", "not", "&&", "||", "!").contains(token.toLowerCase());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ca.bigmwaj.emapp.codegen;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@code <validation>} file or an inline {@code <validationConfig>}, read as the
+ * {@code ValidationXmlParser} of em-app-as reads it.
+ *
+ * @param ref    the namespace of a {@code <validationConfig ref="...">}, null otherwise
+ * @param fields the fields, in XML order
+ */
+record ValidatorXml(String ref, List<Field> fields) {
+
+    /**
+     * @param type   field, dto or dtoList
+     * @param nested the configuration of the dto or of the dtos of the list, null for a plain field
+     */
+    record Field(String name, String type, List<Condition> conditions, ValidatorXml nested) {
+    }
+
+    record Condition(String expression, List<Rule> rules) {
+    }
+
+    /**
+     * @param parameters the attributes other than type, sorted by name
+     */
+    record Rule(String type, Map<String, String> parameters) {
+    }
+
+    /**
+     * @throws InvalidValidatorException if the file cannot be read or is not a validator
+     */
+    static ValidatorXml parse(Path file) {
+        Element root;
+        try {
+            var factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setXIncludeAware(false);
+            factory.setExpandEntityReferences(false);
+            root = factory.newDocumentBuilder().parse(file.toFile()).getDocumentElement();
+            root.normalize();
+        } catch (Exception e) {
+            throw new InvalidValidatorException("Failed to parse validation XML " + file + ": " + e.getMessage());
+        }
+
+        if (!"validation".equals(root.getNodeName())) {
+            throw new InvalidValidatorException("Root element must be 'validation' in " + file);
+        }
+        return parseConfig(root);
+    }
+
+    private static ValidatorXml parseConfig(Element element) {
+        var ref = element.getAttribute("ref");
+        if (!ref.isEmpty()) {
+            return new ValidatorXml(ref, List.of());
+        }
+
+        var fields = new ArrayList<Field>();
+        for (var field : children(element, "field")) {
+            fields.add(parseField(field));
+        }
+        return new ValidatorXml(null, fields);
+    }
+
+    private static Field parseField(Element element) {
+        var name = element.getAttribute("name");
+        var type = element.getAttribute("type").isEmpty() ? "field" : element.getAttribute("type");
+        if (!List.of("field", "dto", "dtoList").contains(type)) {
+            throw new InvalidValidatorException("Invalid field type: " + type);
+        }
+
+        ValidatorXml nested = null;
+        if (!"field".equals(type)) {
+            var configs = children(element, "validationConfig");
+            if (!configs.isEmpty()) {
+                nested = parseConfig(configs.getFirst());
+            }
+        }
+
+        var conditions = new ArrayList<Condition>();
+        for (var condition : children(element, "condition")) {
+            var rules = new ArrayList<Rule>();
+            for (var rule : children(condition, "rule")) {
+                var parameters = new TreeMap<String, String>();
+                for (int i = 0; i < rule.getAttributes().getLength(); i++) {
+                    var attribute = rule.getAttributes().item(i);
+                    if (!"type".equals(attribute.getNodeName())) {
+                        parameters.put(attribute.getNodeName(), attribute.getNodeValue());
+                    }
+                }
+                rules.add(new Rule(rule.getAttribute("type"), parameters));
+            }
+            conditions.add(new Condition(condition.getAttribute("expression"), rules));
+        }
+        return new Field(name, type, conditions, nested);
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        var children = new ArrayList<Element>();
+        for (var node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getNodeName())) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+}
@@ -0,0 +1,370 @@
+package ca.bigmwaj.emapp.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compiles a DTO and a {@code @ValidDto} usage with the processor, against stubs of the App Server
+ * types the generated code uses, then runs the generated validator.
+ */
+class ValidatorProcessorTest {
+
+    private static final List<JavaFileObject> STUBS = List.of(
+            source("org.springframework.stereotype.Component", """
+                    package org.springframework.stereotype;
+                    public @interface Component {
+                        String value() default "";
+                    }
+                    """),
+            source("org.springframework.beans.factory.annotation.Autowired", """
+                    package org.springframework.beans.factory.annotation;
+                    public @interface Autowired {
+                    }
+                    """),
+            source("jakarta.validation.ConstraintValidatorContext", """
+                    package jakarta.validation;
+                    public interface ConstraintValidatorContext {
+                    }
+                    """),
+            source("ca.bigmwaj.emapp.as.validator.shared.ValidDto", """
+                    package ca.bigmwaj.emapp.as.validator.shared;
+                    public @interface ValidDto {
+                        String CREATE = "create";
+                        String UPDATE = "update";
+                        String DELETE = "delete";
+                        String CHANGE_STATUS = "change-status";
+                        String operation();
+                        String value();
+                    }
+                    """),
+            source("ca.bigmwaj.emapp.as.validator.shared.GeneratedDtoValidator", """
+                    package ca.bigmwaj.emapp.as.validator.shared;
+                    import jakarta.validation.ConstraintValidatorContext;
+                    public interface GeneratedDtoValidator {
+                        String getNamespace();
+                        Class<?> getDtoType();
+                        boolean isValid(Object dto, int operation, ConstraintValidatorContext context);
+                    }
+                    """),
+            // The conditions left to the evaluator are recorded, and never hold
+            source("ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator", """
+                    package ca.bigmwaj.emapp.as.validator.xml;
+                    import java.util.ArrayList;
+                    import java.util.List;
+                    public class ConditionEvaluator {
+                        public static final List<String> COMPILED = new ArrayList<>();
+                        public static int operation(String operation) {
+                            return switch (operation) {
+                                case "create" -> 1;
+                                case "update" -> 2;
+                                case "delete" -> 4;
+                                case "change-status" -> 8;
+                                default -> 16;
+                            };
+                        }
+                        public Condition compile(String expression) {
+                            COMPILED.add(expression);
+                            return new Condition();
+                        }
+                        public class Condition {
+                            public boolean test(int operation, Object dto) {
+                                return false;
+                            }
+                        }
+                    }
+                    """),
+            // The rule calls are recorded as rule:field=value{parameters}
+            source("ca.bigmwaj.emapp.as.validator.rule.common.AbstractRule", """
+                    package ca.bigmwaj.emapp.as.validator.rule.common;
+                    import jakarta.validation.ConstraintValidatorContext;
+                    import java.util.ArrayList;
+                    import java.util.List;
+                    import java.util.Map;
+                    public abstract class AbstractRule {
+                        public static final List<String> CALLS = new ArrayList<>();
+                        public abstract boolean isValid(Object value, Map<String, String> parameters);
+                        public boolean validate(ConstraintValidatorContext context, Object dto, String fieldName, Object value, Map<String, String> parameters) {
+                            CALLS.add(getClass().getSimpleName() + ":" + fieldName + "=" + value + parameters);
+                            return isValid(value, parameters);
+                        }
+                    }
+                    """),
+            source("ca.bigmwaj.emapp.as.validator.rule.common.NonNullRule", """
+                    package ca.bigmwaj.emapp.as.validator.rule.common;
+                    import org.springframework.stereotype.Component;
+                    import java.util.Map;
+                    @Component("NonNullRule")
+                    public class NonNullRule extends AbstractRule {
+                        public boolean isValid(Object value, Map<String, String> parameters) {
+                            return value != null;
+                        }
+                    }
+                    """),
+            source("ca.bigmwaj.emapp.as.validator.rule.common.MaxLengthRule", """
+                    package ca.bigmwaj.emapp.as.validator.rule.common;
+                    import org.springframework.stereotype.Component;
+                    import java.util.Map;
+                    @Component("MaxLengthRule")
+                    public class MaxLengthRule extends AbstractRule {
+                        public boolean isValid(Object value, Map<String, String> parameters) {
+                            return value == null || value.toString().length() <= Integer.parseInt(parameters.get("maxLength"));
+                        }
+                    }
+                    """),
+            source("test.dto.ItemDto", """
+                    package test.dto;
+                    public class ItemDto {
+                        private String code;
+                        public ItemDto(String code) {
+                            this.code = code;
+                        }
+                        public String getCode() {
+                            return code;
+                        }
+                    }
+                    """),
+            source("test.dto.OrderDto", """
+                    package test.dto;
+                    import java.util.List;
+                    public class OrderDto {
+                        private Long id;
+                        private String name;
+                        private boolean archived;
+                        private ItemDto item;
+                        private List<ItemDto> items;
+                        public OrderDto(Long id, String name, boolean archived, ItemDto item, List<ItemDto> items) {
+                            this.id = id;
+                            this.name = name;
+                            this.archived = archived;
+                            this.item = item;
+                            this.items = items;
+                        }
+                        public Long getId() {
+                            return id;
+                        }
+                        public String getName() {
+                            return name;
+                        }
+                        public boolean isArchived() {
+                            return archived;
+                        }
+                        public ItemDto getItem() {
+                            return item;
+                        }
+                        public List<ItemDto> getItems() {
+                            return items;
+                        }
+                    }
+                    """),
+            source("test.api.OrderController", """
+                    package test.api;
+                    import ca.bigmwaj.emapp.as.validator.shared.ValidDto;
+                    import test.dto.OrderDto;
+                    public class OrderController {
+                        public void create(@ValidDto(value = "test/order", operation = ValidDto.CREATE) OrderDto dto) {
+                        }
+                    }
+                    """));
+
+    private static final String ORDER_XML = """
+            <validation>
+                <field name="id">
+                    <condition expression="#update or #delete">
+                        <rule type="NonNullRule"/>
+                    </condition>
+                </field>
+                <field name="name">
+                    <condition expression="#createOrUpdate and not archived">
+                        <rule type="NonNullRule"/>
+                        <rule type="MaxLengthRule" maxLength="5"/>
+                    </condition>
+                    <condition expression="name.length() > 2">
+                        <rule type="MaxLengthRule" maxLength="1"/>
+                    </condition>
+                </field>
+                <field name="archived">
+                    <condition expression="not #create">
+                        <rule type="NonNullRule"/>
+                    </condition>
+                </field>
+                <field name="item" type="dto">
+                    <validationConfig ref="test/item"/>
+                </field>
+                <field name="items" type="dtoList">
+                    <validationConfig ref="test/item"/>
+                </field>
+            </validation>
+            """;
+
+    private static final String ITEM_XML = """
+            <validation>
+                <field name="code">
+                    <condition expression="true">
+                        <rule type="NonNullRule"/>
+                    </condition>
+                </field>
+            </validation>
+            """;
+
+    @TempDir
+    private Path dir;
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /**
+     * Writes the validator files, then compiles the stubs with the processor.
+     *
+     * @return the errors of the compilation
+     */
+    private List<String> compile(Map<String, String> validators) throws Exception {
+        var validatorDir = Files.createDirectories(dir.resolve("validator"));
+        for (var validator : validators.entrySet()) {
+            var file = validatorDir.resolve(validator.getKey() + ".xml");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, validator.getValue());
+        }
+
+        var classes = Files.createDirectories(dir.resolve("classes"));
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var options = List.of("-d", classes.toString(), "-s", classes.toString(),
+                "-A" + ValidatorProcessor.DIR_OPTION + "=" + validatorDir,
+                "-A" + ValidatorProcessor.RULE_PACKAGES_OPTION + "=ca.bigmwaj.emapp.as.validator.rule.common");
+        var task = ToolProvider.getSystemJavaCompiler().getTask(null, null, diagnostics, options, null, STUBS);
+        task.setProcessors(List.of(new ValidatorProcessor()));
+        task.call();
+
+        var errors = new ArrayList<String>();
+        diagnostics.getDiagnostics().stream()
+                .filter(e -> e.getKind() == Diagnostic.Kind.ERROR)
+                .forEach(e -> errors.add(e.getMessage(null)));
+        return errors;
+    }
+
+    /**
+     * Runs the generated validator of test/order.
+     *
+     * @param operation the operation bit of the stub evaluator
+     * @param calls     completed with the rule calls
+     */
+    private boolean validate(ClassLoader loader, int operation, Object dto, List<String> calls) throws Exception {
+        var validatorClass = loader.loadClass(ValidatorProcessor.GENERATED_PACKAGE + ".TestOrderValidator");
+        var constructor = validatorClass.getConstructors()[0];
+        var arguments = new ArrayList<>();
+        for (var parameterType : constructor.getParameterTypes()) {
+            arguments.add(parameterType.getConstructor().newInstance());
+        }
+        var validator = constructor.newInstance(arguments.toArray());
+
+        @SuppressWarnings("unchecked")
+        var recorded = (List<String>) loader.loadClass(ValidatorProcessor.ABSTRACT_RULE).getField("CALLS").get(null);
+        recorded.clear();
+        var valid = (boolean) validatorClass.getMethod("isValid", Object.class, int.class, loader.loadClass("jakarta.validation.ConstraintValidatorContext"))
+                .invoke(validator, dto, operation, null);
+        calls.addAll(recorded);
+        return valid;
+    }
+
+    private static Object order(ClassLoader loader, Long id, String name, boolean archived, String itemCode, String... itemCodes) throws Exception {
+        var itemClass = loader.loadClass("test.dto.ItemDto");
+        var items = new ArrayList<>();
+        for (var code : itemCodes) {
+            items.add(itemClass.getConstructor(String.class).newInstance(code));
+        }
+        return loader.loadClass("test.dto.OrderDto")
+                .getConstructor(Long.class, String.class, boolean.class, itemClass, List.class)
+                .newInstance(id, name, archived, itemClass.getConstructor(String.class).newInstance(itemCode), items);
+    }
+
+    @Test
+    void givenValidators_whenCompile_thenGeneratedValidatorTestsOperationsAndBooleanProperties() throws Exception {
+        assertEquals(List.of(), compile(Map.of("test/order", ORDER_XML, "test/item", ITEM_XML)));
+
+        try (var loader = new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()}, getClass().getClassLoader())) {
+            var validatorClass = loader.loadClass(ValidatorProcessor.GENERATED_PACKAGE + ".TestOrderValidator");
+            var validator = validatorClass.getConstructors()[0];
+            assertEquals(List.of(loader.loadClass("ca.bigmwaj.emapp.as.validator.rule.common.NonNullRule"),
+                    loader.loadClass("ca.bigmwaj.emapp.as.validator.rule.common.MaxLengthRule"),
+                    loader.loadClass("ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator")), List.of(validator.getParameterTypes()));
+
+            // create: #update or #delete and not #create are false, not archived is true
+            var calls = new ArrayList<String>();
+            assertTrue(validate(loader, 1, order(loader, null, "ab", false, "i"), calls));
+            assertEquals(List.of("NonNullRule:name=ab{}", "MaxLengthRule:name=ab{maxLength=5}", "NonNullRule:code=i{}"), calls);
+
+            // update of an archived order: the name is not checked, the archived flag is
+            calls.clear();
+            assertFalse(validate(loader, 2, order(loader, null, "ab", true, "i"), calls));
+            assertEquals(List.of("NonNullRule:id=null{}", "NonNullRule:archived=true{}", "NonNullRule:code=i{}"), calls);
+
+            // The condition that cannot be translated is left to the evaluator, once per validator instance
+            var compiled = (List<?>) loader.loadClass("ca.bigmwaj.emapp.as.validator.xml.ConditionEvaluator").getField("COMPILED").get(null);
+            assertEquals(Set.of("name.length() > 2"), Set.copyOf(compiled));
+        }
+    }
+
+    @Test
+    void givenDtoList_whenValidate_thenItemsAreValidatedUntilOneFails() throws Exception {
+        assertEquals(List.of(), compile(Map.of("test/order", ORDER_XML, "test/item", ITEM_XML)));
+
+        try (var loader = new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()}, getClass().getClassLoader())) {
+            var calls = new ArrayList<String>();
+            assertFalse(validate(loader, 4, order(loader, 1L, "ab", false, null, "a", null, "c"), calls));
+            assertEquals(List.of("NonNullRule:id=1{}", "NonNullRule:archived=false{}", "NonNullRule:code=null{}",
+                    "NonNullRule:code=a{}", "NonNullRule:code=null{}"), calls);
+        }
+    }
+
+    @Test
+    void givenUnknownRuleType_whenCompile_thenCompilationFails() throws Exception {
+        var errors = compile(Map.of("test/order", ORDER_XML.replace("MaxLengthRule", "LengthRule"), "test/item", ITEM_XML));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.getFirst().contains("Unknown rule type(s) [LengthRule, LengthRule] in validator test/order"), errors.getFirst());
+    }
+
+    @Test
+    void givenMissingRef_whenCompile_thenCompilationFails() throws Exception {
+        var errors = compile(Map.of("test/order", ORDER_XML));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.getFirst().contains("Validation configuration file not found for namespace: test/item"), errors.getFirst());
+    }
+
+    @Test
+    void givenCyclicRef_whenCompile_thenCompilationFails() throws Exception {
+        var cyclicItem = ITEM_XML.replace("</validation>", """
+                    <field name="order" type="dto">
+                        <validationConfig ref="test/order"/>
+                    </field>
+                </validation>
+                """);
+        var errors = compile(Map.of("test/order", ORDER_XML, "test/item", cyclicItem));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.getFirst().contains("Cyclic validationConfig ref: test/item -> test/order -> test/item"), errors.getFirst());
+    }
+}